@@ -0,0 +1,83 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.engine.BitMapStateManager;
+import com.qiao.flow.orchestrator.core.dag.engine.DagNodeIndex;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BitMapStateManager基准：一次执行内对每个节点的标记和检查，以及引擎复用时的reset
+ * 对比按下标访问（引擎执行路径）和按节点ID访问（监控、结果组装路径）
+ *
+ * @author qiao
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class BitMapStateManagerBenchmark {
+
+    @Param({"16", "64", "256"})
+    public int size;
+
+    private DagNodeIndex nodeIndex;
+    private String[] nodeIds;
+    private BitMapStateManager stateManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        nodeIndex = DagTopologies.diamond(size, NodeType.INLINE, null).getNodeIndex();
+        nodeIds = new String[nodeIndex.size()];
+        for (int i = 0; i < nodeIds.length; i++) {
+            nodeIds[i] = nodeIndex.getNodeId(i);
+        }
+        stateManager = new BitMapStateManager(nodeIndex);
+    }
+
+    @Benchmark
+    public int markAndCheckByIndex() {
+        stateManager.reset();
+        int done = 0;
+        for (int i = 0; i < nodeIds.length; i++) {
+            if ((i & 7) == 0) {
+                stateManager.markPruned(i);
+            } else {
+                stateManager.markCompleted(i);
+            }
+        }
+        for (int i = 0; i < nodeIds.length; i++) {
+            if (stateManager.isDone(i)) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    @Benchmark
+    public int markAndCheckById() {
+        stateManager.reset();
+        int done = 0;
+        for (int i = 0; i < nodeIds.length; i++) {
+            if ((i & 7) == 0) {
+                stateManager.markPruned(nodeIds[i]);
+            } else {
+                stateManager.markCompleted(nodeIds[i]);
+            }
+        }
+        for (String nodeId : nodeIds) {
+            if (stateManager.isCompleted(nodeId) || stateManager.isPruned(nodeId)) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    @Benchmark
+    public BitMapStateManager create() {
+        return new BitMapStateManager(nodeIndex);
+    }
+}
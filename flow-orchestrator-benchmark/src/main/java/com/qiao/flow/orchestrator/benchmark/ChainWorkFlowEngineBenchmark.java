@@ -0,0 +1,88 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.chain.ChainWorkFlow;
+import com.qiao.flow.orchestrator.core.chain.ChainWorkFlowEngine;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChainWorkFlowEngine执行基准：普通步骤、条件分支和多路分支混合的链
+ *
+ * @author qiao
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ChainWorkFlowEngineBenchmark {
+
+    @Param({"8", "64"})
+    public int steps;
+
+    private final ChainWorkFlowEngine engine = new ChainWorkFlowEngine();
+
+    private ChainWorkFlow<Counter> steady;
+    private ChainWorkFlow<Counter> branching;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DagEventLog.setLevel(DagEventLog.CHAIN_WORKFLOW, EventLogLevel.ERROR);
+
+        steady = ChainWorkFlow.create();
+        for (int i = 0; i < steps; i++) {
+            steady.addStep("step" + i, Counter::increment);
+        }
+
+        branching = ChainWorkFlow.create();
+        for (int i = 0; i < steps; i++) {
+            switch (i % 3) {
+                case 0 -> branching.addStep("step" + i, Counter::increment);
+                case 1 -> branching.addBranch("branch" + i, counter -> (counter.value & 1) == 0,
+                        Counter::increment, Counter::decrement);
+                default -> branching.addMultiBranch("multi" + i, counter -> (counter.value & 1) == 0 ? "even" : "odd",
+                        Map.of("even", Counter::increment, "odd", Counter::decrement));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DagEventLog.setLevel(DagEventLog.CHAIN_WORKFLOW, null);
+    }
+
+    @Benchmark
+    public long steady() {
+        Counter counter = new Counter();
+        engine.execute(steady, counter, null);
+        return counter.value;
+    }
+
+    @Benchmark
+    public long branching() {
+        Counter counter = new Counter();
+        engine.execute(branching, counter, null);
+        return counter.value;
+    }
+
+    /**
+     * 链上传递的业务上下文
+     */
+    public static final class Counter {
+
+        private long value;
+
+        private void increment() {
+            value++;
+        }
+
+        private void decrement() {
+            value--;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DagEngine端到端执行基准：借用引擎和上下文、执行、归还，与DagAutoRunner的执行路径一致
+ * <p>
+ * 四种拓扑分别覆盖串行推进、一次性大量就绪、汇聚等待和分支剪枝，
+ * nodeType为INLINE时只测调度本身，CPU/IO时包含线程池切换
+ *
+ * @author qiao
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class DagEngineBenchmark {
+
+    @Param({"16", "64"})
+    public int size;
+
+    @Param({"INLINE", "CPU", "IO"})
+    public NodeType nodeType;
+
+    private ExecutorService cpuPool;
+    private ExecutorService ioPool;
+
+    private DagEngineConfig linear;
+    private DagEngineConfig fanOut;
+    private DagEngineConfig diamond;
+    private DagEngineConfig deepWithChoosers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cpuPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ioPool = Executors.newVirtualThreadPerTaskExecutor();
+        MixedThreadPoolManager threadPoolManager = new MixedThreadPoolManager(cpuPool, ioPool);
+        // 每次执行的工作流完成事件会让后台线程写日志，与被测路径无关
+        DagEventLog.setLevel(DagTopologies.WORKFLOW, EventLogLevel.ERROR);
+
+        linear = DagTopologies.linear(size, nodeType, threadPoolManager);
+        fanOut = DagTopologies.fanOut(size, nodeType, threadPoolManager);
+        diamond = DagTopologies.diamond(size, nodeType, threadPoolManager);
+        deepWithChoosers = DagTopologies.deepWithChoosers(size, nodeType, threadPoolManager);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DagEventLog.setLevel(DagTopologies.WORKFLOW, null);
+        cpuPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+
+    @Benchmark
+    public DagState linear() {
+        return execute(linear);
+    }
+
+    @Benchmark
+    public DagState fanOut() {
+        return execute(fanOut);
+    }
+
+    @Benchmark
+    public DagState diamond() {
+        return execute(diamond);
+    }
+
+    @Benchmark
+    public DagState deepWithChoosers() {
+        return execute(deepWithChoosers);
+    }
+
+    private static DagState execute(DagEngineConfig config) {
+        DagEngine<String> engine = config.borrowEngine();
+        DagContext dagContext = DagContextPool.borrow();
+        try {
+            engine.execute("input", dagContext);
+            DagState state = engine.getDagState();
+            if (state != DagState.FINISH) {
+                throw new IllegalStateException("Benchmark workflow did not finish: " + state, engine.getEx());
+            }
+            return state;
+        } finally {
+            DagContextPool.release(dagContext);
+            config.releaseEngine(engine);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.util.*;
+
+/**
+ * 基准测试使用的DAG拓扑，不依赖Spring，直接构造NodeWrapper和DagEngineConfig
+ * 节点不做任何计算，测量的是引擎本身的调度开销
+ *
+ * @author qiao
+ */
+public final class DagTopologies {
+
+    public static final String WORKFLOW = "benchmark";
+
+    private static final long TIMEOUT_MS = 10_000L;
+
+    /**
+     * 带分支选择的拓扑中，每一级被选中的分支节点类（分支选择按节点类查找节点）
+     */
+    private static final List<Class<? extends Node<?>>> STAGE_BRANCHES = List.of(
+            Stage0Branch.class, Stage1Branch.class, Stage2Branch.class, Stage3Branch.class);
+
+    public static final int MAX_CHOOSER_STAGES = STAGE_BRANCHES.size();
+
+    private static final Node<String> WORK = (param, context, nodeId) -> {
+    };
+
+    private DagTopologies() {
+    }
+
+    /**
+     * start -> node1 -> ... -> end，共size个节点
+     */
+    public static DagEngineConfig linear(int size, NodeType nodeType, MixedThreadPoolManager threadPoolManager) {
+        Builder builder = new Builder(nodeType);
+        String previous = builder.start("start");
+        for (int i = 1; i < size - 1; i++) {
+            previous = builder.node("node" + i, previous);
+        }
+        builder.end("end", previous);
+        return builder.build(threadPoolManager);
+    }
+
+    /**
+     * start -> size - 1个互不依赖的叶子节点，每个叶子都是结束节点
+     */
+    public static DagEngineConfig fanOut(int size, NodeType nodeType, MixedThreadPoolManager threadPoolManager) {
+        Builder builder = new Builder(nodeType);
+        String start = builder.start("start");
+        for (int i = 1; i < size; i++) {
+            builder.end("leaf" + i, start);
+        }
+        return builder.build(threadPoolManager);
+    }
+
+    /**
+     * start -> size - 2个并行节点 -> end
+     */
+    public static DagEngineConfig diamond(int size, NodeType nodeType, MixedThreadPoolManager threadPoolManager) {
+        Builder builder = new Builder(nodeType);
+        String start = builder.start("start");
+        String[] middle = new String[size - 2];
+        for (int i = 0; i < middle.length; i++) {
+            middle[i] = builder.node("node" + i, start);
+        }
+        builder.end("end", middle);
+        return builder.build(threadPoolManager);
+    }
+
+    /**
+     * 多级分支选择：每一级 chooser -> {selected, skipped} -> join -> 若干串行节点 -> 下一级chooser，
+     * chooser总是选中selected，skipped被剪枝，join的强依赖跳过被剪枝的节点
+     *
+     * @param size 节点总数的近似值，每级固定4个节点，其余均分为各级的串行节点，最少17个节点
+     */
+    public static DagEngineConfig deepWithChoosers(int size, NodeType nodeType, MixedThreadPoolManager threadPoolManager) {
+        initBranchNames();
+        int stages = MAX_CHOOSER_STAGES;
+        int segment = Math.max(0, size / stages - 4);
+
+        Builder builder = new Builder(nodeType);
+        String previous = null;
+        for (int stage = 0; stage < stages; stage++) {
+            Set<Class<? extends Node<?>>> selection = Set.of(STAGE_BRANCHES.get(stage));
+            IChoose<String> chooser = (input, context) -> selection;
+            String chooserId = "choose" + stage;
+            if (previous == null) {
+                builder.add(chooserId, WORK, true, false, chooser);
+            } else {
+                builder.add(chooserId, WORK, false, false, chooser, previous);
+            }
+            String selected = builder.node(branchName(stage), branchNode(stage), chooserId);
+            String skipped = builder.node("skipped" + stage, chooserId);
+            previous = builder.node("join" + stage, selected, skipped);
+            for (int i = 0; i < segment; i++) {
+                previous = builder.node("step" + stage + "_" + i, previous);
+            }
+        }
+        builder.end("end", previous);
+        return builder.build(threadPoolManager);
+    }
+
+    private static void initBranchNames() {
+        Map<Class<? extends Node>, String> names = new HashMap<>();
+        for (int stage = 0; stage < STAGE_BRANCHES.size(); stage++) {
+            names.put(STAGE_BRANCHES.get(stage), branchName(stage));
+        }
+        NodeBeanNameUtils.register(names);
+    }
+
+    private static String branchName(int stage) {
+        return "selected" + stage;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Node<String> branchNode(int stage) {
+        try {
+            return (Node<String>) STAGE_BRANCHES.get(stage).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create branch node for stage " + stage, e);
+        }
+    }
+
+    /**
+     * 按依赖顺序添加节点，最后生成配置
+     */
+    private static final class Builder {
+
+        private final NodeType nodeType;
+        private final Map<String, NodeWrapper<?, ?>> nodeMap = new LinkedHashMap<>();
+        private final Map<String, Set<String>> dependencies = new HashMap<>();
+        private String startNode;
+        private final Set<String> endNodes = new HashSet<>();
+
+        private Builder(NodeType nodeType) {
+            this.nodeType = nodeType;
+        }
+
+        private String start(String id) {
+            return add(id, WORK, true, false, null);
+        }
+
+        private String node(String id, String... dependsOn) {
+            return node(id, WORK, dependsOn);
+        }
+
+        private String node(String id, Node<String> node, String... dependsOn) {
+            return add(id, node, false, false, null, dependsOn);
+        }
+
+        private String end(String id, String... dependsOn) {
+            return add(id, WORK, false, true, null, dependsOn);
+        }
+
+        private String add(String id, Node<String> node, boolean start, boolean end, IChoose<String> chooser,
+                           String... dependsOn) {
+            Set<String> deps = new HashSet<>(Arrays.asList(dependsOn));
+            nodeMap.put(id, new NodeWrapper<>(id, id, WORKFLOW, nodeType, node, deps, new HashSet<>(),
+                    start, end, chooser));
+            if (!deps.isEmpty()) {
+                dependencies.put(id, deps);
+            }
+            if (start) {
+                startNode = id;
+            }
+            if (end) {
+                endNodes.add(id);
+            }
+            return id;
+        }
+
+        private DagEngineConfig build(MixedThreadPoolManager threadPoolManager) {
+            return new DagEngineConfig(nodeMap, dependencies, new HashMap<>(), threadPoolManager, TIMEOUT_MS,
+                    startNode, endNodes);
+        }
+    }
+
+    public static final class Stage0Branch implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+        }
+    }
+
+    public static final class Stage1Branch implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+        }
+    }
+
+    public static final class Stage2Branch implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+        }
+    }
+
+    public static final class Stage3Branch implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.pool.CollectionPool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DagContextPool、CollectionPool借用/归还基准，并以直接new作为对照，
+ * 配合-prof gc可以看出池化实际省下的分配
+ * <p>
+ * 多线程下的竞争用 -t 指定线程数运行
+ *
+ * @author qiao
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Thread)
+public class PoolBenchmark {
+
+    @Benchmark
+    public void contextBorrowRelease(Blackhole blackhole) {
+        DagContext context = DagContextPool.borrow();
+        context.putData("key", "value");
+        blackhole.consume(context);
+        DagContextPool.release(context);
+    }
+
+    @Benchmark
+    public DagContext contextNew() {
+        DagContext context = new DagContext();
+        context.putData("key", "value");
+        return context;
+    }
+
+    @Benchmark
+    public void setBorrowRelease(Blackhole blackhole) {
+        Set<String> set = CollectionPool.borrowSet();
+        set.add("node");
+        blackhole.consume(set);
+        CollectionPool.releaseSet(set);
+    }
+
+    @Benchmark
+    public Set<String> setNew() {
+        Set<String> set = new HashSet<>();
+        set.add("node");
+        return set;
+    }
+
+    @Benchmark
+    public void listBorrowRelease(Blackhole blackhole) {
+        List<String> list = CollectionPool.borrowList();
+        list.add("node");
+        blackhole.consume(list);
+        CollectionPool.releaseList(list);
+    }
+
+    @Benchmark
+    public List<String> listNew() {
+        List<String> list = new ArrayList<>();
+        list.add("node");
+        return list;
+    }
+}
@@ -0,0 +1,88 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.testing.RandomDagGenerator;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 随机生成的大规模DAG执行基准，观察调度开销随节点数、边密度和分支选择数量的变化
+ * 节点全部为INLINE且不耗时，结果只反映引擎自身的开销
+ *
+ * @author qiao
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class RandomDagBenchmark {
+
+    @Param({"100", "500", "1000"})
+    public int nodeCount;
+
+    @Param({"0.1", "0.5"})
+    public double edgeDensity;
+
+    @Param({"0", "10"})
+    public int chooserCount;
+
+    @Param({"42"})
+    public long seed;
+
+    private ExecutorService cpuPool;
+    private ExecutorService ioPool;
+    private DagEngineConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cpuPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        ioPool = Executors.newVirtualThreadPerTaskExecutor();
+        MixedThreadPoolManager threadPoolManager = new MixedThreadPoolManager(cpuPool, ioPool);
+        config = RandomDagGenerator.create()
+                .seed(seed)
+                .workflow(DagTopologies.WORKFLOW)
+                .nodeCount(nodeCount)
+                .layerWidth(20)
+                .edgeDensity(edgeDensity)
+                .chooserCount(chooserCount)
+                .inlineRatio(1.0)
+                .generate(threadPoolManager);
+        DagEventLog.setLevel(DagTopologies.WORKFLOW, EventLogLevel.ERROR);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DagEventLog.setLevel(DagTopologies.WORKFLOW, null);
+        cpuPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+
+    @Benchmark
+    public DagState execute() {
+        DagEngine<String> engine = config.borrowEngine();
+        DagContext dagContext = DagContextPool.borrow();
+        try {
+            engine.execute("input", dagContext);
+            DagState state = engine.getDagState();
+            if (state != DagState.FINISH) {
+                throw new IllegalStateException("Benchmark workflow did not finish: " + state, engine.getEx());
+            }
+            return state;
+        } finally {
+            DagContextPool.release(dagContext);
+            config.releaseEngine(engine);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.qiao.flow.orchestrator.benchmark;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.*;
+
+/**
+ * CPU线程池对比基准：有界队列ThreadPoolExecutor与工作窃取ForkJoinPool
+ * 每次调用由concurrency个请求线程同时各执行一个DAG并等待全部结束，得分乘以concurrency即为DAG/s
+ * <p>
+ * 拓扑为 start -> FAN_OUT个CPU节点 -> FAN_OUT/2个CPU汇聚节点 -> end，每个节点约数十微秒计算
+ *
+ * @author qiao
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class WorkStealingBenchmark {
+
+    private static final String WORKFLOW = "workStealingBenchmark";
+    private static final int FAN_OUT = 8;
+
+    @Param({"THREAD_POOL", "WORK_STEALING"})
+    public String cpuExecutor;
+
+    @Param({"1", "4", "16", "64"})
+    public int concurrency;
+
+    private ExecutorService cpuPool;
+    private ExecutorService ioPool;
+    private ExecutorService drivers;
+    private DagEngineConfig config;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        cpuPool = "WORK_STEALING".equals(cpuExecutor)
+                ? MixedThreadPoolManager.newWorkStealingCpuPool(cores, "bench-dag-cpu-ws-")
+                : new ThreadPoolExecutor(cores, cores * 2, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(200), new ThreadPoolExecutor.CallerRunsPolicy());
+        ioPool = Executors.newVirtualThreadPerTaskExecutor();
+        drivers = Executors.newFixedThreadPool(concurrency);
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.ERROR);
+
+        Node<String> node = (param, context, nodeId) -> context.putData(nodeId, compute(nodeId.hashCode()));
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW).start("start", NodeType.INLINE, node);
+        for (int i = 0; i < FAN_OUT; i++) {
+            workflow.node("score" + i, NodeType.CPU, node, "start");
+        }
+        String[] merges = new String[FAN_OUT / 2];
+        for (int i = 0; i < merges.length; i++) {
+            merges[i] = "merge" + i;
+            workflow.node(merges[i], NodeType.CPU, node, "score" + (2 * i), "score" + (2 * i + 1));
+        }
+        config = workflow.end("end", NodeType.INLINE, node, merges)
+                .build(new MixedThreadPoolManager(cpuPool, ioPool), 10_000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DagEventLog.setLevel(WORKFLOW, null);
+        drivers.shutdownNow();
+        cpuPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+
+    @Benchmark
+    public void concurrentDags() throws Exception {
+        Future<?>[] futures = new Future<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = drivers.submit(() -> execute(config));
+        }
+        // 等待全部结束，执行失败时抛出
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private static void execute(DagEngineConfig config) {
+        DagEngine<String> engine = config.borrowEngine();
+        DagContext dagContext = DagContextPool.borrow();
+        try {
+            engine.execute("input", dagContext);
+            DagState state = engine.getDagState();
+            if (state != DagState.FINISH) {
+                throw new IllegalStateException("Benchmark workflow did not finish: " + state, engine.getEx());
+            }
+        } finally {
+            DagContextPool.release(dagContext);
+            config.releaseEngine(engine);
+        }
+    }
+
+    /**
+     * 模拟约数十微秒的计算
+     */
+    private static long compute(long seed) {
+        long x = seed;
+        for (int i = 0; i < 20_000; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        return x;
+    }
+}
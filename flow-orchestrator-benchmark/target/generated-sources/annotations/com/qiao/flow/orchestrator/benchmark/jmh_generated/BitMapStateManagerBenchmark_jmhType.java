@@ -0,0 +1,4 @@
+package com.qiao.flow.orchestrator.benchmark.jmh_generated;
+public class BitMapStateManagerBenchmark_jmhType extends BitMapStateManagerBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.qiao.flow.orchestrator.benchmark.jmh_generated;
+public class ChainWorkFlowEngineBenchmark_jmhType extends ChainWorkFlowEngineBenchmark_jmhType_B3 {
+}
+
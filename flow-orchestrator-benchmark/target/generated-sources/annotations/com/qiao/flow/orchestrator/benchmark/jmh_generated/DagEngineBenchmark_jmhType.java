@@ -0,0 +1,4 @@
+package com.qiao.flow.orchestrator.benchmark.jmh_generated;
+public class DagEngineBenchmark_jmhType extends DagEngineBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package com.qiao.flow.orchestrator.benchmark.jmh_generated;
+public class RandomDagBenchmark_jmhType extends RandomDagBenchmark_jmhType_B3 {
+}
+
@@ -1,5 +1,6 @@
 package com.qiao.flow.orchestrator.core.chain;
 
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
@@ -17,13 +18,10 @@ public class ChainWorkFlowEngine {
             try {
                 long startTime = System.currentTimeMillis();
                 boolean shouldContinue = step.getAction().apply(context);
-                long endTime = System.currentTimeMillis();
-                long duration = endTime - startTime;
-
-                log.info("Step {} completed in {} ms", stepName, duration);
+                DagEventLog.stepCompleted(stepName, System.currentTimeMillis() - startTime);
 
                 if (!shouldContinue) {
-                    log.info("WorkFlow stopped at step: {}", stepName);
+                    DagEventLog.chainStopped(stepName);
                     return;
                 }
             } catch (Exception e) {
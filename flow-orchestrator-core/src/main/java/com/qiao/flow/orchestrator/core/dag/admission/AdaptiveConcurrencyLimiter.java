@@ -0,0 +1,296 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按工作流自适应的并发限流器（梯度算法）
+ * 以工作流空载延迟为基线，根据实际延迟自动调大或调小允许的并发执行数：
+ * <pre>
+ * gradient = clamp(baselineRtt * tolerance / sampleRtt, 0.5, 1.0)
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * 延迟接近基线时并发上限按sqrt(limit)增长；延迟升高说明下游或线程池开始排队，上限随之收缩。
+ * 超过当前上限的请求立即拒绝（WorkflowRejectedException，原因LIMIT_EXCEEDED），不排队。
+ * <p>
+ * 采样按时间窗口聚合，每个窗口只有一个线程做计算，归还许可的热路径只有几次原子累加。
+ * 失败和超时的执行不计入延迟样本：快速失败的下游会拉低平均延迟和基线，让上限在故障期间反而增长
+ *
+ * @author qiao
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter implements AdmissionController {
+
+    private final Settings settings;
+
+    // 每个工作流独立的自适应状态，首次执行时创建
+    private final ConcurrentHashMap<String, AdaptiveLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(Settings settings) {
+        this.settings = settings;
+        log.info("AdaptiveConcurrencyLimiter initialized, {}", settings);
+    }
+
+    @Override
+    public AdmissionPermit acquire(String workflowName) {
+        AdaptiveLimit limit = limits.get(workflowName);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(workflowName, name -> new AdaptiveLimit(name, settings));
+        }
+        return limit.acquire();
+    }
+
+    @Override
+    public AdmissionStats getStats(String workflowName) {
+        AdaptiveLimit limit = limits.get(workflowName);
+        return limit != null ? limit.snapshot() : null;
+    }
+
+    @Override
+    public Map<String, AdmissionStats> getAllStats() {
+        Map<String, AdmissionStats> stats = new HashMap<>(limits.size());
+        for (Map.Entry<String, AdaptiveLimit> entry : limits.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        return stats;
+    }
+
+    /**
+     * 获取工作流当前的并发上限
+     *
+     * @param workflowName 工作流名称
+     * @return 当前并发上限，工作流从未执行过时返回初始上限
+     */
+    public int getCurrentLimit(String workflowName) {
+        AdaptiveLimit limit = limits.get(workflowName);
+        return limit != null ? limit.getLimit() : settings.getInitialLimit();
+    }
+
+    /**
+     * 获取工作流当前的空载延迟基线（纳秒）
+     */
+    public long getBaselineRttNanos(String workflowName) {
+        AdaptiveLimit limit = limits.get(workflowName);
+        return limit != null ? limit.baselineRttNanos : 0L;
+    }
+
+    /**
+     * 单个工作流的自适应限流状态
+     */
+    private static class AdaptiveLimit {
+        private final String workflowName;
+        private final Settings settings;
+        private final long windowNanos;
+
+        // 当前并发上限（浮点以便平滑），读多写少
+        private volatile double estimatedLimit;
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        // 当前窗口的采样聚合
+        private final LongAdder windowRttSum = new LongAdder();
+        private final LongAdder windowSamples = new LongAdder();
+        private final AtomicInteger windowMaxInFlight = new AtomicInteger();
+        private final AtomicLong windowEnd;
+        private final AtomicBoolean updating = new AtomicBoolean();
+
+        // 空载延迟基线：窗口平均延迟的衰减最小值，更低的样本立即采用，更高的样本只让基线缓慢上浮
+        private volatile long baselineRttNanos = 0L;
+
+        // 最近一个有效窗口的平均延迟
+        private volatile long sampleRttNanos = 0L;
+
+        // 统计计数器
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        AdaptiveLimit(String workflowName, Settings settings) {
+            this.workflowName = workflowName;
+            this.settings = settings;
+            this.windowNanos = settings.getWindowMs() * 1_000_000L;
+            this.estimatedLimit = settings.getInitialLimit();
+            this.windowEnd = new AtomicLong(System.nanoTime() + windowNanos);
+        }
+
+        int getLimit() {
+            return (int) estimatedLimit;
+        }
+
+        AdmissionPermit acquire() {
+            int current = inFlight.incrementAndGet();
+            if (current > getLimit()) {
+                inFlight.decrementAndGet();
+                rejected.increment();
+                throw new WorkflowRejectedException(workflowName, WorkflowRejectedException.Reason.LIMIT_EXCEEDED);
+            }
+            admitted.increment();
+            windowMaxInFlight.accumulateAndGet(current, Math::max);
+
+            long startNanos = System.nanoTime();
+            return new OneShotPermit(workflowName) {
+                @Override
+                protected void onRelease(boolean success) {
+                    AdaptiveLimit.this.onRelease(startNanos, success);
+                }
+            };
+        }
+
+        private void onRelease(long startNanos, boolean success) {
+            long now = System.nanoTime();
+            inFlight.decrementAndGet();
+            if (success) {
+                windowRttSum.add(now - startNanos);
+                windowSamples.increment();
+            }
+
+            // 窗口结束时由一个线程计算新的上限
+            long end = windowEnd.get();
+            if (now >= end && updating.compareAndSet(false, true)) {
+                try {
+                    if (windowEnd.compareAndSet(end, now + windowNanos)) {
+                        updateLimit();
+                    }
+                } finally {
+                    updating.set(false);
+                }
+            }
+        }
+
+        /**
+         * 根据窗口平均延迟与基线的梯度更新并发上限
+         */
+        private void updateLimit() {
+            long samples = windowSamples.sumThenReset();
+            long rttSum = windowRttSum.sumThenReset();
+            int maxInFlight = windowMaxInFlight.getAndSet(inFlight.get());
+            if (samples < settings.getMinSamplesPerWindow()) {
+                return; // 样本太少，保持当前上限
+            }
+
+            long sampleRtt = Math.max(1L, rttSum / samples);
+            sampleRttNanos = sampleRtt;
+
+            // 更新空载基线：不直接采用高于基线的样本（过载时的样本本身就带着排队延迟），
+            // 只按baselineProbeWindows个窗口的时间常数上浮，下游变慢后基线仍能跟上，持续过载时上限先于基线收缩
+            long baseline = baselineRttNanos;
+            if (baseline == 0L || sampleRtt <= baseline) {
+                baselineRttNanos = sampleRtt;
+            } else {
+                baselineRttNanos = baseline + (sampleRtt - baseline) / settings.getBaselineProbeWindows();
+            }
+
+            double limit = estimatedLimit;
+            double gradient = Math.max(0.5, Math.min(1.0,
+                    settings.getTolerance() * baselineRttNanos / sampleRtt));
+            double newLimit = limit * gradient + Math.sqrt(limit);
+            newLimit = limit * (1 - settings.getSmoothing()) + newLimit * settings.getSmoothing();
+            newLimit = Math.max(settings.getMinLimit(), Math.min(settings.getMaxLimit(), newLimit));
+
+            // 流量本身不足以用满上限时不增长，避免上限无意义地膨胀
+            if (newLimit > limit && maxInFlight < limit / 2) {
+                return;
+            }
+
+            if ((int) newLimit != (int) limit) {
+                log.debug("Adaptive limit changed, workflow: {}, limit: {} -> {}, sampleRtt: {}us, baselineRtt: {}us",
+                        workflowName, (int) limit, (int) newLimit, sampleRtt / 1000, baselineRttNanos / 1000);
+            }
+            estimatedLimit = newLimit;
+        }
+
+        AdmissionStats snapshot() {
+            return new AdmissionStats(workflowName, getLimit(), inFlight.get(), 0,
+                    admitted.sum(), rejected.sum(), 0L, baselineRttNanos, sampleRttNanos);
+        }
+    }
+
+    /**
+     * 自适应限流参数
+     */
+    @Getter
+    public static class Settings {
+
+        /**
+         * 初始并发上限
+         */
+        private final int initialLimit;
+
+        /**
+         * 并发上限下界
+         */
+        private final int minLimit;
+
+        /**
+         * 并发上限上界
+         */
+        private final int maxLimit;
+
+        /**
+         * 平滑系数（0-1），越小调整越平缓
+         */
+        private final double smoothing;
+
+        /**
+         * 延迟容忍度，采样延迟不超过 基线*tolerance 时视为无排队
+         */
+        private final double tolerance;
+
+        /**
+         * 采样窗口（毫秒）
+         */
+        private final long windowMs;
+
+        /**
+         * 每个窗口的最少样本数，样本不足时不调整
+         */
+        private final int minSamplesPerWindow;
+
+        /**
+         * 空载基线上浮的时间常数（窗口数），越大基线越难被持续的高延迟抬高
+         */
+        private final int baselineProbeWindows;
+
+        public Settings(int initialLimit, int minLimit, int maxLimit, double smoothing, double tolerance,
+                        long windowMs, int minSamplesPerWindow, int baselineProbeWindows) {
+            if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+                throw new IllegalArgumentException(String.format(
+                        "invalid limits: initial=%d, min=%d, max=%d", initialLimit, minLimit, maxLimit));
+            }
+            if (smoothing <= 0 || smoothing > 1) {
+                throw new IllegalArgumentException("smoothing must be in (0, 1]: " + smoothing);
+            }
+            if (tolerance < 1) {
+                throw new IllegalArgumentException("tolerance must be >= 1: " + tolerance);
+            }
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+            this.smoothing = smoothing;
+            this.tolerance = tolerance;
+            this.windowMs = Math.max(1L, windowMs);
+            this.minSamplesPerWindow = Math.max(1, minSamplesPerWindow);
+            this.baselineProbeWindows = Math.max(1, baselineProbeWindows);
+        }
+
+        /**
+         * 默认参数
+         */
+        public static Settings defaults() {
+            return new Settings(20, 4, 1000, 0.2, 1.5, 1000, 10, 600);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Settings{initialLimit=%d, minLimit=%d, maxLimit=%d, smoothing=%.2f, tolerance=%.2f, windowMs=%d, minSamplesPerWindow=%d, baselineProbeWindows=%d}",
+                    initialLimit, minLimit, maxLimit, smoothing, tolerance, windowMs, minSamplesPerWindow, baselineProbeWindows);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import java.util.Map;
+
+/**
+ * 工作流准入控制接口
+ * 在DagAutoRunner执行入口处决定一次工作流执行能否进入引擎
+ *
+ * @author qiao
+ */
+public interface AdmissionController {
+
+    /**
+     * 申请一次执行许可
+     * 获得许可后必须在执行结束时调用 {@link AdmissionPermit#release(boolean)}
+     *
+     * @param workflowName 工作流名称
+     * @return 执行许可
+     * @throws WorkflowRejectedException 被拒绝时抛出
+     */
+    AdmissionPermit acquire(String workflowName) throws WorkflowRejectedException;
+
+    /**
+     * 获取指定工作流的准入统计
+     *
+     * @param workflowName 工作流名称
+     * @return 统计快照，工作流从未执行过时返回null
+     */
+    AdmissionStats getStats(String workflowName);
+
+    /**
+     * 获取所有已执行过的工作流的准入统计
+     *
+     * @return 工作流名称 -> 统计快照
+     */
+    Map<String, AdmissionStats> getAllStats();
+
+    /**
+     * 执行许可
+     */
+    @FunctionalInterface
+    interface AdmissionPermit {
+
+        /**
+         * 归还许可，同一许可只有第一次归还生效
+         *
+         * @param success 本次执行是否成功；失败或超时的执行不作为延迟样本
+         */
+        void release(boolean success);
+
+        /**
+         * 以成功的执行归还许可
+         */
+        default void release() {
+            release(true);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import lombok.Getter;
+
+/**
+ * 单个工作流的准入限制
+ *
+ * @author qiao
+ */
+@Getter
+public class AdmissionLimit {
+
+    /**
+     * 最大并发执行数
+     */
+    private final int maxConcurrent;
+
+    /**
+     * 最大排队数，0表示不排队，超过并发上限立即拒绝
+     */
+    private final int queueSize;
+
+    /**
+     * 排队超时时间（毫秒）
+     */
+    private final long queueTimeoutMs;
+
+    public AdmissionLimit(int maxConcurrent, int queueSize, long queueTimeoutMs) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive: " + maxConcurrent);
+        }
+        if (queueSize < 0) {
+            throw new IllegalArgumentException("queueSize must not be negative: " + queueSize);
+        }
+        if (queueTimeoutMs < 0) {
+            throw new IllegalArgumentException("queueTimeoutMs must not be negative: " + queueTimeoutMs);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.queueSize = queueSize;
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdmissionLimit{maxConcurrent=%d, queueSize=%d, queueTimeoutMs=%d}",
+                maxConcurrent, queueSize, queueTimeoutMs);
+    }
+}
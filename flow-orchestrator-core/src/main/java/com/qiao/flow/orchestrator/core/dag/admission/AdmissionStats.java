@@ -0,0 +1,78 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import lombok.Getter;
+
+/**
+ * 工作流准入统计快照
+ *
+ * @author qiao
+ */
+@Getter
+public class AdmissionStats {
+
+    private final String workflowName;
+
+    /**
+     * 当前允许的最大并发执行数
+     */
+    private final int limit;
+
+    /**
+     * 正在执行的数量
+     */
+    private final int inFlight;
+
+    /**
+     * 正在排队的数量
+     */
+    private final int queued;
+
+    /**
+     * 累计准入次数
+     */
+    private final long admitted;
+
+    /**
+     * 累计拒绝次数：队列已满、超过自适应并发上限，或排队等待时被中断；排队超时单独计入timedOut
+     */
+    private final long rejected;
+
+    /**
+     * 累计排队超时次数
+     */
+    private final long timedOut;
+
+    /**
+     * 空载延迟基线（纳秒），仅自适应限流有值
+     */
+    private final long baselineRttNanos;
+
+    /**
+     * 最近一个采样窗口的平均延迟（纳秒），仅自适应限流有值
+     */
+    private final long sampleRttNanos;
+
+    public AdmissionStats(String workflowName, int limit, int inFlight, int queued,
+                          long admitted, long rejected, long timedOut) {
+        this(workflowName, limit, inFlight, queued, admitted, rejected, timedOut, 0L, 0L);
+    }
+
+    public AdmissionStats(String workflowName, int limit, int inFlight, int queued,
+                          long admitted, long rejected, long timedOut, long baselineRttNanos, long sampleRttNanos) {
+        this.workflowName = workflowName;
+        this.limit = limit;
+        this.inFlight = inFlight;
+        this.queued = queued;
+        this.admitted = admitted;
+        this.rejected = rejected;
+        this.timedOut = timedOut;
+        this.baselineRttNanos = baselineRttNanos;
+        this.sampleRttNanos = sampleRttNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("AdmissionStats{workflow='%s', limit=%d, inFlight=%d, queued=%d, admitted=%d, rejected=%d, timedOut=%d, baselineRtt=%dus, sampleRtt=%dus}",
+                workflowName, limit, inFlight, queued, admitted, rejected, timedOut, baselineRttNanos / 1000, sampleRttNanos / 1000);
+    }
+}
@@ -0,0 +1,38 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 只能归还一次的执行许可
+ * 重复归还被忽略并记录告警，避免调用方的重复release放大并发上限
+ *
+ * @author qiao
+ */
+@Slf4j
+abstract class OneShotPermit implements AdmissionController.AdmissionPermit {
+
+    private final String workflowName;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    OneShotPermit(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    @Override
+    public final void release(boolean success) {
+        if (!released.compareAndSet(false, true)) {
+            log.warn("Admission permit released more than once, workflow: {}", workflowName);
+            return;
+        }
+        onRelease(success);
+    }
+
+    /**
+     * 首次归还时调用
+     *
+     * @param success 本次执行是否成功
+     */
+    protected abstract void onRelease(boolean success);
+}
@@ -0,0 +1,50 @@
+package com.qiao.flow.orchestrator.core.dag.admission;
+
+import lombok.Getter;
+
+/**
+ * 工作流被准入控制拒绝时抛出的异常
+ * 调用方应快速降级（返回默认结果或429），不要重试
+ *
+ * @author qiao
+ */
+@Getter
+public class WorkflowRejectedException extends RuntimeException {
+
+    /**
+     * 被拒绝的工作流名称
+     */
+    private final String workflowName;
+
+    /**
+     * 拒绝原因
+     */
+    private final Reason reason;
+
+    public WorkflowRejectedException(String workflowName, Reason reason) {
+        // 拒绝是预期内的负载保护行为，不填充堆栈以降低过载时的开销
+        super("Workflow '" + workflowName + "' rejected: " + reason, null, false, false);
+        this.workflowName = workflowName;
+        this.reason = reason;
+    }
+
+    /**
+     * 拒绝原因
+     */
+    public enum Reason {
+        QUEUE_FULL("等待队列已满"),
+        QUEUE_TIMEOUT("排队超时"),
+        INTERRUPTED("排队时线程被中断"),
+        LIMIT_EXCEEDED("超过自适应并发上限");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -39,6 +39,15 @@ public @interface NodeConfig {
      */
     NodeType type() default NodeType.CPU;
 
+    /**
+     * 隔离线程池名称
+     * 指定后节点在MixedThreadPoolManager中注册的同名线程池执行，不再按节点类型选择；
+     * 为空表示按节点类型选择线程池。名称未注册时工作流构建失败
+     *
+     * @return 线程池名称
+     */
+    String executor() default "";
+
     /**
      * 依赖节点
      * 指定当前节点依赖的其他节点类，支持IDE跳转
@@ -0,0 +1,147 @@
+package com.qiao.flow.orchestrator.core.dag.context;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+/**
+ * 类型化的上下文数据键
+ * 声明为常量，名称全局唯一，声明时分配固定的槽位下标；DagContext按下标存取，不需要哈希查找和强制类型转换，
+ * 数值类型使用DoubleKey、LongKey存放在基本类型槽位中，不装箱：
+ * <pre>
+ * public static final ContextKey&lt;String&gt; SELECTED_ALGORITHM = ContextKey.of("selectedAlgorithm", String.class);
+ * public static final DoubleKey PLATFORM_SCORE = DoubleKey.of("platformScore");
+ *
+ * context.put(SELECTED_ALGORITHM, "blackBox");
+ * context.putDouble(PLATFORM_SCORE, 0.92);
+ * double score = context.getDouble(PLATFORM_SCORE, 0);
+ * </pre>
+ * 同名的字符串数据（putData/getData）与键访问同一个槽位，写入类型不符时立即抛出ClassCastException；
+ * 录制回放等按名称处理数据的功能不受影响
+ *
+ * @author qiao
+ */
+public class ContextKey<T> {
+
+    /**
+     * 槽位种类，每种单独编号
+     */
+    enum Kind {
+        OBJECT, DOUBLE, LONG
+    }
+
+    private static final Map<String, ContextKey<?>> KEYS = new ConcurrentHashMap<>();
+
+    // 各种类已分配的槽位数，只在注册时（持有类锁）递增
+    private static volatile int objectSlots;
+    private static volatile int doubleSlots;
+    private static volatile int longSlots;
+
+    private final String name;
+    private final Class<T> type;
+    private final Kind kind;
+    private final int slot;
+
+    ContextKey(String name, Class<T> type, Kind kind, int slot) {
+        this.name = name;
+        this.type = type;
+        this.kind = kind;
+        this.slot = slot;
+    }
+
+    /**
+     * 声明对象类型的键，同名同类型的键重复声明时返回已有的键
+     *
+     * @throws IllegalArgumentException 同名的键已声明为其他类型
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ContextKey<T> of(String name, Class<T> type) {
+        return (ContextKey<T>) register(name, type, Kind.OBJECT, slot -> new ContextKey<>(name, type, Kind.OBJECT, slot));
+    }
+
+    /**
+     * 按名称查找已声明的键
+     *
+     * @return 键，未声明时返回null
+     */
+    public static ContextKey<?> forName(String name) {
+        return KEYS.get(name);
+    }
+
+    /**
+     * 所有已声明的键
+     */
+    public static Collection<ContextKey<?>> keys() {
+        return Collections.unmodifiableCollection(KEYS.values());
+    }
+
+    @SuppressWarnings("unchecked")
+    static synchronized <K extends ContextKey<?>> K register(String name, Class<?> type, Kind kind,
+                                                               IntFunction<K> factory) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("Context key name must not be empty");
+        }
+        ContextKey<?> existing = KEYS.get(name);
+        if (existing != null) {
+            if (existing.kind != kind || existing.type != type) {
+                throw new IllegalArgumentException("Context key " + name + " already declared as " + existing);
+            }
+            return (K) existing;
+        }
+        int slot = switch (kind) {
+            case OBJECT -> objectSlots++;
+            case DOUBLE -> doubleSlots++;
+            case LONG -> longSlots++;
+        };
+        K key = factory.apply(slot);
+        KEYS.put(name, key);
+        return key;
+    }
+
+    /**
+     * 某种类已分配的槽位数
+     */
+    static int slotCount(Kind kind) {
+        return switch (kind) {
+            case OBJECT -> objectSlots;
+            case DOUBLE -> doubleSlots;
+            case LONG -> longSlots;
+        };
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    /**
+     * 检查并转换值的类型
+     *
+     * @throws ClassCastException 值不是键声明的类型
+     */
+    public T cast(Object value) {
+        if (value != null && !type.isInstance(value)) {
+            throw new ClassCastException("Context key " + name + " expects " + type.getName()
+                    + " but got " + value.getClass().getName());
+        }
+        return type.cast(value);
+    }
+
+    @Override
+    public String toString() {
+        return "ContextKey{" + name + ", " + type.getSimpleName() + "}";
+    }
+}
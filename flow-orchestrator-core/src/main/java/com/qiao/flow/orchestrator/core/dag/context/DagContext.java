@@ -1,38 +1,83 @@
 package com.qiao.flow.orchestrator.core.dag.context;
 
+import com.qiao.flow.orchestrator.core.dag.engine.DagNodeIndex;
 import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
 import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
 import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
 
 /**
  * DAG执行上下文
+ * 引擎执行前通过bind绑定工作流的节点下标索引，节点结果按下标存放在数组槽位中：
+ * 写入以release语义发布，读取以acquire语义获取，兄弟节点同时写入时互不竞争，也不再按节点ID哈希到Map；
+ * 未绑定或不属于该工作流的节点ID仍存放在Map中
+ * <p>
+ * 通用数据通过ContextKey按声明时分配的槽位存取，DoubleKey、LongKey使用基本类型槽位不装箱；
+ * 未声明为键的名称存放在Map中
  *
  * @author qiao
  */
 @Slf4j
 public class DagContext {
 
+    // 清理时保留的节点结果数上限，超过时直接丢弃，避免在多个工作流间复用的上下文无限增长
+    private static final int MAX_RETAINED_RESULTS = 256;
+
+    private static final AtomicReferenceArray<NodeResult<?>> NO_SLOTS = new AtomicReferenceArray<>(0);
+    private static final AtomicIntegerArray NO_FLAGS = new AtomicIntegerArray(0);
+
+    /**
+     * 本次执行绑定的节点下标索引，清理时解除绑定
+     */
+    private volatile DagNodeIndex nodeIndex;
 
     /**
-     * 保存每个节点的补充信息
+     * 按节点下标存放的节点结果
+     * 清理时不置空槽位，只回收NodeResult，下次执行时原地复用；容量不够时按新绑定的工作流重新分配
+     */
+    private AtomicReferenceArray<NodeResult<?>> resultSlots = NO_SLOTS;
+
+    /**
+     * 保存不在绑定索引中的节点的补充信息（未绑定时的所有节点）
+     * 清理时不删除条目，只回收NodeResult，下次执行同一节点时原地复用，避免每个节点分配结果对象和Map条目
      */
     private Map<String /* nodeId */, NodeResult<?>> nodeResultMap = new ConcurrentHashMap<>();
 
     /**
      * 通用数据存储，支持节点间数据共享
+     * 存放未声明为ContextKey的名称，以及在本上下文分配槽位之后才声明的键
      */
     private Map<String /* key */, Object> dataMap = new ConcurrentHashMap<>();
 
+    /**
+     * ContextKey的槽位，按创建上下文或绑定时已声明的键数分配
+     * 对象值为null表示不存在；基本类型的值先写入数组，再以release语义设置存在标志，读取时以acquire语义检查标志
+     */
+    private AtomicReferenceArray<Object> keyValues = new AtomicReferenceArray<>(0);
+    private double[] doubleValues = new double[0];
+    private AtomicIntegerArray doublePresent = NO_FLAGS;
+    private long[] longValues = new long[0];
+    private AtomicIntegerArray longPresent = NO_FLAGS;
+
     /**
      * 当前执行的节点ID
      */
     private volatile String currentNodeId;
 
+    /**
+     * 节点执行拦截器（录制、回放等），为null时直接调用节点
+     */
+    private volatile NodeInterceptor nodeInterceptor;
+
     /**
      * 时间跟踪字段
      */
@@ -40,63 +85,406 @@ public class DagContext {
     private volatile long returnTime = 0L;  // 归还时间
 
     public DagContext() {
+        ensureKeySlots();
+    }
+
+    /**
+     * 绑定工作流的节点下标索引，由引擎在执行开始时调用
+     * 同一次借用中只有第一次绑定生效（例如同一上下文先后执行多个工作流），绑定前已写入的结果迁移到槽位中
+     */
+    public void bind(DagNodeIndex index) {
+        if (nodeIndex != null) {
+            return;
+        }
+        int size = index.size();
+        if (resultSlots.length() < size) {
+            resultSlots = new AtomicReferenceArray<>(size);
+        }
+        nodeIndex = index;
+        if (ensureKeySlots() && !dataMap.isEmpty()) {
+            // 分配槽位前按名称写入的已声明键迁移到槽位中
+            dataMap.forEach((name, value) -> {
+                ContextKey<?> key = ContextKey.forName(name);
+                if (key != null && inSlots(key)) {
+                    dataMap.remove(name);
+                    putValue(key, value);
+                }
+            });
+        }
+        if (!nodeResultMap.isEmpty()) {
+            nodeResultMap.forEach((nodeId, nodeResult) -> {
+                int slot = index.indexOf(nodeId);
+                if (slot >= 0 && !nodeResult.isRecycled()) {
+                    resultSlots.setRelease(slot, nodeResult);
+                    nodeResultMap.remove(nodeId);
+                }
+            });
+        }
+    }
+
+    /**
+     * 按已声明的键数扩容ContextKey槽位，只在创建和绑定时调用，此时没有其他线程访问本上下文
+     *
+     * @return 是否扩容
+     */
+    private boolean ensureKeySlots() {
+        boolean grown = false;
+        int objects = ContextKey.slotCount(ContextKey.Kind.OBJECT);
+        if (keyValues.length() < objects) {
+            AtomicReferenceArray<Object> values = new AtomicReferenceArray<>(objects);
+            for (int i = 0; i < keyValues.length(); i++) {
+                values.setPlain(i, keyValues.getPlain(i));
+            }
+            keyValues = values;
+            grown = true;
+        }
+        int doubles = ContextKey.slotCount(ContextKey.Kind.DOUBLE);
+        if (doubleValues.length < doubles) {
+            doubleValues = Arrays.copyOf(doubleValues, doubles);
+            doublePresent = copyFlags(doublePresent, doubles);
+            grown = true;
+        }
+        int longs = ContextKey.slotCount(ContextKey.Kind.LONG);
+        if (longValues.length < longs) {
+            longValues = Arrays.copyOf(longValues, longs);
+            longPresent = copyFlags(longPresent, longs);
+            grown = true;
+        }
+        return grown;
+    }
+
+    private static AtomicIntegerArray copyFlags(AtomicIntegerArray flags, int size) {
+        AtomicIntegerArray copy = new AtomicIntegerArray(size);
+        for (int i = 0; i < flags.length(); i++) {
+            copy.setPlain(i, flags.getPlain(i));
+        }
+        return copy;
+    }
+
+    /**
+     * 键的槽位是否已在本上下文中分配，未分配时键的值存放在Map中
+     */
+    private boolean inSlots(ContextKey<?> key) {
+        int slot = key.getSlot();
+        return switch (key.getKind()) {
+            case OBJECT -> slot < keyValues.length();
+            case DOUBLE -> slot < doubleValues.length;
+            case LONG -> slot < longValues.length;
+        };
+    }
+
+    /**
+     * 当前绑定的节点下标索引，未绑定时返回null
+     */
+    public DagNodeIndex getNodeIndex() {
+        return nodeIndex;
+    }
+
+    /**
+     * 节点ID对应的槽位下标，未绑定或不在绑定的工作流中时返回-1
+     */
+    private int slotOf(String nodeId) {
+        DagNodeIndex index = nodeIndex;
+        return index != null ? index.indexOf(nodeId) : -1;
     }
 
     /**
      * 存储节点补充信息
      */
     public void putResult(String nodeId, NodeResult<?> nodeResult) {
-        nodeResultMap.put(nodeId, nodeResult);
+        int slot = slotOf(nodeId);
+        if (slot >= 0) {
+            resultSlots.setRelease(slot, nodeResult);
+        } else {
+            nodeResultMap.put(nodeId, nodeResult);
+        }
     }
 
     /**
      * 获取节点补充信息
      */
     public NodeResult getResult(String nodeId) {
-        return nodeResultMap.get(nodeId);
+        return activeResult(nodeId);
+    }
+
+    /**
+     * 获取节点的结果对象用于本次执行，不存在时创建，已回收时复用
+     */
+    @SuppressWarnings("unchecked")
+    public <V> NodeResult<V> obtainResult(String nodeId) {
+        int slot = slotOf(nodeId);
+        NodeResult<V> nodeResult = (NodeResult<V>) (slot >= 0 ? resultSlots.getAcquire(slot) : nodeResultMap.get(nodeId));
+        if (nodeResult == null) {
+            NodeResult<V> created = new NodeResult<>();
+            if (slot < 0) {
+                nodeResultMap.put(nodeId, created);
+                return created;
+            }
+            // 同一槽位并发创建时以先发布的为准
+            NodeResult<V> witness = (NodeResult<V>) resultSlots.compareAndExchangeRelease(slot, null, created);
+            nodeResult = witness != null ? witness : created;
+        }
+        if (nodeResult.isRecycled()) {
+            nodeResult.reset();
+        }
+        return nodeResult;
+    }
+
+    private NodeResult<?> activeResult(String nodeId) {
+        int slot = slotOf(nodeId);
+        NodeResult<?> nodeResult = slot >= 0 ? resultSlots.getAcquire(slot) : nodeResultMap.get(nodeId);
+        return nodeResult != null && !nodeResult.isRecycled() ? nodeResult : null;
     }
 
     /**
-     * 存储通用数据
+     * 存储通用数据，名称已声明为ContextKey时写入键的槽位
+     *
+     * @throws ClassCastException 值不是键声明的类型
      */
     public void putData(String key, Object value) {
-        dataMap.put(key, value);
+        ContextKey<?> contextKey = ContextKey.forName(key);
+        if (contextKey != null) {
+            putValue(contextKey, contextKey.cast(value));
+        } else {
+            dataMap.put(key, value);
+        }
     }
 
     /**
-     * 获取通用数据
+     * 获取通用数据，名称已声明为ContextKey时读取键的槽位（基本类型的值装箱返回）
      */
     public Object getData(String key) {
-        return dataMap.get(key);
+        ContextKey<?> contextKey = ContextKey.forName(key);
+        return contextKey != null ? getValue(contextKey) : dataMap.get(key);
+    }
+
+    /**
+     * 遍历通用数据，包括已写入的ContextKey
+     */
+    public void forEachData(BiConsumer<String, Object> action) {
+        dataMap.forEach(action);
+        for (ContextKey<?> key : ContextKey.keys()) {
+            if (inSlots(key)) {
+                Object value = getValue(key);
+                if (value != null) {
+                    action.accept(key.getName(), value);
+                }
+            }
+        }
     }
 
     /**
      * 检查是否包含指定数据
      */
     public boolean containsData(String key) {
-        return dataMap.containsKey(key);
+        ContextKey<?> contextKey = ContextKey.forName(key);
+        return contextKey != null ? contains(contextKey) : dataMap.containsKey(key);
     }
 
     /**
      * 移除指定数据
      */
     public Object removeData(String key) {
-        return dataMap.remove(key);
+        ContextKey<?> contextKey = ContextKey.forName(key);
+        return contextKey != null ? remove(contextKey) : dataMap.remove(key);
+    }
+
+    /**
+     * 按键存储数据，值为null时移除
+     */
+    public <T> void put(ContextKey<T> key, T value) {
+        putValue(key, key.cast(value));
+    }
+
+    /**
+     * 按键获取数据，不存在时返回null
+     */
+    public <T> T get(ContextKey<T> key) {
+        return key.cast(getValue(key));
+    }
+
+    /**
+     * 存储double数据，不装箱
+     */
+    public void putDouble(DoubleKey key, double value) {
+        int slot = key.getSlot();
+        if (slot < doubleValues.length) {
+            doubleValues[slot] = value;
+            doublePresent.setRelease(slot, 1);
+        } else {
+            dataMap.put(key.getName(), value);
+        }
+    }
+
+    /**
+     * 获取double数据，不装箱
+     *
+     * @param defaultValue 不存在时返回的值
+     */
+    public double getDouble(DoubleKey key, double defaultValue) {
+        int slot = key.getSlot();
+        if (slot < doubleValues.length) {
+            return doublePresent.getAcquire(slot) != 0 ? doubleValues[slot] : defaultValue;
+        }
+        Object value = dataMap.get(key.getName());
+        return value != null ? (Double) value : defaultValue;
+    }
+
+    /**
+     * 存储long数据，不装箱
+     */
+    public void putLong(LongKey key, long value) {
+        int slot = key.getSlot();
+        if (slot < longValues.length) {
+            longValues[slot] = value;
+            longPresent.setRelease(slot, 1);
+        } else {
+            dataMap.put(key.getName(), value);
+        }
+    }
+
+    /**
+     * 获取long数据，不装箱
+     *
+     * @param defaultValue 不存在时返回的值
+     */
+    public long getLong(LongKey key, long defaultValue) {
+        int slot = key.getSlot();
+        if (slot < longValues.length) {
+            return longPresent.getAcquire(slot) != 0 ? longValues[slot] : defaultValue;
+        }
+        Object value = dataMap.get(key.getName());
+        return value != null ? (Long) value : defaultValue;
+    }
+
+    /**
+     * 检查是否包含键的数据
+     */
+    public boolean contains(ContextKey<?> key) {
+        if (!inSlots(key)) {
+            return dataMap.containsKey(key.getName());
+        }
+        int slot = key.getSlot();
+        return switch (key.getKind()) {
+            case OBJECT -> keyValues.getAcquire(slot) != null;
+            case DOUBLE -> doublePresent.getAcquire(slot) != 0;
+            case LONG -> longPresent.getAcquire(slot) != 0;
+        };
+    }
+
+    /**
+     * 移除键的数据
+     *
+     * @return 移除前的值，不存在时返回null
+     */
+    public <T> T remove(ContextKey<T> key) {
+        T previous = get(key);
+        putValue(key, null);
+        return previous;
+    }
+
+    /**
+     * 写入已检查类型的值，值为null时移除
+     */
+    private void putValue(ContextKey<?> key, Object value) {
+        if (!inSlots(key)) {
+            if (value != null) {
+                dataMap.put(key.getName(), value);
+            } else {
+                dataMap.remove(key.getName());
+            }
+            return;
+        }
+        int slot = key.getSlot();
+        switch (key.getKind()) {
+            case OBJECT -> keyValues.setRelease(slot, value);
+            case DOUBLE -> {
+                if (value != null) {
+                    doubleValues[slot] = (Double) value;
+                }
+                doublePresent.setRelease(slot, value != null ? 1 : 0);
+            }
+            case LONG -> {
+                if (value != null) {
+                    longValues[slot] = (Long) value;
+                }
+                longPresent.setRelease(slot, value != null ? 1 : 0);
+            }
+        }
+    }
+
+    /**
+     * 读取键的值，基本类型装箱返回，不存在时返回null
+     */
+    private Object getValue(ContextKey<?> key) {
+        if (!inSlots(key)) {
+            return dataMap.get(key.getName());
+        }
+        int slot = key.getSlot();
+        return switch (key.getKind()) {
+            case OBJECT -> keyValues.getAcquire(slot);
+            case DOUBLE -> doublePresent.getAcquire(slot) != 0 ? doubleValues[slot] : null;
+            case LONG -> longPresent.getAcquire(slot) != 0 ? longValues[slot] : null;
+        };
     }
 
     /**
      * 清空所有数据
      */
     public void clear() {
-        nodeResultMap.clear();
+        if (resultSlots.length() > MAX_RETAINED_RESULTS) {
+            resultSlots = NO_SLOTS;
+        } else {
+            for (int i = 0; i < resultSlots.length(); i++) {
+                NodeResult<?> nodeResult = resultSlots.getPlain(i);
+                if (nodeResult != null) {
+                    nodeResult.recycle();
+                }
+            }
+        }
+        if (nodeResultMap.size() > MAX_RETAINED_RESULTS) {
+            nodeResultMap.clear();
+        } else {
+            nodeResultMap.values().forEach(NodeResult::recycle);
+        }
         dataMap.clear();
+        for (int i = 0; i < keyValues.length(); i++) {
+            keyValues.setPlain(i, null);
+        }
+        for (int i = 0; i < doublePresent.length(); i++) {
+            doublePresent.setPlain(i, 0);
+        }
+        for (int i = 0; i < longPresent.length(); i++) {
+            longPresent.setPlain(i, 0);
+        }
+        nodeIndex = null;
+        nodeInterceptor = null;
     }
 
     /**
      * 检查是否为空
      */
     public boolean isEmpty() {
-        return nodeResultMap.isEmpty() && dataMap.isEmpty();
+        if (!dataMap.isEmpty()) {
+            return false;
+        }
+        for (ContextKey<?> key : ContextKey.keys()) {
+            if (inSlots(key) && contains(key)) {
+                return false;
+            }
+        }
+        for (int i = 0; i < resultSlots.length(); i++) {
+            NodeResult<?> nodeResult = resultSlots.getAcquire(i);
+            if (nodeResult != null && !nodeResult.isRecycled()) {
+                return false;
+            }
+        }
+        for (NodeResult<?> nodeResult : nodeResultMap.values()) {
+            if (!nodeResult.isRecycled()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -117,7 +505,7 @@ public class DagContext {
      * 更新节点状态
      */
     public void updateNodeState(String nodeId, NodeState newState) {
-        NodeResult<?> nodeResult = nodeResultMap.get(nodeId);
+        NodeResult<?> nodeResult = activeResult(nodeId);
         if (nodeResult != null) {
             nodeResult.setState(newState);
         }
@@ -127,7 +515,7 @@ public class DagContext {
      * 更新节点结束时间
      */
     public void updateNodeEndTime(String nodeId, long endTime) {
-        NodeResult<?> nodeResult = nodeResultMap.get(nodeId);
+        NodeResult<?> nodeResult = activeResult(nodeId);
         if (nodeResult != null) {
             nodeResult.setEndTime(endTime);
             nodeResult.complete(); // 自动计算执行时长
@@ -174,6 +562,17 @@ public class DagContext {
         return currentNodeId;
     }
 
+    /**
+     * 设置本次执行的节点拦截器，上下文清理时自动移除
+     */
+    public void setNodeInterceptor(NodeInterceptor nodeInterceptor) {
+        this.nodeInterceptor = nodeInterceptor;
+    }
+
+    public NodeInterceptor getNodeInterceptor() {
+        return nodeInterceptor;
+    }
+
 
     /**
      * 设置节点结果数据（显式传参版本）
@@ -188,10 +587,9 @@ public class DagContext {
             return false;
         }
 
-        // 创建NodeResult包装器
-        NodeResult<T> nodeResult = new NodeResult<>();
+        // 复用已有的NodeResult包装器
+        NodeResult<T> nodeResult = obtainResult(nodeId);
         nodeResult.setResult(data);
-        nodeResultMap.put(nodeId, nodeResult);
         return true;
     }
 
@@ -203,7 +601,7 @@ public class DagContext {
      * @return 业务数据，如果不存在则返回null
      */
     public <T> T getNodeResult(String nodeId) {
-        NodeResult<?> nodeResult = nodeResultMap.get(nodeId);
+        NodeResult<?> nodeResult = activeResult(nodeId);
         return nodeResult != null ? (T) nodeResult.getResult() : null;
     }
 
@@ -1,10 +1,13 @@
 package com.qiao.flow.orchestrator.core.dag.context;
 
+import com.qiao.flow.orchestrator.core.dag.jfr.DagEvents;
 import lombok.extern.slf4j.Slf4j;
 
+import java.lang.ref.Cleaner;
 import java.util.Queue;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -39,13 +42,25 @@ public class DagContextPool {
 
     private static volatile ScheduledFuture<?> evictionTask;
 
+    // 命中统计：借用时池中有对象为命中，否则新建；池满时归还的对象计为丢弃
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder DISCARDS = new LongAdder();
+    private static final LongAdder RELEASES = new LongAdder();
+
+    // 存活对象统计：池创建的对象被GC回收后由Cleaner扣减，长时间运行时用于发现上下文泄漏
+    private static final LongAdder LIVE = new LongAdder();
+    private static final Cleaner CLEANER = Cleaner.create(r -> {
+        Thread t = new Thread(r, "DagContextPool-Cleaner");
+        t.setDaemon(true);
+        return t;
+    });
 
     // 静态初始化
     static {
         // 预创建一些对象
         for (int i = 0; i < INITIAL_POOL_SIZE; i++) {
-            DagContext context = new DagContext();
-            POOL.offer(context);
+            POOL.offer(newContext());
         }
         log.info("DagContextPool initialized with {} objects", INITIAL_POOL_SIZE);
 
@@ -122,17 +137,30 @@ public class DagContextPool {
     public static DagContext borrow() {
         // 尝试从池中获取对象
         DagContext context = POOL.poll();
+        boolean hit = context != null;
 
-        if (context == null) {
-            // 池为空，创建新对象
-            context = new DagContext();
+        if (hit) {
+            HITS.increment();
         } else {
-            // 记录借用时间
-            context.setBorrowTime(System.currentTimeMillis());
+            // 池为空，创建新对象
+            MISSES.increment();
+            context = newContext();
         }
 
-        // 清理对象状态
+        // 清理对象状态，记录借用时间（新建的对象同样记录，归还时才能算出持有时间）
         context.clear();
+        context.setBorrowTime(System.currentTimeMillis());
+        DagEvents.contextBorrowed(hit);
+        return context;
+    }
+
+    /**
+     * 新建对象并登记到存活统计
+     */
+    private static DagContext newContext() {
+        DagContext context = new DagContext();
+        LIVE.increment();
+        CLEANER.register(context, LIVE::decrement);
         return context;
     }
 
@@ -143,9 +171,11 @@ public class DagContextPool {
         if (context == null) {
             return;
         }
+        RELEASES.increment();
 
         // 记录归还时间
         context.setReturnTime(System.currentTimeMillis());
+        long borrowTime = context.getBorrowTime();
 
         // 检查池大小，避免无限增长
         if (POOL.size() < MAX_POOL_SIZE) {
@@ -154,8 +184,12 @@ public class DagContextPool {
 
             // 放回池中
             POOL.offer(context);
+            DagEvents.contextReleased(true, borrowTime);
+        } else {
+            // 池满时让对象自然回收
+            DISCARDS.increment();
+            DagEvents.contextReleased(false, borrowTime);
         }
-        // 池满时让对象自然回收
     }
 
 
@@ -166,6 +200,41 @@ public class DagContextPool {
         return POOL.size();
     }
 
+    /**
+     * 累计命中次数
+     */
+    public static long getHitCount() {
+        return HITS.sum();
+    }
+
+    /**
+     * 累计未命中（新建对象）次数
+     */
+    public static long getMissCount() {
+        return MISSES.sum();
+    }
+
+    /**
+     * 累计因池满被丢弃的归还次数
+     */
+    public static long getDiscardCount() {
+        return DISCARDS.sum();
+    }
+
+    /**
+     * 当前已借出未归还的对象数
+     */
+    public static long getBorrowedCount() {
+        return HITS.sum() + MISSES.sum() - RELEASES.sum();
+    }
+
+    /**
+     * 池创建且尚未被GC回收的对象数，包括池中空闲、已借出和已丢弃但还没回收的对象
+     */
+    public static long getLiveCount() {
+        return LIVE.sum();
+    }
+
     /**
      * 设置驱逐检查间隔（毫秒）
      *
@@ -0,0 +1,22 @@
+package com.qiao.flow.orchestrator.core.dag.context;
+
+/**
+ * double类型的上下文数据键，值存放在基本类型槽位中，通过DagContext.putDouble/getDouble存取不装箱
+ *
+ * @author qiao
+ */
+public final class DoubleKey extends ContextKey<Double> {
+
+    private DoubleKey(String name, int slot) {
+        super(name, Double.class, Kind.DOUBLE, slot);
+    }
+
+    /**
+     * 声明double类型的键，同名的键重复声明时返回已有的键
+     *
+     * @throws IllegalArgumentException 同名的键已声明为其他类型
+     */
+    public static DoubleKey of(String name) {
+        return register(name, Double.class, Kind.DOUBLE, slot -> new DoubleKey(name, slot));
+    }
+}
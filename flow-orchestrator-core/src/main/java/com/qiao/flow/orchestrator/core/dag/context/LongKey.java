@@ -0,0 +1,22 @@
+package com.qiao.flow.orchestrator.core.dag.context;
+
+/**
+ * long类型的上下文数据键，值存放在基本类型槽位中，通过DagContext.putLong/getLong存取不装箱
+ *
+ * @author qiao
+ */
+public final class LongKey extends ContextKey<Long> {
+
+    private LongKey(String name, int slot) {
+        super(name, Long.class, Kind.LONG, slot);
+    }
+
+    /**
+     * 声明long类型的键，同名的键重复声明时返回已有的键
+     *
+     * @throws IllegalArgumentException 同名的键已声明为其他类型
+     */
+    public static LongKey of(String name) {
+        return register(name, Long.class, Kind.LONG, slot -> new LongKey(name, slot));
+    }
+}
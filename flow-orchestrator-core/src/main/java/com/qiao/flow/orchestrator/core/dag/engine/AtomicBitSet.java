@@ -0,0 +1,64 @@
+package com.qiao.flow.orchestrator.core.dag.engine;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 定长的线程安全位图
+ * java.util.BitSet在多个线程同时设置同一个long字中的不同位时会丢失更新，
+ * 按批次执行时节点在不同线程上完成，这里用CAS设置位，读写都不分配对象
+ *
+ * @author qiao
+ */
+final class AtomicBitSet {
+
+    private final AtomicLongArray words;
+
+    AtomicBitSet(int size) {
+        this.words = new AtomicLongArray(Math.max((size + 63) >>> 6, 1));
+    }
+
+    boolean get(int index) {
+        int word = index >>> 6;
+        return word < words.length() && (words.get(word) & (1L << index)) != 0;
+    }
+
+    void set(int index) {
+        int word = index >>> 6;
+        long mask = 1L << index;
+        long current;
+        do {
+            current = words.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(word, current, current | mask));
+    }
+
+    /**
+     * 从fromIndex开始的下一个已设置的位
+     *
+     * @return 下标，没有时返回-1
+     */
+    int nextSetBit(int fromIndex) {
+        int word = fromIndex >>> 6;
+        if (word >= words.length()) {
+            return -1;
+        }
+        long bits = words.get(word) & (-1L << fromIndex);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word == words.length()) {
+                return -1;
+            }
+            bits = words.get(word);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < words.length(); i++) {
+            words.set(i, 0L);
+        }
+    }
+}
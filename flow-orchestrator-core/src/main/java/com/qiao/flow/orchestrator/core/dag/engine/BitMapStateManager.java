@@ -6,7 +6,7 @@ import java.util.*;
 
 /**
  * 位图状态管理器
- * 使用BitSet替代HashSet管理节点状态，减少内存使用和CPU开销
+ * 使用位图替代HashSet管理节点状态，减少内存使用和CPU开销；位图按CAS设置，可由多个执行线程同时修改
  *
  * @author qiao
  */
@@ -14,28 +14,46 @@ import java.util.*;
 public class BitMapStateManager {
 
     // 位图状态存储
-    private final BitSet completedNodes;
-    private final BitSet failedNodes;
-    private final BitSet skippedNodes;
-    private final BitSet prunedNodes;
-    private final BitSet selectedNodes;
+    private final AtomicBitSet completedNodes;
+    private final AtomicBitSet failedNodes;
+    private final AtomicBitSet skippedNodes;
+    private final AtomicBitSet prunedNodes;
+    private final AtomicBitSet selectedNodes;
 
     // 节点ID到索引的映射
     private final Map<String, Integer> nodeIdToIndex;
     private final Map<Integer, String> indexToNodeId;
 
+    // 共享的节点下标索引，使用Map构造时为null
+    private final DagNodeIndex nodeIndex;
+
     // 节点总数
     private final int nodeCount;
 
+    /**
+     * 使用共享的节点下标索引，不再为每个实例建立映射
+     */
+    public BitMapStateManager(DagNodeIndex nodeIndex) {
+        this.nodeCount = nodeIndex.size();
+        this.completedNodes = new AtomicBitSet(nodeCount);
+        this.failedNodes = new AtomicBitSet(nodeCount);
+        this.skippedNodes = new AtomicBitSet(nodeCount);
+        this.prunedNodes = new AtomicBitSet(nodeCount);
+        this.selectedNodes = new AtomicBitSet(nodeCount);
+        this.nodeIdToIndex = nodeIndex.getIndexes();
+        this.indexToNodeId = null;
+        this.nodeIndex = nodeIndex;
+    }
+
     public BitMapStateManager(Map<String, ?> nodeMap) {
         this.nodeCount = nodeMap.size();
 
         // 初始化位图
-        this.completedNodes = new BitSet(nodeCount);
-        this.failedNodes = new BitSet(nodeCount);
-        this.skippedNodes = new BitSet(nodeCount);
-        this.prunedNodes = new BitSet(nodeCount);
-        this.selectedNodes = new BitSet(nodeCount);
+        this.completedNodes = new AtomicBitSet(nodeCount);
+        this.failedNodes = new AtomicBitSet(nodeCount);
+        this.skippedNodes = new AtomicBitSet(nodeCount);
+        this.prunedNodes = new AtomicBitSet(nodeCount);
+        this.selectedNodes = new AtomicBitSet(nodeCount);
 
         // 初始化映射
         this.nodeIdToIndex = new HashMap<>(nodeCount);
@@ -48,7 +66,7 @@ public class BitMapStateManager {
             indexToNodeId.put(index, nodeId);
             index++;
         }
-
+        this.nodeIndex = null;
     }
 
     /**
@@ -141,6 +159,51 @@ public class BitMapStateManager {
         }
     }
 
+    // ==================== 按下标访问 ====================
+
+    public boolean isCompleted(int index) {
+        return completedNodes.get(index);
+    }
+
+    public boolean isPruned(int index) {
+        return prunedNodes.get(index);
+    }
+
+    public boolean isSkipped(int index) {
+        return skippedNodes.get(index);
+    }
+
+    public void markCompleted(int index) {
+        completedNodes.set(index);
+    }
+
+    public void markPruned(int index) {
+        prunedNodes.set(index);
+    }
+
+    public void markSelected(int index) {
+        selectedNodes.set(index);
+    }
+
+    /**
+     * 节点是否已结束（完成、失败、跳过或被剪枝）
+     */
+    public boolean isDone(int index) {
+        return completedNodes.get(index) || failedNodes.get(index) || skippedNodes.get(index)
+                || prunedNodes.get(index);
+    }
+
+    /**
+     * 清空所有状态位，用于引擎复用
+     */
+    public void reset() {
+        completedNodes.clear();
+        failedNodes.clear();
+        skippedNodes.clear();
+        prunedNodes.clear();
+        selectedNodes.clear();
+    }
+
     /**
      * 获取所有完成的节点
      */
@@ -179,10 +242,10 @@ public class BitMapStateManager {
     /**
      * 从位图获取节点集合
      */
-    private Set<String> getNodesFromBitSet(BitSet bitSet) {
+    private Set<String> getNodesFromBitSet(AtomicBitSet bitSet) {
         Set<String> nodes = new HashSet<>();
         for (int i = bitSet.nextSetBit(0); i >= 0; i = bitSet.nextSetBit(i + 1)) {
-            String nodeId = indexToNodeId.get(i);
+            String nodeId = nodeIndex != null ? nodeIndex.getNodeId(i) : indexToNodeId.get(i);
             if (nodeId != null) {
                 nodes.add(nodeId);
             }
@@ -207,9 +270,11 @@ public class BitMapStateManager {
         skippedNodes.clear();
         prunedNodes.clear();
         selectedNodes.clear();
-        nodeIdToIndex.clear();
-        indexToNodeId.clear();
-
+        // 共享的索引不能清空
+        if (nodeIndex == null) {
+            nodeIdToIndex.clear();
+            indexToNodeId.clear();
+        }
     }
 
 }
@@ -0,0 +1,539 @@
+package com.qiao.flow.orchestrator.core.dag.engine;
+
+import com.qiao.flow.orchestrator.core.dag.callback.IDagCallback;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagEvents;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagNodeEvent;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagWorkflowEvent;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
+import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * DAG批量执行引擎
+ * 一次调度覆盖一批输入：按拓扑层级推进，每个节点每批只调度一次
+ * <p>
+ * 执行语义：
+ * 1. 每条输入拥有独立的状态位图、分支选择和剪枝结果
+ * 2. BatchNode 一次性接收本批所有可执行的输入，AsyncNode 先为每条输入发起请求再统一等待，普通 Node 在同一次调度中逐条执行
+ * 3. 某条输入的节点失败只终止该条输入，不影响同批其他输入
+ * 4. 同一层级的多个节点按节点类型并发执行，状态更新在层级结束后统一进行
+ * 5. 超时取DagEngineConfig的超时时间，按整批计算：批内每条输入都要等整批结束，到期时尚未失败的输入都以超时失败
+ * 6. 执行前后回调每批各执行一次；前回调失败时整批（包括后回调）不执行，后回调失败时尚未失败的输入都以该异常失败
+ *
+ * @author qiao
+ */
+@Slf4j
+public class DagBatchEngine<T> {
+
+    // 缓存空集合，避免重复创建
+    private static final Set<String> EMPTY_SET = Collections.emptySet();
+
+    // 不可变配置 - 可安全共享
+    private final DagEngineConfig config;
+    private final Map<String, NodeWrapper<?, ?>> localNodeMap;
+    private final Map<String, Set<String>> localDependencies;
+    private final Map<String, Set<String>> localWeakDependencies;
+    private final Map<String, Set<String>> localSuccessors;
+    private final Set<String> localEndNodes;
+    private final MixedThreadPoolManager localThreadPoolManager;
+    private final long localTimeout;
+
+    // 每条输入独立的执行状态
+    private BitMapStateManager[] itemStates;
+    private Throwable[] itemExceptions;
+
+    // 整批的截止时间
+    private long deadlineNanos;
+    // 超时时仍有节点未结束，批内上下文可能仍被写入
+    private volatile boolean abandoned;
+
+    // 执行前后回调，每批各执行一次
+    private IDagCallback beforeCallback;
+    private IDagCallback afterCallback;
+
+    public DagBatchEngine(DagEngineConfig config) {
+        this.config = config;
+        this.localNodeMap = config.getNodeMap();
+        this.localDependencies = config.getDependencies();
+        this.localWeakDependencies = config.getWeakDependencies();
+        this.localSuccessors = config.getSuccessors();
+        this.localEndNodes = config.getEndNodes();
+        this.localThreadPoolManager = config.getThreadPoolManager();
+        this.localTimeout = config.getTimeout();
+    }
+
+    /**
+     * 批量执行DAG
+     *
+     * @param inputs   本批输入
+     * @param contexts 与输入一一对应的DAG上下文
+     */
+    public void execute(List<T> inputs, List<DagContext> contexts) {
+        int size = inputs.size();
+        if (contexts.size() != size) {
+            throw new IllegalArgumentException("inputs and contexts size mismatch: " + size + " vs " + contexts.size());
+        }
+
+        this.itemStates = new BitMapStateManager[size];
+        this.itemExceptions = new Throwable[size];
+        DagNodeIndex nodeIndex = config.getNodeIndex();
+        for (int i = 0; i < size; i++) {
+            itemStates[i] = new BitMapStateManager(nodeIndex);
+            contexts.get(i).bind(nodeIndex);
+        }
+
+        long batchStartTime = System.currentTimeMillis();
+        long batchStartNanos = System.nanoTime();
+        // 超时时间很大时避免截止时间溢出
+        this.deadlineNanos = batchStartNanos + Math.min(TimeUnit.MILLISECONDS.toNanos(localTimeout), Long.MAX_VALUE >> 1);
+        DagWorkflowEvent workflowEvent = DagEvents.beginWorkflow();
+
+        if (runCallback(beforeCallback, "Before")) {
+            // 按拓扑层级推进，同一层级节点之间没有依赖
+            for (List<String> level : config.getTopologicalLevels()) {
+                if (System.nanoTime() - deadlineNanos > 0) {
+                    markTimeout();
+                    break;
+                }
+                if (!executeLevel(level, inputs, contexts)) {
+                    break;
+                }
+            }
+
+            // 无论成功还是失败，都要执行后回调
+            runCallback(afterCallback, "After");
+        }
+
+        int failedCount = getFailedCount();
+        recordWorkflowMetrics(System.nanoTime() - batchStartNanos);
+        DagEvents.commitWorkflow(workflowEvent, config.getWorkflowName(), "BATCH", localNodeMap.size(),
+                failedCount == 0 ? DagState.FINISH : DagState.ERROR);
+
+        DagEventLog.batchCompleted(config.getWorkflowName(), size, failedCount, System.currentTimeMillis() - batchStartTime);
+    }
+
+    /**
+     * 执行回调，失败时尚未失败的输入都以回调异常失败
+     *
+     * @return 回调是否成功
+     */
+    private boolean runCallback(IDagCallback callback, String phase) {
+        if (callback == null) {
+            return true;
+        }
+        try {
+            callback.callback();
+            return true;
+        } catch (Exception callbackException) {
+            log.warn("{} callback execution failed in batch", phase, callbackException);
+            failRemaining(callbackException);
+            return false;
+        }
+    }
+
+    /**
+     * 整批以超时失败
+     */
+    private void markTimeout() {
+        log.warn("DAG batch execution timeout, timeout: {}ms", localTimeout);
+        failRemaining(new RuntimeException("DAG execution timeout"));
+    }
+
+    /**
+     * 尚未失败的输入都以指定异常失败
+     */
+    private void failRemaining(Throwable exception) {
+        for (int i = 0; i < itemExceptions.length; i++) {
+            if (itemExceptions[i] == null) {
+                itemExceptions[i] = exception;
+            }
+        }
+    }
+
+    /**
+     * 记录工作流指标：批内每条输入各计一次执行，耗时均为整批耗时（即每条输入实际等待的时间）
+     */
+    private void recordWorkflowMetrics(long batchNanos) {
+        WorkflowMetrics metrics = config.getWorkflowMetrics();
+        for (int i = 0; i < itemExceptions.length; i++) {
+            metrics.recordExecution(batchNanos, getEx(i) == null);
+        }
+    }
+
+    /**
+     * 执行一个拓扑层级
+     *
+     * @return 是否在截止时间前完成，超时时整批已失败
+     */
+    private boolean executeLevel(List<String> level, List<T> inputs, List<DagContext> contexts) {
+        // 1. 为每个节点收集本批中可执行的输入下标
+        List<String> runnableNodes = new ArrayList<>(level.size());
+        List<int[]> runnableItems = new ArrayList<>(level.size());
+        for (String nodeId : level) {
+            int[] items = findExecutableItems(nodeId);
+            if (items.length > 0) {
+                runnableNodes.add(nodeId);
+                runnableItems.add(items);
+            }
+        }
+
+        if (runnableNodes.isEmpty()) {
+            return true;
+        }
+
+        // 2. 执行节点：单个节点和内联节点在当前线程执行，异步节点在当前线程为每条输入发起请求，
+        // 其余节点（及隔离线程池、重计算和阻塞IO节点）派发到线程池并发执行
+        List<List<? extends NodeResult<?>>> levelResults = new ArrayList<>(runnableNodes.size());
+        NodeWrapper<?, ?> singleNode = runnableNodes.size() == 1 ? localNodeMap.get(runnableNodes.get(0)) : null;
+        if (singleNode != null && !singleNode.isDispatchRequired() && !singleNode.isAsyncNode()) {
+            levelResults.add(executeNode(runnableNodes.get(0), runnableItems.get(0), inputs, contexts, 0L));
+        } else {
+            List<CompletableFuture<List<? extends NodeResult<?>>>> futures = new ArrayList<>(runnableNodes.size());
+            for (int i = 0; i < runnableNodes.size(); i++) {
+                String nodeId = runnableNodes.get(i);
+                int[] items = runnableItems.get(i);
+                NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
+                if (wrapper.isAsyncNode()) {
+                    // 等待响应不占用线程，与其他节点一起受整批截止时间约束
+                    futures.add(startAsyncNode(nodeId, items, inputs, contexts));
+                } else if (wrapper.getNodeType().isInline()) {
+                    futures.add(null); // 派发完异步节点和线程池节点后再执行
+                } else {
+                    long queuedAtNanos = System.nanoTime();
+                    try {
+                        // 整批已超时返回时不再执行仍在排队的节点
+                        futures.add(CompletableFuture.supplyAsync(() -> abandoned ? List.<NodeResult<?>>of()
+                                        : executeNode(nodeId, items, inputs, contexts, queuedAtNanos),
+                                localThreadPoolManager.getThreadPool(wrapper.getNodeType(), wrapper.getExecutorName())));
+                    } catch (RejectedExecutionException e) {
+                        // 线程池拒绝按该节点的输入失败处理，已派发的节点仍需等待结束
+                        log.warn("Node execution rejected in batch: {}, exception: {}", nodeId, e.getMessage());
+                        futures.add(CompletableFuture.completedFuture(rejectedResults(items.length, e)));
+                    }
+                }
+            }
+            for (int i = 0; i < runnableNodes.size(); i++) {
+                if (futures.get(i) == null) {
+                    futures.set(i, CompletableFuture.completedFuture(
+                            executeNode(runnableNodes.get(i), runnableItems.get(i), inputs, contexts, 0L)));
+                }
+            }
+            if (!awaitLevel(futures)) {
+                abandoned = true;
+                markTimeout();
+                return false;
+            }
+            for (CompletableFuture<List<? extends NodeResult<?>>> future : futures) {
+                levelResults.add(future.join());
+            }
+        }
+
+        // 3. 统一更新每条输入的状态（单线程，避免并发修改位图）
+        for (int i = 0; i < runnableNodes.size(); i++) {
+            applyResults(runnableNodes.get(i), runnableItems.get(i), levelResults.get(i), inputs, contexts);
+        }
+        return true;
+    }
+
+    /**
+     * 被线程池拒绝的节点：本批选中的每条输入都以拒绝异常失败
+     */
+    private static List<NodeResult<?>> rejectedResults(int size, RejectedExecutionException exception) {
+        List<NodeResult<?>> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(NodeResult.failedResult(exception));
+        }
+        return results;
+    }
+
+    /**
+     * 等待本层级派发的节点全部结束，最多等到整批的截止时间
+     * 等待期间的中断在结束后恢复，不提前返回
+     *
+     * @return 是否在截止时间前全部结束
+     */
+    private boolean awaitLevel(List<CompletableFuture<List<? extends NodeResult<?>>>> futures) {
+        CompletableFuture<Void> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+        boolean interrupted = false;
+        try {
+            while (true) {
+                long remaining = deadlineNanos - System.nanoTime();
+                if (remaining <= 0 && !all.isDone()) {
+                    return false;
+                }
+                try {
+                    all.get(Math.max(remaining, 0L), TimeUnit.NANOSECONDS);
+                    return true;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    return false;
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof CompletionException ce ? ce : new CompletionException(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 找到节点在本批中可执行的输入下标
+     */
+    private int[] findExecutableItems(String nodeId) {
+        int[] items = new int[itemStates.length];
+        int count = 0;
+        for (int i = 0; i < itemStates.length; i++) {
+            if (itemExceptions[i] != null) {
+                continue; // 该条输入已失败
+            }
+            BitMapStateManager state = itemStates[i];
+            if (state.isPruned(nodeId)) {
+                continue;
+            }
+            if (canExecute(state, nodeId)) {
+                items[count++] = i;
+            }
+        }
+        return Arrays.copyOf(items, count);
+    }
+
+    /**
+     * 检查节点对某条输入是否可以执行（与DagEngine语义一致）
+     */
+    private boolean canExecute(BitMapStateManager state, String nodeId) {
+        for (String dep : localDependencies.getOrDefault(nodeId, EMPTY_SET)) {
+            if (state.isPruned(dep)) {
+                continue;
+            }
+            if (!state.isCompleted(dep)) {
+                return false;
+            }
+        }
+
+        Set<String> weakDeps = localWeakDependencies.getOrDefault(nodeId, EMPTY_SET);
+        if (!weakDeps.isEmpty()) {
+            for (String dep : weakDeps) {
+                if (!state.isPruned(dep) && state.isCompleted(dep)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * 对选中的输入执行一次节点
+     *
+     * @param queuedAtNanos 进入线程池队列的时间，0表示未排队
+     */
+    @SuppressWarnings("unchecked")
+    private List<? extends NodeResult<?>> executeNode(String nodeId, int[] items, List<T> inputs, List<DagContext> contexts,
+                                                      long queuedAtNanos) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) localNodeMap.get(nodeId);
+        List<T> batchInputs = new ArrayList<>(items.length);
+        List<DagContext> batchContexts = new ArrayList<>(items.length);
+        for (int item : items) {
+            batchInputs.add(inputs.get(item));
+            batchContexts.add(contexts.get(item));
+        }
+
+        long nodeStartTime = System.currentTimeMillis();
+        long runStartNanos = System.nanoTime();
+        DagNodeEvent nodeEvent = DagEvents.beginNode(queuedAtNanos);
+        List<? extends NodeResult<?>> results = wrapper.executeBatch(batchInputs, batchContexts);
+        recordNode(wrapper, nodeEvent, queuedAtNanos, runStartNanos, nodeStartTime, results);
+        return results;
+    }
+
+    /**
+     * 启动异步节点：在当前线程为选中的每条输入发起请求，全部stage完成时future完成
+     */
+    @SuppressWarnings("unchecked")
+    private CompletableFuture<List<? extends NodeResult<?>>> startAsyncNode(String nodeId, int[] items, List<T> inputs,
+                                                                            List<DagContext> contexts) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) localNodeMap.get(nodeId);
+        List<T> batchInputs = new ArrayList<>(items.length);
+        List<DagContext> batchContexts = new ArrayList<>(items.length);
+        for (int item : items) {
+            batchInputs.add(inputs.get(item));
+            batchContexts.add(contexts.get(item));
+        }
+
+        long nodeStartTime = System.currentTimeMillis();
+        long runStartNanos = System.nanoTime();
+        DagNodeEvent nodeEvent = DagEvents.beginNode(0L);
+        return wrapper.executeBatchAsync(batchInputs, batchContexts).<List<? extends NodeResult<?>>>thenApply(results -> {
+            recordNode(wrapper, nodeEvent, 0L, runStartNanos, nodeStartTime, results);
+            return results;
+        });
+    }
+
+    /**
+     * 记录节点的JFR事件、指标和完成事件
+     * 一次调度记一次：批内任一输入失败即记为失败
+     */
+    private void recordNode(NodeWrapper<?, ?> wrapper, DagNodeEvent nodeEvent, long queuedAtNanos, long runStartNanos,
+                            long nodeStartTime, List<? extends NodeResult<?>> results) {
+        NodeState state = results.isEmpty() ? null : results.get(0).getState();
+        for (NodeResult<?> result : results) {
+            if (result.isFailed()) {
+                state = NodeState.FAILED;
+                break;
+            }
+        }
+        DagEvents.commitNode(nodeEvent, wrapper, state);
+        wrapper.getMetrics().recordCompletion(queuedAtNanos, runStartNanos, state != NodeState.FAILED);
+        DagEventLog.nodeCompleted(config.getWorkflowName(), wrapper.getId(), results.size(),
+                System.currentTimeMillis() - nodeStartTime);
+    }
+
+    /**
+     * 将节点执行结果写回每条输入的状态
+     */
+    private void applyResults(String nodeId, int[] items, List<? extends NodeResult<?>> results,
+                              List<T> inputs, List<DagContext> contexts) {
+        for (int k = 0; k < items.length; k++) {
+            int item = items[k];
+            NodeResult<?> result = results.get(k);
+            if (result.isFailed()) {
+                itemExceptions[item] = result.getException();
+                itemStates[item].markFailed(nodeId);
+                log.warn("Node execution failed in batch: {}, item: {}, exception: {}",
+                        nodeId, item, result.getException().getMessage());
+                continue;
+            }
+
+            itemStates[item].markCompleted(nodeId);
+            handleBranchSelection(nodeId, item, inputs.get(item), contexts.get(item));
+        }
+    }
+
+    /**
+     * 处理单条输入的分支选择
+     */
+    @SuppressWarnings("unchecked")
+    private void handleBranchSelection(String nodeId, int item, T input, DagContext dagContext) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) localNodeMap.get(nodeId);
+        if (wrapper == null || wrapper.getChooser() == null) {
+            return;
+        }
+
+        try {
+            Set<String> branchSelection = wrapper.chooseNext(input, dagContext);
+            if (branchSelection == null || branchSelection.isEmpty()) {
+                return;
+            }
+
+            BitMapStateManager state = itemStates[item];
+            for (String selectedNodeId : branchSelection) {
+                state.markSelected(selectedNodeId);
+            }
+
+            // 从选中节点出发计算可达节点，结束节点总是可达
+            Set<String> reachableNodes = new HashSet<>(branchSelection);
+            Deque<String> queue = new ArrayDeque<>(branchSelection);
+            while (!queue.isEmpty()) {
+                for (String successor : localSuccessors.getOrDefault(queue.poll(), EMPTY_SET)) {
+                    if (reachableNodes.add(successor)) {
+                        queue.offer(successor);
+                    }
+                }
+            }
+            reachableNodes.addAll(localEndNodes);
+
+            // 剪枝仍处于活跃状态的不可达节点
+            List<String> prunedNodes = DagEvents.isBranchPruneEnabled() ? new ArrayList<>() : null;
+            for (String candidate : localNodeMap.keySet()) {
+                if (!reachableNodes.contains(candidate)
+                        && !state.isCompleted(candidate)
+                        && !state.isFailed(candidate)
+                        && !state.isPruned(candidate)) {
+                    state.markPruned(candidate);
+                    localNodeMap.get(candidate).getMetrics().recordPruned();
+                    if (prunedNodes != null) {
+                        prunedNodes.add(candidate);
+                    }
+                }
+            }
+            if (prunedNodes != null && !prunedNodes.isEmpty()) {
+                DagEvents.branchPruned(config.getWorkflowName(), nodeId, branchSelection, prunedNodes);
+            }
+        } catch (Exception e) {
+            log.warn("Branch selection failed for node {}, item: {}", nodeId, item, e);
+        }
+    }
+
+    /**
+     * 获取指定输入的执行异常
+     *
+     * @param item 输入下标
+     * @return 异常，成功时返回null
+     */
+    public Throwable getEx(int item) {
+        return itemExceptions == null ? null : itemExceptions[item];
+    }
+
+    /**
+     * 是否在超时时仍有节点未结束
+     * 为true时本批的DagContext可能仍被晚到的节点写入，不应归还对象池
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    /**
+     * 设置执行前回调，每批执行一次
+     */
+    public void setBeforeCallback(IDagCallback beforeCallback) {
+        this.beforeCallback = beforeCallback;
+    }
+
+    /**
+     * 设置执行后回调，每批执行一次，节点失败或超时时也会执行，前回调失败时不执行
+     */
+    public void setAfterCallback(IDagCallback afterCallback) {
+        this.afterCallback = afterCallback;
+    }
+
+    /**
+     * 获取失败的输入数量
+     */
+    public int getFailedCount() {
+        if (itemExceptions == null) {
+            return 0;
+        }
+        int failed = 0;
+        for (Throwable exception : itemExceptions) {
+            if (exception != null) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 获取配置对象
+     */
+    public DagEngineConfig getConfig() {
+        return config;
+    }
+}
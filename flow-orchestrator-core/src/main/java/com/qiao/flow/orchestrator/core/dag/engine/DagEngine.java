@@ -5,49 +5,77 @@ import com.qiao.flow.orchestrator.core.dag.callback.IDagCallback;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.enums.DagState;
 import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagEvents;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagNodeEvent;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagWorkflowEvent;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
-import com.qiao.flow.orchestrator.core.dag.node.NodeType;
-import com.qiao.flow.orchestrator.core.dag.pool.CollectionPool;
 import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.trace.ExecutionTrace;
+import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
 import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * DAG执行引擎
+ * <p>
+ * 调度按节点下标进行：就绪节点写入预分配的下标缓冲区，派发到线程池的任务对象按节点预先创建，
+ * 一批节点的等待用计数加park/unpark完成。引擎通过DagEngineConfig.borrowEngine/releaseEngine复用，
+ * 稳定状态下调度路径不分配对象（线程池队列自身的节点、AsyncNode返回的stage除外）
+ * <p>
+ * 等待一批节点时同样受DAG超时约束：到期仍有节点未结束（如永不完成的AsyncNode stage）时DAG以超时失败，
+ * 引擎标记为已放弃，不再归还复用，本次执行的DagContext也不应再归还对象池
  *
  * @author qiao
  */
 @Slf4j
 public class DagEngine<T> {
 
-    // 缓存空集合，避免重复创建
-    private static final Set<String> EMPTY_SET = Collections.emptySet();
-
     // 不可变配置 - 可安全共享
     private final DagEngineConfig config;
 
-    // 本地缓存 - 减少配置访问开销
-    private final Map<String, NodeWrapper<?, ?>> localNodeMap;
-    private final Map<String, Set<String>> localDependencies;
-    private final Map<String, Set<String>> localWeakDependencies;
+    // 节点下标索引 - 由同一配置的引擎共享
+    private final DagNodeIndex nodeIndex;
     private final MixedThreadPoolManager localThreadPoolManager;
     private final long localTimeout;
-    private final Set<String> localEndNodes;
 
     // 位图状态管理器
     private final BitMapStateManager stateManager;
     private final AtomicReference<DagState> dagState;
     private final AtomicInteger failedNodesCount;
 
-    // 活跃节点管理
-    private final ConcurrentHashMap<String, Boolean> activeNodes;
+    // 本批就绪节点的下标，只由调度线程读写
+    private final int[] readyNodes;
+
+    // 派发到线程池的节点任务，按下标首次使用时创建，引擎复用时一并复用
+    private final NodeTask[] nodeTasks;
+
+    // 本批尚未结束的节点数，调度线程自身持有一个计数
+    private final AtomicInteger pendingNodes = new AtomicInteger();
+    private volatile Thread scheduler;
+
+    // 本次执行的截止时间（System.nanoTime）
+    private long deadlineNanos;
+
+    // 超时时仍有节点未结束，引擎和上下文都不能再复用
+    private volatile boolean abandoned;
+
+    // 分支剪枝的可达性计算缓冲区，多个节点可能同时完成，由branchLock保护
+    private final Object branchLock = new Object();
+    private final AtomicBitSet reachableNodes;
+    private final int[] branchQueue;
 
     // 回调
     @Setter
@@ -61,7 +89,16 @@ public class DagEngine<T> {
     @Setter
     private boolean enableCallbacks = true;
 
-    private Throwable ex;
+    // 单次执行的时间线，为null时不记录
+    @Setter
+    private ExecutionTrace trace;
+
+    private volatile Throwable ex;
+
+    // 派发被拒绝时只在还没有异常的情况下记录，不覆盖线程池线程上先发生的失败
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<DagEngine, Throwable> EX =
+            AtomicReferenceFieldUpdater.newUpdater(DagEngine.class, Throwable.class, "ex");
 
     // DagContext管理
     private DagContext dagContext;
@@ -72,113 +109,26 @@ public class DagEngine<T> {
                      Map<String, Set<String>> weakDependencies,
                      MixedThreadPoolManager threadPoolManager,
                      long timeout) {
-        // 初始化开始和结束节点
-        String startNode = null;
-        Set<String> endNodes = new HashSet<>();
-
-        for (Map.Entry<String, NodeWrapper<?, ?>> entry : nodeMap.entrySet()) {
-            NodeWrapper<?, ?> wrapper = entry.getValue();
-            if (wrapper.isStartNode()) {
-                startNode = entry.getKey();
-            }
-            if (wrapper.isEndNode()) {
-                endNodes.add(entry.getKey());
-            }
-        }
-
-        // 创建配置
-        this.config = new DagEngineConfig(nodeMap, dependencies, weakDependencies,
-                threadPoolManager, timeout, startNode, endNodes);
-
-
-        // 创建本地缓存，减少配置访问开销 - 预分配容量避免扩容
-        this.localNodeMap = new HashMap<>(config.getNodeMap().size());
-        this.localNodeMap.putAll(config.getNodeMap());
-        this.localDependencies = new HashMap<>(config.getDependencies().size());
-        this.localDependencies.putAll(config.getDependencies());
-        this.localWeakDependencies = new HashMap<>(config.getWeakDependencies().size());
-        this.localWeakDependencies.putAll(config.getWeakDependencies());
-        this.localThreadPoolManager = config.getThreadPoolManager();
-        this.localTimeout = config.getTimeout();
-        this.localEndNodes = new HashSet<>(config.getEndNodes().size());
-        this.localEndNodes.addAll(config.getEndNodes());
-
-        // 初始化位图状态管理器
-        this.stateManager = new BitMapStateManager(nodeMap);
-        this.dagState = new AtomicReference<>(DagState.INIT);
-        this.failedNodesCount = new AtomicInteger(0);
-
-        // 初始化活跃节点管理
-        this.activeNodes = new ConcurrentHashMap<>(nodeMap.size());
-        initializeActiveNodes();
+        this(DagEngineConfig.of(nodeMap, dependencies, weakDependencies, threadPoolManager, timeout));
     }
 
     // 新的构造函数，接受配置对象
     public DagEngine(DagEngineConfig config) {
         this.config = config;
-
-
-        // 创建本地缓存，减少配置访问开销 - 预分配容量避免扩容
-        this.localNodeMap = new HashMap<>(config.getNodeMap().size());
-        this.localNodeMap.putAll(config.getNodeMap());
-        this.localDependencies = new HashMap<>(config.getDependencies().size());
-        this.localDependencies.putAll(config.getDependencies());
-        this.localWeakDependencies = new HashMap<>(config.getWeakDependencies().size());
-        this.localWeakDependencies.putAll(config.getWeakDependencies());
+        this.nodeIndex = config.getNodeIndex();
         this.localThreadPoolManager = config.getThreadPoolManager();
         this.localTimeout = config.getTimeout();
-        this.localEndNodes = new HashSet<>(config.getEndNodes().size());
-        this.localEndNodes.addAll(config.getEndNodes());
 
         // 初始化位图状态管理器
-        this.stateManager = new BitMapStateManager(config.getNodeMap());
+        this.stateManager = new BitMapStateManager(nodeIndex);
         this.dagState = new AtomicReference<>(DagState.INIT);
         this.failedNodesCount = new AtomicInteger(0);
 
-        // 初始化活跃节点管理
-        this.activeNodes = new ConcurrentHashMap<>(config.getNodeMap().size());
-        initializeActiveNodes();
-    }
-
-    /**
-     * 初始化活跃节点集合
-     */
-    private void initializeActiveNodes() {
-        // 初始化时，所有节点都是活跃的
-        for (String nodeId : localNodeMap.keySet()) {
-            activeNodes.put(nodeId, true);
-        }
-    }
-
-    /**
-     * 获取活跃节点集合
-     */
-    private Set<String> getActiveNodes() {
-        // 返回副本，避免外部修改
-        return new HashSet<>(activeNodes.keySet());
-    }
-
-    /**
-     * 从活跃节点中移除节点
-     */
-    private void removeFromActiveNodes(String nodeId) {
-        activeNodes.remove(nodeId);
-    }
-
-    /**
-     * 处理节点状态变化
-     */
-    private void onNodeStateChanged(String nodeId, NodeState newState) {
-
-        // 这些状态的节点都应该从活跃节点中移除
-        if (newState == NodeState.COMPLETED ||      // 已完成
-                newState == NodeState.SKIP ||           // 被跳过
-                newState == NodeState.FAILED ||         // 执行失败
-                stateManager.isPruned(nodeId)) {        // 被剪枝
-
-            // 从活跃节点中移除
-            removeFromActiveNodes(nodeId);
-        }
+        int nodeCount = nodeIndex.size();
+        this.readyNodes = new int[nodeCount];
+        this.nodeTasks = new NodeTask[nodeCount];
+        this.reachableNodes = new AtomicBitSet(nodeCount);
+        this.branchQueue = new int[nodeCount];
     }
 
     /**
@@ -186,9 +136,18 @@ public class DagEngine<T> {
      */
     public void execute(T input, DagContext dagContext) {
         this.dagContext = dagContext;
+        dagContext.bind(nodeIndex);
         this.businessContext = input;
+        this.scheduler = Thread.currentThread();
 
         long dagStartTime = System.currentTimeMillis();
+        long dagStartNanos = System.nanoTime();
+        // 超时时间很大时避免截止时间溢出
+        this.deadlineNanos = dagStartNanos + Math.min(TimeUnit.MILLISECONDS.toNanos(localTimeout), Long.MAX_VALUE >> 1);
+        DagWorkflowEvent workflowEvent = DagEvents.beginWorkflow();
+        if (trace != null) {
+            trace.workflowStarted(config.getWorkflowName(), "WAVE", nodeIndex.size());
+        }
 
         dagState.set(DagState.RUNNING);
 
@@ -201,6 +160,7 @@ public class DagEngine<T> {
                 dagState.set(DagState.ERROR);
                 this.ex = callbackException;
                 log.warn("Before callback execution failed", callbackException);
+                recordWorkflow(workflowEvent, dagStartNanos);
                 return; // 提前返回，不执行后续逻辑
             }
         }
@@ -208,44 +168,35 @@ public class DagEngine<T> {
         // 主执行循环
         while (failedNodesCount.get() == 0 && dagState.get() != DagState.ERROR) {
             // 检查超时
-            if (System.currentTimeMillis() - dagStartTime > localTimeout) {
-                log.warn("DAG execution timeout, timeout: {}ms", localTimeout);
-                dagState.set(DagState.ERROR);
-                this.ex = new RuntimeException("DAG execution timeout");
+            if (System.nanoTime() - deadlineNanos > 0) {
+                markTimeout();
+                recordWorkflow(workflowEvent, dagStartNanos);
                 return;
             }
 
             // 找到所有可并发执行的节点
-            Set<String> executableNodes = findExecutableNodes();
+            int readyCount = findExecutableNodes();
 
-            if (executableNodes.isEmpty()) {
+            if (readyCount == 0) {
                 // 没有可执行的节点，检查是否完成
-                if (isDagCompleted()) {
-                    break;
-                } else {
+                if (!isDagCompleted()) {
                     log.warn("No executable nodes found, but DAG not completed, potential deadlock");
-                    break;
                 }
+                break;
             }
 
             // 根据节点数量决定执行方式
-            if (executableNodes.size() == 1) {
-                // 单个节点直接在当前线程执行
-                String nextNode = executableNodes.iterator().next();
-                executeNode(nextNode, input);
-
-                // 检查节点执行后是否出错
-                if (dagState.get() == DagState.ERROR) {
-                    break;
-                }
+            if (readyCount == 1 && !nodeIndex.getWrapper(readyNodes[0]).isDispatchRequired()) {
+                // 单个节点直接在当前线程执行（隔离线程池、重计算和阻塞IO节点除外）
+                executeNode(readyNodes[0], input);
             } else {
                 // 多个节点并发执行
-                executeNodesConcurrently(executableNodes, input);
+                executeNodesConcurrently(readyCount, input);
+            }
 
-                // 检查并发执行后是否出错
-                if (dagState.get() == DagState.ERROR) {
-                    break;
-                }
+            // 检查执行后是否出错
+            if (dagState.get() == DagState.ERROR) {
+                break;
             }
         }
 
@@ -262,66 +213,64 @@ public class DagEngine<T> {
         }
 
         // 检查最终状态，只有在没有错误的情况下才设置为成功
+        long dagExecutionTime = System.currentTimeMillis() - dagStartTime;
         if (dagState.get() != DagState.ERROR) {
             dagState.set(DagState.FINISH);
-            // DAG执行完成计时
-            long dagExecutionTime = System.currentTimeMillis() - dagStartTime;
-            log.info("DAG execution completed successfully, execution time: {}ms", dagExecutionTime);
+            DagEventLog.workflowCompleted(config.getWorkflowName(), "WAVE", dagExecutionTime);
         } else {
-            // 有错误的情况下，记录错误信息
-            long dagExecutionTime = System.currentTimeMillis() - dagStartTime;
-            log.warn("DAG execution failed, execution time: {}ms", dagExecutionTime);
+            DagEventLog.workflowFailed(config.getWorkflowName(), "WAVE", dagExecutionTime);
         }
+        recordWorkflow(workflowEvent, dagStartNanos);
 
-        // 确保清理引用，让GC能回收
-        this.businessContext = null;
-        this.dagContext = null;
+        // 确保清理引用，让GC能回收；已放弃的引擎不再复用，保留引用以免晚到的节点读到null
+        if (!abandoned) {
+            this.businessContext = null;
+            this.dagContext = null;
+        }
     }
 
     /**
-     * 找到所有可并发执行的节点
+     * 记录工作流指标和JFR事件
      */
-    private Set<String> findExecutableNodes() {
-        Set<String> executableNodes = CollectionPool.borrowSet();
-        try {
-            for (String nodeId : localNodeMap.keySet()) {
-                // 跳过已完成的节点
-                if (stateManager.isCompleted(nodeId) || stateManager.isSkipped(nodeId) || stateManager.isFailed(nodeId)) {
-                    continue;
-                }
-
-                // 跳过被剪枝的节点
-                if (stateManager.isPruned(nodeId)) {
-                    continue;
-                }
+    private void recordWorkflow(DagWorkflowEvent workflowEvent, long dagStartNanos) {
+        DagState state = dagState.get();
+        config.getWorkflowMetrics().recordExecution(System.nanoTime() - dagStartNanos, state != DagState.ERROR);
+        DagEvents.commitWorkflow(workflowEvent, config.getWorkflowName(), "WAVE", nodeIndex.size(), state);
+        if (trace != null) {
+            trace.workflowFinished(state);
+        }
+    }
 
-                // 检查是否可以执行
-                if (canExecute(nodeId)) {
-                    executableNodes.add(nodeId);
-                }
+    /**
+     * 找到所有可并发执行的节点，写入readyNodes
+     *
+     * @return 就绪节点数
+     */
+    private int findExecutableNodes() {
+        int count = 0;
+        for (int index = 0; index < nodeIndex.size(); index++) {
+            // 跳过已完成、失败、跳过和被剪枝的节点
+            if (stateManager.isDone(index)) {
+                continue;
             }
 
-            // 使用对象池创建副本，避免直接创建新集合
-            Set<String> result = CollectionPool.borrowSet();
-            try {
-                result.addAll(executableNodes);
-                return new HashSet<>(result); // 返回副本
-            } finally {
-                CollectionPool.releaseSet(result);
+            // 检查是否可以执行
+            if (canExecute(index)) {
+                readyNodes[count++] = index;
             }
-        } finally {
-            CollectionPool.releaseSet(executableNodes);
         }
+        return count;
     }
 
     /**
      * 检查节点是否可以执行
      */
-    private boolean canExecute(String nodeId) {
-        // 检查强依赖 - 使用缓存的空集合，避免创建临时对象
-        Set<String> deps = localDependencies.getOrDefault(nodeId, EMPTY_SET);
-
-        for (String dep : deps) {
+    private boolean canExecute(int index) {
+        // 检查强依赖
+        for (int dep : nodeIndex.getDependencies(index)) {
+            if (dep < 0) {
+                return false; // 依赖的节点不存在，永远不会完成
+            }
             // 优化检查顺序：先检查最可能失败的条件
             if (stateManager.isPruned(dep)) {
                 continue; // 跳过被剪枝的依赖
@@ -331,15 +280,13 @@ public class DagEngine<T> {
             }
         }
 
-        // 检查弱依赖 - 使用缓存的空集合，避免创建临时对象
-        Set<String> weakDeps = localWeakDependencies.getOrDefault(nodeId, EMPTY_SET);
-
-        if (!weakDeps.isEmpty()) {
+        // 检查弱依赖
+        int[] weakDeps = nodeIndex.getWeakDependencies(index);
+        if (weakDeps.length > 0) {
             boolean hasWeakDependency = false;
-            for (String dep : weakDeps) {
-                // 优化检查顺序：先检查最可能失败的条件
-                if (stateManager.isPruned(dep)) {
-                    continue; // 跳过被剪枝的依赖
+            for (int dep : weakDeps) {
+                if (dep < 0 || stateManager.isPruned(dep)) {
+                    continue; // 跳过不存在和被剪枝的依赖
                 }
                 if (stateManager.isCompleted(dep)) {
                     hasWeakDependency = true;
@@ -356,49 +303,169 @@ public class DagEngine<T> {
 
     /**
      * 并发执行多个节点
-     * 重构后：正确处理节点失败，不忽略异常
+     * 异步节点和线程池节点先全部派发，内联节点随后在当前线程执行，最后等待本批全部结束；
+     * 派发期间DAG已失败（线程池拒绝、异步节点发起失败或已派发的节点失败）时不再派发剩余节点，也不执行内联节点
      */
-    private void executeNodesConcurrently(Set<String> nodeIds, T input) {
-        List<CompletableFuture<Void>> futures = new ArrayList<>(nodeIds.size()); // 预分配容量
+    private void executeNodesConcurrently(int readyCount, T input) {
+        pendingNodes.set(1);
+        for (int i = 0; i < readyCount; i++) {
+            if (dagState.get() == DagState.ERROR) {
+                break;
+            }
+            int index = readyNodes[i];
+            NodeWrapper<?, ?> wrapper = nodeIndex.getWrapper(index);
 
-        for (String nodeId : nodeIds) {
-            NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
-            if (wrapper == null) {
+            // 异步节点在当前线程发起请求，由stage完成回调完成节点，不占用线程池线程
+            if (wrapper.isAsyncNode()) {
+                pendingNodes.incrementAndGet();
+                startAsyncNode(index, input);
                 continue;
             }
 
-            // 根据节点类型选择执行方式
-            CompletableFuture<Void> future;
-            if (wrapper.getNodeType() == NodeType.IO) {
-                // IO密集型节点使用虚拟线程池
-                future = CompletableFuture.runAsync(() -> executeNode(nodeId, input), localThreadPoolManager.getIoThreadPool());
-            } else {
-                // CPU密集型节点使用CPU线程池
-                future = CompletableFuture.runAsync(() -> executeNode(nodeId, input), localThreadPoolManager.getCpuThreadPool());
+            // 内联节点留到异步节点派发完后在当前线程执行，省去线程池切换
+            if (wrapper.getNodeType().isInline()) {
+                continue;
+            }
+
+            // 选择线程池：优先使用节点指定的隔离线程池，否则按节点类型选择
+            ExecutorService executor = localThreadPoolManager.getThreadPool(wrapper.getNodeType(), wrapper.getExecutorName());
+            NodeTask task = nodeTask(index);
+            task.input = input;
+            task.context = dagContext;
+            task.queuedAtNanos = System.nanoTime();
+            pendingNodes.incrementAndGet();
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                // 线程池拒绝按节点失败处理，已派发的节点仍需等待结束
+                task.clear();
+                nodeFinished();
+                nodeRejected(wrapper, task.queuedAtNanos, e);
+            }
+        }
+
+        for (int i = 0; i < readyCount && dagState.get() != DagState.ERROR; i++) {
+            int index = readyNodes[i];
+            NodeWrapper<?, ?> wrapper = nodeIndex.getWrapper(index);
+            if (!wrapper.isAsyncNode() && wrapper.getNodeType().isInline()) {
+                executeNode(index, input, dagContext, 0L);
+            }
+        }
+
+        // 等待所有节点完成，节点失败已由executeNode处理
+        awaitPendingNodes();
+    }
+
+    /**
+     * 线程池拒绝派发：按节点失败记录指标、JFR事件、事件日志和时间线，DAG以第一个异常失败
+     */
+    private void nodeRejected(NodeWrapper<?, ?> wrapper, long queuedAtNanos, RejectedExecutionException e) {
+        long rejectedAtNanos = System.nanoTime();
+        DagEvents.commitNode(DagEvents.beginNode(queuedAtNanos), wrapper, NodeState.FAILED);
+        wrapper.getMetrics().recordCompletion(queuedAtNanos, rejectedAtNanos, false);
+        DagEventLog.nodeFailed(config.getWorkflowName(), wrapper.getId(), e);
+        if (trace != null) {
+            trace.nodeFinished(wrapper, localThreadPoolManager.getThreadPoolName(wrapper.getNodeType(),
+                    wrapper.getExecutorName()), queuedAtNanos, rejectedAtNanos, NodeState.FAILED);
+        }
+        EX.compareAndSet(this, null, e);
+        dagState.set(DagState.ERROR);
+        log.warn("Node execution rejected: {}, exception: {}", wrapper.getId(), e.getMessage());
+    }
+
+    /**
+     * 一个节点结束，本批全部结束时唤醒调度线程
+     */
+    private void nodeFinished() {
+        if (pendingNodes.decrementAndGet() == 0) {
+            LockSupport.unpark(scheduler);
+        }
+    }
+
+    /**
+     * 释放调度线程自身的计数并等待本批节点全部结束，最多等到DAG截止时间
+     * 等待期间的中断在结束后恢复，不提前返回；到期仍有节点未结束时DAG以超时失败并放弃引擎，
+     * 未结束的节点之后完成时只减少计数，不再修改执行状态
+     */
+    private void awaitPendingNodes() {
+        boolean interrupted = false;
+        nodeFinished();
+        while (pendingNodes.get() > 0) {
+            long remaining = deadlineNanos - System.nanoTime();
+            if (remaining <= 0) {
+                abandoned = true;
+                markTimeout();
+                break;
+            }
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                interrupted = true;
             }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            futures.add(future);
+    /**
+     * DAG以超时失败
+     */
+    private void markTimeout() {
+        log.warn("DAG execution timeout, timeout: {}ms", localTimeout);
+        this.ex = new RuntimeException("DAG execution timeout");
+        dagState.set(DagState.ERROR);
+    }
+
+    /**
+     * 获取节点的线程池任务
+     */
+    private NodeTask nodeTask(int index) {
+        NodeTask task = nodeTasks[index];
+        if (task == null) {
+            task = new NodeTask(this, index);
+            nodeTasks[index] = task;
         }
+        return task;
+    }
 
-        // 等待所有节点完成，检查是否有失败的节点
+    /**
+     * 在线程池线程上执行节点，结束后减少本批计数
+     * 输入和上下文使用派发时记录在任务上的引用，不读取调度线程可能已清理的字段
+     */
+    @SuppressWarnings("unchecked")
+    private void runNodeTask(int index, Object input, DagContext context, long queuedAtNanos) {
         try {
-            CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).get();
-        } catch (Exception e) {
-            // 如果有节点失败，记录错误但不抛出异常
-            // 因为 executeNode 已经处理了节点失败的情况
-            log.warn("Some nodes in concurrent execution failed, but errors have been handled", e);
+            // 调度线程已超时返回时不再执行仍在排队的节点
+            if (!abandoned) {
+                executeNode(index, (T) input, context, queuedAtNanos);
+            }
+        } finally {
+            nodeFinished();
         }
     }
 
     /**
      * 执行单个节点
      */
-    private void executeNode(String nodeId, T input) {
-        NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
-        if (wrapper == null) {
+    private void executeNode(int index, T input) {
+        // 异步节点单独成批时同样走回调完成，调度线程只等待信号
+        if (nodeIndex.getWrapper(index).isAsyncNode()) {
+            pendingNodes.set(2);
+            startAsyncNode(index, input);
+            awaitPendingNodes();
             return;
         }
+        executeNode(index, input, dagContext, 0L);
+    }
 
+    /**
+     * 执行单个节点
+     *
+     * @param queuedAtNanos 进入线程池队列的时间，0表示未排队
+     */
+    @SuppressWarnings("unchecked")
+    private void executeNode(int index, T input, DagContext context, long queuedAtNanos) {
+        NodeWrapper<?, ?> wrapper = nodeIndex.getWrapper(index);
 
         // 记录节点开始时间
         long nodeStartTime = System.currentTimeMillis();
@@ -410,181 +477,221 @@ public class DagEngine<T> {
 
         try {
             NodeWrapper<T, ?> typedWrapper = (NodeWrapper<T, ?>) wrapper;
-            NodeResult<?> result = typedWrapper.execute(input, dagContext);
-
-            // 检查执行结果状态
-            if (result.getState() == NodeState.FAILED) {
-                // 节点执行失败，设置异常状态
-                Throwable exception = result.getException();
-                this.ex = exception;
-                dagState.set(DagState.ERROR);
-                log.warn("Node execution failed: {}, exception: {}", nodeId, exception.getMessage());
-            } else {
-                // 节点执行成功，完成节点
-                completeNode(nodeId, nodeStartTime);
+            long runStartNanos = System.nanoTime();
+            DagNodeEvent nodeEvent = DagEvents.beginNode(queuedAtNanos);
+            NodeResult<?> result = typedWrapper.execute(input, context);
+            DagEvents.commitNode(nodeEvent, wrapper, result.getState());
+            wrapper.getMetrics().recordCompletion(queuedAtNanos, runStartNanos, result.getState() != NodeState.FAILED);
+            // 超时后才结束的节点不再修改已交还调用方的时间线和执行状态
+            if (abandoned) {
+                return;
+            }
+            if (trace != null) {
+                String pool = queuedAtNanos == 0L ? null
+                        : localThreadPoolManager.getThreadPoolName(wrapper.getNodeType(), wrapper.getExecutorName());
+                trace.nodeFinished(wrapper, pool, queuedAtNanos, runStartNanos, result.getState());
             }
+            handleNodeResult(index, result, nodeStartTime);
         } catch (Throwable throwable) {
+            // 超时后才结束的节点不覆盖调用方正在读取的超时异常
+            if (abandoned) {
+                return;
+            }
             // 节点执行异常，设置异常状态
             this.ex = throwable;
             dagState.set(DagState.ERROR);
-            log.warn("Node execution exception: {}, exception: {}", nodeId, throwable.getMessage());
+            log.warn("Node execution exception: {}, exception: {}", wrapper.getId(), throwable.getMessage());
+        }
+    }
+
+    /**
+     * 启动异步节点
+     * 在当前线程发起请求后立即返回，节点在stage完成的线程上完成，完成后减少本批计数
+     */
+    @SuppressWarnings("unchecked")
+    private void startAsyncNode(int index, T input) {
+        NodeWrapper<?, ?> wrapper = nodeIndex.getWrapper(index);
+
+        // 记录节点开始时间
+        long nodeStartTime = System.currentTimeMillis();
+
+        // 节点执行前回调
+        if (enableCallbacks && beforeNodeCallback != null) {
+            beforeNodeCallback.call(wrapper);
+        }
+
+        NodeWrapper<T, ?> typedWrapper = (NodeWrapper<T, ?>) wrapper;
+        long runStartNanos = System.nanoTime();
+        DagNodeEvent nodeEvent = DagEvents.beginNode(0L);
+        CompletableFuture<? extends NodeResult<?>> future;
+        try {
+            future = typedWrapper.executeAsync(input, dagContext);
+        } catch (Throwable t) {
+            this.ex = t;
+            dagState.set(DagState.ERROR);
+            log.warn("Node execution exception: {}, exception: {}", wrapper.getId(), t.getMessage());
+            nodeFinished();
+            return;
+        }
+        future.whenComplete((result, throwable) -> {
+            try {
+                if (abandoned) {
+                    return;
+                }
+                if (throwable != null) {
+                    DagEvents.commitNode(nodeEvent, wrapper, NodeState.FAILED);
+                    wrapper.getMetrics().recordCompletion(0L, runStartNanos, false);
+                    if (trace != null) {
+                        trace.nodeFinished(wrapper, null, 0L, runStartNanos, NodeState.FAILED);
+                    }
+                    throw throwable;
+                }
+                DagEvents.commitNode(nodeEvent, wrapper, result.getState());
+                wrapper.getMetrics().recordCompletion(0L, runStartNanos, result.getState() != NodeState.FAILED);
+                if (trace != null) {
+                    trace.nodeFinished(wrapper, null, 0L, runStartNanos, result.getState());
+                }
+                handleNodeResult(index, result, nodeStartTime);
+            } catch (Throwable t) {
+                if (abandoned) {
+                    return;
+                }
+                this.ex = t;
+                dagState.set(DagState.ERROR);
+                log.warn("Node execution exception: {}, exception: {}", wrapper.getId(), t.getMessage());
+            } finally {
+                nodeFinished();
+            }
+        });
+    }
+
+    /**
+     * 处理节点执行结果
+     */
+    private void handleNodeResult(int index, NodeResult<?> result, long nodeStartTime) {
+        // 检查执行结果状态
+        if (result.getState() == NodeState.FAILED) {
+            // 节点执行失败，设置异常状态
+            Throwable exception = result.getException();
+            this.ex = exception;
+            dagState.set(DagState.ERROR);
+            log.warn("Node execution failed: {}, exception: {}", nodeIndex.getNodeId(index), exception.getMessage());
+        } else {
+            // 节点执行成功，完成节点
+            completeNode(index, nodeStartTime);
         }
     }
 
     /**
      * 完成节点执行
      */
-    private void completeNode(String nodeId, long nodeStartTime) {
+    private void completeNode(int index, long nodeStartTime) {
         // 原子性地标记节点为已完成
-        if (stateManager.isCompleted(nodeId)) {
+        if (stateManager.isCompleted(index)) {
             return;
         }
 
         // 标记节点为完成状态
-        stateManager.markCompleted(nodeId);
-
-        // 通知状态变化
-        onNodeStateChanged(nodeId, NodeState.COMPLETED);
+        stateManager.markCompleted(index);
 
         // 节点执行后回调
         if (enableCallbacks && afterNodeCallback != null) {
-            NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
-            afterNodeCallback.call(wrapper);
+            afterNodeCallback.call(nodeIndex.getWrapper(index));
         }
 
         // 处理分支选择
-        handleBranchSelection(nodeId);
+        handleBranchSelection(index);
 
-        // 计算节点执行时间
-        long nodeExecutionTime = System.currentTimeMillis() - nodeStartTime;
-        log.info("Node {} completed in {}ms", nodeId, nodeExecutionTime);
+        // 记录节点完成事件（异步写日志）
+        DagEventLog.nodeCompleted(config.getWorkflowName(), nodeIndex.getNodeId(index),
+                System.currentTimeMillis() - nodeStartTime);
     }
 
 
     /**
      * 处理分支选择
      */
-    private void handleBranchSelection(String nodeId) {
+    @SuppressWarnings("unchecked")
+    private void handleBranchSelection(int index) {
 
-        NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
-        if (wrapper == null || wrapper.getChooser() == null) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) nodeIndex.getWrapper(index);
+        if (wrapper.getChooser() == null) {
             return;
         }
 
-        NodeWrapper<T, ?> typedWrapper = (NodeWrapper<T, ?>) wrapper;
-
         // 确保上下文不为null
         if (dagContext == null || businessContext == null) {
             return;
         }
 
         try {
-            // 执行分支选择
-            Set<String> branchSelection = typedWrapper.chooseNext(businessContext, dagContext);
+            // 执行分支选择，选中的节点类直接转换为下标，不创建中间集合
+            Set<Class<? extends Node<?>>> branchSelection = wrapper.getChooser().chooseNext(businessContext, dagContext);
 
             if (branchSelection == null || branchSelection.isEmpty()) {
                 return;
             }
 
-            // 原子性地更新选择状态
-            for (String selectedNodeId : branchSelection) {
-                stateManager.markSelected(selectedNodeId);
-            }
-
-            // 递归剪枝整个分支
-            Set<String> unreachableNodes = findUnreachableNodes(branchSelection);
-
-            for (String node : unreachableNodes) {
-                stateManager.markPruned(node);
-                // 通知状态变化
-                onNodeStateChanged(node, NodeState.SKIP); // 使用SKIP状态表示被剪枝
+            synchronized (branchLock) {
+                pruneUnreachableNodes(index, branchSelection);
             }
 
         } catch (Exception e) {
-            log.warn("Branch selection failed for node {}", nodeId, e);
+            log.warn("Branch selection failed for node {}", nodeIndex.getNodeId(index), e);
         }
     }
 
     /**
-     * 查找不可达节点
+     * 标记选中的节点，从选中节点出发计算可达节点，剪枝其余仍未结束的节点
+     * 结束节点总是可达的
      */
-    private Set<String> findUnreachableNodes(Set<String> selectedNodes) {
-
-        // 计算可达节点集合
-        Set<String> reachableNodes = CollectionPool.borrowSet();
-        Set<String> unreachableNodes = CollectionPool.borrowSet();
-
-        try {
-            reachableNodes.addAll(selectedNodes);
-
-            Queue<String> queue = new LinkedList<>(selectedNodes);
-
-            while (!queue.isEmpty()) {
-                String current = queue.poll();
-
-                Set<String> successors = getAllPossibleSuccessors(current);
-
-                for (String successor : successors) {
-                    if (!reachableNodes.contains(successor)) {
-                        reachableNodes.add(successor);
-                        queue.offer(successor);
-                    }
-                }
+    private void pruneUnreachableNodes(int index, Set<Class<? extends Node<?>>> branchSelection) {
+        reachableNodes.clear();
+        int head = 0;
+        int tail = 0;
+        for (Class<? extends Node<?>> nodeClass : branchSelection) {
+            int selected = nodeIndex.indexOf(NodeBeanNameUtils.getBeanNameByClass(nodeClass));
+            if (selected < 0) {
+                continue;
             }
-
-            // 添加结束节点到可达集合（结束节点总是可达的）
-            reachableNodes.addAll(localEndNodes);
-
-            // 关键优化：只从活跃节点中计算不可达节点
-            Set<String> activeNodes = getActiveNodes();
-
-            unreachableNodes.addAll(activeNodes);       // 只添加活跃节点
-            unreachableNodes.removeAll(reachableNodes); // 减去可达节点
-
-            // 使用对象池创建副本，避免直接创建新集合
-            Set<String> result = CollectionPool.borrowSet();
-            try {
-                result.addAll(unreachableNodes);
-                return new HashSet<>(result); // 返回副本
-            } finally {
-                CollectionPool.releaseSet(result);
+            stateManager.markSelected(selected);
+            if (!reachableNodes.get(selected)) {
+                reachableNodes.set(selected);
+                branchQueue[tail++] = selected;
             }
-        } finally {
-            CollectionPool.releaseSet(reachableNodes);
-            CollectionPool.releaseSet(unreachableNodes);
         }
-    }
 
-    /**
-     * 获取节点的所有可能后继节点
-     */
-    private Set<String> getAllPossibleSuccessors(String nodeId) {
-        Set<String> successors = CollectionPool.borrowSet();
-        try {
-            // 检查强依赖
-            for (Map.Entry<String, Set<String>> entry : localDependencies.entrySet()) {
-                if (entry.getValue().contains(nodeId)) {
-                    successors.add(entry.getKey());
+        // 广度优先遍历后继节点，每个节点最多入队一次
+        while (head < tail) {
+            for (int successor : nodeIndex.getSuccessors(branchQueue[head++])) {
+                if (!reachableNodes.get(successor)) {
+                    reachableNodes.set(successor);
+                    branchQueue[tail++] = successor;
                 }
             }
+        }
+        for (int endNode : nodeIndex.getEndNodes()) {
+            reachableNodes.set(endNode);
+        }
 
-            // 检查弱依赖
-            for (Map.Entry<String, Set<String>> entry : localWeakDependencies.entrySet()) {
-                if (entry.getValue().contains(nodeId)) {
-                    successors.add(entry.getKey());
+        // 只从仍未结束的节点中剪枝，剪枝明细只在JFR事件开启时收集
+        List<String> prunedNodes = DagEvents.isBranchPruneEnabled() ? new ArrayList<>() : null;
+        for (int node = 0; node < nodeIndex.size(); node++) {
+            if (!reachableNodes.get(node) && !stateManager.isDone(node)) {
+                stateManager.markPruned(node);
+                nodeIndex.getWrapper(node).getMetrics().recordPruned();
+                if (prunedNodes != null) {
+                    prunedNodes.add(nodeIndex.getNodeId(node));
                 }
             }
+        }
 
-            // 使用对象池创建副本，避免直接创建新集合
-            Set<String> result = CollectionPool.borrowSet();
-            try {
-                result.addAll(successors);
-                return new HashSet<>(result); // 返回副本
-            } finally {
-                CollectionPool.releaseSet(result);
+        if (prunedNodes != null && !prunedNodes.isEmpty()) {
+            List<String> selectedNodes = new ArrayList<>(branchSelection.size());
+            for (Class<? extends Node<?>> nodeClass : branchSelection) {
+                selectedNodes.add(NodeBeanNameUtils.getBeanNameByClass(nodeClass));
             }
-        } finally {
-            CollectionPool.releaseSet(successors);
+            DagEvents.branchPruned(config.getWorkflowName(), nodeIndex.getNodeId(index), selectedNodes, prunedNodes);
         }
     }
 
@@ -592,7 +699,7 @@ public class DagEngine<T> {
      * 检查DAG是否完成
      */
     private boolean isDagCompleted() {
-        for (String endNode : localEndNodes) {
+        for (int endNode : nodeIndex.getEndNodes()) {
             if (!stateManager.isCompleted(endNode) && !stateManager.isSkipped(endNode)) {
                 return false;
             }
@@ -600,6 +707,34 @@ public class DagEngine<T> {
         return true;
     }
 
+    /**
+     * 重置执行状态和回调，引擎归还到配置的空闲队列前调用
+     */
+    void reset() {
+        stateManager.reset();
+        dagState.set(DagState.INIT);
+        failedNodesCount.set(0);
+        pendingNodes.set(0);
+        ex = null;
+        trace = null;
+        beforeCallback = null;
+        afterCallback = null;
+        beforeNodeCallback = null;
+        afterNodeCallback = null;
+        enableCallbacks = true;
+        scheduler = null;
+        dagContext = null;
+        businessContext = null;
+    }
+
+
+    /**
+     * 是否在超时时仍有节点未结束
+     * 为true时引擎不会被releaseEngine放回空闲队列，本次执行的DagContext也不应归还对象池
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
 
     /**
      * 获取配置对象
@@ -642,6 +777,40 @@ public class DagEngine<T> {
     public Throwable getEx() {
         return ex;
     }
-}
 
+    /**
+     * 派发到线程池的节点任务
+     * 每个节点一个实例，同一次执行中一个节点只会派发一次
+     */
+    private static final class NodeTask implements Runnable {
 
+        private final DagEngine<?> engine;
+        private final int index;
+
+        // 派发时的输入、上下文和进入线程池队列的时间，派发前由调度线程写入
+        private Object input;
+        private DagContext context;
+        private long queuedAtNanos;
+
+        private NodeTask(DagEngine<?> engine, int index) {
+            this.engine = engine;
+            this.index = index;
+        }
+
+        @Override
+        public void run() {
+            Object taskInput = input;
+            DagContext taskContext = context;
+            clear();
+            engine.runNodeTask(index, taskInput, taskContext, queuedAtNanos);
+        }
+
+        /**
+         * 清除输入和上下文的引用，任务随引擎复用时不延长它们的生命周期
+         */
+        private void clear() {
+            input = null;
+            context = null;
+        }
+    }
+}
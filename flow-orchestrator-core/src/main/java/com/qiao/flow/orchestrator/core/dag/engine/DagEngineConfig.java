@@ -1,10 +1,13 @@
 package com.qiao.flow.orchestrator.core.dag.engine;
 
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
 import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.utils.DagAlgorithmUtils;
 import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
 
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * DAG引擎配置类 - 不可变配置，可安全共享
@@ -14,6 +17,9 @@ import java.util.Set;
  */
 public class DagEngineConfig {
 
+    // 每个配置最多缓存的空闲引擎数
+    private static final int MAX_IDLE_ENGINES = 64;
+
     // 不可变配置
     private final Map<String, NodeWrapper<?, ?>> nodeMap;
     private final Map<String, Set<String>> dependencies;
@@ -23,6 +29,24 @@ public class DagEngineConfig {
     private final String startNode;
     private final Set<String> endNodes;
 
+    // 拓扑层级（批量模式使用，首次访问时计算）
+    private volatile List<List<String>> topologicalLevels;
+
+    // 后继节点映射（强+弱依赖的反向关系，首次访问时计算）
+    private volatile Map<String, Set<String>> successors;
+
+    // 节点下标索引（首次访问时计算）
+    private volatile DagNodeIndex nodeIndex;
+
+    // 空闲引擎，数组实现的有界队列，借还都不分配对象
+    private final ArrayBlockingQueue<DagEngine<?>> idleEngines = new ArrayBlockingQueue<>(MAX_IDLE_ENGINES);
+
+    // 工作流名称（取自节点，首次访问时计算）
+    private volatile String workflowName;
+
+    // 工作流指标（首次访问时获取）
+    private volatile WorkflowMetrics workflowMetrics;
+
     public DagEngineConfig(Map<String, NodeWrapper<?, ?>> nodeMap,
                            Map<String, Set<String>> dependencies,
                            Map<String, Set<String>> weakDependencies,
@@ -39,6 +63,31 @@ public class DagEngineConfig {
         this.endNodes = endNodes;
     }
 
+    /**
+     * 从节点映射中识别开始和结束节点并创建配置
+     */
+    public static DagEngineConfig of(Map<String, NodeWrapper<?, ?>> nodeMap,
+                                     Map<String, Set<String>> dependencies,
+                                     Map<String, Set<String>> weakDependencies,
+                                     MixedThreadPoolManager threadPoolManager,
+                                     long timeout) {
+        String startNode = null;
+        Set<String> endNodes = new HashSet<>();
+
+        for (Map.Entry<String, NodeWrapper<?, ?>> entry : nodeMap.entrySet()) {
+            NodeWrapper<?, ?> wrapper = entry.getValue();
+            if (wrapper.isStartNode()) {
+                startNode = entry.getKey();
+            }
+            if (wrapper.isEndNode()) {
+                endNodes.add(entry.getKey());
+            }
+        }
+
+        return new DagEngineConfig(nodeMap, dependencies, weakDependencies,
+                threadPoolManager, timeout, startNode, endNodes);
+    }
+
     // 从DagEngine创建配置（用于缓存）
     public DagEngineConfig(DagEngine<?> engine) {
         this.nodeMap = engine.getConfig().getNodeMap();
@@ -80,9 +129,117 @@ public class DagEngineConfig {
         return endNodes;
     }
 
+    /**
+     * 获取工作流名称，同一配置中的节点属于同一个工作流
+     */
+    public String getWorkflowName() {
+        String name = workflowName;
+        if (name == null) {
+            name = nodeMap.values().stream()
+                    .map(NodeWrapper::getWorkflow)
+                    .findFirst()
+                    .orElse("");
+            workflowName = name;
+        }
+        return name;
+    }
+
+    /**
+     * 获取工作流指标
+     */
+    public WorkflowMetrics getWorkflowMetrics() {
+        WorkflowMetrics metrics = workflowMetrics;
+        if (metrics == null) {
+            metrics = DagMetrics.workflow(getWorkflowName());
+            workflowMetrics = metrics;
+        }
+        return metrics;
+    }
+
+    /**
+     * 获取拓扑层级，同一层级的节点之间不存在依赖
+     */
+    public List<List<String>> getTopologicalLevels() {
+        List<List<String>> levels = topologicalLevels;
+        if (levels == null) {
+            levels = DagAlgorithmUtils.topologicalLevels(nodeMap, dependencies, weakDependencies);
+            topologicalLevels = levels;
+        }
+        return levels;
+    }
+
+    /**
+     * 获取节点的后继节点映射（包含强依赖和弱依赖）
+     */
+    public Map<String, Set<String>> getSuccessors() {
+        Map<String, Set<String>> result = successors;
+        if (result == null) {
+            result = new HashMap<>(nodeMap.size());
+            for (String nodeId : nodeMap.keySet()) {
+                result.put(nodeId, new HashSet<>());
+            }
+            addSuccessors(result, dependencies);
+            addSuccessors(result, weakDependencies);
+            successors = result;
+        }
+        return result;
+    }
+
+    /**
+     * 获取节点下标索引
+     */
+    public DagNodeIndex getNodeIndex() {
+        DagNodeIndex index = nodeIndex;
+        if (index == null) {
+            index = new DagNodeIndex(nodeMap, dependencies, weakDependencies, getSuccessors(), endNodes);
+            nodeIndex = index;
+        }
+        return index;
+    }
+
+    private static void addSuccessors(Map<String, Set<String>> result, Map<String, Set<String>> deps) {
+        for (Map.Entry<String, Set<String>> entry : deps.entrySet()) {
+            for (String dep : entry.getValue()) {
+                result.computeIfAbsent(dep, k -> new HashSet<>()).add(entry.getKey());
+            }
+        }
+    }
+
 
     // 创建新的DagEngine实例
     public <T> DagEngine<T> createEngine() {
         return new DagEngine<>(this);
     }
+
+    /**
+     * 借用一个引擎，没有空闲引擎时新建
+     * 执行结束后通过releaseEngine归还，稳定状态下每次执行不再创建引擎和它的位图、缓冲区
+     */
+    @SuppressWarnings("unchecked")
+    public <T> DagEngine<T> borrowEngine() {
+        DagEngine<T> engine = (DagEngine<T>) idleEngines.poll();
+        return engine != null ? engine : createEngine();
+    }
+
+    /**
+     * 归还引擎，重置执行状态后放回空闲队列，队列已满时丢弃
+     * 超时时仍有节点未结束的引擎直接丢弃；调用方归还后不能再访问该引擎
+     */
+    public void releaseEngine(DagEngine<?> engine) {
+        if (engine == null || engine.getConfig() != this || engine.isAbandoned()) {
+            return;
+        }
+        engine.reset();
+        idleEngines.offer(engine);
+    }
+
+    // 创建新的批量执行引擎实例
+    public <T> DagBatchEngine<T> createBatchEngine() {
+        return new DagBatchEngine<>(this);
+    }
+
+    // 创建新的结构化并发执行引擎实例
+    public <T> DagStructuredEngine<T> createStructuredEngine() {
+        return new DagStructuredEngine<>(this);
+    }
 }
@@ -0,0 +1,133 @@
+package com.qiao.flow.orchestrator.core.dag.engine;
+
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.util.*;
+
+/**
+ * 节点下标索引 - 不可变，由同一配置的所有引擎共享
+ * 把节点ID映射为0..n-1的下标，依赖、弱依赖、后继关系预先转换为下标数组，
+ * 执行时按下标访问位图和数组，不再查询Map、不创建临时集合
+ *
+ * @author qiao
+ */
+public class DagNodeIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] nodeIds;
+    private final NodeWrapper<?, ?>[] wrappers;
+    private final Map<String, Integer> indexes;
+    private final int[][] dependencies;
+    private final int[][] weakDependencies;
+    private final int[][] successors;
+    private final int[] endNodes;
+
+    public DagNodeIndex(Map<String, NodeWrapper<?, ?>> nodeMap,
+                        Map<String, Set<String>> dependencies,
+                        Map<String, Set<String>> weakDependencies,
+                        Map<String, Set<String>> successors,
+                        Set<String> endNodes) {
+        int size = nodeMap.size();
+        this.nodeIds = new String[size];
+        this.wrappers = new NodeWrapper<?, ?>[size];
+        Map<String, Integer> indexMap = new HashMap<>(size * 2);
+        int index = 0;
+        for (Map.Entry<String, NodeWrapper<?, ?>> entry : nodeMap.entrySet()) {
+            nodeIds[index] = entry.getKey();
+            wrappers[index] = entry.getValue();
+            indexMap.put(entry.getKey(), index);
+            index++;
+        }
+        this.indexes = Collections.unmodifiableMap(indexMap);
+        this.dependencies = toIndexArrays(dependencies, true);
+        this.weakDependencies = toIndexArrays(weakDependencies, true);
+        this.successors = toIndexArrays(successors, false);
+        this.endNodes = toIndexArray(endNodes, false);
+    }
+
+    /**
+     * 节点数
+     */
+    public int size() {
+        return nodeIds.length;
+    }
+
+    /**
+     * 节点ID对应的下标
+     *
+     * @return 下标，不存在时返回-1
+     */
+    public int indexOf(String nodeId) {
+        Integer index = indexes.get(nodeId);
+        return index != null ? index : -1;
+    }
+
+    public String getNodeId(int index) {
+        return nodeIds[index];
+    }
+
+    public NodeWrapper<?, ?> getWrapper(int index) {
+        return wrappers[index];
+    }
+
+    /**
+     * 节点ID到下标的只读映射
+     */
+    public Map<String, Integer> getIndexes() {
+        return indexes;
+    }
+
+    /**
+     * 强依赖节点的下标，不存在于节点映射中的依赖为-1（永远不会完成，该节点不会就绪）
+     */
+    public int[] getDependencies(int index) {
+        return dependencies[index];
+    }
+
+    /**
+     * 弱依赖节点的下标，不存在于节点映射中的依赖为-1（永远不会完成）
+     */
+    public int[] getWeakDependencies(int index) {
+        return weakDependencies[index];
+    }
+
+    /**
+     * 后继节点的下标（包含强依赖和弱依赖）
+     */
+    public int[] getSuccessors(int index) {
+        return successors[index];
+    }
+
+    /**
+     * 结束节点的下标
+     */
+    public int[] getEndNodes() {
+        return endNodes;
+    }
+
+    private int[][] toIndexArrays(Map<String, Set<String>> relations, boolean keepMissing) {
+        int[][] result = new int[nodeIds.length][];
+        for (int i = 0; i < nodeIds.length; i++) {
+            result[i] = toIndexArray(relations.get(nodeIds[i]), keepMissing);
+        }
+        return result;
+    }
+
+    private int[] toIndexArray(Set<String> nodes, boolean keepMissing) {
+        if (nodes == null || nodes.isEmpty()) {
+            return EMPTY;
+        }
+        int[] result = new int[nodes.size()];
+        int count = 0;
+        for (String nodeId : nodes) {
+            Integer index = indexes.get(nodeId);
+            if (index != null) {
+                result[count++] = index;
+            } else if (keepMissing) {
+                result[count++] = -1;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,617 @@
+package com.qiao.flow.orchestrator.core.dag.engine;
+
+import com.qiao.flow.orchestrator.core.dag.callback.ICallable;
+import com.qiao.flow.orchestrator.core.dag.callback.IDagCallback;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagEvents;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagNodeEvent;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagWorkflowEvent;
+import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.trace.ExecutionTrace;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 结构化并发DAG执行引擎
+ * 每次执行拥有一个独立的虚拟线程作用域（语义对应StructuredTaskScope.ShutdownOnFailure）：
+ * 1. 节点就绪即fork为虚拟线程子任务，没有按批次等待的屏障，调度线程只等待整个作用域结束
+ * 2. 任一节点失败立即关闭作用域，中断所有仍在运行的兄弟节点
+ * 3. 整个DAG共享一个截止时间，超时同样关闭作用域
+ * 4. CPU、重计算、阻塞IO以及指定了隔离线程池的节点仍派发到对应线程池执行，
+ * 虚拟线程只负责等待结果；INLINE节点直接在完成前驱节点的线程上执行；AsyncNode由stage回调完成
+ * <p>
+ * JDK 21中StructuredTaskScope仍是预览API，这里用每次执行一个虚拟线程执行器实现相同的生命周期语义。
+ * 与StructuredTaskScope.close一致，关闭作用域时等待所有子任务退出，包括派发到线程池、不响应中断的节点，
+ * execute返回后不会再有节点访问DagContext和时间线；只有仍未完成的AsyncNode stage没有线程可等待，
+ * 此时引擎标记为已放弃，本次执行的DagContext不应再归还对象池
+ *
+ * @author qiao
+ */
+@Slf4j
+public class DagStructuredEngine<T> {
+
+    private static final Set<String> EMPTY_SET = Collections.emptySet();
+
+    // 不可变配置 - 可安全共享
+    private final DagEngineConfig config;
+
+    // 本地缓存 - 减少配置访问开销
+    private final Map<String, NodeWrapper<?, ?>> localNodeMap;
+    private final Map<String, Set<String>> localDependencies;
+    private final Map<String, Set<String>> localWeakDependencies;
+    private final Map<String, Set<String>> localSuccessors;
+    private final MixedThreadPoolManager localThreadPoolManager;
+    private final long localTimeout;
+    private final Set<String> localEndNodes;
+
+    // 调度状态，全部在lock内修改；节点执行在锁外
+    private final Object lock = new Object();
+    private final BitMapStateManager stateManager;
+    private final Set<String> startedNodes;
+    private int runningNodes;
+
+    private final CompletableFuture<Void> scopeDone = new CompletableFuture<>();
+    private volatile DagState dagState = DagState.INIT;
+    private volatile Throwable ex;
+
+    // 尚未完成的AsyncNode stage数
+    private final AtomicInteger pendingStages = new AtomicInteger();
+
+    // 作用域已关闭，晚到的stage回调不再修改时间线和执行状态
+    private volatile boolean closed;
+
+    // 作用域关闭时仍有stage未完成，DagContext不能再复用
+    private volatile boolean abandoned;
+
+    // 回调
+    @Setter
+    private IDagCallback beforeCallback;
+    @Setter
+    private IDagCallback afterCallback;
+    @Setter
+    private ICallable beforeNodeCallback;
+    @Setter
+    private ICallable afterNodeCallback;
+    @Setter
+    private boolean enableCallbacks = true;
+
+    // 单次执行的时间线，为null时不记录
+    @Setter
+    private ExecutionTrace trace;
+
+    // 单次执行的作用域
+    private ExecutorService scope;
+    private DagContext dagContext;
+    private T businessContext;
+
+    public DagStructuredEngine(DagEngineConfig config) {
+        this.config = config;
+        this.localNodeMap = config.getNodeMap();
+        this.localDependencies = config.getDependencies();
+        this.localWeakDependencies = config.getWeakDependencies();
+        this.localSuccessors = config.getSuccessors();
+        this.localThreadPoolManager = config.getThreadPoolManager();
+        this.localTimeout = config.getTimeout();
+        this.localEndNodes = config.getEndNodes();
+        this.stateManager = new BitMapStateManager(config.getNodeIndex());
+        this.startedNodes = new HashSet<>(localNodeMap.size());
+    }
+
+    /**
+     * 执行DAG，调用线程阻塞到作用域结束（全部完成、任一失败或超时）
+     * 调用线程为虚拟线程时不占用平台线程
+     */
+    public void execute(T input, DagContext dagContext) {
+        this.dagContext = dagContext;
+        dagContext.bind(config.getNodeIndex());
+        this.businessContext = input;
+        long dagStartTime = System.currentTimeMillis();
+        long dagStartNanos = System.nanoTime();
+        DagWorkflowEvent workflowEvent = DagEvents.beginWorkflow();
+        if (trace != null) {
+            trace.workflowStarted(config.getWorkflowName(), "STRUCTURED", localNodeMap.size());
+        }
+        dagState = DagState.RUNNING;
+
+        // 执行前回调
+        if (enableCallbacks && beforeCallback != null) {
+            try {
+                beforeCallback.callback();
+            } catch (Exception callbackException) {
+                dagState = DagState.ERROR;
+                this.ex = callbackException;
+                log.warn("Before callback execution failed", callbackException);
+                recordWorkflow(workflowEvent, dagStartNanos);
+                return;
+            }
+        }
+
+        scope = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("dag-scope-", 1).factory());
+        try {
+            // fork初始就绪节点
+            List<String> ready;
+            synchronized (lock) {
+                ready = collectReadyNodes();
+                runningNodes += ready.size();
+            }
+            if (ready.isEmpty()) {
+                finishScope();
+            } else {
+                launch(ready);
+            }
+
+            // 等待作用域结束：全部完成、任一失败或到达截止时间
+            try {
+                scopeDone.get(localTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                log.warn("DAG execution timeout, timeout: {}ms", localTimeout);
+                failScope(new RuntimeException("DAG execution timeout"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failScope(e);
+            } catch (ExecutionException e) {
+                failScope(e.getCause());
+            }
+        } finally {
+            // 关闭作用域：中断仍在运行的子任务
+            shutdownScope();
+        }
+
+        // 无论成功还是失败，都要执行后回调
+        if (enableCallbacks && afterCallback != null) {
+            try {
+                afterCallback.callback();
+            } catch (Exception callbackException) {
+                dagState = DagState.ERROR;
+                this.ex = callbackException;
+                log.warn("After callback execution failed", callbackException);
+            }
+        }
+
+        long dagExecutionTime = System.currentTimeMillis() - dagStartTime;
+        if (dagState != DagState.ERROR) {
+            dagState = DagState.FINISH;
+            DagEventLog.workflowCompleted(config.getWorkflowName(), "STRUCTURED", dagExecutionTime);
+        } else {
+            DagEventLog.workflowFailed(config.getWorkflowName(), "STRUCTURED", dagExecutionTime);
+        }
+        recordWorkflow(workflowEvent, dagStartNanos);
+
+        // 确保清理引用，让GC能回收
+        this.businessContext = null;
+        this.dagContext = null;
+    }
+
+    /**
+     * 记录工作流指标和JFR事件
+     */
+    private void recordWorkflow(DagWorkflowEvent workflowEvent, long dagStartNanos) {
+        DagState state = dagState;
+        config.getWorkflowMetrics().recordExecution(System.nanoTime() - dagStartNanos, state != DagState.ERROR);
+        DagEvents.commitWorkflow(workflowEvent, config.getWorkflowName(), "STRUCTURED", localNodeMap.size(), state);
+        if (trace != null) {
+            trace.workflowFinished(state);
+        }
+    }
+
+    /**
+     * 启动就绪节点：INLINE节点在当前线程执行，其余节点fork为虚拟线程子任务
+     * INLINE节点完成后新就绪的节点在同一个循环中继续启动，长INLINE链不会在当前线程上逐层递归
+     */
+    private void launch(List<String> ready) {
+        Deque<String> inlineNodes = null;
+        while (true) {
+            for (String nodeId : ready) {
+                NodeWrapper<?, ?> wrapper = localNodeMap.get(nodeId);
+                if (wrapper.getNodeType().isInline() && !wrapper.isAsyncNode()) {
+                    if (inlineNodes == null) {
+                        inlineNodes = new ArrayDeque<>();
+                    }
+                    inlineNodes.offer(nodeId);
+                    continue;
+                }
+                fork(nodeId);
+            }
+            if (inlineNodes == null || inlineNodes.isEmpty()) {
+                return;
+            }
+            ready = runNode(inlineNodes.poll(), 0L);
+        }
+    }
+
+    /**
+     * fork一个节点子任务
+     */
+    private void fork(String nodeId) {
+        synchronized (lock) {
+            if (dagState != DagState.RUNNING) {
+                runningNodes--;
+                return;
+            }
+            try {
+                long queuedAtNanos = System.nanoTime();
+                scope.execute(() -> launch(runNode(nodeId, queuedAtNanos)));
+            } catch (RejectedExecutionException e) {
+                // 作用域已关闭
+                runningNodes--;
+            }
+        }
+    }
+
+    /**
+     * 执行单个节点
+     *
+     * @param queuedAtNanos fork的时间，0表示未排队
+     * @return 节点完成后新就绪的节点，由调用方启动；节点失败或由stage回调完成时为空
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> runNode(String nodeId, long queuedAtNanos) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) localNodeMap.get(nodeId);
+        long nodeStartTime = System.currentTimeMillis();
+
+        try {
+            if (enableCallbacks && beforeNodeCallback != null) {
+                beforeNodeCallback.call(wrapper);
+            }
+
+            // 异步节点：由stage回调完成，当前虚拟线程立即退出
+            if (wrapper.isAsyncNode()) {
+                long runStartNanos = System.nanoTime();
+                DagNodeEvent nodeEvent = DagEvents.beginNode(queuedAtNanos);
+                CompletableFuture<? extends NodeResult<?>> stage = wrapper.executeAsync(businessContext, dagContext);
+                pendingStages.incrementAndGet();
+                stage.whenComplete((result, throwable) -> {
+                    try {
+                        NodeState state = throwable != null ? NodeState.FAILED : result.getState();
+                        DagEvents.commitNode(nodeEvent, wrapper, state);
+                        wrapper.getMetrics().recordCompletion(queuedAtNanos, runStartNanos, state != NodeState.FAILED);
+                        if (closed) {
+                            return;
+                        }
+                        traceNode(wrapper, null, queuedAtNanos, runStartNanos, state);
+                        if (throwable != null) {
+                            onNodeFailed(nodeId, throwable);
+                        } else {
+                            launch(onNodeDone(nodeId, result, nodeStartTime));
+                        }
+                    } finally {
+                        pendingStages.decrementAndGet();
+                    }
+                });
+                return List.of();
+            }
+
+            NodeResult<?> result;
+            ExecutorService executor = offloadExecutor(wrapper);
+            if (executor != null) {
+                // CPU类节点派发到对应线程池，虚拟线程只等待结果
+                OffloadedNode offloaded = new OffloadedNode(wrapper, queuedAtNanos, System.nanoTime());
+                Future<NodeResult<?>> future = executor.submit(offloaded);
+                try {
+                    result = future.get();
+                } catch (InterruptedException e) {
+                    // 作用域关闭：节点退出后当前子任务才结束
+                    offloaded.cancelAndAwait(future);
+                    Thread.currentThread().interrupt();
+                    onNodeFailed(nodeId, e);
+                    return List.of();
+                }
+            } else {
+                result = executeWrapper(wrapper, queuedAtNanos, queuedAtNanos);
+            }
+            return onNodeDone(nodeId, result, nodeStartTime);
+        } catch (Throwable throwable) {
+            onNodeFailed(nodeId, throwable instanceof ExecutionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable);
+            return List.of();
+        }
+    }
+
+    /**
+     * 在当前线程执行节点并记录节点指标、JFR事件和时间线
+     *
+     * @param readyNanos    节点就绪（fork）的时间，0表示未排队
+     * @param queuedAtNanos 进入当前线程池队列的时间，0表示未排队
+     */
+    private NodeResult<?> executeWrapper(NodeWrapper<T, ?> wrapper, long readyNanos, long queuedAtNanos) {
+        long runStartNanos = System.nanoTime();
+        DagNodeEvent nodeEvent = DagEvents.beginNode(queuedAtNanos);
+        NodeResult<?> result = wrapper.execute(businessContext, dagContext);
+        DagEvents.commitNode(nodeEvent, wrapper, result.getState());
+        wrapper.getMetrics().recordCompletion(queuedAtNanos, runStartNanos, result.getState() != NodeState.FAILED);
+        if (trace != null) {
+            String pool = readyNanos == queuedAtNanos ? null
+                    : localThreadPoolManager.getThreadPoolName(wrapper.getNodeType(), wrapper.getExecutorName());
+            traceNode(wrapper, pool, readyNanos, runStartNanos, result.getState());
+        }
+        return result;
+    }
+
+    private void traceNode(NodeWrapper<?, ?> wrapper, String pool, long readyNanos, long runStartNanos, NodeState state) {
+        if (trace != null) {
+            trace.nodeFinished(wrapper, pool, readyNanos, runStartNanos, state);
+        }
+    }
+
+    /**
+     * 需要派发到平台线程池的节点返回对应线程池，可直接在虚拟线程上执行的返回null
+     */
+    private ExecutorService offloadExecutor(NodeWrapper<?, ?> wrapper) {
+        if (wrapper.isIsolated()) {
+            return localThreadPoolManager.getThreadPool(wrapper.getNodeType(), wrapper.getExecutorName());
+        }
+        return switch (wrapper.getNodeType()) {
+            case CPU, HEAVY_CPU, BLOCKING_IO -> localThreadPoolManager.getThreadPool(wrapper.getNodeType());
+            case IO, ASYNC_IO, INLINE -> null;
+        };
+    }
+
+    /**
+     * 节点执行结束：完成节点、处理分支选择并收集新的就绪节点
+     *
+     * @return 新就绪的节点，由调用方launch
+     */
+    private List<String> onNodeDone(String nodeId, NodeResult<?> result, long nodeStartTime) {
+        if (result.getState() == NodeState.FAILED) {
+            onNodeFailed(nodeId, result.getException());
+            return List.of();
+        }
+
+        // 分支选择（用户代码，在锁外执行）
+        Set<String> branchSelection = chooseBranch(nodeId);
+
+        if (enableCallbacks && afterNodeCallback != null) {
+            afterNodeCallback.call(localNodeMap.get(nodeId));
+        }
+        DagEventLog.nodeCompleted(config.getWorkflowName(), nodeId, System.currentTimeMillis() - nodeStartTime);
+
+        List<String> ready;
+        synchronized (lock) {
+            if (dagState != DagState.RUNNING) {
+                return List.of();
+            }
+            stateManager.markCompleted(nodeId);
+            if (branchSelection != null) {
+                pruneUnselected(nodeId, branchSelection);
+            }
+            ready = collectReadyNodes();
+            runningNodes += ready.size() - 1;
+            if (runningNodes == 0) {
+                finishScope();
+                return List.of();
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 节点失败：关闭作用域（ShutdownOnFailure）
+     */
+    private void onNodeFailed(String nodeId, Throwable throwable) {
+        log.warn("Node execution failed: {}, exception: {}", nodeId, throwable.getMessage());
+        synchronized (lock) {
+            stateManager.markFailed(nodeId);
+        }
+        failScope(throwable);
+    }
+
+    /**
+     * 执行分支选择器
+     */
+    @SuppressWarnings("unchecked")
+    private Set<String> chooseBranch(String nodeId) {
+        NodeWrapper<T, ?> wrapper = (NodeWrapper<T, ?>) localNodeMap.get(nodeId);
+        if (wrapper.getChooser() == null) {
+            return null;
+        }
+        try {
+            Set<String> selection = wrapper.chooseNext(businessContext, dagContext);
+            return selection == null || selection.isEmpty() ? null : selection;
+        } catch (Exception e) {
+            log.warn("Branch selection failed for node {}", nodeId, e);
+            return null;
+        }
+    }
+
+    /**
+     * 剪枝从选中节点出发不可达的未启动节点（结束节点总是可达），调用方持有lock
+     */
+    private void pruneUnselected(String nodeId, Set<String> branchSelection) {
+        Set<String> reachableNodes = new HashSet<>(branchSelection);
+        Deque<String> queue = new ArrayDeque<>(branchSelection);
+        while (!queue.isEmpty()) {
+            for (String successor : localSuccessors.getOrDefault(queue.poll(), EMPTY_SET)) {
+                if (reachableNodes.add(successor)) {
+                    queue.offer(successor);
+                }
+            }
+        }
+        reachableNodes.addAll(localEndNodes);
+
+        for (String selected : branchSelection) {
+            stateManager.markSelected(selected);
+        }
+        List<String> prunedNodes = DagEvents.isBranchPruneEnabled() ? new ArrayList<>() : null;
+        for (String candidate : localNodeMap.keySet()) {
+            if (!reachableNodes.contains(candidate) && !startedNodes.contains(candidate)
+                    && !stateManager.isPruned(candidate)) {
+                stateManager.markPruned(candidate);
+                localNodeMap.get(candidate).getMetrics().recordPruned();
+                if (prunedNodes != null) {
+                    prunedNodes.add(candidate);
+                }
+            }
+        }
+        if (prunedNodes != null && !prunedNodes.isEmpty()) {
+            DagEvents.branchPruned(config.getWorkflowName(), nodeId, branchSelection, prunedNodes);
+        }
+    }
+
+    /**
+     * 收集新的就绪节点并标记为已启动，调用方持有lock
+     */
+    private List<String> collectReadyNodes() {
+        List<String> ready = new ArrayList<>();
+        for (String nodeId : localNodeMap.keySet()) {
+            if (startedNodes.contains(nodeId) || stateManager.isPruned(nodeId)) {
+                continue;
+            }
+            if (canExecute(nodeId)) {
+                startedNodes.add(nodeId);
+                ready.add(nodeId);
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 检查节点是否可以执行（与DagEngine语义一致），调用方持有lock
+     */
+    private boolean canExecute(String nodeId) {
+        for (String dep : localDependencies.getOrDefault(nodeId, EMPTY_SET)) {
+            if (stateManager.isPruned(dep)) {
+                continue;
+            }
+            if (!stateManager.isCompleted(dep)) {
+                return false;
+            }
+        }
+
+        Set<String> weakDeps = localWeakDependencies.getOrDefault(nodeId, EMPTY_SET);
+        if (!weakDeps.isEmpty()) {
+            for (String dep : weakDeps) {
+                if (!stateManager.isPruned(dep) && stateManager.isCompleted(dep)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 没有运行中的节点时结束作用域，调用方持有lock
+     */
+    private void finishScope() {
+        for (String endNode : localEndNodes) {
+            if (!stateManager.isCompleted(endNode) && !stateManager.isPruned(endNode)) {
+                log.warn("No executable nodes found, but DAG not completed, potential deadlock");
+                break;
+            }
+        }
+        scopeDone.complete(null);
+    }
+
+    /**
+     * 以失败结束作用域，只记录第一个异常
+     */
+    private void failScope(Throwable throwable) {
+        synchronized (lock) {
+            if (dagState == DagState.RUNNING) {
+                this.ex = throwable;
+                dagState = DagState.ERROR;
+            }
+        }
+        scopeDone.complete(null);
+    }
+
+    /**
+     * 关闭作用域，中断所有仍在运行的子任务并等待它们退出
+     * 失败或超时时仍未完成的AsyncNode stage完成后可能写入DagContext，此时放弃本次执行的上下文
+     */
+    private void shutdownScope() {
+        closed = true;
+        // 不取消子任务的Future：已取消的子任务不再计入作用域，close不会等待其线程退出
+        scope.shutdownNow();
+        scope.close();
+        abandoned = dagState == DagState.ERROR && pendingStages.get() > 0;
+    }
+
+    /**
+     * 派发到线程池的节点
+     * 作用域关闭时尚未开始的不再执行，已开始的中断后等待其退出
+     */
+    private final class OffloadedNode implements Callable<NodeResult<?>> {
+
+        private static final int NEW = 0;
+        private static final int RUNNING = 1;
+        private static final int EXITED = 2;
+
+        private final NodeWrapper<T, ?> wrapper;
+        private final long readyNanos;
+        private final long queuedAtNanos;
+        private final AtomicInteger state = new AtomicInteger(NEW);
+        private final CountDownLatch exited = new CountDownLatch(1);
+
+        private OffloadedNode(NodeWrapper<T, ?> wrapper, long readyNanos, long queuedAtNanos) {
+            this.wrapper = wrapper;
+            this.readyNanos = readyNanos;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+
+        @Override
+        public NodeResult<?> call() {
+            if (!state.compareAndSet(NEW, RUNNING)) {
+                return null;
+            }
+            try {
+                return executeWrapper(wrapper, readyNanos, queuedAtNanos);
+            } finally {
+                state.set(EXITED);
+                exited.countDown();
+            }
+        }
+
+        /**
+         * 取消节点，已开始执行时中断并等待退出，等待期间的中断在结束后恢复
+         */
+        private void cancelAndAwait(Future<?> future) {
+            if (state.compareAndSet(NEW, EXITED)) {
+                future.cancel(false);
+                return;
+            }
+            future.cancel(true);
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    exited.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 作用域关闭时是否仍有AsyncNode stage未完成
+     * 为true时本次执行的DagContext可能在之后被写入，不应归还对象池
+     */
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    public DagEngineConfig getConfig() {
+        return config;
+    }
+
+    public DagState getDagState() {
+        return dagState;
+    }
+
+    public Throwable getEx() {
+        return ex;
+    }
+}
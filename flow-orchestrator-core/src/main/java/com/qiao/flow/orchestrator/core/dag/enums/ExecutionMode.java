@@ -0,0 +1,16 @@
+package com.qiao.flow.orchestrator.core.dag.enums;
+
+/**
+ * DAG执行模式
+ */
+public enum ExecutionMode {
+    /**
+     * 按批次调度：每批可执行节点并发执行，整批完成后再调度下一批（DagEngine）
+     */
+    WAVE,
+
+    /**
+     * 结构化并发：每次执行一个虚拟线程作用域，节点就绪即fork，失败或超时时取消兄弟节点（DagStructuredEngine）
+     */
+    STRUCTURED
+}
@@ -0,0 +1,109 @@
+package com.qiao.flow.orchestrator.core.dag.eventlog;
+
+/**
+ * 事件日志环形缓冲区中的槽位
+ * 槽位预先分配并循环复用，DagEventSink只能在回调期间读取，需要保留时自行复制字段
+ *
+ * @author qiao
+ */
+public final class DagEvent {
+
+    // 已发布的序号，未发布时小于消费者期望的序号
+    volatile long sequence = -1;
+
+    private DagEventType type;
+    private long timestampMillis;
+    private String workflow;
+    private String name;
+    private String mode;
+    private long durationMs;
+    private int items;
+    private int failed;
+    private Throwable error;
+    private Thread thread;
+
+    void fill(DagEventType type, String workflow, String name, String mode, long durationMs, int items, int failed,
+              Throwable error) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+        this.workflow = workflow;
+        this.name = name;
+        this.mode = mode;
+        this.durationMs = durationMs;
+        this.items = items;
+        this.failed = failed;
+        this.error = error;
+        this.thread = Thread.currentThread();
+    }
+
+    /**
+     * 释放引用，避免槽位持有异常和线程
+     */
+    void clear() {
+        this.workflow = null;
+        this.name = null;
+        this.mode = null;
+        this.error = null;
+        this.thread = null;
+    }
+
+    public DagEventType getType() {
+        return type;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public String getWorkflow() {
+        return workflow;
+    }
+
+    /**
+     * 节点ID或步骤名称
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 执行模式，只有工作流事件有值
+     */
+    public String getMode() {
+        return mode;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * 批量执行的输入数量
+     */
+    public int getItems() {
+        return items;
+    }
+
+    /**
+     * 批量执行失败的输入数量
+     */
+    public int getFailed() {
+        return failed;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * 产生事件的线程名称
+     */
+    public String getThreadName() {
+        Thread t = thread;
+        if (t == null) {
+            return null;
+        }
+        String threadName = t.getName();
+        return threadName.isEmpty() ? (t.isVirtual() ? "virtual-" : "thread-") + t.threadId() : threadName;
+    }
+}
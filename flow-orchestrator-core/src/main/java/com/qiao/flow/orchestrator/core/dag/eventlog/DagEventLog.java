@@ -0,0 +1,276 @@
+package com.qiao.flow.orchestrator.core.dag.eventlog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 节点生命周期事件日志
+ * 执行路径只把事件字段写入预分配的环形缓冲区（CAS申请序号 + 一次volatile发布），不格式化字符串、不加锁，
+ * 由后台线程按序取出后写日志并交给DagEventSink。缓冲区满时丢弃事件并计数，不阻塞执行线程
+ * <p>
+ * 按工作流配置记录级别，未配置的工作流使用默认级别（INFO：失败和工作流完成），
+ * DEBUG才记录每个节点的完成。缓冲区大小通过系统属性dag.eventlog.capacity配置，默认8192
+ *
+ * @author qiao
+ */
+@Slf4j
+public final class DagEventLog {
+
+    /**
+     * 链式工作流事件使用的工作流名称
+     */
+    public static final String CHAIN_WORKFLOW = "chain";
+
+    private static final int CAPACITY = capacity(Integer.getInteger("dag.eventlog.capacity", 8192));
+    private static final int MASK = CAPACITY - 1;
+
+    // 消费者空闲时的等待时间
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final DagEvent[] SLOTS = new DagEvent[CAPACITY];
+
+    // 下一个可申请的序号
+    private static final AtomicLong CURSOR = new AtomicLong();
+
+    // 下一个待消费的序号
+    private static final AtomicLong CONSUMED = new AtomicLong();
+
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static final Map<String, EventLogLevel> WORKFLOW_LEVELS = new ConcurrentHashMap<>();
+    private static volatile EventLogLevel defaultLevel = EventLogLevel.INFO;
+
+    private static final List<DagEventSink> SINKS = new CopyOnWriteArrayList<>();
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            SLOTS[i] = new DagEvent();
+        }
+        Thread drainer = new Thread(DagEventLog::drainLoop, "dag-event-log");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private DagEventLog() {
+    }
+
+    // ==================== 事件记录 ====================
+
+    /**
+     * 节点执行完成
+     */
+    public static void nodeCompleted(String workflow, String nodeId, long durationMs) {
+        publish(DagEventType.NODE_COMPLETED, workflow, nodeId, null, durationMs, 0, 0, null);
+    }
+
+    /**
+     * 批量执行中节点对一批输入执行完成
+     */
+    public static void nodeCompleted(String workflow, String nodeId, int items, long durationMs) {
+        publish(DagEventType.NODE_COMPLETED, workflow, nodeId, null, durationMs, items, 0, null);
+    }
+
+    /**
+     * 节点执行失败
+     */
+    public static void nodeFailed(String workflow, String nodeId, Throwable error) {
+        publish(DagEventType.NODE_FAILED, workflow, nodeId, null, 0L, 0, 0, error);
+    }
+
+    /**
+     * 工作流执行成功
+     */
+    public static void workflowCompleted(String workflow, String mode, long durationMs) {
+        publish(DagEventType.WORKFLOW_COMPLETED, workflow, null, mode, durationMs, 0, 0, null);
+    }
+
+    /**
+     * 工作流执行失败
+     */
+    public static void workflowFailed(String workflow, String mode, long durationMs) {
+        publish(DagEventType.WORKFLOW_FAILED, workflow, null, mode, durationMs, 0, 0, null);
+    }
+
+    /**
+     * 批量执行完成
+     */
+    public static void batchCompleted(String workflow, int items, int failed, long durationMs) {
+        publish(DagEventType.BATCH_COMPLETED, workflow, null, "BATCH", durationMs, items, failed, null);
+    }
+
+    /**
+     * 链式工作流步骤完成
+     */
+    public static void stepCompleted(String stepName, long durationMs) {
+        publish(DagEventType.STEP_COMPLETED, CHAIN_WORKFLOW, stepName, null, durationMs, 0, 0, null);
+    }
+
+    /**
+     * 链式工作流在某个步骤停止
+     */
+    public static void chainStopped(String stepName) {
+        publish(DagEventType.CHAIN_STOPPED, CHAIN_WORKFLOW, stepName, null, 0L, 0, 0, null);
+    }
+
+    private static void publish(DagEventType type, String workflow, String name, String mode, long durationMs,
+                                int items, int failed, Throwable error) {
+        if (!isEnabled(workflow, type.getLevel())) {
+            return;
+        }
+        long sequence;
+        do {
+            sequence = CURSOR.get();
+            if (sequence - CONSUMED.get() >= CAPACITY) {
+                DROPPED.increment();
+                return;
+            }
+        } while (!CURSOR.compareAndSet(sequence, sequence + 1));
+
+        DagEvent slot = SLOTS[(int) (sequence & MASK)];
+        slot.fill(type, workflow, name, mode, durationMs, items, failed, error);
+        slot.sequence = sequence;
+    }
+
+    // ==================== 级别配置 ====================
+
+    /**
+     * 工作流是否记录指定级别的事件
+     */
+    public static boolean isEnabled(String workflow, EventLogLevel eventLevel) {
+        EventLogLevel level = workflow == null || WORKFLOW_LEVELS.isEmpty()
+                ? defaultLevel : WORKFLOW_LEVELS.getOrDefault(workflow, defaultLevel);
+        return level.includes(eventLevel);
+    }
+
+    public static void setDefaultLevel(EventLogLevel level) {
+        defaultLevel = level != null ? level : EventLogLevel.INFO;
+    }
+
+    public static EventLogLevel getDefaultLevel() {
+        return defaultLevel;
+    }
+
+    /**
+     * 设置工作流的记录级别
+     *
+     * @param level 级别，为null时恢复为默认级别
+     */
+    public static void setLevel(String workflow, EventLogLevel level) {
+        if (level == null) {
+            WORKFLOW_LEVELS.remove(workflow);
+        } else {
+            WORKFLOW_LEVELS.put(workflow, level);
+        }
+    }
+
+    public static EventLogLevel getLevel(String workflow) {
+        return WORKFLOW_LEVELS.getOrDefault(workflow, defaultLevel);
+    }
+
+    // ==================== 消费 ====================
+
+    public static void addSink(DagEventSink sink) {
+        SINKS.add(sink);
+    }
+
+    public static void removeSink(DagEventSink sink) {
+        SINKS.remove(sink);
+    }
+
+    /**
+     * 等待当前已记录的事件全部被后台线程处理
+     *
+     * @return 超时前处理完成返回true
+     */
+    public static boolean flush(long timeoutMs) {
+        long target = CURSOR.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (CONSUMED.get() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(100_000);
+        }
+        return true;
+    }
+
+    /**
+     * 缓冲区满被丢弃的事件数
+     */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    /**
+     * 已记录的事件数
+     */
+    public static long getPublishedCount() {
+        return CURSOR.get();
+    }
+
+    public static int getCapacity() {
+        return CAPACITY;
+    }
+
+    private static void drainLoop() {
+        while (true) {
+            long next = CONSUMED.get();
+            DagEvent slot = SLOTS[(int) (next & MASK)];
+            if (slot.sequence != next) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            try {
+                dispatch(slot);
+            } catch (Throwable t) {
+                log.warn("Event log dispatch failed", t);
+            }
+            slot.clear();
+            CONSUMED.lazySet(next + 1);
+        }
+    }
+
+    private static void dispatch(DagEvent event) {
+        write(event);
+        for (DagEventSink sink : SINKS) {
+            sink.accept(event);
+        }
+    }
+
+    private static void write(DagEvent event) {
+        switch (event.getType()) {
+            case NODE_COMPLETED -> {
+                if (event.getItems() > 0) {
+                    log.info("[{}] Node {} completed for {} inputs in {}ms, thread: {}", event.getWorkflow(),
+                            event.getName(), event.getItems(), event.getDurationMs(), event.getThreadName());
+                } else {
+                    log.info("[{}] Node {} completed in {}ms, thread: {}", event.getWorkflow(), event.getName(),
+                            event.getDurationMs(), event.getThreadName());
+                }
+            }
+            case NODE_FAILED -> log.warn("[{}] Node {} failed: {}, thread: {}", event.getWorkflow(), event.getName(),
+                    event.getError() != null ? event.getError().getMessage() : null, event.getThreadName());
+            case WORKFLOW_COMPLETED -> log.info("[{}] {} DAG execution completed successfully, execution time: {}ms",
+                    event.getWorkflow(), event.getMode(), event.getDurationMs());
+            case WORKFLOW_FAILED -> log.warn("[{}] {} DAG execution failed, execution time: {}ms",
+                    event.getWorkflow(), event.getMode(), event.getDurationMs());
+            case BATCH_COMPLETED -> log.info("[{}] DAG batch execution completed, batch size: {}, failed: {}, execution time: {}ms",
+                    event.getWorkflow(), event.getItems(), event.getFailed(), event.getDurationMs());
+            case STEP_COMPLETED -> log.info("Step {} completed in {} ms", event.getName(), event.getDurationMs());
+            case CHAIN_STOPPED -> log.info("WorkFlow stopped at step: {}", event.getName());
+        }
+    }
+
+    private static int capacity(int requested) {
+        int capacity = Integer.highestOneBit(Math.max(requested, 64));
+        return capacity < requested ? capacity << 1 : capacity;
+    }
+}
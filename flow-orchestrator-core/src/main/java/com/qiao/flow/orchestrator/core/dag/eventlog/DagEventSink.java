@@ -0,0 +1,15 @@
+package com.qiao.flow.orchestrator.core.dag.eventlog;
+
+/**
+ * 事件消费者，在事件日志的后台线程上调用
+ *
+ * @author qiao
+ */
+@FunctionalInterface
+public interface DagEventSink {
+
+    /**
+     * 消费一个事件，event为复用的槽位，只能在回调期间读取
+     */
+    void accept(DagEvent event);
+}
@@ -0,0 +1,26 @@
+package com.qiao.flow.orchestrator.core.dag.eventlog;
+
+/**
+ * 事件类型
+ *
+ * @author qiao
+ */
+public enum DagEventType {
+    WORKFLOW_COMPLETED(EventLogLevel.INFO),
+    WORKFLOW_FAILED(EventLogLevel.ERROR),
+    BATCH_COMPLETED(EventLogLevel.INFO),
+    NODE_COMPLETED(EventLogLevel.DEBUG),
+    NODE_FAILED(EventLogLevel.ERROR),
+    STEP_COMPLETED(EventLogLevel.DEBUG),
+    CHAIN_STOPPED(EventLogLevel.INFO);
+
+    private final EventLogLevel level;
+
+    DagEventType(EventLogLevel level) {
+        this.level = level;
+    }
+
+    public EventLogLevel getLevel() {
+        return level;
+    }
+}
@@ -0,0 +1,35 @@
+package com.qiao.flow.orchestrator.core.dag.eventlog;
+
+/**
+ * 事件日志级别，按工作流配置
+ *
+ * @author qiao
+ */
+public enum EventLogLevel {
+    /**
+     * 不记录
+     */
+    OFF,
+
+    /**
+     * 只记录节点、工作流失败
+     */
+    ERROR,
+
+    /**
+     * 记录失败以及工作流完成
+     */
+    INFO,
+
+    /**
+     * 记录所有事件，包括每个节点、每个步骤的完成
+     */
+    DEBUG;
+
+    /**
+     * 当前级别下是否记录指定级别的事件
+     */
+    public boolean includes(EventLogLevel eventLevel) {
+        return this != OFF && eventLevel.ordinal() <= ordinal();
+    }
+}
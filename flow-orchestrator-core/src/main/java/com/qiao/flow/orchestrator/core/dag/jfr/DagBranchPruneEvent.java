@@ -0,0 +1,38 @@
+package com.qiao.flow.orchestrator.core.dag.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 分支剪枝JFR事件
+ *
+ * @author qiao
+ */
+@Name(DagEvents.NAME_PREFIX + "BranchPrune")
+@Label("DAG Branch Prune")
+@Category({DagEvents.CATEGORY, "Node"})
+@Description("Nodes skipped after a chooser selected a branch")
+@Enabled(false)
+@StackTrace(false)
+public class DagBranchPruneEvent extends Event {
+
+    @Label("Workflow")
+    String workflow;
+
+    @Label("Choosing Node")
+    String nodeId;
+
+    @Label("Selected Nodes")
+    String selectedNodes;
+
+    @Label("Pruned Nodes")
+    String prunedNodes;
+
+    @Label("Pruned Count")
+    int prunedCount;
+}
@@ -0,0 +1,36 @@
+package com.qiao.flow.orchestrator.core.dag.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * DagContext对象池借用/归还JFR事件
+ *
+ * @author qiao
+ */
+@Name(DagEvents.NAME_PREFIX + "ContextPool")
+@Label("DAG Context Pool")
+@Category({DagEvents.CATEGORY, "Context Pool"})
+@Description("Borrow or release of a pooled DagContext")
+@Enabled(false)
+@StackTrace(false)
+public class DagContextPoolEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Pooled")
+    @Description("Borrow: reused from the pool. Release: returned to the pool instead of being discarded")
+    boolean pooled;
+
+    @Label("Held Time")
+    @Description("Time between borrow and release, only set on release")
+    @Timespan(Timespan.MILLISECONDS)
+    long heldTime;
+}
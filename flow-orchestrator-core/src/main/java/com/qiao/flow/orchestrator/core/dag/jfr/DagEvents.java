@@ -0,0 +1,161 @@
+package com.qiao.flow.orchestrator.core.dag.jfr;
+
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+import jdk.jfr.EventType;
+
+import java.util.Collection;
+
+/**
+ * DAG自定义JFR事件入口
+ * 所有事件默认关闭，需要在JFR配置中开启，例如：
+ * {@code jcmd <pid> JFR.start settings=profile +com.qiao.flow.orchestrator.Node#enabled=true}。
+ * 关闭时每个埋点只有一次EventType启用状态的读取，不创建事件对象
+ *
+ * @author qiao
+ */
+public final class DagEvents {
+
+    public static final String NAME_PREFIX = "com.qiao.flow.orchestrator.";
+
+    public static final String CATEGORY = "Flow Orchestrator";
+
+    private static final EventType WORKFLOW = EventType.getEventType(DagWorkflowEvent.class);
+    private static final EventType NODE = EventType.getEventType(DagNodeEvent.class);
+    private static final EventType BRANCH_PRUNE = EventType.getEventType(DagBranchPruneEvent.class);
+    private static final EventType CONTEXT_POOL = EventType.getEventType(DagContextPoolEvent.class);
+
+    private DagEvents() {
+    }
+
+    /**
+     * 节点开始执行时调用
+     *
+     * @param queuedAtNanos 进入线程池队列的System.nanoTime()，0表示没有排队
+     * @return 节点事件，未开启时返回null
+     */
+    public static DagNodeEvent beginNode(long queuedAtNanos) {
+        if (!NODE.isEnabled()) {
+            return null;
+        }
+        DagNodeEvent event = new DagNodeEvent();
+        event.begin();
+        event.runStartNanos = System.nanoTime();
+        event.queueWait = queuedAtNanos == 0L ? 0L : event.runStartNanos - queuedAtNanos;
+        return event;
+    }
+
+    /**
+     * 节点执行结束时调用
+     */
+    public static void commitNode(DagNodeEvent event, NodeWrapper<?, ?> wrapper, NodeState outcome) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.runTime = System.nanoTime() - event.runStartNanos;
+            event.workflow = wrapper.getWorkflow();
+            event.nodeId = wrapper.getId();
+            event.nodeType = wrapper.getNodeType().name();
+            event.executor = wrapper.getExecutorName();
+            event.outcome = outcome != null ? outcome.name() : null;
+            event.commit();
+        }
+    }
+
+    /**
+     * 工作流开始执行时调用
+     *
+     * @return 工作流事件，未开启时返回null
+     */
+    public static DagWorkflowEvent beginWorkflow() {
+        if (!WORKFLOW.isEnabled()) {
+            return null;
+        }
+        DagWorkflowEvent event = new DagWorkflowEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * 工作流执行结束时调用
+     */
+    public static void commitWorkflow(DagWorkflowEvent event, String workflow, String mode, int nodeCount,
+                                      DagState outcome) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.workflow = workflow;
+            event.mode = mode;
+            event.nodeCount = nodeCount;
+            event.outcome = outcome != null ? outcome.name() : null;
+            event.commit();
+        }
+    }
+
+    /**
+     * 分支剪枝事件是否开启，调用方可据此跳过剪枝结果的收集
+     */
+    public static boolean isBranchPruneEnabled() {
+        return BRANCH_PRUNE.isEnabled();
+    }
+
+    /**
+     * 记录一次分支剪枝
+     */
+    public static void branchPruned(String workflow, String nodeId, Collection<String> selectedNodes,
+                                    Collection<String> prunedNodes) {
+        if (!BRANCH_PRUNE.isEnabled()) {
+            return;
+        }
+        DagBranchPruneEvent event = new DagBranchPruneEvent();
+        if (event.shouldCommit()) {
+            event.workflow = workflow;
+            event.nodeId = nodeId;
+            event.selectedNodes = String.join(",", selectedNodes);
+            event.prunedNodes = String.join(",", prunedNodes);
+            event.prunedCount = prunedNodes.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录一次上下文借用
+     *
+     * @param pooled 是否复用池中对象
+     */
+    public static void contextBorrowed(boolean pooled) {
+        if (!CONTEXT_POOL.isEnabled()) {
+            return;
+        }
+        DagContextPoolEvent event = new DagContextPoolEvent();
+        if (event.shouldCommit()) {
+            event.operation = "BORROW";
+            event.pooled = pooled;
+            event.commit();
+        }
+    }
+
+    /**
+     * 记录一次上下文归还
+     *
+     * @param pooled       是否放回池中（池满时丢弃）
+     * @param borrowTimeMs 借用时间，0表示未知
+     */
+    public static void contextReleased(boolean pooled, long borrowTimeMs) {
+        if (!CONTEXT_POOL.isEnabled()) {
+            return;
+        }
+        DagContextPoolEvent event = new DagContextPoolEvent();
+        if (event.shouldCommit()) {
+            event.operation = "RELEASE";
+            event.pooled = pooled;
+            event.heldTime = borrowTimeMs > 0 ? System.currentTimeMillis() - borrowTimeMs : 0L;
+            event.commit();
+        }
+    }
+}
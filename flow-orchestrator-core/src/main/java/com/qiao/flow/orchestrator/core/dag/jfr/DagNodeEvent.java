@@ -0,0 +1,51 @@
+package com.qiao.flow.orchestrator.core.dag.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 节点执行JFR事件，事件从节点真正开始执行时计时，排队等待时长单独记录
+ *
+ * @author qiao
+ */
+@Name(DagEvents.NAME_PREFIX + "Node")
+@Label("DAG Node Execution")
+@Category({DagEvents.CATEGORY, "Node"})
+@Description("Execution of a single DAG node, including time spent queued in its executor")
+@Enabled(false)
+@StackTrace(false)
+public class DagNodeEvent extends Event {
+
+    @Label("Workflow")
+    String workflow;
+
+    @Label("Node Id")
+    String nodeId;
+
+    @Label("Node Type")
+    String nodeType;
+
+    @Label("Executor")
+    @Description("Isolated executor name, empty when the executor is chosen by node type")
+    String executor;
+
+    @Label("Queue Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long queueWait;
+
+    @Label("Run Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long runTime;
+
+    @Label("Outcome")
+    String outcome;
+
+    // 执行开始时间，不写入事件
+    transient long runStartNanos;
+}
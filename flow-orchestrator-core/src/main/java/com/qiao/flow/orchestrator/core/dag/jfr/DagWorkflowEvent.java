@@ -0,0 +1,35 @@
+package com.qiao.flow.orchestrator.core.dag.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 工作流执行JFR事件，事件时长即整个DAG的执行时长
+ *
+ * @author qiao
+ */
+@Name(DagEvents.NAME_PREFIX + "Workflow")
+@Label("DAG Workflow Execution")
+@Category({DagEvents.CATEGORY, "Workflow"})
+@Description("One execution of a DAG workflow")
+@Enabled(false)
+@StackTrace(false)
+public class DagWorkflowEvent extends Event {
+
+    @Label("Workflow")
+    String workflow;
+
+    @Label("Execution Mode")
+    String mode;
+
+    @Label("Node Count")
+    int nodeCount;
+
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,104 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DAG指标注册表
+ * 按工作流、节点统计延迟直方图和计数，引擎在每次执行时记录。
+ * 指标对象创建后常驻，NodeWrapper和DagEngineConfig会缓存引用，热路径上不查表、不分配对象
+ *
+ * @author qiao
+ */
+public class DagMetrics {
+
+    private static final ConcurrentHashMap<String, WorkflowMetrics> WORKFLOWS = new ConcurrentHashMap<>();
+
+    private static final CopyOnWriteArrayList<DagMetricsListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DagMetrics() {
+    }
+
+    /**
+     * 获取工作流指标，不存在时创建
+     */
+    public static WorkflowMetrics workflow(String workflowName) {
+        WorkflowMetrics metrics = WORKFLOWS.get(workflowName);
+        if (metrics == null) {
+            WorkflowMetrics created = new WorkflowMetrics(workflowName);
+            metrics = WORKFLOWS.putIfAbsent(workflowName, created);
+            if (metrics == null) {
+                metrics = created;
+                for (DagMetricsListener listener : LISTENERS) {
+                    listener.workflowRegistered(created);
+                }
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 添加指标注册监听器，并对已存在的工作流、节点指标立即回调
+     */
+    public static void addListener(DagMetricsListener listener) {
+        LISTENERS.add(listener);
+        for (WorkflowMetrics workflowMetrics : WORKFLOWS.values()) {
+            listener.workflowRegistered(workflowMetrics);
+            for (NodeMetrics nodeMetrics : workflowMetrics.getNodes().values()) {
+                listener.nodeRegistered(nodeMetrics);
+            }
+        }
+    }
+
+    public static void removeListener(DagMetricsListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static void fireNodeRegistered(NodeMetrics metrics) {
+        for (DagMetricsListener listener : LISTENERS) {
+            listener.nodeRegistered(metrics);
+        }
+    }
+
+    /**
+     * 获取节点指标，不存在时创建
+     */
+    public static NodeMetrics node(String workflowName, String nodeId) {
+        return workflow(workflowName).node(nodeId);
+    }
+
+    /**
+     * 获取已记录的工作流指标
+     *
+     * @return 工作流指标，未记录过时返回null
+     */
+    public static WorkflowMetrics getWorkflow(String workflowName) {
+        return WORKFLOWS.get(workflowName);
+    }
+
+    public static Collection<WorkflowMetrics> getWorkflows() {
+        return Collections.unmodifiableCollection(WORKFLOWS.values());
+    }
+
+    /**
+     * 所有工作流的汇总，按工作流名称排序
+     */
+    public static Map<String, Object> toSummary() {
+        Map<String, Object> summary = new TreeMap<>();
+        for (WorkflowMetrics metrics : WORKFLOWS.values()) {
+            summary.put(metrics.getWorkflowName(), metrics.toSummary());
+        }
+        return summary;
+    }
+
+    /**
+     * 清零所有指标（保留指标对象，已缓存的引用继续有效）
+     */
+    public static void reset() {
+        WORKFLOWS.values().forEach(WorkflowMetrics::reset);
+    }
+}
@@ -0,0 +1,22 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+/**
+ * 指标注册监听器
+ * 工作流、节点指标在首次执行时才创建，外部监控系统（如Micrometer）通过监听器为新指标注册对应的度量
+ *
+ * @author qiao
+ */
+public interface DagMetricsListener {
+
+    /**
+     * 新的工作流指标创建
+     */
+    default void workflowRegistered(WorkflowMetrics metrics) {
+    }
+
+    /**
+     * 新的节点指标创建
+     */
+    default void nodeRegistered(NodeMetrics metrics) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 延迟直方图快照
+ *
+ * @author qiao
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count = total;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return max;
+    }
+
+    public long getMeanNanos() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * 获取分位值
+     *
+     * @param percentile 百分位，如99.9
+     * @return 分位值（纳秒），不超过记录到的最大值；没有数据时返回0
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+        rank = Math.max(rank, 1);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.bucketUpperBound(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * 常用分位汇总（毫秒）：count、mean、p50、p90、p99、p999、max
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", count);
+        summary.put("meanMs", toMillis(getMeanNanos()));
+        summary.put("p50Ms", toMillis(getValueAtPercentile(50)));
+        summary.put("p90Ms", toMillis(getValueAtPercentile(90)));
+        summary.put("p99Ms", toMillis(getValueAtPercentile(99)));
+        summary.put("p999Ms", toMillis(getValueAtPercentile(99.9)));
+        summary.put("maxMs", toMillis(max));
+        return summary;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
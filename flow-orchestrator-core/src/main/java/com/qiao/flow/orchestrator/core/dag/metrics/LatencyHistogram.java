@@ -0,0 +1,212 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁分段的对数-线性延迟直方图（纳秒）
+ * 每个2的幂区间再线性划分为32个子桶，相对误差不超过1/32；最大可记录2^45纳秒（约9.8小时），更大的值按上限计
+ * <p>
+ * 记录时按线程选择一个分段，只做一次AtomicLongArray自增和一次求和累加，不加锁；
+ * 读取时合并所有分段，快照不保证与并发写入严格一致
+ * <p>
+ * 分段和每个2的幂区间的子桶（一行）都在第一次记录时才分配：每个节点有两个直方图，大规模DAG有上千个节点，
+ * 而单个节点的耗时通常只落在少数几个区间内，按需分配后每个分段只占用用到的几行，稳定后记录不再分配对象
+ *
+ * @author qiao
+ */
+public class LatencyHistogram {
+
+    // 每个2的幂区间的子桶数 = 2^SUB_BUCKET_BITS
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // 最大可记录值的位数
+    private static final int MAX_VALUE_BITS = 45;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_VALUE_BITS - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    // 每行是一个2的幂区间的全部子桶，桶下标的高位即行号
+    private static final int ROW_COUNT = BUCKET_COUNT >>> SUB_BUCKET_BITS;
+    private static final int ROW_MASK = SUB_BUCKET_COUNT - 1;
+
+    private static final int MAX_STRIPES = 4;
+    private static final int STRIPE_MASK = stripeCount() - 1;
+
+    private final AtomicReferenceArray<Stripe> stripes = new AtomicReferenceArray<>(STRIPE_MASK + 1);
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+    }
+
+    /**
+     * 记录一个延迟值
+     *
+     * @param nanos 延迟（纳秒），负数按0计
+     */
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        int index = bucketIndex(value);
+        Stripe stripe = stripe(stripeIndex());
+        stripe.row(index >>> SUB_BUCKET_BITS).incrementAndGet(index & ROW_MASK);
+        stripe.sum.addAndGet(value);
+        long currentMax = max.get();
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * 记录次数，合并所有分段的桶计数
+     */
+    public long getCount() {
+        long count = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            Stripe stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int r = 0; r < ROW_COUNT; r++) {
+                AtomicLongArray row = stripe.rows.get(r);
+                if (row != null) {
+                    for (int i = 0; i < SUB_BUCKET_COUNT; i++) {
+                        count += row.get(i);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 记录值之和（纳秒）
+     */
+    public long getTotalNanos() {
+        long sum = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            Stripe stripe = stripes.get(s);
+            if (stripe != null) {
+                sum += stripe.sum.get();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 合并所有分段生成快照
+     */
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long sum = 0;
+        for (int s = 0; s < stripes.length(); s++) {
+            Stripe stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int r = 0; r < ROW_COUNT; r++) {
+                AtomicLongArray row = stripe.rows.get(r);
+                if (row != null) {
+                    int base = r << SUB_BUCKET_BITS;
+                    for (int i = 0; i < SUB_BUCKET_COUNT; i++) {
+                        counts[base + i] += row.get(i);
+                    }
+                }
+            }
+            sum += stripe.sum.get();
+        }
+        return new HistogramSnapshot(counts, sum, max.get());
+    }
+
+    /**
+     * 清空直方图
+     */
+    public void reset() {
+        for (int s = 0; s < stripes.length(); s++) {
+            Stripe stripe = stripes.get(s);
+            if (stripe == null) {
+                continue;
+            }
+            for (int r = 0; r < ROW_COUNT; r++) {
+                AtomicLongArray row = stripe.rows.get(r);
+                if (row != null) {
+                    for (int i = 0; i < SUB_BUCKET_COUNT; i++) {
+                        row.set(i, 0);
+                    }
+                }
+            }
+            stripe.sum.set(0);
+        }
+        max.set(0);
+    }
+
+    /**
+     * 值所在的桶下标
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return SUB_BUCKET_COUNT + shift * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * 桶内的最大值
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_COUNT;
+        int subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_COUNT;
+        long lower = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    private Stripe stripe(int index) {
+        Stripe stripe = stripes.get(index);
+        if (stripe == null) {
+            Stripe created = new Stripe();
+            stripe = stripes.compareAndExchange(index, null, created);
+            if (stripe == null) {
+                stripe = created;
+            }
+        }
+        return stripe;
+    }
+
+    private static int stripeIndex() {
+        long threadId = Thread.currentThread().threadId();
+        return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 32) & STRIPE_MASK;
+    }
+
+    private static int stripeCount() {
+        int cores = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES);
+        return Integer.highestOneBit(Math.max(cores, 1));
+    }
+
+    /**
+     * 一个分段：按需分配的行和该分段的累计值
+     */
+    private static final class Stripe {
+
+        private final AtomicReferenceArray<AtomicLongArray> rows = new AtomicReferenceArray<>(ROW_COUNT);
+        private final AtomicLong sum = new AtomicLong();
+
+        AtomicLongArray row(int index) {
+            AtomicLongArray row = rows.get(index);
+            if (row == null) {
+                AtomicLongArray created = new AtomicLongArray(SUB_BUCKET_COUNT);
+                row = rows.compareAndExchange(index, null, created);
+                if (row == null) {
+                    row = created;
+                }
+            }
+            return row;
+        }
+    }
+}
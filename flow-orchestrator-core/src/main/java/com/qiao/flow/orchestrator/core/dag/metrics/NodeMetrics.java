@@ -0,0 +1,93 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 节点指标：排队等待与执行耗时分开统计，以及成功/失败/剪枝计数
+ *
+ * @author qiao
+ */
+@Getter
+public class NodeMetrics {
+
+    private final String workflowName;
+    private final String nodeId;
+
+    /**
+     * 在线程池队列中的等待时间，只统计经过线程池的执行
+     */
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+
+    /**
+     * 执行耗时（含节点回调）
+     */
+    private final LatencyHistogram execution = new LatencyHistogram();
+
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+
+    NodeMetrics(String workflowName, String nodeId) {
+        this.workflowName = workflowName;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * 记录一次执行
+     *
+     * @param queueWaitNanos 排队时间，小于0表示未经过线程池
+     * @param executionNanos 执行耗时
+     * @param succeeded      是否成功
+     */
+    public void recordExecution(long queueWaitNanos, long executionNanos, boolean succeeded) {
+        if (queueWaitNanos >= 0) {
+            queueWait.record(queueWaitNanos);
+        }
+        execution.record(executionNanos);
+        (succeeded ? success : failure).increment();
+    }
+
+    /**
+     * 节点执行结束时记录一次执行
+     *
+     * @param queuedAtNanos 进入线程池队列的System.nanoTime()，0表示未经过线程池
+     * @param runStartNanos 开始执行的System.nanoTime()
+     * @param succeeded     是否成功
+     */
+    public void recordCompletion(long queuedAtNanos, long runStartNanos, boolean succeeded) {
+        long queueWaitNanos = queuedAtNanos == 0L ? -1L : runStartNanos - queuedAtNanos;
+        recordExecution(queueWaitNanos, System.nanoTime() - runStartNanos, succeeded);
+    }
+
+    /**
+     * 记录一次被分支选择剪枝
+     */
+    public void recordPruned() {
+        pruned.increment();
+    }
+
+    /**
+     * 汇总：计数与排队、执行的分位值
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("success", success.sum());
+        summary.put("failure", failure.sum());
+        summary.put("pruned", pruned.sum());
+        summary.put("queueWait", queueWait.snapshot().toSummary());
+        summary.put("execution", execution.snapshot().toSummary());
+        return summary;
+    }
+
+    void reset() {
+        queueWait.reset();
+        execution.reset();
+        success.reset();
+        failure.reset();
+        pruned.reset();
+    }
+}
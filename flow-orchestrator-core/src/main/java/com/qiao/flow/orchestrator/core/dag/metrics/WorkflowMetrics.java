@@ -0,0 +1,77 @@
+package com.qiao.flow.orchestrator.core.dag.metrics;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工作流指标：整体执行耗时、成功/失败计数以及各节点指标
+ *
+ * @author qiao
+ */
+@Getter
+public class WorkflowMetrics {
+
+    private final String workflowName;
+
+    private final LatencyHistogram execution = new LatencyHistogram();
+    private final LongAdder success = new LongAdder();
+    private final LongAdder failure = new LongAdder();
+
+    private final ConcurrentHashMap<String, NodeMetrics> nodes = new ConcurrentHashMap<>();
+
+    WorkflowMetrics(String workflowName) {
+        this.workflowName = workflowName;
+    }
+
+    /**
+     * 获取节点指标，不存在时创建
+     */
+    public NodeMetrics node(String nodeId) {
+        NodeMetrics metrics = nodes.get(nodeId);
+        if (metrics == null) {
+            NodeMetrics created = new NodeMetrics(workflowName, nodeId);
+            metrics = nodes.putIfAbsent(nodeId, created);
+            if (metrics == null) {
+                metrics = created;
+                DagMetrics.fireNodeRegistered(created);
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * 记录一次工作流执行
+     */
+    public void recordExecution(long executionNanos, boolean succeeded) {
+        execution.record(executionNanos);
+        (succeeded ? success : failure).increment();
+    }
+
+    /**
+     * 汇总：工作流计数与分位值，以及按节点ID排序的节点汇总
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("success", success.sum());
+        summary.put("failure", failure.sum());
+        summary.put("execution", execution.snapshot().toSummary());
+        Map<String, Object> nodeSummaries = new TreeMap<>();
+        for (NodeMetrics metrics : nodes.values()) {
+            nodeSummaries.put(metrics.getNodeId(), metrics.toSummary());
+        }
+        summary.put("nodes", nodeSummaries);
+        return summary;
+    }
+
+    void reset() {
+        execution.reset();
+        success.reset();
+        failure.reset();
+        nodes.values().forEach(NodeMetrics::reset);
+    }
+}
@@ -0,0 +1,59 @@
+package com.qiao.flow.orchestrator.core.dag.monitor;
+
+import lombok.Getter;
+
+/**
+ * 节点虚拟线程钉住（pinning）统计快照
+ *
+ * @author qiao
+ */
+@Getter
+public class NodePinningStats {
+
+    private final String workflowName;
+
+    private final String nodeId;
+
+    /**
+     * 累计钉住次数
+     */
+    private final long count;
+
+    /**
+     * 累计钉住时长（纳秒）
+     */
+    private final long totalNanos;
+
+    /**
+     * 单次最长钉住时长（纳秒）
+     */
+    private final long maxNanos;
+
+    /**
+     * 最近一次钉住发生的代码位置（栈顶帧），无栈信息时为null
+     */
+    private final String lastFrame;
+
+    public NodePinningStats(String workflowName, String nodeId, long count, long totalNanos, long maxNanos,
+                            String lastFrame) {
+        this.workflowName = workflowName;
+        this.nodeId = nodeId;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.lastFrame = lastFrame;
+    }
+
+    /**
+     * 平均钉住时长（纳秒）
+     */
+    public long getAvgNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NodePinningStats{workflow='%s', node='%s', count=%d, totalMs=%.2f, maxMs=%.2f, lastFrame='%s'}",
+                workflowName, nodeId, count, totalNanos / 1e6, maxNanos / 1e6, lastFrame);
+    }
+}
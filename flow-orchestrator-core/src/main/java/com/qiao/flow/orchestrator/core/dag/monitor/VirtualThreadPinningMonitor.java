@@ -0,0 +1,304 @@
+package com.qiao.flow.orchestrator.core.dag.monitor;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程钉住（pinning）监控器
+ * 通过JFR RecordingStream订阅jdk.VirtualThreadPinned事件，并按事件所在线程归属到当时正在执行的节点，
+ * 统计每个节点的钉住次数与时长。节点代码在synchronized块内做阻塞调用时会钉住载体线程，
+ * 虚拟线程IO池的吞吐会无声地下降，该监控用于定位具体是哪个节点实现造成的
+ * <p>
+ * JFR事件在flush时才会送达（默认约1秒），此时节点可能已经结束，因此按线程保留最近若干次节点执行区间，
+ * 用事件开始时间匹配执行区间；超过保留时间的区间在flush时清理
+ * <p>
+ * 同一时间只有一个监控器生效，未启动时NodeWrapper中的埋点只有一次volatile读
+ *
+ * @author qiao
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements AutoCloseable {
+
+    public static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    /**
+     * 无法归属到节点的钉住事件使用的节点名
+     */
+    public static final String UNATTRIBUTED = "<unattributed>";
+
+    // 每个线程保留的执行区间数
+    private static final int MAX_SPANS_PER_THREAD = 8;
+
+    // 执行区间在结束后保留的时间，需大于JFR flush间隔
+    private static final long SPAN_RETENTION_MS = 10_000;
+
+    // 区间匹配的时钟容差，埋点使用毫秒时钟
+    private static final long CLOCK_SLACK_NANOS = 2_000_000;
+
+    private static volatile VirtualThreadPinningMonitor active;
+
+    private final Duration threshold;
+
+    // 线程ID -> 最近一次执行区间（通过previous链接更早的区间）
+    private final ConcurrentHashMap<Long, Span> spansByThread = new ConcurrentHashMap<>();
+
+    // workflow:nodeId -> 统计
+    private final ConcurrentHashMap<String, PinningCounter> counters = new ConcurrentHashMap<>();
+
+    private volatile RecordingStream stream;
+
+    /**
+     * @param threshold 钉住时长阈值，短于该时长的事件不会被JFR记录
+     */
+    public VirtualThreadPinningMonitor(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * 启动JFR事件流并设置为当前生效的监控器
+     */
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.onFlush(this::evictFinishedSpans);
+        recordingStream.startAsync();
+        this.stream = recordingStream;
+        active = this;
+        log.info("Virtual thread pinning monitor started, threshold: {}ms", threshold.toMillis());
+    }
+
+    /**
+     * 停止JFR事件流
+     */
+    @Override
+    public synchronized void close() {
+        if (active == this) {
+            active = null;
+        }
+        if (stream != null) {
+            stream.close();
+            stream = null;
+            log.info("Virtual thread pinning monitor stopped");
+        }
+        spansByThread.clear();
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * 获取当前生效的监控器
+     *
+     * @return 监控器，未启动时返回null
+     */
+    public static VirtualThreadPinningMonitor getActive() {
+        return active;
+    }
+
+    /**
+     * 节点开始执行时调用，只记录虚拟线程上的执行
+     *
+     * @return 执行区间，监控未启动或不在虚拟线程上时返回null
+     */
+    public static Span nodeStarted(String workflowName, String nodeId) {
+        VirtualThreadPinningMonitor monitor = active;
+        if (monitor == null) {
+            return null;
+        }
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            return null;
+        }
+        Span span = new Span(workflowName, nodeId, System.currentTimeMillis() * 1_000_000L);
+        long threadId = thread.threadId();
+        Span previous = monitor.spansByThread.get(threadId);
+        span.previous = previous;
+        trim(span);
+        monitor.spansByThread.put(threadId, span);
+        return span;
+    }
+
+    /**
+     * 节点执行结束时调用
+     */
+    public static void nodeFinished(Span span) {
+        if (span != null) {
+            span.endEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        }
+    }
+
+    /**
+     * 获取按累计钉住时长降序排列的节点统计
+     */
+    public List<NodePinningStats> getStats() {
+        List<NodePinningStats> stats = new ArrayList<>(counters.size());
+        for (PinningCounter counter : counters.values()) {
+            stats.add(counter.snapshot());
+        }
+        stats.sort(Comparator.comparingLong(NodePinningStats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * 获取指定节点的统计
+     *
+     * @return 统计快照，未发生钉住时返回null
+     */
+    public NodePinningStats getStats(String workflowName, String nodeId) {
+        PinningCounter counter = counters.get(key(workflowName, nodeId));
+        return counter != null ? counter.snapshot() : null;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        Span span = null;
+        RecordedThread thread = event.getThread();
+        if (thread != null) {
+            span = findSpan(thread.getJavaThreadId(), toEpochNanos(event.getStartTime()));
+        }
+        String workflowName = span != null ? span.workflowName : UNATTRIBUTED;
+        String nodeId = span != null ? span.nodeId : UNATTRIBUTED;
+        long durationNanos = event.getDuration().toNanos();
+        String frame = topApplicationFrame(event.getStackTrace());
+
+        counters.computeIfAbsent(key(workflowName, nodeId), k -> new PinningCounter(workflowName, nodeId))
+                .record(durationNanos, frame);
+        if (span == null) {
+            log.debug("Unattributed virtual thread pinning: {}ms at {}", durationNanos / 1_000_000, frame);
+        }
+    }
+
+    private Span findSpan(long threadId, long eventEpochNanos) {
+        Span span = spansByThread.get(threadId);
+        while (span != null) {
+            long end = span.endEpochNanos;
+            if (eventEpochNanos >= span.startEpochNanos - CLOCK_SLACK_NANOS
+                    && (end == 0 || eventEpochNanos <= end + CLOCK_SLACK_NANOS)) {
+                return span;
+            }
+            span = span.previous;
+        }
+        return null;
+    }
+
+    private void evictFinishedSpans() {
+        long expireBefore = (System.currentTimeMillis() - SPAN_RETENTION_MS) * 1_000_000L;
+        for (Map.Entry<Long, Span> entry : spansByThread.entrySet()) {
+            Span latest = entry.getValue();
+            long end = latest.endEpochNanos;
+            if (end != 0 && end < expireBefore) {
+                spansByThread.remove(entry.getKey(), latest);
+            }
+        }
+    }
+
+    private static void trim(Span span) {
+        Span current = span;
+        for (int i = 1; i < MAX_SPANS_PER_THREAD && current != null; i++) {
+            current = current.previous;
+        }
+        if (current != null) {
+            current.previous = null;
+        }
+    }
+
+    /**
+     * 取第一个非JDK的栈帧，即发生钉住的业务代码位置
+     */
+    private static String topApplicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame selected = frames.get(0);
+        for (RecordedFrame frame : frames) {
+            String typeName = frame.getMethod().getType().getName();
+            if (!typeName.startsWith("java.") && !typeName.startsWith("jdk.") && !typeName.startsWith("sun.")) {
+                selected = frame;
+                break;
+            }
+        }
+        return selected.getMethod().getType().getName() + "." + selected.getMethod().getName()
+                + ":" + selected.getLineNumber();
+    }
+
+    private static long toEpochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static String key(String workflowName, String nodeId) {
+        return workflowName + ":" + nodeId;
+    }
+
+    /**
+     * 节点在某个虚拟线程上的一次执行区间
+     */
+    public static final class Span {
+        private final String workflowName;
+        private final String nodeId;
+        private final long startEpochNanos;
+        private volatile long endEpochNanos;
+        private volatile Span previous;
+
+        private Span(String workflowName, String nodeId, long startEpochNanos) {
+            this.workflowName = workflowName;
+            this.nodeId = nodeId;
+            this.startEpochNanos = startEpochNanos;
+        }
+    }
+
+    /**
+     * 单个节点的钉住计数器
+     */
+    private static final class PinningCounter {
+        private final String workflowName;
+        private final String nodeId;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile String lastFrame;
+
+        private PinningCounter(String workflowName, String nodeId) {
+            this.workflowName = workflowName;
+            this.nodeId = nodeId;
+        }
+
+        private void record(long durationNanos, String frame) {
+            count.increment();
+            totalNanos.add(durationNanos);
+            maxNanos.accumulateAndGet(durationNanos, Math::max);
+            if (frame != null) {
+                lastFrame = frame;
+            }
+        }
+
+        private NodePinningStats snapshot() {
+            return new NodePinningStats(workflowName, nodeId, count.sum(), totalNanos.sum(), maxNanos.get(), lastFrame);
+        }
+    }
+}
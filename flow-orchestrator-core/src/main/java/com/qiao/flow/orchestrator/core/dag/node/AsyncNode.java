@@ -0,0 +1,48 @@
+package com.qiao.flow.orchestrator.core.dag.node;
+
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 异步节点接口
+ * 适合使用异步HTTP/RPC客户端的IO节点：节点发起请求后立即返回CompletionStage，
+ * 引擎在调度线程上直接调用executeAsync，并在stage完成的回调里完成节点，等待响应期间不占用任何线程
+ *
+ * @author qiao
+ */
+@FunctionalInterface
+public interface AsyncNode<P> extends Node<P> {
+
+    /**
+     * 异步执行节点逻辑
+     * 本方法内只能发起请求，不能有阻塞操作；结果在stage完成时写入context
+     *
+     * @param param   输入参数
+     * @param context DAG上下文，包含节点结果、全局变量等
+     * @param nodeId  当前节点ID，用于存储结果数据
+     * @return 节点完成信号，异常完成视为节点失败
+     * @throws Exception 发起请求时的异常
+     */
+    CompletionStage<?> executeAsync(P param, DagContext context, String nodeId) throws Exception;
+
+    /**
+     * 同步执行时等待stage完成（链式引擎等同步调用场景）
+     */
+    @Override
+    default void execute(P param, DagContext context, String nodeId) throws Exception {
+        CompletionStage<?> stage = executeAsync(param, context, nodeId);
+        if (stage == null) {
+            return;
+        }
+        try {
+            stage.toCompletableFuture().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new CompletionException(cause);
+        }
+    }
+}
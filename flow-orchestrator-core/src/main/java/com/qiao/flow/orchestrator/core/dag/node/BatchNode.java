@@ -0,0 +1,36 @@
+package com.qiao.flow.orchestrator.core.dag.node;
+
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 批量节点接口
+ * 批量执行模式下，引擎每批只调度一次该节点，并一次性传入本批所有可执行的输入
+ * 适合向量化计算、批量RPC等场景；单条执行时自动退化为大小为1的批次
+ *
+ * @author qiao
+ */
+@FunctionalInterface
+public interface BatchNode<P> extends Node<P> {
+
+    /**
+     * 批量执行节点逻辑
+     *
+     * @param params   本批输入参数，与contexts按下标一一对应
+     * @param contexts 每条输入各自的DAG上下文
+     * @param nodeId   当前节点ID，用于存储结果数据
+     * @throws Exception 执行异常，抛出时本批所有输入均视为失败
+     */
+    void executeBatch(List<P> params, List<DagContext> contexts, String nodeId) throws Exception;
+
+    /**
+     * 单条执行时按大小为1的批次处理
+     */
+    @Override
+    default void execute(P param, DagContext context, String nodeId) throws Exception {
+        executeBatch(Collections.singletonList(param), Collections.singletonList(context), nodeId);
+    }
+}
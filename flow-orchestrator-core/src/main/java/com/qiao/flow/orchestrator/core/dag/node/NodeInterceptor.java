@@ -0,0 +1,26 @@
+package com.qiao.flow.orchestrator.core.dag.node;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 节点执行拦截器
+ * 设置到DagContext后，本次执行的每个节点都由拦截器代为调用，拦截器可以在调用前后记录数据，
+ * 也可以不调用节点而直接写入结果（例如录制回放）。节点生命周期回调和状态仍由NodeWrapper处理
+ *
+ * @author qiao
+ */
+public interface NodeInterceptor {
+
+    /**
+     * 代替node.execute执行同步节点
+     */
+    <P> void execute(Node<P> node, P input, DagContext context, String nodeId, NodeType nodeType) throws Exception;
+
+    /**
+     * 代替node.executeAsync执行异步节点
+     */
+    <P> CompletionStage<?> executeAsync(AsyncNode<P> node, P input, DagContext context, String nodeId,
+                                        NodeType nodeType) throws Exception;
+}
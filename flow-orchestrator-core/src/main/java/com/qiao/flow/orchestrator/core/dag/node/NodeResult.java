@@ -1,6 +1,7 @@
 package com.qiao.flow.orchestrator.core.dag.node;
 
 import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -44,6 +45,12 @@ public class NodeResult<V> {
      */
     private long duration;
 
+    /**
+     * 是否已回收：所在上下文清理后对象保留在上下文中，下次执行同一节点时复用
+     */
+    @Setter(AccessLevel.NONE)
+    private boolean recycled;
+
     public NodeResult() {
         this.state = NodeState.PENDING;
         this.startTime = System.currentTimeMillis();
@@ -101,6 +108,15 @@ public class NodeResult<V> {
         this.startTime = System.currentTimeMillis();
         this.endTime = 0;
         this.duration = 0;
+        this.recycled = false;
+    }
+
+    /**
+     * 回收对象：清空状态并标记为已回收，已回收的结果对上下文的读取方不可见
+     */
+    public void recycle() {
+        reset();
+        this.recycled = true;
     }
 
     /**
@@ -2,6 +2,7 @@ package com.qiao.flow.orchestrator.core.dag.node;
 
 /**
  * 节点类型枚举
+ * 节点类型决定DagEngine把节点派发到哪个线程池执行
  *
  * @author qiao
  */
@@ -19,7 +20,34 @@ public enum NodeType {
      * 主要用于计算、数据处理、算法执行等CPU密集型操作
      * 特点：CPU占用较高，执行时间相对较短
      */
-    CPU("CPU密集型");
+    CPU("CPU密集型"),
+
+    /**
+     * 内联节点
+     * 读开关、拼参数、写标记等微秒级的轻量逻辑，始终在调度线程上直接执行，不经过任何线程池
+     * 注意：节点内不能有阻塞操作，否则会拖慢整个DAG的调度
+     */
+    INLINE("内联"),
+
+    /**
+     * 阻塞IO节点
+     * 会钉住虚拟线程载体的阻塞调用（synchronized内的IO、JNI、老版本JDBC驱动等），
+     * 使用独立的有界平台线程池执行，未配置时回退到IO线程池
+     */
+    BLOCKING_IO("阻塞IO"),
+
+    /**
+     * 非阻塞IO节点
+     * 节点内部使用异步客户端发起请求，执行线程只负责发起和组装，使用IO线程池（虚拟线程）执行
+     */
+    ASYNC_IO("非阻塞IO"),
+
+    /**
+     * 重计算节点
+     * 模型打分、大批量排序等耗时的计算，使用独立的有界线程池执行，
+     * 避免占满CPU线程池影响延迟敏感的节点，未配置时回退到CPU线程池
+     */
+    HEAVY_CPU("重计算");
 
     private final String description;
 
@@ -31,8 +59,37 @@ public enum NodeType {
         return description;
     }
 
+    /**
+     * 是否在调度线程上直接执行
+     */
+    public boolean isInline() {
+        return this == INLINE;
+    }
+
+    /**
+     * 是否为IO类节点
+     */
+    public boolean isIo() {
+        return this == IO || this == BLOCKING_IO || this == ASYNC_IO;
+    }
+
+    /**
+     * 是否为CPU类节点
+     */
+    public boolean isCpu() {
+        return this == CPU || this == HEAVY_CPU;
+    }
+
+    /**
+     * 是否始终派发到所属线程池执行
+     * 重计算和阻塞IO节点会长时间占用或钉住执行线程，即使单独成批也不在调度线程上执行
+     */
+    public boolean isAlwaysDispatched() {
+        return this == HEAVY_CPU || this == BLOCKING_IO;
+    }
+
     @Override
     public String toString() {
         return description;
     }
-} 
\ No newline at end of file
+}
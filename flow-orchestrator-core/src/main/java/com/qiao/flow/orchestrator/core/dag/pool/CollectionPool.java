@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 集合对象池
@@ -42,6 +43,12 @@ public class CollectionPool {
 
     private static volatile ScheduledFuture<?> evictionTask;
 
+    // 命中统计：借用时池中有对象为命中，否则新建
+    private static final LongAdder SET_HITS = new LongAdder();
+    private static final LongAdder SET_MISSES = new LongAdder();
+    private static final LongAdder LIST_HITS = new LongAdder();
+    private static final LongAdder LIST_MISSES = new LongAdder();
+
 
     // 静态初始化
     static {
@@ -157,8 +164,10 @@ public class CollectionPool {
     public static Set<String> borrowSet() {
         PooledSet pooledSet = SET_POOL.poll();
         if (pooledSet == null) {
+            SET_MISSES.increment();
             pooledSet = new PooledSet(new HashSet<>(16));
         } else {
+            SET_HITS.increment();
             pooledSet.setBorrowTime(System.currentTimeMillis());
         }
 
@@ -187,8 +196,10 @@ public class CollectionPool {
     public static List<String> borrowList() {
         PooledList pooledList = LIST_POOL.poll();
         if (pooledList == null) {
+            LIST_MISSES.increment();
             pooledList = new PooledList(new ArrayList<>(16));
         } else {
+            LIST_HITS.increment();
             pooledList.setBorrowTime(System.currentTimeMillis());
         }
 
@@ -211,6 +222,47 @@ public class CollectionPool {
         }
     }
 
+    /**
+     * 获取Set对象池当前大小
+     */
+    public static int getSetPoolSize() {
+        return SET_POOL.size();
+    }
+
+    /**
+     * 获取List对象池当前大小
+     */
+    public static int getListPoolSize() {
+        return LIST_POOL.size();
+    }
+
+    /**
+     * 获取Set对象池累计命中次数
+     */
+    public static long getSetHitCount() {
+        return SET_HITS.sum();
+    }
+
+    /**
+     * 获取Set对象池累计未命中次数
+     */
+    public static long getSetMissCount() {
+        return SET_MISSES.sum();
+    }
+
+    /**
+     * 获取List对象池累计命中次数
+     */
+    public static long getListHitCount() {
+        return LIST_HITS.sum();
+    }
+
+    /**
+     * 获取List对象池累计未命中次数
+     */
+    public static long getListMissCount() {
+        return LIST_MISSES.sum();
+    }
 
     /**
      * 设置驱逐检查间隔（毫秒）
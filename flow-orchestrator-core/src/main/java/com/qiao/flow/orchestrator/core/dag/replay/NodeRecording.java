@@ -0,0 +1,53 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 单个节点的录制结果：耗时、NodeResult中的业务数据，以及执行期间写入上下文的通用数据
+ * 失败的节点只记录异常类型和消息
+ *
+ * @author qiao
+ */
+@Getter
+public class NodeRecording implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String nodeId;
+    private final long latencyNanos;
+    private final Object result;
+    private final Map<String, Object> data;
+    private final String failureType;
+    private final String failureMessage;
+
+    public NodeRecording(String nodeId, long latencyNanos, Object result, Map<String, Object> data,
+                         String failureType, String failureMessage) {
+        this.nodeId = nodeId;
+        this.latencyNanos = latencyNanos;
+        this.result = result;
+        this.data = data;
+        this.failureType = failureType;
+        this.failureMessage = failureMessage;
+    }
+
+    public boolean isFailed() {
+        return failureType != null;
+    }
+
+    /**
+     * 把录制的结果写入上下文，录制时失败的节点抛出RecordedNodeFailureException
+     */
+    public void applyTo(DagContext context) {
+        if (isFailed()) {
+            throw new RecordedNodeFailureException(nodeId, failureType, failureMessage);
+        }
+        data.forEach(context::putData);
+        if (result != null) {
+            context.putNodeResult(nodeId, result);
+        }
+    }
+}
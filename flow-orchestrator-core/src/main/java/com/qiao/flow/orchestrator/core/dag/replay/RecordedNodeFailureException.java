@@ -0,0 +1,22 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import lombok.Getter;
+
+/**
+ * 回放录制时失败的节点
+ * 原始异常不一定能序列化，只保留类型和消息
+ *
+ * @author qiao
+ */
+@Getter
+public class RecordedNodeFailureException extends RuntimeException {
+
+    private final String nodeId;
+    private final String failureType;
+
+    public RecordedNodeFailureException(String nodeId, String failureType, String failureMessage) {
+        super("Recorded failure in node " + nodeId + ": " + failureType + ": " + failureMessage, null, false, false);
+        this.nodeId = nodeId;
+        this.failureType = failureType;
+    }
+}
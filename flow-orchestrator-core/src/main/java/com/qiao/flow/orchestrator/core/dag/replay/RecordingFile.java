@@ -0,0 +1,143 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 录制文件格式：整个文件是一个gzip流，其中依次是 [int长度][Java序列化的WorkflowRecording] 记录
+ * 每条记录写入后同步刷新，进程异常退出时最多丢失最后一条不完整的记录，读取时忽略
+ * <p>
+ * 读取时按白名单过滤反序列化的类：录制本身的类型、JDK基础类型与集合，以及调用方指定的业务包，其余类型一律拒绝
+ *
+ * @author qiao
+ */
+@Slf4j
+public final class RecordingFile {
+
+    /**
+     * 始终允许的类型：录制本身、JDK基础类型、集合与时间类型；基本类型数组不经过白名单
+     */
+    private static final String BASE_PATTERN = WorkflowRecording.class.getName() + ";"
+            + NodeRecording.class.getName() + ";java.lang.*;java.util.*;java.time.*;java.math.*";
+
+    /**
+     * 单条记录序列化后的字节数上限，超过时录制被丢弃，读取时视为文件损坏
+     */
+    static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * 反序列化的资源上限：对象图深度和对象引用数限制嵌套过深或哈希冲突构造的集合，字节数不超过单条记录上限
+     */
+    private static final String LIMITS = "maxdepth=64;maxrefs=1000000;maxbytes=" + MAX_RECORD_BYTES;
+
+    private RecordingFile() {
+    }
+
+    /**
+     * 读取文件中的全部录制，输入、节点结果和上下文数据只能是JDK基础类型与集合
+     */
+    public static List<WorkflowRecording> read(Path file) throws IOException {
+        return read(file, List.of());
+    }
+
+    /**
+     * 读取文件中的全部录制
+     *
+     * @param file            录制文件
+     * @param allowedPackages 输入、节点结果和上下文数据所在的业务包（含子包），其余业务类型拒绝反序列化
+     * @throws InvalidClassException 记录中出现白名单以外的类型，或超过对象图深度、引用数、字节数上限
+     * @throws IOException           记录长度非法（文件损坏）
+     */
+    public static List<WorkflowRecording> read(Path file, Collection<String> allowedPackages) throws IOException {
+        ObjectInputFilter filter = createFilter(allowedPackages);
+        List<WorkflowRecording> recordings = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(file))))) {
+            while (true) {
+                int length;
+                byte[] bytes;
+                try {
+                    length = in.readInt();
+                    if (length < 0 || length > MAX_RECORD_BYTES) {
+                        throw new IOException("Recording file " + file + " is corrupt, record length: " + length);
+                    }
+                    bytes = in.readNBytes(length);
+                } catch (EOFException e) {
+                    break;
+                }
+                if (bytes.length < length) {
+                    log.warn("Recording file {} ends with a truncated record, ignored", file);
+                    break;
+                }
+                recordings.add(deserialize(bytes, filter));
+            }
+        } catch (EOFException e) {
+            // 异常退出时gzip流没有正常结束，已读到的记录仍然有效
+            log.warn("Recording file {} was not closed properly, read {} recordings", file, recordings.size());
+        }
+        return recordings;
+    }
+
+    static byte[] serialize(WorkflowRecording recording) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(recording);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ObjectInputFilter createFilter(Collection<String> allowedPackages) {
+        StringBuilder pattern = new StringBuilder(LIMITS).append(';').append(BASE_PATTERN);
+        for (String allowedPackage : allowedPackages) {
+            if (allowedPackage == null || allowedPackage.isBlank() || allowedPackage.contains(";")) {
+                throw new IllegalArgumentException("invalid package: " + allowedPackage);
+            }
+            pattern.append(';').append(allowedPackage.trim()).append(".**");
+        }
+        return ObjectInputFilter.Config.createFilter(pattern.append(";!*").toString());
+    }
+
+    static WorkflowRecording deserialize(byte[] bytes, ObjectInputFilter filter) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            in.setObjectInputFilter(filter);
+            return (WorkflowRecording) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new InvalidClassException("Recording references a missing class: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 追加写入录制记录，非线程安全
+     */
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+
+        Writer(Path file) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file), 8192, true));
+        }
+
+        void write(byte[] record) throws IOException {
+            out.writeInt(record.length);
+            out.write(record);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
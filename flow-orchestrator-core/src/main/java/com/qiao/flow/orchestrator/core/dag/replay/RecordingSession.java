@@ -0,0 +1,121 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 一次被采样执行的录制，由WorkflowRecorder.begin创建
+ * IO节点执行前后各取一次上下文通用数据，值（按引用）发生变化的键视为该节点写入；
+ * 并发执行的兄弟节点的写入可能同时记到多个节点上，回放时重复写入相同的值，不影响结果。其他节点照常执行不录制
+ *
+ * @author qiao
+ */
+public final class RecordingSession implements NodeInterceptor {
+
+    private final String workflow;
+    private final Object input;
+    private final long startMillis = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, NodeRecording> nodes = new ConcurrentHashMap<>();
+
+    RecordingSession(String workflow, Object input) {
+        this.workflow = workflow;
+        this.input = input;
+    }
+
+    public String getWorkflow() {
+        return workflow;
+    }
+
+    @Override
+    public <P> void execute(Node<P> node, P input, DagContext context, String nodeId, NodeType nodeType)
+            throws Exception {
+        if (!nodeType.isIo()) {
+            node.execute(input, context, nodeId);
+            return;
+        }
+        Map<String, Object> before = snapshot(context);
+        long start = System.nanoTime();
+        try {
+            node.execute(input, context, nodeId);
+        } catch (Exception e) {
+            record(nodeId, start, before, context, e);
+            throw e;
+        }
+        record(nodeId, start, before, context, null);
+    }
+
+    @Override
+    public <P> CompletionStage<?> executeAsync(AsyncNode<P> node, P input, DagContext context, String nodeId,
+                                               NodeType nodeType) throws Exception {
+        if (!nodeType.isIo()) {
+            return node.executeAsync(input, context, nodeId);
+        }
+        Map<String, Object> before = snapshot(context);
+        long start = System.nanoTime();
+        CompletionStage<?> stage;
+        try {
+            stage = node.executeAsync(input, context, nodeId);
+        } catch (Exception e) {
+            record(nodeId, start, before, context, e);
+            throw e;
+        }
+        if (stage == null) {
+            record(nodeId, start, before, context, null);
+            return null;
+        }
+        return stage.whenComplete((value, throwable) -> record(nodeId, start, before, context, unwrap(throwable)));
+    }
+
+    /**
+     * 结束录制
+     */
+    WorkflowRecording finish() {
+        return new WorkflowRecording(workflow, input, startMillis, System.nanoTime() - startNanos,
+                new LinkedHashMap<>(nodes));
+    }
+
+    private void record(String nodeId, long start, Map<String, Object> before, DagContext context,
+                        Throwable failure) {
+        long latency = System.nanoTime() - start;
+        if (failure != null) {
+            nodes.put(nodeId, new NodeRecording(nodeId, latency, null, Map.of(),
+                    failure.getClass().getName(), failure.getMessage()));
+            return;
+        }
+        Map<String, Object> written = new HashMap<>();
+        // 基本类型的键每次遍历都重新装箱，按值比较
+        context.forEachData((key, value) -> {
+            Object previous = before.get(key);
+            if (previous != value && !value.equals(previous)) {
+                written.put(key, value);
+            }
+        });
+        nodes.put(nodeId, new NodeRecording(nodeId, latency, context.getNodeResult(nodeId), written, null, null));
+    }
+
+    private static Map<String, Object> snapshot(DagContext context) {
+        Map<String, Object> snapshot = new HashMap<>();
+        context.forEachData(snapshot::put);
+        return snapshot;
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+}
@@ -0,0 +1,88 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 按一次录制回放工作流
+ * 录制过的节点不再执行，直接把录制的结果写入上下文；replayLatency为true时先等待录制的耗时
+ * （同步节点挂起当前线程，异步节点延迟完成），其余节点（CPU节点、录制时被剪枝的节点）照常执行
+ *
+ * @author qiao
+ */
+public final class ReplaySession implements NodeInterceptor {
+
+    private final WorkflowRecording recording;
+    private final boolean replayLatency;
+    private final AtomicInteger replayed = new AtomicInteger();
+    private final AtomicInteger executed = new AtomicInteger();
+
+    public ReplaySession(WorkflowRecording recording, boolean replayLatency) {
+        this.recording = recording;
+        this.replayLatency = replayLatency;
+    }
+
+    public WorkflowRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * 用录制结果代替执行的节点数
+     */
+    public int getReplayedCount() {
+        return replayed.get();
+    }
+
+    /**
+     * 实际执行的节点数
+     */
+    public int getExecutedCount() {
+        return executed.get();
+    }
+
+    @Override
+    public <P> void execute(Node<P> node, P input, DagContext context, String nodeId, NodeType nodeType)
+            throws Exception {
+        NodeRecording nodeRecording = recording.getNode(nodeId);
+        if (nodeRecording == null) {
+            executed.incrementAndGet();
+            node.execute(input, context, nodeId);
+            return;
+        }
+        replayed.incrementAndGet();
+        if (replayLatency) {
+            long deadline = System.nanoTime() + nodeRecording.getLatencyNanos();
+            for (long remaining = nodeRecording.getLatencyNanos(); remaining > 0;
+                 remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+        nodeRecording.applyTo(context);
+    }
+
+    @Override
+    public <P> CompletionStage<?> executeAsync(AsyncNode<P> node, P input, DagContext context, String nodeId,
+                                               NodeType nodeType) throws Exception {
+        NodeRecording nodeRecording = recording.getNode(nodeId);
+        if (nodeRecording == null) {
+            executed.incrementAndGet();
+            return node.executeAsync(input, context, nodeId);
+        }
+        replayed.incrementAndGet();
+        if (!replayLatency || nodeRecording.getLatencyNanos() <= 0) {
+            nodeRecording.applyTo(context);
+            return null;
+        }
+        return CompletableFuture.runAsync(() -> nodeRecording.applyTo(context),
+                CompletableFuture.delayedExecutor(nodeRecording.getLatencyNanos(), TimeUnit.NANOSECONDS));
+    }
+}
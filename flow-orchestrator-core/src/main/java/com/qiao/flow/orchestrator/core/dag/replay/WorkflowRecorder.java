@@ -0,0 +1,199 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 工作流录制器
+ * 按比例采样执行，录制工作流输入和每个IO节点的结果、写入的上下文数据与耗时，写入本地gzip文件（格式见RecordingFile）。
+ * 配合ReplaySession在本地用真实的数据形态回放，压测CPU节点和引擎开销
+ * <p>
+ * 序列化在执行线程上完成（执行结束后上下文和结果对象可能被复用），写文件由后台线程完成，队列满时丢弃。
+ * 输入、节点结果和上下文数据必须实现Serializable，否则该次录制被丢弃；批量执行不录制
+ *
+ * @author qiao
+ */
+@Slf4j
+public class WorkflowRecorder implements Closeable {
+
+    private final Path file;
+    private final double defaultRate;
+    private final Map<String, Double> workflowRates;
+    private final long maxRecordings;
+
+    private final RecordingFile.Writer writer;
+    private final BlockingQueue<byte[]> queue;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    // 达到maxRecordings后不再采样
+    private final AtomicLong remaining;
+    private final Set<String> warnedWorkflows = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param file          录制文件，已存在时覆盖
+     * @param defaultRate   采样比例（0~1）
+     * @param workflowRates 按工作流覆盖的采样比例
+     * @param maxRecordings 最多录制的执行次数
+     * @param queueCapacity 等待写入的记录数上限
+     */
+    public WorkflowRecorder(Path file, double defaultRate, Map<String, Double> workflowRates,
+                            long maxRecordings, int queueCapacity) throws IOException {
+        this.file = file;
+        this.defaultRate = checkRate(defaultRate);
+        this.workflowRates = new HashMap<>();
+        if (workflowRates != null) {
+            workflowRates.forEach((workflow, rate) -> this.workflowRates.put(workflow, checkRate(rate)));
+        }
+        this.maxRecordings = maxRecordings;
+        this.remaining = new AtomicLong(maxRecordings);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new RecordingFile.Writer(file);
+        this.writerThread = Thread.ofPlatform().name("DagRecorder-Writer").daemon().start(this::writeLoop);
+        log.info("WorkflowRecorder initialized, file: {}, rate: {}, overrides: {}, max recordings: {}",
+                file, defaultRate, this.workflowRates, maxRecordings);
+    }
+
+    /**
+     * 执行开始前调用，决定本次执行是否录制
+     *
+     * @return 录制会话，需要设置到DagContext上；不录制时返回null
+     */
+    public RecordingSession begin(String workflowName, Object input) {
+        if (closed) {
+            return null;
+        }
+        double rate = workflowRates.getOrDefault(workflowName, defaultRate);
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return null;
+        }
+        if (!(input instanceof Serializable)) {
+            warnOnce(workflowName, "input type " + (input == null ? "null" : input.getClass().getName())
+                    + " is not Serializable");
+            dropped.increment();
+            return null;
+        }
+        if (remaining.getAndDecrement() <= 0) {
+            return null;
+        }
+        sampled.increment();
+        return new RecordingSession(workflowName, input);
+    }
+
+    /**
+     * 执行结束后调用，序列化录制结果并交给后台线程写入
+     *
+     * @param session begin返回的会话，可以为null
+     */
+    public void end(RecordingSession session) {
+        if (session == null) {
+            return;
+        }
+        byte[] record;
+        try {
+            record = RecordingFile.serialize(session.finish());
+        } catch (NotSerializableException e) {
+            warnOnce(session.getWorkflow(), "type " + e.getMessage() + " is not Serializable");
+            dropped.increment();
+            return;
+        } catch (IOException e) {
+            log.warn("Failed to serialize recording of workflow {}", session.getWorkflow(), e);
+            dropped.increment();
+            return;
+        }
+        if (record.length > RecordingFile.MAX_RECORD_BYTES) {
+            warnOnce(session.getWorkflow(), "record size " + record.length + " exceeds " + RecordingFile.MAX_RECORD_BYTES);
+            dropped.increment();
+            return;
+        }
+        if (closed || !queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        while (!closed || !queue.isEmpty()) {
+            try {
+                byte[] record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    writer.write(record);
+                    written.increment();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                log.warn("Failed to write recording to {}", file, e);
+                dropped.increment();
+            }
+        }
+    }
+
+    private void warnOnce(String workflowName, String reason) {
+        if (warnedWorkflows.add(workflowName)) {
+            log.warn("Recording of workflow {} dropped: {}", workflowName, reason);
+        }
+    }
+
+    /**
+     * 写完队列中的记录并关闭文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+        log.info("WorkflowRecorder closed, file: {}, stats: {}", file, getStats());
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 录制统计：采样、写入、丢弃的次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampled", sampled.sum());
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("pending", queue.size());
+        stats.put("maxRecordings", maxRecordings);
+        return stats;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,36 @@
+package com.qiao.flow.orchestrator.core.dag.replay;
+
+import lombok.Getter;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * 一次工作流执行的录制结果：工作流输入和各IO节点的录制
+ *
+ * @author qiao
+ */
+@Getter
+public class WorkflowRecording implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String workflow;
+    private final Object input;
+    private final long recordedAtMillis;
+    private final long durationNanos;
+    private final Map<String, NodeRecording> nodes;
+
+    public WorkflowRecording(String workflow, Object input, long recordedAtMillis, long durationNanos,
+                             Map<String, NodeRecording> nodes) {
+        this.workflow = workflow;
+        this.input = input;
+        this.recordedAtMillis = recordedAtMillis;
+        this.durationNanos = durationNanos;
+        this.nodes = nodes;
+    }
+
+    public NodeRecording getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+}
@@ -1,16 +1,28 @@
 package com.qiao.flow.orchestrator.core.dag.runner;
 
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowRejectedException;
 import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.callback.DagExceptionHandler;
 import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
 import com.qiao.flow.orchestrator.core.dag.callback.IDagCallback;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagBatchEngine;
 import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
 import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagStructuredEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.replay.RecordingSession;
+import com.qiao.flow.orchestrator.core.dag.replay.ReplaySession;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecorder;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecording;
 import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.trace.ExecutionTrace;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceSampler;
 import com.qiao.flow.orchestrator.core.dag.utils.DagAlgorithmUtils;
 import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
 import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
@@ -48,6 +60,18 @@ public class DagAutoRunner {
     // 只读缓存，使用volatile确保可见性，不需要线程安全类
     private volatile List<Node<?>> allNodesCache = null;
 
+    // 准入控制（可选），未配置时不做限制
+    private volatile AdmissionController admissionController;
+
+    // 执行模式，默认按批次调度
+    private volatile ExecutionMode executionMode = ExecutionMode.WAVE;
+
+    // 时间线采样（可选），未配置时不记录
+    private volatile TraceSampler traceSampler;
+
+    // 录制器（可选），未配置时不录制
+    private volatile WorkflowRecorder workflowRecorder;
+
 
     @Autowired
     public DagAutoRunner(ApplicationContext applicationContext, MixedThreadPoolManager threadPoolManager) {
@@ -56,61 +80,338 @@ public class DagAutoRunner {
         log.info("DagAutoRunner initialization completed");
     }
 
+    /**
+     * 设置准入控制器
+     * 存在AdmissionController Bean时自动注入
+     */
+    @Autowired(required = false)
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+        log.info("DagAutoRunner admission control enabled: {}", admissionController.getClass().getSimpleName());
+    }
+
+    /**
+     * 获取准入控制器
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * 设置时间线采样器
+     * 存在TraceSampler Bean时自动注入
+     */
+    @Autowired(required = false)
+    public void setTraceSampler(TraceSampler traceSampler) {
+        this.traceSampler = traceSampler;
+        log.info("DagAutoRunner trace sampling enabled");
+    }
+
+    /**
+     * 获取时间线采样器
+     */
+    public TraceSampler getTraceSampler() {
+        return traceSampler;
+    }
+
+    /**
+     * 设置录制器，传null关闭录制
+     * 存在WorkflowRecorder Bean时自动注入
+     */
+    @Autowired(required = false)
+    public void setWorkflowRecorder(WorkflowRecorder workflowRecorder) {
+        this.workflowRecorder = workflowRecorder;
+        log.info("DagAutoRunner workflow recording {}", workflowRecorder != null ? "enabled" : "disabled");
+    }
+
+    /**
+     * 获取录制器
+     */
+    public WorkflowRecorder getWorkflowRecorder() {
+        return workflowRecorder;
+    }
+
+    /**
+     * 设置执行模式
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode != null ? executionMode : ExecutionMode.WAVE;
+        log.info("DagAutoRunner execution mode: {}", this.executionMode);
+    }
+
+    /**
+     * 获取执行模式
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
 
     /**
      * 执行指定工作流（统一方法）
      * 支持异常处理器和回调配置，确保afterCallback在finally块中执行
+     *
+     * @throws WorkflowRejectedException 配置了准入控制且本次执行被拒绝时抛出
      */
     public <T> void executeWorkflow(String workflowName, T input,
                                     DagExceptionHandler<T> exceptionHandler,
                                     IDagCallback beforeCallback,
                                     IDagCallback afterCallback) {
+        executeWorkflow(workflowName, input, exceptionHandler, beforeCallback, afterCallback, null, null);
+    }
+
+    /**
+     * 执行指定工作流并记录本次执行的时间线
+     * 用于排查单个慢请求：返回的ExecutionTrace可导出为Chrome trace-event JSON
+     *
+     * @return 本次执行的时间线
+     * @throws WorkflowRejectedException 配置了准入控制且本次执行被拒绝时抛出
+     */
+    public <T> ExecutionTrace executeWorkflowTraced(String workflowName, T input,
+                                                    DagExceptionHandler<T> exceptionHandler,
+                                                    IDagCallback beforeCallback,
+                                                    IDagCallback afterCallback) {
+        ExecutionTrace trace = new ExecutionTrace();
+        executeWorkflow(workflowName, input, exceptionHandler, beforeCallback, afterCallback, trace, null);
+        return trace;
+    }
+
+    /**
+     * 按一次录制回放工作流：录制过的IO节点不再执行，使用录制的结果，其余节点照常执行
+     * 用于在本地以真实的数据形态压测CPU节点和引擎开销
+     *
+     * @param replayLatency 是否按录制的耗时等待
+     * @return 回放会话，可查看回放和实际执行的节点数
+     * @throws WorkflowRejectedException 配置了准入控制且本次执行被拒绝时抛出
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ReplaySession replayWorkflow(WorkflowRecording recording, boolean replayLatency,
+                                            DagExceptionHandler<T> exceptionHandler) {
+        ReplaySession session = new ReplaySession(recording, replayLatency);
+        executeWorkflow(recording.getWorkflow(), (T) recording.getInput(), exceptionHandler, null, null, null, session);
+        return session;
+    }
+
+    private <T> void executeWorkflow(String workflowName, T input,
+                                     DagExceptionHandler<T> exceptionHandler,
+                                     IDagCallback beforeCallback,
+                                     IDagCallback afterCallback,
+                                     ExecutionTrace trace,
+                                     NodeInterceptor interceptor) {
+        // 准入控制：被拒绝时直接抛出，不进入引擎
+        AdmissionController.AdmissionPermit permit = acquirePermit(workflowName);
+
+        WorkflowRecorder recorder = interceptor == null ? workflowRecorder : null;
+        RecordingSession recording = null;
+        TraceSampler sampler = trace == null ? traceSampler : null;
+        boolean success = false;
+        // 取得许可后的所有步骤都在try中，任何异常都会归还许可
         try {
+            // 未指定拦截器（回放）时交给录制器决定是否录制
+            if (recorder != null) {
+                recording = recorder.begin(workflowName, input);
+                if (recording != null) {
+                    interceptor = recording;
+                }
+            }
+
+            // 未显式要求记录时间线时交给采样器决定
+            if (sampler != null) {
+                trace = sampler.begin(workflowName);
+            }
+
+            if (executionMode == ExecutionMode.STRUCTURED) {
+                success = executeStructured(workflowName, input, exceptionHandler, beforeCallback, afterCallback,
+                        trace, interceptor);
+                return;
+            }
+
             // 获取或构建DAG引擎（原型模式）
             DagEngine<T> engine = getOrBuildEngine(workflowName);
 
             // 设置回调（由DagEngine统一管理回调执行）
             engine.setBeforeCallback(beforeCallback);
             engine.setAfterCallback(afterCallback);
+            engine.setTrace(trace);
 
             // 使用对象池获取DAG上下文
             DagContext dagContext = DagContextPool.borrow();
+            dagContext.setNodeInterceptor(interceptor);
             try {
                 // 执行DAG
                 engine.execute(input, dagContext);
+                success = engine.getEx() == null;
 
                 // 检查执行结果
                 if (engine.getEx() != null) {
                     // 调用异常处理器
-                    if (exceptionHandler != null) {
-                        try {
-                            Throwable exception = engine.getEx();
-                            if (exception instanceof Exception) {
-                                exceptionHandler.handleException(
-                                        (Exception) exception,
-                                        input,
-                                        dagContext
-                                );
-                            } else {
-                                // 如果不是Exception类型，创建一个RuntimeException包装
-                                exceptionHandler.handleException(
-                                        new RuntimeException(exception),
-                                        input,
-                                        dagContext
-                                );
-                            }
-                        } catch (Exception handlerException) {
-                            log.warn("Exception handler failed", handlerException);
-                        }
-                    }
+                    handleException(exceptionHandler, engine.getEx(), input, dagContext);
                 }
             } finally {
-                // 归还对象到池中
-                DagContextPool.release(dagContext);
+                // 归还对象到池中；超时时仍有节点未结束的引擎和上下文直接丢弃，避免晚到的节点写入复用的对象
+                if (!engine.isAbandoned()) {
+                    DagContextPool.release(dagContext);
+                }
+                engine.getConfig().releaseEngine(engine);
             }
         } finally {
             // 后回调由DagEngine统一管理，这里不需要重复执行
             // 确保资源清理等操作在这里进行
+            try {
+                if (sampler != null) {
+                    sampler.end(trace);
+                }
+                if (recording != null) {
+                    recorder.end(recording);
+                }
+            } finally {
+                releasePermit(permit, success);
+            }
+        }
+    }
+
+    /**
+     * 以结构化并发模式执行工作流
+     *
+     * @return 执行是否成功
+     */
+    private <T> boolean executeStructured(String workflowName, T input,
+                                       DagExceptionHandler<T> exceptionHandler,
+                                       IDagCallback beforeCallback,
+                                       IDagCallback afterCallback,
+                                       ExecutionTrace trace,
+                                       NodeInterceptor interceptor) {
+        DagStructuredEngine<T> engine = getOrBuildConfig(workflowName).createStructuredEngine();
+        engine.setBeforeCallback(beforeCallback);
+        engine.setAfterCallback(afterCallback);
+        engine.setTrace(trace);
+
+        DagContext dagContext = DagContextPool.borrow();
+        dagContext.setNodeInterceptor(interceptor);
+        try {
+            engine.execute(input, dagContext);
+            if (engine.getEx() != null) {
+                handleException(exceptionHandler, engine.getEx(), input, dagContext);
+                return false;
+            }
+            return true;
+        } finally {
+            // 子任务已全部退出；只有仍有stage未完成时丢弃上下文
+            if (!engine.isAbandoned()) {
+                DagContextPool.release(dagContext);
+            }
+        }
+    }
+
+    /**
+     * 批量执行指定工作流
+     * 整批输入共享一次调度：每个节点每批只调度一次，BatchNode一次性处理整批输入，普通Node逐条执行
+     * 每条输入拥有独立的DagContext、分支选择与异常处理，单条失败不影响同批其他输入
+     *
+     * @param workflowName     工作流名称
+     * @param inputs           本批输入
+     * @param exceptionHandler 异常处理器，对每条失败的输入调用一次
+     * @throws WorkflowRejectedException 配置了准入控制且本批被拒绝时抛出（一批占用一个执行许可）
+     */
+    public <T> void executeWorkflowBatch(String workflowName, List<T> inputs,
+                                         DagExceptionHandler<T> exceptionHandler) {
+        executeWorkflowBatch(workflowName, inputs, exceptionHandler, null, null);
+    }
+
+    /**
+     * 批量执行指定工作流，并在整批执行前后各执行一次回调
+     * 超时按整批计算，到期时尚未失败的输入都以超时失败并各自调用异常处理器
+     *
+     * @param workflowName     工作流名称
+     * @param inputs           本批输入
+     * @param exceptionHandler 异常处理器，对每条失败的输入调用一次
+     * @param beforeCallback   整批执行前回调
+     * @param afterCallback    整批执行后回调，节点失败或超时时也会执行
+     * @throws WorkflowRejectedException 配置了准入控制且本批被拒绝时抛出（一批占用一个执行许可）
+     */
+    public <T> void executeWorkflowBatch(String workflowName, List<T> inputs,
+                                         DagExceptionHandler<T> exceptionHandler,
+                                         IDagCallback beforeCallback,
+                                         IDagCallback afterCallback) {
+        if (inputs == null || inputs.isEmpty()) {
+            return;
+        }
+
+        AdmissionController.AdmissionPermit permit = acquirePermit(workflowName);
+
+        // 每条输入借用独立的DAG上下文
+        List<DagContext> dagContexts = new ArrayList<>(inputs.size());
+        DagBatchEngine<T> batchEngine = null;
+        boolean success = false;
+        try {
+            // 获取或构建DAG配置，并创建批量引擎
+            batchEngine = getOrBuildConfig(workflowName).createBatchEngine();
+            batchEngine.setBeforeCallback(beforeCallback);
+            batchEngine.setAfterCallback(afterCallback);
+
+            for (int i = 0; i < inputs.size(); i++) {
+                dagContexts.add(DagContextPool.borrow());
+            }
+
+            // 批量执行DAG
+            batchEngine.execute(inputs, dagContexts);
+
+            // 逐条检查执行结果，任一条失败时本批不作为延迟样本
+            success = true;
+            for (int i = 0; i < inputs.size(); i++) {
+                Throwable exception = batchEngine.getEx(i);
+                if (exception != null) {
+                    success = false;
+                    handleException(exceptionHandler, exception, inputs.get(i), dagContexts.get(i));
+                }
+            }
+        } finally {
+            // 归还对象到池中；超时时仍有节点未结束的一批上下文直接丢弃，避免晚到的节点写入复用的对象
+            if (batchEngine == null || !batchEngine.isAbandoned()) {
+                for (DagContext dagContext : dagContexts) {
+                    DagContextPool.release(dagContext);
+                }
+            }
+            releasePermit(permit, success);
+        }
+    }
+
+    /**
+     * 申请执行许可，未配置准入控制时返回null
+     */
+    private AdmissionController.AdmissionPermit acquirePermit(String workflowName) {
+        AdmissionController controller = admissionController;
+        return controller != null ? controller.acquire(workflowName) : null;
+    }
+
+    /**
+     * 归还执行许可
+     *
+     * @param success 执行是否成功，失败或超时的执行不作为自适应限流的延迟样本
+     */
+    private void releasePermit(AdmissionController.AdmissionPermit permit, boolean success) {
+        if (permit != null) {
+            permit.release(success);
+        }
+    }
+
+    /**
+     * 调用异常处理器
+     */
+    private <T> void handleException(DagExceptionHandler<T> exceptionHandler, Throwable exception,
+                                     T input, DagContext dagContext) {
+        if (exceptionHandler == null) {
+            return;
+        }
+        try {
+            if (exception instanceof Exception) {
+                exceptionHandler.handleException((Exception) exception, input, dagContext);
+            } else {
+                // 如果不是Exception类型，创建一个RuntimeException包装
+                exceptionHandler.handleException(new RuntimeException(exception), input, dagContext);
+            }
+        } catch (Exception handlerException) {
+            log.warn("Exception handler failed", handlerException);
         }
     }
 
@@ -121,18 +422,30 @@ public class DagAutoRunner {
         // 检查缓存
         DagEngineConfig config = configCache.get(workflowName);
         if (config != null) {
-            // 从配置创建新的引擎实例
-            return config.createEngine();
+            // 从配置借用引擎实例，执行结束后归还
+            return config.borrowEngine();
         }
 
         // 首次构建
-        return buildNewEngine(workflowName);
+        return buildConfig(workflowName).borrowEngine();
+    }
+
+    /**
+     * 获取或构建DAG配置
+     */
+    private DagEngineConfig getOrBuildConfig(String workflowName) {
+        DagEngineConfig config = configCache.get(workflowName);
+        if (config != null) {
+            return config;
+        }
+        return buildConfig(workflowName);
     }
 
     /**
-     * 构建新的执行引擎（首次创建）
+     * 构建DAG配置并缓存（首次创建）
+     * 并发首次构建时以先缓存的配置为准，保证同一工作流只有一个配置和引擎池
      */
-    private <T> DagEngine<T> buildNewEngine(String workflowName) {
+    private DagEngineConfig buildConfig(String workflowName) {
         // 获取所有节点（使用缓存）
         List<Node<?>> allNodes = getAllNodes();
 
@@ -155,14 +468,15 @@ public class DagAutoRunner {
         // 验证DAG结构（包括循环检测）
         validateDagStructure(workflowName, nodeMap, dependencies, weakDependencies);
 
-        // 创建执行引擎（包含弱依赖）
-        DagEngine<T> engine = new DagEngine<>(nodeMap, dependencies, weakDependencies, threadPoolManager, 10000L);
-
-        // 创建配置并缓存
-        configCache.put(workflowName, new DagEngineConfig(engine));
+        // 创建配置并缓存（包含弱依赖），引擎从配置借用
+        DagEngineConfig config = DagEngineConfig.of(nodeMap, dependencies, weakDependencies, threadPoolManager, 10000L);
+        DagEngineConfig cached = configCache.putIfAbsent(workflowName, config);
+        if (cached != null) {
+            return cached;
+        }
 
-        log.info("Engine and prototype built successfully for workflow: {}", workflowName);
-        return engine;
+        log.info("Engine config built successfully for workflow: {}", workflowName);
+        return config;
     }
 
     /**
@@ -216,6 +530,8 @@ public class DagAutoRunner {
             String nodeId = getBeanNameFromNode(node);
             String workflow = config.workflow();
             NodeType nodeType = config.type();
+            String executorName = config.executor();
+            validateExecutor(nodeId, executorName);
             boolean isStart = config.start();
             boolean isEnd = config.end();
 
@@ -231,7 +547,7 @@ public class DagAutoRunner {
 
             // 创建节点包装器
             NodeWrapper<Object, Object> wrapper = new NodeWrapper(
-                    nodeId, nodeId, workflow, nodeType, node,
+                    nodeId, nodeId, workflow, nodeType, executorName, node,
                     dependsOn, weakDependsOn,
                     isStart, isEnd,
                     chooser
@@ -246,6 +562,21 @@ public class DagAutoRunner {
         return nodeMap;
     }
 
+    /**
+     * 校验节点指定的隔离线程池已注册
+     */
+    private void validateExecutor(String nodeId, String executorName) {
+        if (executorName.isEmpty() || threadPoolManager == null) {
+            return;
+        }
+        if (!threadPoolManager.hasExecutor(executorName)) {
+            throw new IllegalStateException(String.format(
+                    "节点 %s 指定的线程池 %s 未注册，已注册的线程池: %s",
+                    nodeId, executorName, threadPoolManager.getExecutorNames()
+            ));
+        }
+    }
+
     /**
      * 构建依赖关系
      */
@@ -361,6 +692,21 @@ public class DagAutoRunner {
     }
 
 
+    /**
+     * 获取工作流的DAG配置，未缓存时构建
+     * 可用于基于同一拓扑构建替换了节点实现的配置，例如离线压测
+     */
+    public DagEngineConfig getEngineConfig(String workflowName) {
+        return getOrBuildConfig(workflowName);
+    }
+
+    /**
+     * 已缓存的工作流配置数
+     */
+    public int getConfigCacheSize() {
+        return configCache.size();
+    }
+
     /**
      * 强制清理缓存
      * 用于解决Old Gen GC问题
@@ -0,0 +1,59 @@
+package com.qiao.flow.orchestrator.core.dag.thread.pool;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计拒绝次数的拒绝策略包装
+ * 每次线程池饱和触发拒绝策略都计入rejected，其中由调用线程执行（CallerRunsPolicy）的另计入callerRuns，
+ * 实际处理仍交给原拒绝策略
+ *
+ * @author qiao
+ */
+public class CountingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final RejectedExecutionHandler delegate;
+    private final boolean callerRuns;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder callerRunsCount = new LongAdder();
+
+    public CountingRejectedExecutionHandler(RejectedExecutionHandler delegate) {
+        this.delegate = delegate;
+        this.callerRuns = delegate instanceof ThreadPoolExecutor.CallerRunsPolicy;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+        rejected.increment();
+        if (callerRuns && !executor.isShutdown()) {
+            callerRunsCount.increment();
+        }
+        delegate.rejectedExecution(r, executor);
+    }
+
+    public RejectedExecutionHandler getDelegate() {
+        return delegate;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getCallerRunsCount() {
+        return callerRunsCount.sum();
+    }
+
+    /**
+     * 为线程池安装计数拒绝策略，已安装时直接返回
+     */
+    public static CountingRejectedExecutionHandler install(ThreadPoolExecutor executor) {
+        RejectedExecutionHandler handler = executor.getRejectedExecutionHandler();
+        if (handler instanceof CountingRejectedExecutionHandler counting) {
+            return counting;
+        }
+        CountingRejectedExecutionHandler counting = new CountingRejectedExecutionHandler(handler);
+        executor.setRejectedExecutionHandler(counting);
+        return counting;
+    }
+}
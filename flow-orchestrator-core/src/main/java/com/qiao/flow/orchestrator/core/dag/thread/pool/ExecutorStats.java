@@ -0,0 +1,62 @@
+package com.qiao.flow.orchestrator.core.dag.thread.pool;
+
+import lombok.Getter;
+
+/**
+ * 线程池统计快照
+ * 虚拟线程执行器等无法统计的指标为-1
+ *
+ * @author qiao
+ */
+@Getter
+public class ExecutorStats {
+
+    private final String name;
+
+    /**
+     * 正在执行任务的线程数
+     */
+    private final int active;
+
+    /**
+     * 当前线程数
+     */
+    private final int poolSize;
+
+    /**
+     * 排队中的任务数
+     */
+    private final long queued;
+
+    /**
+     * 累计完成的任务数
+     */
+    private final long completed;
+
+    /**
+     * 累计触发拒绝策略的次数
+     */
+    private final long rejected;
+
+    /**
+     * 其中由调用线程执行的次数（CallerRunsPolicy）
+     */
+    private final long callerRuns;
+
+    public ExecutorStats(String name, int active, int poolSize, long queued, long completed,
+                         long rejected, long callerRuns) {
+        this.name = name;
+        this.active = active;
+        this.poolSize = poolSize;
+        this.queued = queued;
+        this.completed = completed;
+        this.rejected = rejected;
+        this.callerRuns = callerRuns;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExecutorStats{name='%s', active=%d, poolSize=%d, queued=%d, completed=%d, rejected=%d, callerRuns=%d}",
+                name, active, poolSize, queued, completed, rejected, callerRuns);
+    }
+}
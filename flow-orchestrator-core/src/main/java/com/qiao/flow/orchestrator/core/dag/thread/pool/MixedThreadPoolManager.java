@@ -1,24 +1,254 @@
 package com.qiao.flow.orchestrator.core.dag.thread.pool;
 
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import lombok.AccessLevel;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 混合线程池管理器
- * 管理IO和CPU两种类型的线程池，根据节点类型选择合适的线程池
+ * 管理IO、CPU以及阻塞IO、重计算等线程池，根据节点类型选择合适的线程池
  * 支持外部注入线程池，完全解耦
+ * <p>
+ * 另外支持按名称注册的隔离线程池，节点通过 {@code @NodeConfig(executor = "...")} 指定，
+ * 慢依赖或高风险节点只会耗尽自己的线程池，不影响其他工作流
  *
  * @author qiao
  */
+@Slf4j
 @Getter
 public class MixedThreadPoolManager {
 
+    /**
+     * OPS物品维度线程池名称
+     */
+    public static final String OPS_ITEM_DIMENSION = "opsItemDimension";
+
+    /**
+     * OPS因子计算线程池名称
+     */
+    public static final String OPS_FACTOR = "opsFactor";
+
+    /**
+     * OPS上下文维度线程池名称
+     */
+    public static final String OPS_CONTEXT_DIMENSION = "opsContextDimension";
+
+    /**
+     * 按节点类型选择的线程池在统计中的名称
+     */
+    public static final String CPU = "cpu";
+    public static final String IO = "io";
+    public static final String BLOCKING_IO = "blockingIo";
+    public static final String HEAVY_CPU = "heavyCpu";
+
     private final ExecutorService cpuThreadPool;
     private final ExecutorService ioThreadPool;
 
+    // 阻塞IO线程池，未配置时使用IO线程池
+    private final ExecutorService blockingIoThreadPool;
+
+    // 重计算线程池，未配置时使用CPU线程池
+    private final ExecutorService heavyCpuThreadPool;
+
+    // 按名称注册的隔离线程池
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentHashMap<String, ExecutorService> namedExecutors = new ConcurrentHashMap<>();
+
     public MixedThreadPoolManager(ExecutorService cpuThreadPool, ExecutorService ioThreadPool) {
+        this(cpuThreadPool, ioThreadPool, null, null);
+    }
+
+    public MixedThreadPoolManager(ExecutorService cpuThreadPool, ExecutorService ioThreadPool,
+                                  ExecutorService blockingIoThreadPool, ExecutorService heavyCpuThreadPool) {
         this.cpuThreadPool = cpuThreadPool;
         this.ioThreadPool = ioThreadPool;
+        this.blockingIoThreadPool = blockingIoThreadPool != null ? blockingIoThreadPool : ioThreadPool;
+        this.heavyCpuThreadPool = heavyCpuThreadPool != null ? heavyCpuThreadPool : cpuThreadPool;
+        instrument(cpuThreadPool);
+        instrument(ioThreadPool);
+        instrument(this.blockingIoThreadPool);
+        instrument(this.heavyCpuThreadPool);
+    }
+
+    /**
+     * 注册隔离线程池
+     *
+     * @param name     线程池名称，与 {@code @NodeConfig#executor} 对应
+     * @param executor 线程池
+     */
+    public void registerExecutor(String name, ExecutorService executor) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("executor name must not be empty");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor must not be null: " + name);
+        }
+        instrument(executor);
+        ExecutorService previous = namedExecutors.put(name, executor);
+        if (previous != null && previous != executor) {
+            log.warn("Executor '{}' re-registered, previous instance replaced", name);
+        }
+    }
+
+    /**
+     * 获取隔离线程池
+     *
+     * @return 线程池，未注册时返回null
+     */
+    public ExecutorService getExecutor(String name) {
+        return namedExecutors.get(name);
+    }
+
+    /**
+     * 是否已注册指定名称的线程池
+     */
+    public boolean hasExecutor(String name) {
+        return namedExecutors.containsKey(name);
+    }
+
+    /**
+     * 获取所有已注册的线程池名称
+     */
+    public Set<String> getExecutorNames() {
+        return Collections.unmodifiableSet(namedExecutors.keySet());
+    }
+
+    /**
+     * 获取所有线程池，按类型线程池在前、隔离线程池在后；同一个实例只出现一次（如未单独配置的阻塞IO线程池）
+     */
+    public Map<String, ExecutorService> getExecutors() {
+        Map<String, ExecutorService> executors = new LinkedHashMap<>();
+        Map<ExecutorService, Boolean> seen = new IdentityHashMap<>();
+        addExecutor(executors, seen, CPU, cpuThreadPool);
+        addExecutor(executors, seen, IO, ioThreadPool);
+        addExecutor(executors, seen, BLOCKING_IO, blockingIoThreadPool);
+        addExecutor(executors, seen, HEAVY_CPU, heavyCpuThreadPool);
+        namedExecutors.forEach((name, executor) -> addExecutor(executors, seen, name, executor));
+        return executors;
+    }
+
+    private static void addExecutor(Map<String, ExecutorService> executors, Map<ExecutorService, Boolean> seen,
+                                    String name, ExecutorService executor) {
+        if (executor != null && seen.put(executor, Boolean.TRUE) == null) {
+            executors.put(name, executor);
+        }
+    }
+
+    /**
+     * 获取所有线程池的统计
+     */
+    public Map<String, ExecutorStats> getExecutorStats() {
+        Map<String, ExecutorStats> stats = new LinkedHashMap<>();
+        getExecutors().forEach((name, executor) -> stats.put(name, stats(name, executor)));
+        return stats;
+    }
+
+    /**
+     * 生成线程池统计快照
+     * ThreadPoolExecutor和ForkJoinPool可统计线程与队列，其他执行器（如虚拟线程执行器）对应指标为-1
+     */
+    public static ExecutorStats stats(String name, ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            long rejected = -1;
+            long callerRuns = -1;
+            if (pool.getRejectedExecutionHandler() instanceof CountingRejectedExecutionHandler counting) {
+                rejected = counting.getRejectedCount();
+                callerRuns = counting.getCallerRunsCount();
+            }
+            return new ExecutorStats(name, pool.getActiveCount(), pool.getPoolSize(), pool.getQueue().size(),
+                    pool.getCompletedTaskCount(), rejected, callerRuns);
+        }
+        if (executor instanceof ForkJoinPool pool) {
+            return new ExecutorStats(name, pool.getActiveThreadCount(), pool.getPoolSize(),
+                    pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount(), -1, -1, -1);
+        }
+        return new ExecutorStats(name, -1, -1, -1, -1, -1, -1);
+    }
+
+    /**
+     * ThreadPoolExecutor安装计数拒绝策略，用于统计拒绝和调用线程执行次数
+     */
+    private static void instrument(ExecutorService executor) {
+        if (executor instanceof ThreadPoolExecutor pool) {
+            CountingRejectedExecutionHandler.install(pool);
+        }
+    }
+
+    /**
+     * 根据节点类型和指定的线程池名称选择线程池
+     * 指定了已注册的隔离线程池时优先使用，INLINE节点始终不经过线程池
+     */
+    public ExecutorService getThreadPool(NodeType nodeType, String executorName) {
+        if (executorName != null && !executorName.isEmpty() && !nodeType.isInline()) {
+            ExecutorService executor = namedExecutors.get(executorName);
+            if (executor != null) {
+                return executor;
+            }
+        }
+        return getThreadPool(nodeType);
+    }
+
+    /**
+     * 根据节点类型选择线程池
+     * INLINE节点不经过线程池，返回null
+     */
+    public ExecutorService getThreadPool(NodeType nodeType) {
+        return switch (nodeType) {
+            case INLINE -> null;
+            case IO, ASYNC_IO -> ioThreadPool;
+            case BLOCKING_IO -> blockingIoThreadPool;
+            case HEAVY_CPU -> heavyCpuThreadPool;
+            case CPU -> cpuThreadPool;
+        };
+    }
+
+    /**
+     * 获取节点使用的线程池名称（与getExecutors中的名称一致），选择规则同getThreadPool
+     * INLINE节点不经过线程池，返回null
+     */
+    public String getThreadPoolName(NodeType nodeType, String executorName) {
+        if (executorName != null && !executorName.isEmpty() && !nodeType.isInline()
+                && namedExecutors.containsKey(executorName)) {
+            return executorName;
+        }
+        return switch (nodeType) {
+            case INLINE -> null;
+            case IO, ASYNC_IO -> IO;
+            case BLOCKING_IO -> blockingIoThreadPool == ioThreadPool ? IO : BLOCKING_IO;
+            case HEAVY_CPU -> heavyCpuThreadPool == cpuThreadPool ? CPU : HEAVY_CPU;
+            case CPU -> CPU;
+        };
+    }
+
+    /**
+     * 创建工作窃取的CPU线程池
+     * 每个工作线程拥有自己的双端队列，空闲线程从其他线程的队列尾部窃取任务，
+     * 避免所有DAG争抢同一个有界阻塞队列。asyncMode=false即本地队列按LIFO执行，
+     * 工作线程内提交的后继任务优先在同一线程上执行，缓存局部性更好
+     *
+     * @param parallelism 并行度，通常为CPU核数
+     * @param namePrefix  线程名前缀
+     */
+    public static ForkJoinPool newWorkStealingCpuPool(int parallelism, String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(namePrefix + counter.incrementAndGet());
+            return thread;
+        };
+        return new ForkJoinPool(parallelism, factory, null, false);
     }
-}
\ No newline at end of file
+}
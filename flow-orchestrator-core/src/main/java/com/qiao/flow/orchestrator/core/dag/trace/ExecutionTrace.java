@@ -0,0 +1,332 @@
+package com.qiao.flow.orchestrator.core.dag.trace;
+
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单次工作流执行的时间线
+ * 按需创建并交给引擎（setTrace），引擎在每个节点结束时记录就绪、开始、结束时间（System.nanoTime()）、
+ * 执行线程和线程池，可导出为Chrome trace-event JSON，在Perfetto（ui.perfetto.dev）或chrome://tracing中查看：
+ * 节点按执行线程排列，排队等待单独显示在wait轨道上
+ * <p>
+ * 未设置时引擎中的埋点只有一次null判断；一个实例只能用于一次执行
+ *
+ * @author qiao
+ */
+public class ExecutionTrace {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final long id = SEQUENCE.incrementAndGet();
+
+    // 所有时间相对于该起点
+    private final long originNanos = System.nanoTime();
+    private final long originEpochMillis = System.currentTimeMillis();
+
+    private final ConcurrentLinkedQueue<NodeSpan> spans = new ConcurrentLinkedQueue<>();
+
+    private volatile String workflowName;
+    private volatile String mode;
+    private volatile int nodeCount;
+    private volatile DagState outcome;
+    private volatile String schedulerThreadName;
+    private volatile long schedulerThreadId;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    // 被采样保留的原因，由TraceSampler设置
+    private volatile String sampleReason;
+
+    /**
+     * 工作流开始执行时由引擎调用
+     */
+    public void workflowStarted(String workflowName, String mode, int nodeCount) {
+        Thread thread = Thread.currentThread();
+        this.workflowName = workflowName;
+        this.mode = mode;
+        this.nodeCount = nodeCount;
+        this.schedulerThreadName = thread.getName();
+        this.schedulerThreadId = thread.threadId();
+        this.startNanos = relative(System.nanoTime());
+    }
+
+    /**
+     * 工作流执行结束时由引擎调用
+     */
+    public void workflowFinished(DagState outcome) {
+        this.outcome = outcome;
+        this.endNanos = relative(System.nanoTime());
+    }
+
+    /**
+     * 节点执行结束时由引擎在执行线程上调用
+     *
+     * @param pool       线程池名称，在调度线程上直接执行时为null
+     * @param readyNanos 节点就绪的System.nanoTime()，0表示与开始时间相同
+     * @param startNanos 开始执行的System.nanoTime()
+     */
+    public void nodeFinished(NodeWrapper<?, ?> wrapper, String pool, long readyNanos, long startNanos, NodeState state) {
+        long endNanos = System.nanoTime();
+        long start = relative(startNanos);
+        spans.add(new NodeSpan(wrapper.getId(), wrapper.getNodeType().name(), pool, Thread.currentThread(),
+                readyNanos == 0L ? start : relative(readyNanos), start, relative(endNanos), state));
+    }
+
+    private long relative(long nanos) {
+        return Math.max(nanos - originNanos, 0L);
+    }
+
+    /**
+     * 进程内唯一的时间线ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    public String getSampleReason() {
+        return sampleReason;
+    }
+
+    void setSampleReason(String sampleReason) {
+        this.sampleReason = sampleReason;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public DagState getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * 创建时间（毫秒时间戳）
+     */
+    public long getStartTimeMillis() {
+        return originEpochMillis;
+    }
+
+    /**
+     * 工作流总耗时（纳秒），未结束时返回0
+     */
+    public long getDurationNanos() {
+        long end = endNanos;
+        return end == 0L ? 0L : end - startNanos;
+    }
+
+    /**
+     * 按开始时间排序的节点区间
+     */
+    public List<NodeSpan> getSpans() {
+        List<NodeSpan> result = new ArrayList<>(spans);
+        result.sort(Comparator.comparingLong(NodeSpan::getStartNanos));
+        return result;
+    }
+
+    /**
+     * 时间线摘要：ID、工作流、执行模式、结果、采样原因、开始时间、耗时以及耗时最长的节点
+     */
+    public Map<String, Object> toSummary() {
+        NodeSpan slowest = null;
+        int spanCount = 0;
+        for (NodeSpan span : spans) {
+            spanCount++;
+            if (slowest == null || span.getDurationNanos() > slowest.getDurationNanos()) {
+                slowest = span;
+            }
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("id", id);
+        summary.put("workflow", workflowName);
+        summary.put("mode", mode);
+        summary.put("outcome", outcome != null ? outcome.name() : null);
+        summary.put("sampleReason", sampleReason);
+        summary.put("startTimeMillis", originEpochMillis);
+        summary.put("durationMs", getDurationNanos() / 1e6);
+        summary.put("nodes", spanCount);
+        summary.put("slowestNode", slowest != null ? slowest.getNodeId() : null);
+        summary.put("slowestNodeMs", slowest != null ? slowest.getDurationNanos() / 1e6 : 0.0);
+        return summary;
+    }
+
+    /**
+     * 导出为Chrome trace-event JSON
+     */
+    public String toChromeTraceJson() {
+        List<NodeSpan> sorted = getSpans();
+        StringBuilder json = new StringBuilder(256 + sorted.size() * 320);
+        json.append("{\"displayTimeUnit\":\"ms\",\"otherData\":{");
+        appendField(json, "workflow", workflowName).append(',');
+        appendField(json, "mode", mode).append(',');
+        appendField(json, "outcome", outcome != null ? outcome.name() : null).append(',');
+        appendField(json, "sampleReason", sampleReason).append(',');
+        json.append("\"traceId\":").append(id).append(',');
+        json.append("\"startTimeMillis\":").append(originEpochMillis);
+        json.append("},\"traceEvents\":[");
+
+        // 线程名元数据
+        Map<Long, String> threads = new LinkedHashMap<>();
+        if (schedulerThreadName != null) {
+            threads.put(schedulerThreadId, schedulerThreadName);
+        }
+        for (NodeSpan span : sorted) {
+            threads.putIfAbsent(span.getThreadId(), threadLabel(span));
+        }
+        boolean first = true;
+        for (Map.Entry<Long, String> thread : threads.entrySet()) {
+            first = separator(json, first);
+            json.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":").append(thread.getKey())
+                    .append(",\"args\":{");
+            appendField(json, "name", thread.getValue()).append("}}");
+        }
+
+        // 工作流
+        if (schedulerThreadName != null) {
+            long end = endNanos != 0L ? endNanos : lastEnd(sorted);
+            first = separator(json, first);
+            json.append("{\"name\":");
+            appendString(json, workflowName);
+            json.append(",\"cat\":\"workflow\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(schedulerThreadId);
+            json.append(",\"ts\":");
+            appendMicros(json, startNanos);
+            json.append(",\"dur\":");
+            appendMicros(json, end - startNanos);
+            json.append(",\"args\":{");
+            appendField(json, "mode", mode).append(',');
+            json.append("\"nodes\":").append(nodeCount).append(',');
+            appendField(json, "outcome", outcome != null ? outcome.name() : null).append("}}");
+        }
+
+        // 节点执行与排队等待
+        int waitId = 0;
+        for (NodeSpan span : sorted) {
+            first = separator(json, first);
+            json.append("{\"name\":");
+            appendString(json, span.getNodeId());
+            json.append(",\"cat\":\"node\",\"ph\":\"X\",\"pid\":1,\"tid\":").append(span.getThreadId());
+            json.append(",\"ts\":");
+            appendMicros(json, span.getStartNanos());
+            json.append(",\"dur\":");
+            appendMicros(json, span.getDurationNanos());
+            json.append(",\"args\":{");
+            appendField(json, "type", span.getNodeType()).append(',');
+            appendField(json, "pool", span.getPool()).append(',');
+            appendField(json, "state", span.getState() != null ? span.getState().name() : null).append(',');
+            json.append("\"queueWaitUs\":");
+            appendMicros(json, span.getQueueWaitNanos());
+            json.append("}}");
+
+            if (span.getQueueWaitNanos() > 0) {
+                waitId++;
+                appendWait(json, span, 'b', span.getReadyNanos(), waitId);
+                appendWait(json, span, 'e', span.getStartNanos(), waitId);
+            }
+        }
+        json.append("]}");
+        return json.toString();
+    }
+
+    /**
+     * 将Chrome trace-event JSON写入文件
+     */
+    public void writeChromeTrace(Path file) throws IOException {
+        Files.writeString(file, toChromeTraceJson(), StandardCharsets.UTF_8);
+    }
+
+    private static void appendWait(StringBuilder json, NodeSpan span, char phase, long tsNanos, int id) {
+        json.append(",{\"name\":");
+        appendString(json, "wait " + span.getNodeId());
+        json.append(",\"cat\":\"wait\",\"ph\":\"").append(phase).append("\",\"id\":").append(id)
+                .append(",\"pid\":1,\"tid\":").append(span.getThreadId()).append(",\"ts\":");
+        appendMicros(json, tsNanos);
+        if (phase == 'b') {
+            json.append(",\"args\":{");
+            appendField(json, "pool", span.getPool()).append('}');
+        }
+        json.append('}');
+    }
+
+    private static String threadLabel(NodeSpan span) {
+        String name = span.getThreadName();
+        if (name == null || name.isEmpty()) {
+            return (span.isVirtualThread() ? "virtual-" : "thread-") + span.getThreadId();
+        }
+        return name;
+    }
+
+    private static long lastEnd(List<NodeSpan> spans) {
+        long end = 0L;
+        for (NodeSpan span : spans) {
+            end = Math.max(end, span.getEndNanos());
+        }
+        return end;
+    }
+
+    private static boolean separator(StringBuilder json, boolean first) {
+        if (!first) {
+            json.append(',');
+        }
+        return false;
+    }
+
+    /**
+     * 纳秒转换为带三位小数的微秒
+     */
+    private static void appendMicros(StringBuilder json, long nanos) {
+        long value = Math.max(nanos, 0L);
+        long fraction = value % 1_000;
+        json.append(value / 1_000).append('.');
+        if (fraction < 100) {
+            json.append('0');
+        }
+        if (fraction < 10) {
+            json.append('0');
+        }
+        json.append(fraction);
+    }
+
+    private static StringBuilder appendField(StringBuilder json, String name, String value) {
+        json.append('"').append(name).append("\":");
+        appendString(json, value);
+        return json;
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+}
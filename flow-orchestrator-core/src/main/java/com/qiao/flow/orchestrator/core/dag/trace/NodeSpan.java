@@ -0,0 +1,74 @@
+package com.qiao.flow.orchestrator.core.dag.trace;
+
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import lombok.Getter;
+
+/**
+ * 节点在一次执行中的时间区间
+ * 时间均为System.nanoTime()相对于所属ExecutionTrace起点的纳秒数
+ *
+ * @author qiao
+ */
+@Getter
+public class NodeSpan {
+
+    private final String nodeId;
+
+    private final String nodeType;
+
+    /**
+     * 执行节点的线程池名称，在调度线程上直接执行时为null
+     */
+    private final String pool;
+
+    private final String threadName;
+
+    private final long threadId;
+
+    private final boolean virtualThread;
+
+    /**
+     * 节点就绪（派发到线程池或fork）的时间
+     */
+    private final long readyNanos;
+
+    private final long startNanos;
+
+    private final long endNanos;
+
+    private final NodeState state;
+
+    NodeSpan(String nodeId, String nodeType, String pool, Thread thread, long readyNanos, long startNanos,
+             long endNanos, NodeState state) {
+        this.nodeId = nodeId;
+        this.nodeType = nodeType;
+        this.pool = pool;
+        this.threadName = thread.getName();
+        this.threadId = thread.threadId();
+        this.virtualThread = thread.isVirtual();
+        this.readyNanos = readyNanos;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.state = state;
+    }
+
+    /**
+     * 就绪到开始执行的等待时间（纳秒）
+     */
+    public long getQueueWaitNanos() {
+        return startNanos - readyNanos;
+    }
+
+    /**
+     * 执行耗时（纳秒）
+     */
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("NodeSpan{node='%s', pool='%s', thread='%s', waitMs=%.3f, durationMs=%.3f, state=%s}",
+                nodeId, pool, threadName, getQueueWaitNanos() / 1e6, getDurationNanos() / 1e6, state);
+    }
+}
@@ -0,0 +1,87 @@
+package com.qiao.flow.orchestrator.core.dag.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 保留的执行时间线（环形缓冲区）
+ * 写入只有一次自增和一次数组写，满后覆盖最早的时间线
+ *
+ * @author qiao
+ */
+public class TraceRepository {
+
+    private final AtomicReferenceArray<ExecutionTrace> slots;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param capacity 最多保留的时间线数量
+     */
+    public TraceRepository(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(ExecutionTrace trace) {
+        slots.set((int) (cursor.getAndIncrement() % slots.length()), trace);
+    }
+
+    /**
+     * 按时间倒序获取时间线
+     *
+     * @param workflowName 工作流名称，为null时不过滤
+     * @param limit        最多返回的数量
+     */
+    public List<ExecutionTrace> getTraces(String workflowName, int limit) {
+        List<ExecutionTrace> result = new ArrayList<>(Math.min(limit, slots.length()));
+        long end = cursor.get();
+        long start = Math.max(0, end - slots.length());
+        for (long i = end - 1; i >= start && result.size() < limit; i--) {
+            ExecutionTrace trace = slots.get((int) (i % slots.length()));
+            if (trace != null && (workflowName == null || workflowName.equals(trace.getWorkflowName()))) {
+                result.add(trace);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按ID获取时间线
+     *
+     * @return 时间线，不存在或已被覆盖时返回null
+     */
+    public ExecutionTrace get(long id) {
+        for (int i = 0; i < slots.length(); i++) {
+            ExecutionTrace trace = slots.get(i);
+            if (trace != null && trace.getId() == id) {
+                return trace;
+            }
+        }
+        return null;
+    }
+
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * 当前保留的数量
+     */
+    public int size() {
+        return (int) Math.min(cursor.get(), slots.length());
+    }
+
+    /**
+     * 清空时间线并重置写入位置，之后size()从0重新计数
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        cursor.set(0);
+    }
+}
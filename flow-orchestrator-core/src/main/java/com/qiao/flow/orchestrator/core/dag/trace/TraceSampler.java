@@ -0,0 +1,151 @@
+package com.qiao.flow.orchestrator.core.dag.trace;
+
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 执行时间线采样器
+ * 1. 头部采样：执行开始时按比例决定是否记录，支持按工作流单独配置比例，被选中的时间线一定保留
+ * 2. 尾部采样：开启后未被头部采样选中的执行也记录时间线，结束时只保留超过延迟阈值或失败的，其余直接丢弃
+ * <p>
+ * 尾部采样需要记录每次执行（每个节点一个区间对象），但丢弃的时间线不会进入保留区，
+ * 正常请求的代价只是几次纳秒时钟读取和短命对象；随机采样容易漏掉的慢请求、失败请求会全部保留
+ *
+ * @author qiao
+ */
+@Slf4j
+public class TraceSampler {
+
+    public static final String REASON_HEAD = "HEAD";
+    public static final String REASON_SLOW = "SLOW";
+    public static final String REASON_ERROR = "ERROR";
+
+    private final double defaultRate;
+    private final Map<String, Double> workflowRates;
+    private final long tailLatencyThresholdNanos;
+    private final boolean tailKeepErrors;
+    private final TraceRepository repository;
+
+    private final LongAdder traced = new LongAdder();
+    private final LongAdder retainedHead = new LongAdder();
+    private final LongAdder retainedSlow = new LongAdder();
+    private final LongAdder retainedError = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param defaultRate              头部采样比例（0~1）
+     * @param workflowRates            按工作流覆盖的头部采样比例
+     * @param tailLatencyThresholdMs   尾部采样延迟阈值（毫秒），不大于0时不按延迟保留
+     * @param tailKeepErrors           尾部采样是否保留失败的执行
+     * @param capacity                 最多保留的时间线数量
+     */
+    public TraceSampler(double defaultRate, Map<String, Double> workflowRates, long tailLatencyThresholdMs,
+                        boolean tailKeepErrors, int capacity) {
+        this.defaultRate = checkRate(defaultRate);
+        this.workflowRates = new HashMap<>();
+        if (workflowRates != null) {
+            workflowRates.forEach((workflow, rate) -> this.workflowRates.put(workflow, checkRate(rate)));
+        }
+        this.tailLatencyThresholdNanos = tailLatencyThresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(tailLatencyThresholdMs) : 0L;
+        this.tailKeepErrors = tailKeepErrors;
+        this.repository = new TraceRepository(capacity);
+        log.info("TraceSampler initialized, rate: {}, overrides: {}, tail threshold: {}ms, keep errors: {}, capacity: {}",
+                defaultRate, this.workflowRates, tailLatencyThresholdMs, tailKeepErrors, capacity);
+    }
+
+    /**
+     * 执行开始前调用，决定本次执行是否记录时间线
+     *
+     * @return 时间线，不记录时返回null
+     */
+    public ExecutionTrace begin(String workflowName) {
+        double rate = workflowRates.getOrDefault(workflowName, defaultRate);
+        if (rate > 0 && (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate)) {
+            ExecutionTrace trace = new ExecutionTrace();
+            trace.setSampleReason(REASON_HEAD);
+            traced.increment();
+            return trace;
+        }
+        if (isTailEnabled()) {
+            traced.increment();
+            return new ExecutionTrace();
+        }
+        return null;
+    }
+
+    /**
+     * 执行结束后调用，决定是否保留时间线
+     *
+     * @param trace begin返回的时间线，可以为null
+     */
+    public void end(ExecutionTrace trace) {
+        if (trace == null) {
+            return;
+        }
+        if (REASON_HEAD.equals(trace.getSampleReason())) {
+            retainedHead.increment();
+            repository.add(trace);
+            return;
+        }
+        if (tailKeepErrors && trace.getOutcome() == DagState.ERROR) {
+            trace.setSampleReason(REASON_ERROR);
+            retainedError.increment();
+            repository.add(trace);
+            return;
+        }
+        if (tailLatencyThresholdNanos > 0 && trace.getDurationNanos() >= tailLatencyThresholdNanos) {
+            trace.setSampleReason(REASON_SLOW);
+            retainedSlow.increment();
+            repository.add(trace);
+            return;
+        }
+        dropped.increment();
+    }
+
+    /**
+     * 是否开启尾部采样
+     */
+    public boolean isTailEnabled() {
+        return tailLatencyThresholdNanos > 0 || tailKeepErrors;
+    }
+
+    /**
+     * 获取工作流生效的头部采样比例
+     */
+    public double getRate(String workflowName) {
+        return workflowRates.getOrDefault(workflowName, defaultRate);
+    }
+
+    public TraceRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * 采样统计：记录、各原因保留、丢弃的次数以及当前保留数量
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("traced", traced.sum());
+        stats.put("retainedHead", retainedHead.sum());
+        stats.put("retainedSlow", retainedSlow.sum());
+        stats.put("retainedError", retainedError.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("retained", repository.size());
+        stats.put("capacity", repository.getCapacity());
+        return stats;
+    }
+
+    private static double checkRate(double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException("sample rate must be between 0 and 1: " + rate);
+        }
+        return rate;
+    }
+}
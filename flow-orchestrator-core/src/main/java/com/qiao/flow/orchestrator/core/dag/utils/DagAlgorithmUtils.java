@@ -2,10 +2,7 @@ package com.qiao.flow.orchestrator.core.dag.utils;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 /**
  * DAG算法工具类
@@ -109,4 +106,60 @@ public class DagAlgorithmUtils {
 
         log.info("DAG structure validation passed, node count: {}", nodeMap.size());
     }
+
+    /**
+     * 计算拓扑层级
+     * 节点层级 = 所有（强+弱）依赖中最大层级 + 1，同一层级的节点之间不存在依赖，可并发执行
+     *
+     * @param nodeMap          节点映射
+     * @param dependencies     强依赖关系
+     * @param weakDependencies 弱依赖关系
+     * @return 按层级从小到大排列的节点ID列表
+     */
+    public static List<List<String>> topologicalLevels(Map<String, ?> nodeMap,
+                                                       Map<String, Set<String>> dependencies,
+                                                       Map<String, Set<String>> weakDependencies) {
+        Map<String, Integer> levelMap = new HashMap<>(nodeMap.size());
+        int maxLevel = 0;
+        for (String nodeId : nodeMap.keySet()) {
+            maxLevel = Math.max(maxLevel, computeLevel(nodeId, nodeMap, dependencies, weakDependencies, levelMap));
+        }
+
+        List<List<String>> levels = new ArrayList<>(maxLevel + 1);
+        for (int i = 0; i <= maxLevel; i++) {
+            levels.add(new ArrayList<>());
+        }
+        for (Map.Entry<String, Integer> entry : levelMap.entrySet()) {
+            levels.get(entry.getValue()).add(entry.getKey());
+        }
+        return levels;
+    }
+
+    /**
+     * 递归计算节点层级（带备忘）
+     */
+    private static int computeLevel(String nodeId, Map<String, ?> nodeMap,
+                                    Map<String, Set<String>> dependencies,
+                                    Map<String, Set<String>> weakDependencies,
+                                    Map<String, Integer> levelMap) {
+        Integer cached = levelMap.get(nodeId);
+        if (cached != null) {
+            return cached;
+        }
+
+        int level = 0;
+        for (String dep : dependencies.getOrDefault(nodeId, Collections.emptySet())) {
+            if (nodeMap.containsKey(dep)) {
+                level = Math.max(level, computeLevel(dep, nodeMap, dependencies, weakDependencies, levelMap) + 1);
+            }
+        }
+        for (String dep : weakDependencies.getOrDefault(nodeId, Collections.emptySet())) {
+            if (nodeMap.containsKey(dep)) {
+                level = Math.max(level, computeLevel(dep, nodeMap, dependencies, weakDependencies, levelMap) + 1);
+            }
+        }
+
+        levelMap.put(nodeId, level);
+        return level;
+    }
 }
@@ -24,6 +24,18 @@ public class NodeBeanNameUtils {
         classToBeanNameMap = new HashMap<>(map);
     }
 
+    /**
+     * 追加Class到BeanName映射，保留已有映射（用于不经过Spring构建的工作流）
+     *
+     * @param map 追加的映射关系
+     */
+    public static synchronized void register(Map<Class<? extends Node>, String> map) {
+        Map<Class<? extends Node>, String> merged = classToBeanNameMap != null
+                ? new HashMap<>(classToBeanNameMap) : new HashMap<>();
+        merged.putAll(map);
+        classToBeanNameMap = merged;
+    }
+
     /**
      * 根据Class获取Bean名称
      *
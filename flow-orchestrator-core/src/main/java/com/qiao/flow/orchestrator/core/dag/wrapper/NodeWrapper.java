@@ -3,15 +3,29 @@ package com.qiao.flow.orchestrator.core.dag.wrapper;
 import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.NodeMetrics;
+import com.qiao.flow.orchestrator.core.dag.monitor.VirtualThreadPinningMonitor;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.BatchNode;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
 import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
 import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -33,6 +47,9 @@ public class NodeWrapper<P, V> {
     private final NodeType nodeType;
     private final Node<P> node;
 
+    // 隔离线程池名称，为空表示按节点类型选择
+    private final String executorName;
+
     // 依赖关系
     private final Set<String> dependsOn;
     private final Set<String> weakDependsOn;
@@ -54,6 +71,10 @@ public class NodeWrapper<P, V> {
     private volatile NodeResult<V> nodeResult;
     private volatile Thread executingThread;
 
+    // 节点指标，首次使用时从DagMetrics获取
+    @Getter(AccessLevel.NONE)
+    private volatile NodeMetrics metrics;
+
 
     // 是否已初始化
     private volatile boolean initialized = false;
@@ -62,10 +83,18 @@ public class NodeWrapper<P, V> {
                        Set<String> dependsOn, Set<String> weakDependsOn,
                        boolean isStartNode, boolean isEndNode,
                        IChoose<P> chooser) {
+        this(id, name, workflow, nodeType, "", node, dependsOn, weakDependsOn, isStartNode, isEndNode, chooser);
+    }
+
+    public NodeWrapper(String id, String name, String workflow, NodeType nodeType, String executorName, Node<P> node,
+                       Set<String> dependsOn, Set<String> weakDependsOn,
+                       boolean isStartNode, boolean isEndNode,
+                       IChoose<P> chooser) {
         this.id = id;
         this.name = name;
         this.workflow = workflow;
         this.nodeType = nodeType;
+        this.executorName = executorName != null ? executorName : "";
         this.node = node;
         this.dependsOn = new HashSet<>(dependsOn);
         this.weakDependsOn = new HashSet<>(weakDependsOn);
@@ -88,6 +117,18 @@ public class NodeWrapper<P, V> {
                 new HashSet<>(), new HashSet<>(), false, false, null);
     }
 
+    /**
+     * 获取节点指标
+     */
+    public NodeMetrics getMetrics() {
+        NodeMetrics nodeMetrics = metrics;
+        if (nodeMetrics == null) {
+            nodeMetrics = DagMetrics.node(workflow, id);
+            metrics = nodeMetrics;
+        }
+        return nodeMetrics;
+    }
+
     /**
      * 执行节点生命周期
      * 重构后：完全基于状态的结果处理，不向上抛出异常
@@ -95,6 +136,7 @@ public class NodeWrapper<P, V> {
     public NodeResult<V> execute(P input, DagContext context) {
         // 设置执行线程
         this.executingThread = Thread.currentThread();
+        VirtualThreadPinningMonitor.Span pinningSpan = VirtualThreadPinningMonitor.nodeStarted(workflow, id);
 
         // 设置当前节点ID到DagContext
         context.setCurrentNodeId(this.id);
@@ -109,8 +151,13 @@ public class NodeWrapper<P, V> {
             // 1. 前置回调
             node.onStart(input, context, id);
 
-            // 2. 核心执行逻辑
-            node.execute(input, context, id);
+            // 2. 核心执行逻辑，配置了拦截器时由拦截器调用
+            NodeInterceptor interceptor = context.getNodeInterceptor();
+            if (interceptor != null) {
+                interceptor.execute(node, input, context, id, nodeType);
+            } else {
+                node.execute(input, context, id);
+            }
 
             // 3. 成功回调
             node.onSuccess(input, context, id);
@@ -126,7 +173,7 @@ public class NodeWrapper<P, V> {
 
         } catch (Exception e) {
             // 6. 异常处理：设置失败状态，不向上抛出
-            log.info("NodeWrapper.execute() caught exception: {}, setting failed state", e.getMessage());
+            DagEventLog.nodeFailed(workflow, id, e);
             result.setState(NodeState.FAILED);
             result.setException(e);
             result.complete();
@@ -138,29 +185,196 @@ public class NodeWrapper<P, V> {
             this.nodeResult = result;
 
             // 9. 返回错误结果，不抛出异常
-            log.info("NodeWrapper.execute() returned failed result, state: {}", result.getState());
             return result;
         } finally {
             // 清理执行线程和当前节点ID
+            VirtualThreadPinningMonitor.nodeFinished(pinningSpan);
             this.executingThread = null;
             context.setCurrentNodeId(null);
         }
     }
 
     /**
-     * 获取或创建DagContext中的NodeResult
+     * 异步执行节点生命周期
+     * AsyncNode在当前线程发起请求后立即返回，stage完成时在完成线程上执行成功/错误回调；
+     * 普通Node在当前线程同步执行，返回已完成的future。与execute一样不以异常结束future
+     *
+     * @return 节点结果的future，总是正常完成
      */
-    @SuppressWarnings("unchecked")
-    private NodeResult<V> getOrCreateNodeResult(DagContext context) {
-        NodeResult<?> existingResult = context.getResult(this.id);
-        if (existingResult != null) {
-            return (NodeResult<V>) existingResult;
+    public CompletableFuture<NodeResult<V>> executeAsync(P input, DagContext context) {
+        if (!(node instanceof AsyncNode)) {
+            return CompletableFuture.completedFuture(execute(input, context));
+        }
+
+        AsyncNode<P> asyncNode = (AsyncNode<P>) node;
+        context.setCurrentNodeId(this.id);
+        NodeResult<V> result = getOrCreateNodeResult(context);
+
+        // 1. 前置回调并发起请求
+        CompletionStage<?> stage;
+        try {
+            setState(NodeState.RUNNING);
+            node.onStart(input, context, id);
+            NodeInterceptor interceptor = context.getNodeInterceptor();
+            stage = interceptor != null
+                    ? interceptor.executeAsync(asyncNode, input, context, id, nodeType)
+                    : asyncNode.executeAsync(input, context, id);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(fail(result, e, input, context));
+        } finally {
+            context.setCurrentNodeId(null);
         }
 
-        // 如果DagContext中没有，创建一个新的
-        NodeResult<V> newResult = new NodeResult<>();
-        context.putResult(this.id, newResult);
-        return newResult;
+        if (stage == null) {
+            return CompletableFuture.completedFuture(succeed(result, input, context));
+        }
+
+        // 2. stage完成时完成节点，不阻塞任何线程
+        return stage.handle((value, throwable) -> {
+            if (throwable != null) {
+                return fail(result, unwrap(throwable), input, context);
+            }
+            try {
+                return succeed(result, input, context);
+            } catch (Exception e) {
+                return fail(result, e, input, context);
+            }
+        }).toCompletableFuture();
+    }
+
+    /**
+     * 成功回调并设置完成状态
+     */
+    private NodeResult<V> succeed(NodeResult<V> result, P input, DagContext context) {
+        node.onSuccess(input, context, id);
+        result.setState(NodeState.COMPLETED);
+        result.complete();
+        this.nodeResult = result;
+        return result;
+    }
+
+    /**
+     * 设置失败状态并调用错误回调
+     */
+    private NodeResult<V> fail(NodeResult<V> result, Throwable e, P input, DagContext context) {
+        DagEventLog.nodeFailed(workflow, id, e);
+        result.setState(NodeState.FAILED);
+        result.setException(e);
+        result.complete();
+        node.onError(input, context, id);
+        this.nodeResult = result;
+        return result;
+    }
+
+    /**
+     * 拆出CompletionStage包装的原始异常
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        while ((throwable instanceof CompletionException || throwable instanceof ExecutionException)
+                && throwable.getCause() != null) {
+            throwable = throwable.getCause();
+        }
+        return throwable;
+    }
+
+    /**
+     * 批量异步执行节点生命周期
+     * 先为每条输入发起请求，再等待全部stage完成，调用线程不阻塞；等待的截止时间由调用方控制
+     *
+     * @param inputs   本批输入
+     * @param contexts 与输入一一对应的DAG上下文
+     * @return 与输入一一对应的执行结果的future，全部输入结束后完成
+     */
+    public CompletableFuture<List<NodeResult<V>>> executeBatchAsync(List<P> inputs, List<DagContext> contexts) {
+        int size = inputs.size();
+        List<CompletableFuture<NodeResult<V>>> futures = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            futures.add(executeAsync(inputs.get(i), contexts.get(i)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            List<NodeResult<V>> results = new ArrayList<>(size);
+            for (CompletableFuture<NodeResult<V>> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    /**
+     * 批量执行节点生命周期
+     * BatchNode一次性处理整批输入，普通Node逐条执行；与execute一样不向上抛出异常
+     * AsyncNode逐条同步等待，批量引擎应改用executeBatchAsync
+     *
+     * @param inputs   本批输入
+     * @param contexts 与输入一一对应的DAG上下文
+     * @return 与输入一一对应的执行结果
+     */
+    public List<NodeResult<V>> executeBatch(List<P> inputs, List<DagContext> contexts) {
+        int size = inputs.size();
+        List<NodeResult<V>> results = new ArrayList<>(size);
+
+        // 普通节点：逐条执行
+        if (!(node instanceof BatchNode)) {
+            for (int i = 0; i < size; i++) {
+                results.add(execute(inputs.get(i), contexts.get(i)));
+            }
+            return results;
+        }
+
+        BatchNode<P> batchNode = (BatchNode<P>) node;
+        this.executingThread = Thread.currentThread();
+        VirtualThreadPinningMonitor.Span pinningSpan = VirtualThreadPinningMonitor.nodeStarted(workflow, id);
+        for (int i = 0; i < size; i++) {
+            DagContext context = contexts.get(i);
+            context.setCurrentNodeId(this.id);
+            results.add(getOrCreateNodeResult(context));
+        }
+
+        try {
+            setState(NodeState.RUNNING);
+
+            // 1. 前置回调
+            for (int i = 0; i < size; i++) {
+                node.onStart(inputs.get(i), contexts.get(i), id);
+            }
+
+            // 2. 核心执行逻辑（整批一次）
+            batchNode.executeBatch(inputs, contexts, id);
+
+            // 3. 成功回调并设置结果
+            for (int i = 0; i < size; i++) {
+                node.onSuccess(inputs.get(i), contexts.get(i), id);
+                NodeResult<V> result = results.get(i);
+                result.setState(NodeState.COMPLETED);
+                result.complete();
+            }
+            return results;
+
+        } catch (Exception e) {
+            // 整批失败：每条输入都设置失败状态并调用错误回调
+            DagEventLog.nodeFailed(workflow, id, e);
+            for (int i = 0; i < size; i++) {
+                NodeResult<V> result = results.get(i);
+                result.setState(NodeState.FAILED);
+                result.setException(e);
+                result.complete();
+                node.onError(inputs.get(i), contexts.get(i), id);
+            }
+            return results;
+        } finally {
+            VirtualThreadPinningMonitor.nodeFinished(pinningSpan);
+            this.executingThread = null;
+            for (DagContext context : contexts) {
+                context.setCurrentNodeId(null);
+            }
+        }
+    }
+
+    /**
+     * 获取或创建DagContext中的NodeResult，上下文复用时原地复用已回收的结果对象
+     */
+    private NodeResult<V> getOrCreateNodeResult(DagContext context) {
+        return context.obtainResult(this.id);
     }
 
 
@@ -251,14 +465,44 @@ public class NodeWrapper<P, V> {
      * 检查是否为IO节点
      */
     public boolean isIoNode() {
-        return nodeType == NodeType.IO;
+        return nodeType.isIo();
     }
 
     /**
      * 检查是否为CPU节点
      */
     public boolean isCpuNode() {
-        return nodeType == NodeType.CPU;
+        return nodeType.isCpu();
+    }
+
+    /**
+     * 检查是否为内联节点
+     */
+    public boolean isInlineNode() {
+        return nodeType.isInline();
+    }
+
+    /**
+     * 检查是否指定了隔离线程池
+     * 指定了隔离线程池的节点即使单独成批也派发到该线程池执行
+     */
+    public boolean isIsolated() {
+        return !executorName.isEmpty() && !nodeType.isInline();
+    }
+
+    /**
+     * 检查是否必须派发到线程池执行
+     * 指定了隔离线程池的节点、重计算和阻塞IO节点即使单独成批也不在调度线程上执行
+     */
+    public boolean isDispatchRequired() {
+        return isIsolated() || nodeType.isAlwaysDispatched();
+    }
+
+    /**
+     * 检查是否为异步节点
+     */
+    public boolean isAsyncNode() {
+        return node instanceof AsyncNode;
     }
 
     /**
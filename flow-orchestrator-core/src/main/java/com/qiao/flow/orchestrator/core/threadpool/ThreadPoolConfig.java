@@ -22,6 +22,22 @@ public interface ThreadPoolConfig {
      */
     ExecutorService getDagIoThreadPool();
 
+    /**
+     * 获取DAG阻塞IO线程池
+     * 用于BLOCKING_IO节点执行（有界平台线程），返回null时使用IO线程池
+     */
+    default ExecutorService getDagBlockingIoThreadPool() {
+        return null;
+    }
+
+    /**
+     * 获取DAG重计算线程池
+     * 用于HEAVY_CPU节点执行（独立的有界线程池），返回null时使用CPU线程池
+     */
+    default ExecutorService getDagHeavyCpuThreadPool() {
+        return null;
+    }
+
     /**
      * 获取OPS Item维度线程池
      * 用于物品维度计算
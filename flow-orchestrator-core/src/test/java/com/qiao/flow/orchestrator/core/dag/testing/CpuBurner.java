@@ -0,0 +1,80 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 按校准后的计算量消耗CPU
+ * 与按时间忙等不同，这里执行的是固定次数的计算：CPU被争抢时实际耗时会变长，和真实的计算型节点一样。
+ * 首次使用时在本机校准每纳秒可执行的迭代次数，取多轮中最快的一轮，即无竞争时的速度；
+ * 每轮只有几毫秒，容易落在一个完整的时间片内，CPU很少的机器上也不会被其他线程拉低
+ *
+ * @author qiao
+ */
+@Slf4j
+public final class CpuBurner {
+
+    private static final int CALIBRATION_ROUNDS = 25;
+    private static final long CALIBRATION_NANOS = 2_000_000L;
+
+    // 防止计算被JIT消除
+    private static volatile long sink;
+
+    private static final double ITERATIONS_PER_NANO = calibrate();
+
+    private CpuBurner() {
+    }
+
+    /**
+     * 执行无竞争时约耗时nanos的计算量
+     */
+    public static void burn(long nanos) {
+        if (nanos > 0) {
+            work(Math.max(1L, Math.round(nanos * ITERATIONS_PER_NANO)));
+        }
+    }
+
+    /**
+     * 执行指定次数的迭代
+     */
+    public static void work(long iterations) {
+        long x = iterations | 1L;
+        for (long i = 0; i < iterations; i++) {
+            // xorshift，每次迭代依赖上一次结果，无法被向量化或提前算出
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        sink = x;
+    }
+
+    /**
+     * 校准结果：每微秒迭代次数
+     */
+    public static double getIterationsPerMicro() {
+        return ITERATIONS_PER_NANO * 1_000;
+    }
+
+    private static double calibrate() {
+        // 预热，让work被JIT编译
+        for (int i = 0; i < 20; i++) {
+            work(100_000);
+        }
+        long iterations = 10_000;
+        long elapsed;
+        while ((elapsed = time(iterations)) < CALIBRATION_NANOS) {
+            iterations *= 2;
+        }
+        double best = (double) iterations / elapsed;
+        for (int round = 1; round < CALIBRATION_ROUNDS; round++) {
+            best = Math.max(best, (double) iterations / time(iterations));
+        }
+        log.info("CpuBurner calibrated: {} iterations/us", Math.round(best * 1_000));
+        return best;
+    }
+
+    private static long time(long iterations) {
+        long start = System.nanoTime();
+        work(iterations);
+        return Math.max(1L, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,131 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+/**
+ * 节点耗时分布，每次执行采样一次
+ *
+ * @author qiao
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+
+    /**
+     * 采样一次耗时
+     *
+     * @return 纳秒，0表示不耗时
+     */
+    long sampleNanos(RandomGenerator random);
+
+    /**
+     * 不耗时
+     */
+    static LatencyDistribution none() {
+        return random -> 0L;
+    }
+
+    /**
+     * 固定耗时
+     */
+    static LatencyDistribution fixed(long latency, TimeUnit unit) {
+        long nanos = unit.toNanos(latency);
+        return random -> nanos;
+    }
+
+    /**
+     * [min, max)内均匀分布
+     */
+    static LatencyDistribution uniform(long min, long max, TimeUnit unit) {
+        long minNanos = unit.toNanos(min);
+        long maxNanos = unit.toNanos(max);
+        if (maxNanos <= minNanos) {
+            throw new IllegalArgumentException("max must be greater than min");
+        }
+        return random -> random.nextLong(minNanos, maxNanos);
+    }
+
+    /**
+     * 指数分布
+     */
+    static LatencyDistribution exponential(long mean, TimeUnit unit) {
+        double meanNanos = unit.toNanos(mean);
+        return random -> (long) (random.nextExponential() * meanNanos);
+    }
+
+    /**
+     * 对数正态分布，远程调用耗时的常见形态：大部分请求集中在中位数附近，右侧长尾
+     *
+     * @param median 中位数
+     * @param p99    99分位，必须大于中位数，决定尾部的长度
+     */
+    static LatencyDistribution logNormal(long median, long p99, TimeUnit unit) {
+        double medianNanos = unit.toNanos(median);
+        double p99Nanos = unit.toNanos(p99);
+        if (medianNanos <= 0 || p99Nanos <= medianNanos) {
+            throw new IllegalArgumentException("p99 must be greater than a positive median");
+        }
+        // ln(X) ~ N(mu, sigma)，mu = ln(median)，p99 = median * e^(2.326 * sigma)
+        double mu = Math.log(medianNanos);
+        double sigma = Math.log(p99Nanos / medianNanos) / 2.326348;
+        return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+    }
+
+    /**
+     * 双峰分布：以tailProbability的概率从tail采样，否则从body采样
+     * 用于模拟缓存命中/未命中、偶发的GC停顿或重试等带尾部的耗时
+     */
+    static LatencyDistribution bimodal(LatencyDistribution body, LatencyDistribution tail, double tailProbability) {
+        if (tailProbability < 0 || tailProbability > 1) {
+            throw new IllegalArgumentException("tailProbability must be within [0, 1]");
+        }
+        return random -> random.nextDouble() < tailProbability
+                ? tail.sampleNanos(random) : body.sampleNanos(random);
+    }
+
+    /**
+     * 按实测样本的经验分布采样：在排序后的样本间线性插值
+     *
+     * @param samplesNanos 样本（纳秒），不能为空
+     */
+    static LatencyDistribution empirical(long... samplesNanos) {
+        if (samplesNanos.length == 0) {
+            throw new IllegalArgumentException("samples must not be empty");
+        }
+        long[] sorted = samplesNanos.clone();
+        Arrays.sort(sorted);
+        if (sorted.length == 1) {
+            long nanos = sorted[0];
+            return random -> nanos;
+        }
+        int last = sorted.length - 1;
+        return random -> {
+            double position = random.nextDouble() * last;
+            int index = (int) position;
+            if (index >= last) {
+                return sorted[last];
+            }
+            return sorted[index] + (long) ((sorted[index + 1] - sorted[index]) * (position - index));
+        };
+    }
+
+    /**
+     * 按直方图（如NodeMetrics的执行耗时）的经验分布采样，精度为直方图的桶宽（约3%）
+     *
+     * @param snapshot 直方图快照，不能为空
+     */
+    static LatencyDistribution empirical(HistogramSnapshot snapshot) {
+        if (snapshot.getCount() == 0) {
+            throw new IllegalArgumentException("histogram is empty");
+        }
+        // 取0.1%步长的分位值作为样本，采样时不再遍历直方图的桶
+        long[] quantiles = new long[1001];
+        for (int i = 0; i < quantiles.length; i++) {
+            quantiles[i] = snapshot.getValueAtPercentile(i / 10.0);
+        }
+        return empirical(quantiles);
+    }
+}
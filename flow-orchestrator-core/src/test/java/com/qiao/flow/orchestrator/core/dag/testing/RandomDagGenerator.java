@@ -0,0 +1,310 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.utils.NodeBeanNameUtils;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.*;
+
+/**
+ * 随机DAG生成器 - 不依赖Spring和@NodeConfig，按参数直接构造DagEngineConfig，用于规模测试和基准测试
+ * <p>
+ * 结构：start -> 若干层中间节点 -> end，每层最多layerWidth个节点。每个节点以edgeDensity的概率依赖上一层的
+ * 每个节点（至少一个），上一层没有后继的节点会被补一条边，所以除end外每个节点都有后继。
+ * 以weakDependencyRatio的概率整个节点改为弱依赖；end总是强依赖。
+ * 从有多个后继的节点中选出chooserCount个挂上分支选择，每次选中一半后继。
+ * <p>
+ * 同一seed生成的结构完全相同；节点耗时在每次执行时按分布采样。
+ * 注意分支剪枝是全局的：弱依赖全部被剪枝、又没有被剪枝的节点永远不会就绪，
+ * 同时使用弱依赖和分支选择时生成的DAG可能无法完成
+ *
+ * @author qiao
+ */
+public class RandomDagGenerator {
+
+    private static final String START_NODE = "start";
+    private static final String END_NODE = "end";
+
+    private static final byte[] SELECTABLE_NODE_BYTES = loadSelectableNodeBytes();
+
+    private long seed = 42L;
+    private String workflow;
+    private int nodeCount = 100;
+    private int layerWidth = 10;
+    private double edgeDensity = 0.3;
+    private double weakDependencyRatio = 0.0;
+    private int chooserCount = 0;
+    private double ioRatio = 0.5;
+    private double inlineRatio = 0.0;
+    private LatencyDistribution latency = LatencyDistribution.none();
+    private long timeoutMs = 10_000L;
+
+    public static RandomDagGenerator create() {
+        return new RandomDagGenerator();
+    }
+
+    public RandomDagGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * 工作流名称，默认random-{seed}-{nodeCount}
+     */
+    public RandomDagGenerator workflow(String workflow) {
+        this.workflow = workflow;
+        return this;
+    }
+
+    /**
+     * 节点总数，包含start和end，至少3个
+     */
+    public RandomDagGenerator nodeCount(int nodeCount) {
+        if (nodeCount < 3) {
+            throw new IllegalArgumentException("nodeCount must be at least 3");
+        }
+        this.nodeCount = nodeCount;
+        return this;
+    }
+
+    public RandomDagGenerator layerWidth(int layerWidth) {
+        if (layerWidth < 1) {
+            throw new IllegalArgumentException("layerWidth must be positive");
+        }
+        this.layerWidth = layerWidth;
+        return this;
+    }
+
+    public RandomDagGenerator edgeDensity(double edgeDensity) {
+        this.edgeDensity = ratio(edgeDensity, "edgeDensity");
+        return this;
+    }
+
+    public RandomDagGenerator weakDependencyRatio(double weakDependencyRatio) {
+        this.weakDependencyRatio = ratio(weakDependencyRatio, "weakDependencyRatio");
+        return this;
+    }
+
+    public RandomDagGenerator chooserCount(int chooserCount) {
+        this.chooserCount = Math.max(0, chooserCount);
+        return this;
+    }
+
+    /**
+     * IO节点比例，其余为CPU节点（扣除内联节点）
+     */
+    public RandomDagGenerator ioRatio(double ioRatio) {
+        this.ioRatio = ratio(ioRatio, "ioRatio");
+        return this;
+    }
+
+    /**
+     * 内联节点比例，只测调度开销时设为1
+     */
+    public RandomDagGenerator inlineRatio(double inlineRatio) {
+        this.inlineRatio = ratio(inlineRatio, "inlineRatio");
+        return this;
+    }
+
+    public RandomDagGenerator latency(LatencyDistribution latency) {
+        this.latency = Objects.requireNonNull(latency);
+        return this;
+    }
+
+    public RandomDagGenerator timeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    /**
+     * 生成工作流配置
+     */
+    public DagEngineConfig generate(MixedThreadPoolManager threadPoolManager) {
+        Random random = new Random(seed);
+        String workflowName = workflow != null ? workflow : "random-" + seed + "-" + nodeCount;
+
+        List<List<String>> layers = buildLayers();
+        Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+        Map<String, Set<String>> successors = new HashMap<>();
+        for (int layer = 1; layer < layers.size(); layer++) {
+            connect(layers.get(layer - 1), layers.get(layer), dependencies, successors, random);
+        }
+
+        // 整个节点改为弱依赖，end保持强依赖
+        Map<String, Set<String>> weakDependencies = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+            if (!END_NODE.equals(entry.getKey()) && random.nextDouble() < weakDependencyRatio) {
+                weakDependencies.put(entry.getKey(), entry.getValue());
+            }
+        }
+        weakDependencies.keySet().forEach(dependencies::remove);
+
+        // 先创建节点实例，分支选择需要引用被选节点的Class
+        Set<String> branchNodes = chooseBranchNodes(layers, successors, random);
+        Set<String> selectable = new HashSet<>();
+        branchNodes.forEach(nodeId -> selectable.addAll(successors.get(nodeId)));
+        Map<String, NodeType> nodeTypes = new HashMap<>();
+        Map<String, Node<Object>> nodes = new HashMap<>();
+        Map<Class<? extends Node>, String> beanNames = new HashMap<>();
+        for (List<String> layer : layers) {
+            for (String nodeId : layer) {
+                NodeType nodeType = nodeType(nodeId, random);
+                Node<Object> node = nodeType.isIo() ? SimulatedNode.io(latency) : SimulatedNode.cpu(latency);
+                if (selectable.contains(nodeId)) {
+                    node = selectableNode(node);
+                    beanNames.put(node.getClass(), nodeId);
+                }
+                nodeTypes.put(nodeId, nodeType);
+                nodes.put(nodeId, node);
+            }
+        }
+        NodeBeanNameUtils.register(beanNames);
+
+        Map<String, NodeWrapper<?, ?>> nodeMap = new LinkedHashMap<>();
+        for (List<String> layer : layers) {
+            for (String nodeId : layer) {
+                IChoose<Object> chooser = branchNodes.contains(nodeId)
+                        ? chooser(successors.get(nodeId), nodes, random) : null;
+                nodeMap.put(nodeId, new NodeWrapper<>(nodeId, nodeId, workflowName, nodeTypes.get(nodeId),
+                        nodes.get(nodeId), dependencies.getOrDefault(nodeId, Set.of()),
+                        weakDependencies.getOrDefault(nodeId, Set.of()),
+                        START_NODE.equals(nodeId), END_NODE.equals(nodeId), chooser));
+            }
+        }
+
+        return new DagEngineConfig(nodeMap, dependencies, weakDependencies, threadPoolManager, timeoutMs,
+                START_NODE, Set.of(END_NODE));
+    }
+
+    /**
+     * 把中间节点按层宽切分，首尾分别是start和end
+     */
+    private List<List<String>> buildLayers() {
+        List<List<String>> layers = new ArrayList<>();
+        layers.add(List.of(START_NODE));
+        int middle = nodeCount - 2;
+        for (int created = 0; created < middle; ) {
+            int width = Math.min(layerWidth, middle - created);
+            List<String> layer = new ArrayList<>(width);
+            for (int i = 0; i < width; i++) {
+                layer.add("n" + layers.size() + "_" + i);
+            }
+            layers.add(layer);
+            created += width;
+        }
+        layers.add(List.of(END_NODE));
+        return layers;
+    }
+
+    private void connect(List<String> previous, List<String> current, Map<String, Set<String>> dependencies,
+                         Map<String, Set<String>> successors, Random random) {
+        for (String nodeId : current) {
+            Set<String> deps = new LinkedHashSet<>();
+            for (String candidate : previous) {
+                if (random.nextDouble() < edgeDensity) {
+                    deps.add(candidate);
+                }
+            }
+            if (deps.isEmpty()) {
+                deps.add(previous.get(random.nextInt(previous.size())));
+            }
+            dependencies.put(nodeId, deps);
+            deps.forEach(dep -> successors.computeIfAbsent(dep, k -> new LinkedHashSet<>()).add(nodeId));
+        }
+        // 保证上一层的每个节点都有后继
+        for (String nodeId : previous) {
+            if (!successors.containsKey(nodeId)) {
+                String target = current.get(random.nextInt(current.size()));
+                dependencies.get(target).add(nodeId);
+                successors.computeIfAbsent(nodeId, k -> new LinkedHashSet<>()).add(target);
+            }
+        }
+    }
+
+    /**
+     * 从有多个后继的节点中随机选出分支节点
+     */
+    private Set<String> chooseBranchNodes(List<List<String>> layers, Map<String, Set<String>> successors,
+                                          Random random) {
+        List<String> candidates = new ArrayList<>();
+        for (List<String> layer : layers) {
+            for (String nodeId : layer) {
+                Set<String> next = successors.get(nodeId);
+                if (next != null && next.size() > 1 && !next.contains(END_NODE)) {
+                    candidates.add(nodeId);
+                }
+            }
+        }
+        Collections.shuffle(candidates, random);
+        return new HashSet<>(candidates.subList(0, Math.min(chooserCount, candidates.size())));
+    }
+
+    /**
+     * 固定选中一半后继的分支选择
+     */
+    private static IChoose<Object> chooser(Set<String> successors, Map<String, Node<Object>> nodes, Random random) {
+        List<String> next = new ArrayList<>(successors);
+        Collections.shuffle(next, random);
+        Set<Class<? extends Node<?>>> selection = new HashSet<>();
+        for (String nodeId : next.subList(0, (next.size() + 1) / 2)) {
+            selection.add(nodeClass(nodes.get(nodeId)));
+        }
+        Set<Class<? extends Node<?>>> selected = Set.copyOf(selection);
+        return (input, context) -> selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Node<?>> nodeClass(Node<?> node) {
+        return (Class<? extends Node<?>>) node.getClass();
+    }
+
+    private NodeType nodeType(String nodeId, Random random) {
+        double roll = random.nextDouble();
+        if (START_NODE.equals(nodeId) || END_NODE.equals(nodeId) || roll < inlineRatio) {
+            return NodeType.INLINE;
+        }
+        return roll < inlineRatio + ioRatio ? NodeType.IO : NodeType.CPU;
+    }
+
+    /**
+     * 为节点定义独立的隐藏类，分支选择才能按Class定位到它
+     */
+    @SuppressWarnings("unchecked")
+    private static Node<Object> selectableNode(Node<Object> delegate) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(SELECTABLE_NODE_BYTES, true);
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, Node.class));
+            return (Node<Object>) constructor.invoke(delegate);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define selectable node class", e);
+        }
+    }
+
+    private static byte[] loadSelectableNodeBytes() {
+        try (InputStream in = SelectableNode.class.getResourceAsStream("SelectableNode.class")) {
+            if (in == null) {
+                throw new IllegalStateException("SelectableNode.class not found");
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot read SelectableNode.class", e);
+        }
+    }
+
+    private static double ratio(double value, String name) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+        return value;
+    }
+}
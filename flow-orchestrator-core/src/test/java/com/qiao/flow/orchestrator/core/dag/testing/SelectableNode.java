@@ -0,0 +1,25 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+
+/**
+ * 可被分支选择的节点模板
+ * 分支选择按节点类查找节点，RandomDagGenerator为每个可选节点用本类的字节码定义一个隐藏类，
+ * 使每个节点拥有自己的Class，执行委托给实际节点
+ *
+ * @author qiao
+ */
+final class SelectableNode implements Node<Object> {
+
+    private final Node<Object> delegate;
+
+    SelectableNode(Node<Object> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Object param, DagContext context, String nodeId) throws Exception {
+        delegate.execute(param, context, nodeId);
+    }
+}
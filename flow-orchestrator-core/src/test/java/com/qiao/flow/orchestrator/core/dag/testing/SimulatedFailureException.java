@@ -0,0 +1,13 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+/**
+ * SimulatedNode按失败率注入的异常
+ *
+ * @author qiao
+ */
+public class SimulatedFailureException extends RuntimeException {
+
+    public SimulatedFailureException(String nodeId) {
+        super("Simulated failure in node " + nodeId, null, false, false);
+    }
+}
@@ -0,0 +1,90 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+/**
+ * 模拟耗时的节点
+ * 每次执行按耗时分布采样：IO节点挂起线程模拟等待外部调用，CPU节点执行校准过的计算量（见CpuBurner）。
+ * 耗时结束后按failureRate的概率抛出SimulatedFailureException，否则执行委托节点（如果有）
+ * <p>
+ * 实例不可变，failureRate和delegate返回新实例，可以在多个工作流之间共享
+ *
+ * @author qiao
+ */
+public final class SimulatedNode implements Node<Object> {
+
+    private final LatencyDistribution latency;
+    private final boolean blocking;
+    private final double failureRate;
+    private final Node<Object> delegate;
+
+    private SimulatedNode(LatencyDistribution latency, boolean blocking, double failureRate, Node<Object> delegate) {
+        this.latency = latency;
+        this.blocking = blocking;
+        this.failureRate = failureRate;
+        this.delegate = delegate;
+    }
+
+    /**
+     * 挂起线程等待采样耗时的IO节点
+     */
+    public static SimulatedNode io(LatencyDistribution latency) {
+        return new SimulatedNode(latency, true, 0.0, null);
+    }
+
+    /**
+     * 执行采样耗时对应计算量的CPU节点
+     */
+    public static SimulatedNode cpu(LatencyDistribution latency) {
+        return new SimulatedNode(latency, false, 0.0, null);
+    }
+
+    /**
+     * 失败注入：每次执行以该概率失败
+     */
+    public SimulatedNode failureRate(double failureRate) {
+        if (failureRate < 0 || failureRate > 1) {
+            throw new IllegalArgumentException("failureRate must be within [0, 1]");
+        }
+        return new SimulatedNode(latency, blocking, failureRate, delegate);
+    }
+
+    /**
+     * 模拟耗时之后执行的实际节点，用于保留原节点写入上下文的数据（例如分支选择依赖的数据）
+     */
+    @SuppressWarnings("unchecked")
+    public SimulatedNode delegate(Node<?> delegate) {
+        return new SimulatedNode(latency, blocking, failureRate, (Node<Object>) delegate);
+    }
+
+    public boolean isBlocking() {
+        return blocking;
+    }
+
+    @Override
+    public void execute(Object param, DagContext context, String nodeId) throws Exception {
+        RandomGenerator random = ThreadLocalRandom.current();
+        long nanos = latency.sampleNanos(random);
+        if (nanos > 0) {
+            if (blocking) {
+                long deadline = System.nanoTime() + nanos;
+                for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+                    LockSupport.parkNanos(remaining);
+                }
+            } else {
+                CpuBurner.burn(nanos);
+            }
+        }
+        if (failureRate > 0 && random.nextDouble() < failureRate) {
+            throw new SimulatedFailureException(nodeId);
+        }
+        if (delegate != null) {
+            delegate.execute(param, context, nodeId);
+        }
+    }
+}
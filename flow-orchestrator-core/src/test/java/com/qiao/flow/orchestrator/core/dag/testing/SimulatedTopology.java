@@ -0,0 +1,140 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 基于已有工作流拓扑构建模拟耗时的配置
+ * 依赖、分支选择、节点类型和执行器保持不变，每个节点替换为SimulatedNode：
+ * IO节点按ioLatency挂起，CPU节点按cpuLatency消耗计算量，内联节点不加耗时；默认失败率只作用于IO节点。
+ * 默认在模拟耗时之后执行原节点，保证分支选择依赖的上下文数据照常写入；异步节点按同步IO节点模拟
+ * <p>
+ * 用于离线对比调度策略和线程池配置，例如：
+ * <pre>
+ * DagEngineConfig config = SimulatedTopology.from(dagAutoRunner.getEngineConfig("adRanking"))
+ *         .io(LatencyDistribution.logNormal(5, 40, TimeUnit.MILLISECONDS))
+ *         .cpu(LatencyDistribution.fixed(200, TimeUnit.MICROSECONDS))
+ *         .node("ctrFactor", SimulatedNode.io(LatencyDistribution.fixed(20, TimeUnit.MILLISECONDS)))
+ *         .build();
+ * </pre>
+ *
+ * @author qiao
+ */
+public class SimulatedTopology {
+
+    private final DagEngineConfig source;
+    private LatencyDistribution ioLatency = LatencyDistribution.none();
+    private LatencyDistribution cpuLatency = LatencyDistribution.none();
+    private double ioFailureRate = 0.0;
+    private boolean delegate = true;
+    private final Map<String, SimulatedNode> overrides = new HashMap<>();
+    private String workflow;
+    private MixedThreadPoolManager threadPoolManager;
+    private Long timeoutMs;
+
+    private SimulatedTopology(DagEngineConfig source) {
+        this.source = source;
+    }
+
+    public static SimulatedTopology from(DagEngineConfig source) {
+        return new SimulatedTopology(Objects.requireNonNull(source));
+    }
+
+    public SimulatedTopology io(LatencyDistribution ioLatency) {
+        this.ioLatency = Objects.requireNonNull(ioLatency);
+        return this;
+    }
+
+    public SimulatedTopology cpu(LatencyDistribution cpuLatency) {
+        this.cpuLatency = Objects.requireNonNull(cpuLatency);
+        return this;
+    }
+
+    /**
+     * IO节点的失败率，单个节点的失败率通过node()指定
+     */
+    public SimulatedTopology ioFailureRate(double ioFailureRate) {
+        if (ioFailureRate < 0 || ioFailureRate > 1) {
+            throw new IllegalArgumentException("ioFailureRate must be within [0, 1]");
+        }
+        this.ioFailureRate = ioFailureRate;
+        return this;
+    }
+
+    /**
+     * 模拟耗时之后是否执行原节点，默认执行
+     */
+    public SimulatedTopology delegate(boolean delegate) {
+        this.delegate = delegate;
+        return this;
+    }
+
+    /**
+     * 单独指定某个节点的模拟方式，不受io、cpu和ioFailureRate影响
+     */
+    public SimulatedTopology node(String nodeId, SimulatedNode node) {
+        if (!source.getNodeMap().containsKey(nodeId)) {
+            throw new IllegalArgumentException("Unknown node: " + nodeId);
+        }
+        overrides.put(nodeId, Objects.requireNonNull(node));
+        return this;
+    }
+
+    /**
+     * 工作流名称，默认与原工作流相同；改名可以让指标与真实工作流分开统计
+     */
+    public SimulatedTopology workflow(String workflow) {
+        this.workflow = workflow;
+        return this;
+    }
+
+    /**
+     * 线程池，默认使用原配置的线程池，对比线程池配置时替换
+     */
+    public SimulatedTopology threadPoolManager(MixedThreadPoolManager threadPoolManager) {
+        this.threadPoolManager = threadPoolManager;
+        return this;
+    }
+
+    public SimulatedTopology timeoutMs(long timeoutMs) {
+        this.timeoutMs = timeoutMs;
+        return this;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public DagEngineConfig build() {
+        Map<String, NodeWrapper<?, ?>> nodeMap = new LinkedHashMap<>();
+        for (NodeWrapper<?, ?> wrapper : source.getNodeMap().values()) {
+            SimulatedNode node = overrides.get(wrapper.getId());
+            if (node == null) {
+                node = simulate(wrapper.getNodeType());
+            }
+            if (delegate) {
+                node = node.delegate(wrapper.getNode());
+            }
+            nodeMap.put(wrapper.getId(), new NodeWrapper<>(wrapper.getId(), wrapper.getName(),
+                    workflow != null ? workflow : wrapper.getWorkflow(), wrapper.getNodeType(),
+                    wrapper.getExecutorName(), (Node) node, wrapper.getDependsOn(), wrapper.getWeakDependsOn(),
+                    wrapper.isStartNode(), wrapper.isEndNode(), (IChoose) wrapper.getChooser()));
+        }
+        return new DagEngineConfig(nodeMap, source.getDependencies(), source.getWeakDependencies(),
+                threadPoolManager != null ? threadPoolManager : source.getThreadPoolManager(),
+                timeoutMs != null ? timeoutMs : source.getTimeout(), source.getStartNode(), source.getEndNodes());
+    }
+
+    private SimulatedNode simulate(NodeType nodeType) {
+        if (nodeType.isIo()) {
+            return SimulatedNode.io(ioLatency).failureRate(ioFailureRate);
+        }
+        return SimulatedNode.cpu(nodeType == NodeType.INLINE ? LatencyDistribution.none() : cpuLatency);
+    }
+}
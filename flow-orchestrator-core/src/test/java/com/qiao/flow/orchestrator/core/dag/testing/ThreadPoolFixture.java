@@ -0,0 +1,57 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import lombok.Getter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用线程池组合
+ * 固定大小的CPU线程池（线程名为cpuThreadPrefix加序号）和虚拟线程IO执行器，
+ * 以及基于二者的线程池管理器；关闭时立即停止两个线程池，配合try-with-resources或测试的清理方法使用
+ *
+ * @author qiao
+ */
+@Getter
+public class ThreadPoolFixture implements AutoCloseable {
+
+    /**
+     * CPU线程名前缀
+     */
+    public static final String CPU_THREAD_PREFIX = "test-cpu-";
+
+    private final ExecutorService cpuPool;
+    private final ExecutorService ioPool;
+    private final MixedThreadPoolManager manager;
+
+    private ThreadPoolFixture(ExecutorService cpuPool, ExecutorService ioPool, MixedThreadPoolManager manager) {
+        this.cpuPool = cpuPool;
+        this.ioPool = ioPool;
+        this.manager = manager;
+    }
+
+    /**
+     * 创建指定线程数的CPU线程池和虚拟线程IO执行器
+     */
+    public static ThreadPoolFixture create(int cpuThreads) {
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService cpuPool = Executors.newFixedThreadPool(cpuThreads,
+                r -> new Thread(r, CPU_THREAD_PREFIX + counter.incrementAndGet()));
+        return of(cpuPool, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * 使用给定的线程池，关闭时一并停止
+     */
+    public static ThreadPoolFixture of(ExecutorService cpuPool, ExecutorService ioPool) {
+        return new ThreadPoolFixture(cpuPool, ioPool, new MixedThreadPoolManager(cpuPool, ioPool));
+    }
+
+    @Override
+    public void close() {
+        cpuPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+}
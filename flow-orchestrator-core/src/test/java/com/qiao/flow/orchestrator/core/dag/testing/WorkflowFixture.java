@@ -0,0 +1,127 @@
+package com.qiao.flow.orchestrator.core.dag.testing;
+
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 测试用工作流构建器
+ * 按节点ID、类型和依赖声明一个小型工作流，生成节点映射、依赖关系和引擎配置，
+ * 各引擎测试不必重复拼装NodeWrapper，例如：
+ * <pre>
+ * DagEngineConfig config = WorkflowFixture.create("asyncTest")
+ *         .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+ *         .node("fetch", NodeType.IO, fetch, "start")
+ *         .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "fetch")
+ *         .build(pools.getManager(), 5000L);
+ * </pre>
+ *
+ * @author qiao
+ */
+public class WorkflowFixture {
+
+    /**
+     * 空节点
+     */
+    public static final Node<String> NOOP = (param, context, nodeId) -> {
+    };
+
+    private final String workflow;
+    private final Map<String, NodeWrapper<?, ?>> nodeMap = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+
+    private WorkflowFixture(String workflow) {
+        this.workflow = workflow;
+    }
+
+    public static WorkflowFixture create(String workflow) {
+        return new WorkflowFixture(workflow);
+    }
+
+    /**
+     * 开始节点
+     */
+    public WorkflowFixture start(String id, NodeType type, Node<String> node) {
+        return add(id, type, null, node, true, false);
+    }
+
+    /**
+     * 中间节点
+     */
+    public WorkflowFixture node(String id, NodeType type, Node<String> node, String... dependsOn) {
+        return add(id, type, null, node, false, false, dependsOn);
+    }
+
+    /**
+     * 中间节点，指定隔离线程池
+     */
+    public WorkflowFixture node(String id, NodeType type, String executorName, Node<String> node, String... dependsOn) {
+        return add(id, type, executorName, node, false, false, dependsOn);
+    }
+
+    /**
+     * 结束节点
+     */
+    public WorkflowFixture end(String id, NodeType type, Node<String> node, String... dependsOn) {
+        return add(id, type, null, node, false, true, dependsOn);
+    }
+
+    /**
+     * 唯一的节点，既是开始节点也是结束节点
+     */
+    public WorkflowFixture single(String id, NodeType type, Node<String> node) {
+        return add(id, type, null, node, true, true);
+    }
+
+    private WorkflowFixture add(String id, NodeType type, String executorName, Node<String> node,
+                             boolean start, boolean end, String... dependsOn) {
+        if (nodeMap.containsKey(id)) {
+            throw new IllegalArgumentException("duplicate node: " + id);
+        }
+        nodeMap.put(id, new NodeWrapper<>(id, id, workflow, type, executorName, node,
+                new HashSet<>(), new HashSet<>(), start, end, null));
+        if (dependsOn.length > 0) {
+            dependencies.put(id, Set.of(dependsOn));
+        }
+        return this;
+    }
+
+    public Map<String, NodeWrapper<?, ?>> getNodeMap() {
+        return nodeMap;
+    }
+
+    public Map<String, Set<String>> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * 生成引擎配置，开始和结束节点由引擎按声明推导
+     */
+    public DagEngineConfig build(MixedThreadPoolManager threadPoolManager, long timeoutMs) {
+        return engine(threadPoolManager, timeoutMs).getConfig();
+    }
+
+    /**
+     * 创建引擎
+     */
+    public <T> DagEngine<T> engine(MixedThreadPoolManager threadPoolManager, long timeoutMs) {
+        return new DagEngine<>(nodeMap, dependencies, new HashMap<>(), threadPoolManager, timeoutMs);
+    }
+
+    /**
+     * 单独创建节点包装器，用于需要自行组装节点映射的测试
+     */
+    public static NodeWrapper<String, Node<String>> wrapper(String workflow, String id, NodeType type, Node<String> node,
+                                                           boolean start, boolean end) {
+        return new NodeWrapper<>(id, id, workflow, type, node, new HashSet<>(), new HashSet<>(), start, end, null);
+    }
+}
@@ -0,0 +1,95 @@
+package com.qiao.flow.orchestrator.core.dag.testing.load;
+
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次定速压测的结果
+ *
+ * @author qiao
+ */
+@Getter
+public class LoadReport {
+
+    /**
+     * 实际吞吐量低于目标的该比例时认为已经饱和
+     */
+    private static final double SATURATION_RATIO = 0.95;
+
+    private final double targetRate;
+    private final double achievedRate;
+    private final double measuredSeconds;
+
+    /**
+     * 积压超过上限、到结束时仍未发出的请求数
+     */
+    private final long notIssued;
+
+    private final Map<String, WorkflowLoadResult> workflows;
+
+    LoadReport(double targetRate, double achievedRate, double measuredSeconds, long notIssued,
+               Map<String, WorkflowLoadResult> workflows) {
+        this.targetRate = targetRate;
+        this.achievedRate = achievedRate;
+        this.measuredSeconds = measuredSeconds;
+        this.notIssued = notIssued;
+        this.workflows = workflows;
+    }
+
+    public WorkflowLoadResult getWorkflow(String workflow) {
+        return workflows.get(workflow);
+    }
+
+    /**
+     * 是否饱和：有请求积压到没能发出，或者实际吞吐量明显低于目标
+     */
+    public boolean isSaturated() {
+        return notIssued > 0 || achievedRate < targetRate * SATURATION_RATIO;
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("targetRate", targetRate);
+        summary.put("achievedRate", Math.round(achievedRate * 10) / 10.0);
+        summary.put("measuredSeconds", Math.round(measuredSeconds * 100) / 100.0);
+        summary.put("notIssued", notIssued);
+        summary.put("saturated", isSaturated());
+        Map<String, Object> workflowSummaries = new LinkedHashMap<>();
+        workflows.forEach((name, result) -> workflowSummaries.put(name, result.toSummary()));
+        summary.put("workflows", workflowSummaries);
+        return summary;
+    }
+
+    /**
+     * 按工作流输出的文本表格，延迟单位毫秒
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("target %.1f/s, achieved %.1f/s over %.1fs%s%n", targetRate, achievedRate,
+                measuredSeconds, notIssued > 0 ? ", not issued " + notIssued : ""));
+        builder.append(String.format("%-20s %8s %6s %6s %9s", "workflow", "ok", "fail", "rej", "rate/s"));
+        for (double percentile : WorkflowLoadResult.PERCENTILES) {
+            builder.append(String.format(" %9s", "p" + WorkflowLoadResult.format(percentile)));
+        }
+        builder.append(String.format(" %9s%n", "max"));
+        for (WorkflowLoadResult result : workflows.values()) {
+            HistogramSnapshot latency = result.getLatency();
+            builder.append(String.format("%-20s %8d %6d %6d %9.1f", result.getWorkflow(), result.getSucceeded(),
+                    result.getFailed(), result.getRejected(), result.getThroughput()));
+            for (double percentile : WorkflowLoadResult.PERCENTILES) {
+                builder.append(String.format(" %9.3f",
+                        WorkflowLoadResult.toMillis(latency.getValueAtPercentile(percentile))));
+            }
+            builder.append(String.format(" %9.3f%n", WorkflowLoadResult.toMillis(latency.getMaxNanos())));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,97 @@
+package com.qiao.flow.orchestrator.core.dag.testing.load;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagStructuredEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecording;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * 压测发出的一次请求，抛出异常计为失败，WorkflowRejectedException计为被准入控制拒绝
+ *
+ * @author qiao
+ */
+@FunctionalInterface
+public interface LoadRequest {
+
+    /**
+     * 执行一次请求
+     *
+     * @param sequence 请求序号，从0开始，可用于构造不同的输入
+     */
+    void execute(long sequence) throws Exception;
+
+    /**
+     * 通过DagAutoRunner执行工作流，工作流执行失败时抛出其异常
+     *
+     * @param inputFactory 按请求序号创建工作流输入
+     */
+    static <T> LoadRequest dagWorkflow(DagAutoRunner runner, String workflowName, LongFunction<T> inputFactory) {
+        return sequence -> {
+            Exception[] failure = new Exception[1];
+            runner.executeWorkflow(workflowName, inputFactory.apply(sequence),
+                    (exception, input, context) -> failure[0] = exception, null, null);
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        };
+    }
+
+    /**
+     * 不经过DagAutoRunner，直接用指定的执行模式执行配置，用于对比调度策略或执行模拟拓扑
+     *
+     * @param inputFactory 按请求序号创建工作流输入
+     */
+    static <T> LoadRequest dagEngine(DagEngineConfig config, ExecutionMode mode, LongFunction<T> inputFactory) {
+        return sequence -> {
+            T input = inputFactory.apply(sequence);
+            DagContext context = DagContextPool.borrow();
+            Throwable failure;
+            try {
+                if (mode == ExecutionMode.STRUCTURED) {
+                    DagStructuredEngine<T> engine = config.createStructuredEngine();
+                    engine.execute(input, context);
+                    failure = engine.getEx();
+                } else {
+                    DagEngine<T> engine = config.borrowEngine();
+                    try {
+                        engine.execute(input, context);
+                        failure = engine.getEx();
+                    } finally {
+                        config.releaseEngine(engine);
+                    }
+                }
+            } finally {
+                DagContextPool.release(context);
+            }
+            if (failure != null) {
+                throw failure instanceof Exception e ? e : new IllegalStateException(failure);
+            }
+        };
+    }
+
+    /**
+     * 依次回放录制的执行，序号超过录制数后从头循环，回放失败时抛出其异常
+     *
+     * @param replayLatency 是否按录制的耗时等待
+     */
+    static LoadRequest replay(DagAutoRunner runner, List<WorkflowRecording> recordings, boolean replayLatency) {
+        if (recordings.isEmpty()) {
+            throw new IllegalArgumentException("No recordings to replay");
+        }
+        return sequence -> {
+            Exception[] failure = new Exception[1];
+            runner.replayWorkflow(recordings.get((int) (sequence % recordings.size())), replayLatency,
+                    (exception, input, context) -> failure[0] = exception);
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        };
+    }
+}
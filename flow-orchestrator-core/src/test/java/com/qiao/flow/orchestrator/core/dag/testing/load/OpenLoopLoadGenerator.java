@@ -0,0 +1,265 @@
+package com.qiao.flow.orchestrator.core.dag.testing.load;
+
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowRejectedException;
+import com.qiao.flow.orchestrator.core.dag.metrics.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 开环定速压测
+ * 第i个请求的计划发出时间固定为 开始时间 + i / rate，与之前的请求是否完成无关；多个发压线程按序号领取请求，
+ * 等到计划时间才执行。被测系统变慢时请求在发压线程上积压，延迟从计划发出时间算起，
+ * 积压的排队时间计入延迟，不会像闭环循环那样被"协调遗漏"掉
+ * <p>
+ * 预热期内的请求照常执行但不统计。积压超过maxBacklog时停止发压，剩余请求计为未发出，报告标记为饱和。
+ * 按多个速率依次压测（sweep）可以找到线程池配置的饱和拐点
+ *
+ * @author qiao
+ */
+@Slf4j
+public class OpenLoopLoadGenerator {
+
+    private double ratePerSecond = 100;
+    private Duration warmup = Duration.ZERO;
+    private Duration duration = Duration.ofSeconds(10);
+    private Duration maxBacklog = Duration.ofSeconds(10);
+    private int threads = 64;
+    private final List<Workload> workloads = new ArrayList<>();
+
+    public static OpenLoopLoadGenerator create() {
+        return new OpenLoopLoadGenerator();
+    }
+
+    /**
+     * 目标到达速率（每秒请求数，所有工作流合计）
+     */
+    public OpenLoopLoadGenerator rate(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        return this;
+    }
+
+    public OpenLoopLoadGenerator warmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public OpenLoopLoadGenerator duration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * 允许落后计划的最长时间，超过后停止发压
+     */
+    public OpenLoopLoadGenerator maxBacklog(Duration maxBacklog) {
+        this.maxBacklog = maxBacklog;
+        return this;
+    }
+
+    /**
+     * 发压线程数，即最大并发请求数，应明显大于 速率 × 平均耗时
+     */
+    public OpenLoopLoadGenerator threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public OpenLoopLoadGenerator workflow(String name, LoadRequest request) {
+        return workflow(name, 1, request);
+    }
+
+    /**
+     * 添加一个工作流，多个工作流按权重分配请求
+     */
+    public OpenLoopLoadGenerator workflow(String name, int weight, LoadRequest request) {
+        if (weight < 1) {
+            throw new IllegalArgumentException("weight must be positive");
+        }
+        workloads.add(new Workload(name, weight, request));
+        return this;
+    }
+
+    /**
+     * 依次按各个速率压测，遇到第一个饱和的速率后停止
+     *
+     * @return 每个速率的结果，最后一个可能是饱和的
+     */
+    public List<LoadReport> sweep(double... rates) {
+        List<LoadReport> reports = new ArrayList<>();
+        for (double rate : rates) {
+            LoadReport report = rate(rate).run();
+            log.info("Load sweep at {}/s:\n{}", rate, report.format());
+            reports.add(report);
+            if (report.isSaturated()) {
+                break;
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * 按当前配置压测一次
+     */
+    public LoadReport run() {
+        if (workloads.isEmpty()) {
+            throw new IllegalStateException("No workflow configured");
+        }
+        workloads.forEach(Workload::reset);
+        int[] schedule = weightedSchedule();
+
+        long intervalNanos = Math.max(1L, Math.round(1_000_000_000L / ratePerSecond));
+        long warmupRequests = warmup.toNanos() / intervalNanos;
+        long totalRequests = warmupRequests + Math.max(1L, duration.toNanos() / intervalNanos);
+        long maxBacklogNanos = maxBacklog.toNanos();
+
+        AtomicLong nextTicket = new AtomicLong();
+        AtomicLong lastCompletion = new AtomicLong();
+        AtomicBoolean aborted = new AtomicBoolean();
+        // 给发压线程留出启动时间
+        long startNanos = System.nanoTime() + 20_000_000L;
+        long measureStartNanos = startNanos + warmupRequests * intervalNanos;
+
+        Runnable sender = () -> {
+            while (!aborted.get()) {
+                long ticket = nextTicket.getAndIncrement();
+                if (ticket >= totalRequests) {
+                    return;
+                }
+                long intendedStart = startNanos + ticket * intervalNanos;
+                long now;
+                while ((now = System.nanoTime()) < intendedStart) {
+                    LockSupport.parkNanos(intendedStart - now);
+                }
+                if (now - intendedStart > maxBacklogNanos) {
+                    aborted.set(true);
+                    return;
+                }
+                Workload workload = workloads.get(schedule[(int) (ticket % schedule.length)]);
+                workload.execute(ticket, intendedStart, now, ticket >= warmupRequests);
+                lastCompletion.accumulateAndGet(System.nanoTime(), Math::max);
+            }
+        };
+
+        List<Thread> senders = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            senders.add(Thread.ofPlatform().name("load-generator-" + i).daemon().start(sender));
+        }
+        for (Thread thread : senders) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                aborted.set(true);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        // 中止时已领取但没有执行的序号同样计为未发出
+        long notIssued = totalRequests - workloads.stream().mapToLong(Workload::issued).sum();
+        double measuredSeconds = Math.max(lastCompletion.get() - measureStartNanos, 1L) / 1e9;
+        Map<String, WorkflowLoadResult> results = new LinkedHashMap<>();
+        long completed = 0;
+        for (Workload workload : workloads) {
+            WorkflowLoadResult result = workload.toResult(measuredSeconds);
+            results.put(workload.name, result);
+            completed += result.getCompleted();
+        }
+        return new LoadReport(ratePerSecond, completed / measuredSeconds, measuredSeconds, notIssued, results);
+    }
+
+    /**
+     * 按权重交错排列的工作流下标，请求序号对其长度取模选择工作流
+     */
+    private int[] weightedSchedule() {
+        int totalWeight = workloads.stream().mapToInt(workload -> workload.weight).sum();
+        int[] schedule = new int[totalWeight];
+        int[] assigned = new int[workloads.size()];
+        for (int slot = 0; slot < totalWeight; slot++) {
+            // 每个位置分给当前分配比例最落后的工作流
+            int best = 0;
+            double bestDeficit = Double.NEGATIVE_INFINITY;
+            for (int i = 0; i < workloads.size(); i++) {
+                double deficit = (double) workloads.get(i).weight * (slot + 1) / totalWeight - assigned[i];
+                if (deficit > bestDeficit) {
+                    bestDeficit = deficit;
+                    best = i;
+                }
+            }
+            schedule[slot] = best;
+            assigned[best]++;
+        }
+        return schedule;
+    }
+
+    /**
+     * 一个工作流的请求和统计
+     */
+    private static final class Workload {
+
+        private final String name;
+        private final int weight;
+        private final LoadRequest request;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LatencyHistogram serviceTime = new LatencyHistogram();
+        private final LongAdder issued = new LongAdder();
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Workload(String name, int weight, LoadRequest request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        private void execute(long sequence, long intendedStart, long actualStart, boolean measured) {
+            issued.increment();
+            LongAdder outcome = succeeded;
+            try {
+                request.execute(sequence);
+            } catch (WorkflowRejectedException e) {
+                outcome = rejected;
+            } catch (Exception e) {
+                outcome = failed;
+            }
+            if (measured) {
+                long end = System.nanoTime();
+                latency.record(end - intendedStart);
+                serviceTime.record(end - actualStart);
+                outcome.increment();
+            }
+        }
+
+        private long issued() {
+            return issued.sum();
+        }
+
+        private void reset() {
+            latency.reset();
+            serviceTime.reset();
+            issued.reset();
+            succeeded.reset();
+            failed.reset();
+            rejected.reset();
+        }
+
+        private WorkflowLoadResult toResult(double measuredSeconds) {
+            long completed = succeeded.sum() + failed.sum() + rejected.sum();
+            return new WorkflowLoadResult(name, succeeded.sum(), failed.sum(), rejected.sum(),
+                    completed / measuredSeconds, latency.snapshot(), serviceTime.snapshot());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.qiao.flow.orchestrator.core.dag.testing.load;
+
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个工作流在测量窗口内的压测结果
+ * latency从计划发出时间算起，包含请求在发压线程上排队的时间（修正协调遗漏）；
+ * serviceTime从实际开始执行算起，两者之差就是排队造成的延迟
+ *
+ * @author qiao
+ */
+@Getter
+public class WorkflowLoadResult {
+
+    static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final String workflow;
+    private final long succeeded;
+    private final long failed;
+    private final long rejected;
+    private final double throughput;
+    private final HistogramSnapshot latency;
+    private final HistogramSnapshot serviceTime;
+
+    WorkflowLoadResult(String workflow, long succeeded, long failed, long rejected, double throughput,
+                       HistogramSnapshot latency, HistogramSnapshot serviceTime) {
+        this.workflow = workflow;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.throughput = throughput;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+    }
+
+    /**
+     * 测量窗口内完成的请求数（含失败和被拒绝）
+     */
+    public long getCompleted() {
+        return succeeded + failed + rejected;
+    }
+
+    /**
+     * 汇总（毫秒）：计数、吞吐量和latency、serviceTime的p50~p99.99
+     */
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("succeeded", succeeded);
+        summary.put("failed", failed);
+        summary.put("rejected", rejected);
+        summary.put("throughput", Math.round(throughput * 10) / 10.0);
+        summary.put("latency", percentiles(latency));
+        summary.put("serviceTime", percentiles(serviceTime));
+        return summary;
+    }
+
+    private static Map<String, Object> percentiles(HistogramSnapshot snapshot) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            summary.put("p" + format(percentile) + "Ms", toMillis(snapshot.getValueAtPercentile(percentile)));
+        }
+        summary.put("maxMs", toMillis(snapshot.getMaxNanos()));
+        return summary;
+    }
+
+    static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
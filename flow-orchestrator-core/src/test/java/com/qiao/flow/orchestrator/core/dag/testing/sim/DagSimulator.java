@@ -0,0 +1,258 @@
+package com.qiao.flow.orchestrator.core.dag.testing.sim;
+
+import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.replay.NodeRecording;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecording;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * DAG离散事件模拟器
+ * 按引擎的调度策略在虚拟时间中模拟一个工作流在给定到达速率下的执行，预测吞吐量、线程池利用率和延迟分位，
+ * 用于选择线程池大小、判断哪些节点值得并行化，不实际执行节点，一秒真实时间可以模拟数千秒
+ * <p>
+ * 模拟的调度规则与引擎一致：
+ * 1. WAVE：每批就绪节点整批结束后再调度下一批；单个非隔离节点在请求线程上执行，
+ * 多个节点时AsyncNode不占线程、INLINE节点在请求线程上依次执行，其余节点进入对应线程池
+ * 2. STRUCTURED：节点就绪即启动；CPU、重计算、阻塞IO和隔离节点进入对应线程池，其余节点在虚拟线程上执行不排队
+ * <p>
+ * 线程池按先进先出的多服务台队列模拟，线程数默认取配置中线程池的大小（虚拟线程执行器不限）；
+ * 不模拟CPU核数竞争、调度开销和节点失败。带分支选择的节点需要通过branch指定各分支及其比例，
+ * 未指定时不剪枝，所有节点都会执行（偏保守的上界）
+ * <p>
+ * 例如：
+ * <pre>
+ * SimulationReport report = DagSimulator.of(dagAutoRunner.getEngineConfig("adRanking"))
+ *         .latency(NodeType.IO, LatencyDistribution.logNormal(5, 40, TimeUnit.MILLISECONDS))
+ *         .latency(NodeType.CPU, LatencyDistribution.fixed(200, TimeUnit.MICROSECONDS))
+ *         .branch("checkSwitch", 0.3, "defaultRank")
+ *         .branch("checkSwitch", 0.7, "getVersionInfo", "contextDimensionCalculation")
+ *         .pool(MixedThreadPoolManager.CPU, 8)
+ *         .rate(2000)
+ *         .run();
+ * </pre>
+ *
+ * @author qiao
+ */
+@Slf4j
+public class DagSimulator {
+
+    /**
+     * 不限线程数的线程池（如虚拟线程执行器）
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private final DagEngineConfig config;
+    private ExecutionMode mode = ExecutionMode.WAVE;
+    private double ratePerSecond = 100;
+    private boolean poisson = true;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private long seed = 42;
+    private final Map<NodeType, LatencyDistribution> typeLatencies = new EnumMap<>(NodeType.class);
+    private final Map<String, LatencyDistribution> nodeLatencies = new HashMap<>();
+    private final Map<String, Integer> poolSizes = new HashMap<>();
+    private final Map<String, Map<Set<String>, Double>> branches = new HashMap<>();
+
+    private DagSimulator(DagEngineConfig config) {
+        this.config = config;
+    }
+
+    public static DagSimulator of(DagEngineConfig config) {
+        return new DagSimulator(Objects.requireNonNull(config));
+    }
+
+    /**
+     * 模拟的调度策略，默认WAVE
+     */
+    public DagSimulator mode(ExecutionMode mode) {
+        this.mode = Objects.requireNonNull(mode);
+        return this;
+    }
+
+    /**
+     * 到达速率（每秒请求数）
+     */
+    public DagSimulator rate(double ratePerSecond) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.ratePerSecond = ratePerSecond;
+        return this;
+    }
+
+    /**
+     * 是否按泊松过程到达（默认），为false时按固定间隔到达
+     */
+    public DagSimulator poisson(boolean poisson) {
+        this.poisson = poisson;
+        return this;
+    }
+
+    /**
+     * 模拟的预热时长，期间的请求不统计
+     */
+    public DagSimulator warmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    /**
+     * 模拟的测量时长（虚拟时间）
+     */
+    public DagSimulator duration(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("duration must be positive");
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    public DagSimulator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * 某类节点的耗时分布，未指定的节点不耗时
+     */
+    public DagSimulator latency(NodeType nodeType, LatencyDistribution latency) {
+        typeLatencies.put(nodeType, Objects.requireNonNull(latency));
+        return this;
+    }
+
+    /**
+     * 单个节点的耗时分布，优先于按类型指定的分布
+     */
+    public DagSimulator latency(String nodeId, LatencyDistribution latency) {
+        checkNode(nodeId);
+        nodeLatencies.put(nodeId, Objects.requireNonNull(latency));
+        return this;
+    }
+
+    /**
+     * 使用本工作流已记录的节点执行耗时（NodeMetrics）作为各节点的耗时分布
+     */
+    public DagSimulator latencyFromMetrics() {
+        return latencyFromMetrics(config.getWorkflowName());
+    }
+
+    /**
+     * 使用指定工作流已记录的节点执行耗时作为同名节点的耗时分布，没有记录的节点不受影响
+     * 例如用线上工作流的指标模拟调整过拓扑或线程池的配置
+     */
+    public DagSimulator latencyFromMetrics(String workflowName) {
+        WorkflowMetrics metrics = DagMetrics.getWorkflow(workflowName);
+        if (metrics == null) {
+            throw new IllegalArgumentException("No metrics recorded for workflow: " + workflowName);
+        }
+        for (String nodeId : config.getNodeMap().keySet()) {
+            HistogramSnapshot execution = metrics.node(nodeId).getExecution().snapshot();
+            if (execution.getCount() > 0) {
+                nodeLatencies.put(nodeId, LatencyDistribution.empirical(execution));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 使用录制中IO节点的耗时作为耗时分布，没有录制的节点不受影响
+     */
+    public DagSimulator latencyFromRecordings(List<WorkflowRecording> recordings) {
+        Map<String, List<Long>> samples = new HashMap<>();
+        for (WorkflowRecording recording : recordings) {
+            for (NodeRecording node : recording.getNodes().values()) {
+                if (config.getNodeMap().containsKey(node.getNodeId())) {
+                    samples.computeIfAbsent(node.getNodeId(), k -> new ArrayList<>()).add(node.getLatencyNanos());
+                }
+            }
+        }
+        samples.forEach((nodeId, latencies) -> nodeLatencies.put(nodeId,
+                LatencyDistribution.empirical(latencies.stream().mapToLong(Long::longValue).toArray())));
+        return this;
+    }
+
+    /**
+     * 线程池的线程数，名称与MixedThreadPoolManager.getThreadPoolName一致（cpu、io、blockingIo、heavyCpu或隔离线程池名称）
+     *
+     * @param threads 线程数，UNBOUNDED表示不限
+     */
+    public DagSimulator pool(String name, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        poolSizes.put(name, threads);
+        return this;
+    }
+
+    /**
+     * 为带分支选择的节点添加一个分支：以weight的权重选中selected中的节点，从它们出发不可达的节点被剪枝。
+     * 同一节点多次调用添加多个分支，每次执行按权重选中其中一个
+     *
+     * @param nodeId   带分支选择的节点
+     * @param weight   分支的权重
+     * @param selected 分支选中的节点ID，与分支选择器返回的节点对应
+     */
+    public DagSimulator branch(String nodeId, double weight, String... selected) {
+        checkNode(nodeId);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must not be negative");
+        }
+        if (selected.length == 0) {
+            throw new IllegalArgumentException("branch must select at least one node");
+        }
+        for (String selectedNode : selected) {
+            checkNode(selectedNode);
+        }
+        branches.computeIfAbsent(nodeId, k -> new LinkedHashMap<>())
+                .merge(new LinkedHashSet<>(Arrays.asList(selected)), weight, Double::sum);
+        return this;
+    }
+
+    /**
+     * 依次按各个速率模拟，遇到第一个饱和的速率后停止
+     *
+     * @return 每个速率的结果，最后一个可能是饱和的
+     */
+    public List<SimulationReport> sweep(double... rates) {
+        List<SimulationReport> reports = new ArrayList<>();
+        for (double rate : rates) {
+            SimulationReport report = rate(rate).run();
+            log.info("Simulation sweep at {}/s:\n{}", rate, report.format());
+            reports.add(report);
+            if (report.isSaturated()) {
+                break;
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * 按当前配置模拟一次
+     */
+    public SimulationReport run() {
+        config.getNodeMap().forEach((nodeId, wrapper) -> {
+            if (wrapper.getChooser() != null && !(wrapper.getChooser() instanceof NodeConfig.NoChoose)
+                    && !branches.containsKey(nodeId)) {
+                log.warn("Branch of node {} is not modeled, all successors are simulated", nodeId);
+            }
+        });
+        return new Simulation(config, mode, ratePerSecond, poisson, warmup.toNanos(), duration.toNanos(), seed,
+                typeLatencies, nodeLatencies, poolSizes, branches).run();
+    }
+
+    private void checkNode(String nodeId) {
+        if (!config.getNodeMap().containsKey(nodeId)) {
+            throw new IllegalArgumentException("Unknown node: " + nodeId);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.qiao.flow.orchestrator.core.dag.testing.sim;
+
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 单个线程池在测量窗口内的模拟结果
+ *
+ * @author qiao
+ */
+@Getter
+public class SimulatedPoolResult {
+
+    private final String name;
+
+    /**
+     * 线程数，DagSimulator.UNBOUNDED表示不限
+     */
+    private final int threads;
+
+    /**
+     * 测量窗口内开始执行的任务数
+     */
+    private final long tasks;
+
+    /**
+     * 平均忙碌线程数
+     */
+    private final double meanBusyThreads;
+
+    /**
+     * 任务在队列中的等待时间
+     */
+    private final HistogramSnapshot queueWait;
+
+    private final int maxQueueLength;
+
+    SimulatedPoolResult(String name, int threads, long tasks, double meanBusyThreads, HistogramSnapshot queueWait,
+                        int maxQueueLength) {
+        this.name = name;
+        this.threads = threads;
+        this.tasks = tasks;
+        this.meanBusyThreads = meanBusyThreads;
+        this.queueWait = queueWait;
+        this.maxQueueLength = maxQueueLength;
+    }
+
+    public boolean isUnbounded() {
+        return threads == DagSimulator.UNBOUNDED;
+    }
+
+    /**
+     * 利用率（平均忙碌线程数 / 线程数），线程数不限时返回0
+     */
+    public double getUtilization() {
+        return isUnbounded() ? 0 : meanBusyThreads / threads;
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("threads", isUnbounded() ? "unbounded" : threads);
+        summary.put("tasks", tasks);
+        summary.put("meanBusyThreads", Math.round(meanBusyThreads * 100) / 100.0);
+        summary.put("utilization", Math.round(getUtilization() * 1000) / 1000.0);
+        summary.put("queueWait", queueWait.toSummary());
+        summary.put("maxQueueLength", maxQueueLength);
+        return summary;
+    }
+}
@@ -0,0 +1,518 @@
+package com.qiao.flow.orchestrator.core.dag.testing.sim;
+
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagNodeIndex;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.metrics.LatencyHistogram;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.wrapper.NodeWrapper;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 一次模拟运行：事件按虚拟时间排序依次处理，单线程执行，同一时刻的事件按产生顺序处理
+ *
+ * @author qiao
+ */
+final class Simulation {
+
+    // 节点在一次请求中的状态
+    private static final byte PENDING = 0;
+    private static final byte STARTED = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte PRUNED = 3;
+
+    private final DagNodeIndex nodeIndex;
+    private final ExecutionMode mode;
+    private final double ratePerSecond;
+    private final boolean poisson;
+    private final long measureStart;
+    private final long measureEnd;
+    private final long timeoutNanos;
+    private final SplittableRandom random;
+
+    // 按节点下标预先计算的耗时分布、线程池和分支
+    private final LatencyDistribution[] latencies;
+    private final Pool[] nodePools;
+    private final boolean[] inline;
+    private final boolean[] async;
+    private final boolean[] dispatched;
+    private final Branch[] branches;
+    private final Map<String, Pool> pools = new LinkedHashMap<>();
+
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private long sequence;
+    private long now;
+    private final int[] ready;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private long completedInWindow;
+    private long timedOut;
+
+    Simulation(DagEngineConfig config, ExecutionMode mode, double ratePerSecond, boolean poisson,
+               long warmupNanos, long durationNanos, long seed,
+               Map<NodeType, LatencyDistribution> typeLatencies, Map<String, LatencyDistribution> nodeLatencies,
+               Map<String, Integer> poolSizes, Map<String, Map<Set<String>, Double>> branchWeights) {
+        this.nodeIndex = config.getNodeIndex();
+        this.mode = mode;
+        this.ratePerSecond = ratePerSecond;
+        this.poisson = poisson;
+        this.measureStart = warmupNanos;
+        this.measureEnd = warmupNanos + durationNanos;
+        this.timeoutNanos = config.getTimeout() * 1_000_000L;
+        this.random = new SplittableRandom(seed);
+
+        int size = nodeIndex.size();
+        this.latencies = new LatencyDistribution[size];
+        this.nodePools = new Pool[size];
+        this.inline = new boolean[size];
+        this.async = new boolean[size];
+        this.dispatched = new boolean[size];
+        this.branches = new Branch[size];
+        this.ready = new int[size];
+
+        MixedThreadPoolManager threadPoolManager = config.getThreadPoolManager();
+        for (int index = 0; index < size; index++) {
+            NodeWrapper<?, ?> wrapper = nodeIndex.getWrapper(index);
+            NodeType nodeType = wrapper.getNodeType();
+            LatencyDistribution nodeLatency = nodeLatencies.get(wrapper.getId());
+            latencies[index] = nodeLatency != null ? nodeLatency
+                    : typeLatencies.getOrDefault(nodeType, LatencyDistribution.none());
+            async[index] = wrapper.isAsyncNode();
+            inline[index] = nodeType.isInline() && !async[index];
+            dispatched[index] = wrapper.isDispatchRequired();
+            if (!async[index] && !inline[index] && usesPool(wrapper)) {
+                String poolName = threadPoolManager != null
+                        ? threadPoolManager.getThreadPoolName(nodeType, wrapper.getExecutorName())
+                        : (nodeType.isIo() ? MixedThreadPoolManager.IO : MixedThreadPoolManager.CPU);
+                nodePools[index] = pools.computeIfAbsent(poolName,
+                        name -> new Pool(name, poolSize(name, poolSizes, threadPoolManager)));
+            }
+        }
+        branchWeights.forEach((nodeId, weights) ->
+                branches[nodeIndex.indexOf(nodeId)] = new Branch(weights));
+    }
+
+    /**
+     * 节点是否经过线程池：WAVE模式下除INLINE和AsyncNode外都经过，
+     * STRUCTURED模式下只有需要派发到平台线程池的节点经过（与DagStructuredEngine.offloadExecutor一致）
+     */
+    private boolean usesPool(NodeWrapper<?, ?> wrapper) {
+        if (mode == ExecutionMode.WAVE || wrapper.isIsolated()) {
+            return true;
+        }
+        return switch (wrapper.getNodeType()) {
+            case CPU, HEAVY_CPU, BLOCKING_IO -> true;
+            case IO, ASYNC_IO, INLINE -> false;
+        };
+    }
+
+    private static int poolSize(String name, Map<String, Integer> poolSizes, MixedThreadPoolManager manager) {
+        Integer configured = poolSizes.get(name);
+        if (configured != null) {
+            return configured;
+        }
+        ExecutorService executor = manager != null ? manager.getExecutors().get(name) : null;
+        if (executor instanceof ThreadPoolExecutor pool) {
+            return pool.getMaximumPoolSize();
+        }
+        if (executor instanceof ForkJoinPool pool) {
+            return pool.getParallelism();
+        }
+        return DagSimulator.UNBOUNDED;
+    }
+
+    SimulationReport run() {
+        long wallStart = System.nanoTime();
+        schedule(0L, this::arrive);
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            now = event.time;
+            event.action.run();
+        }
+        long wallNanos = System.nanoTime() - wallStart;
+
+        double seconds = (measureEnd - measureStart) / 1e9;
+        Map<String, SimulatedPoolResult> poolResults = new LinkedHashMap<>();
+        for (Pool pool : pools.values()) {
+            pool.accumulate(measureEnd);
+            poolResults.put(pool.name, new SimulatedPoolResult(pool.name, pool.threads, pool.tasks,
+                    pool.busyArea / (measureEnd - measureStart), pool.wait.snapshot(), pool.maxQueueLength));
+        }
+        return new SimulationReport(mode, ratePerSecond, completedInWindow / seconds, seconds, latency.snapshot(),
+                timedOut, poolResults, measureEnd, wallNanos);
+    }
+
+    private void schedule(long time, Runnable action) {
+        events.add(new Event(time, sequence++, action));
+    }
+
+    private long sample(int index) {
+        return Math.max(0L, latencies[index].sampleNanos(random));
+    }
+
+    private void arrive() {
+        Request request = new Request(now, nodeIndex.size());
+        if (mode == ExecutionMode.WAVE) {
+            startWave(request);
+        } else {
+            startStructured(request);
+        }
+        long interval = poisson
+                ? (long) (random.nextExponential() * 1e9 / ratePerSecond)
+                : (long) (1e9 / ratePerSecond);
+        long next = now + Math.max(1L, interval);
+        if (next < measureEnd) {
+            schedule(next, this::arrive);
+        }
+    }
+
+    private void finish(Request request) {
+        long elapsed = now - request.arrival;
+        if (request.arrival >= measureStart && request.arrival < measureEnd) {
+            latency.record(elapsed);
+            if (elapsed > timeoutNanos) {
+                timedOut++;
+            }
+        }
+        if (now >= measureStart && now < measureEnd) {
+            completedInWindow++;
+        }
+    }
+
+    /**
+     * 收集就绪节点写入ready并标记为已启动，就绪规则与引擎的canExecute一致
+     */
+    private int collectReady(Request request) {
+        int count = 0;
+        for (int index = 0; index < request.states.length; index++) {
+            if (request.states[index] == PENDING && canExecute(request.states, index)) {
+                request.states[index] = STARTED;
+                ready[count++] = index;
+            }
+        }
+        return count;
+    }
+
+    private boolean canExecute(byte[] states, int index) {
+        for (int dep : nodeIndex.getDependencies(index)) {
+            if (dep < 0) {
+                return false;
+            }
+            if (states[dep] != PRUNED && states[dep] != COMPLETED) {
+                return false;
+            }
+        }
+        int[] weakDeps = nodeIndex.getWeakDependencies(index);
+        if (weakDeps.length == 0) {
+            return true;
+        }
+        for (int dep : weakDeps) {
+            if (dep >= 0 && states[dep] == COMPLETED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 节点完成，有分支模型时按权重选中一个分支并剪枝不可达的未启动节点
+     *
+     * @return 是否有节点被剪枝
+     */
+    private boolean complete(Request request, int index) {
+        request.states[index] = COMPLETED;
+        Branch branch = branches[index];
+        if (branch == null) {
+            return false;
+        }
+        boolean pruned = false;
+        boolean[] reachable = branch.choose(random);
+        for (int node = 0; node < reachable.length; node++) {
+            if (!reachable[node] && request.states[node] == PENDING) {
+                request.states[node] = PRUNED;
+                pruned = true;
+            }
+        }
+        return pruned;
+    }
+
+    private void startWave(Request request) {
+        int count = collectReady(request);
+        if (count == 0) {
+            finish(request);
+            return;
+        }
+
+        // 单个节点在请求线程上执行（必须派发到线程池的节点除外）
+        if (count == 1 && !dispatched[ready[0]]) {
+            int index = ready[0];
+            schedule(now + sample(index), () -> {
+                complete(request, index);
+                startWave(request);
+            });
+            return;
+        }
+
+        // 请求线程自身持有一个计数，执行完内联节点后释放
+        request.pending = 1;
+        for (int i = 0; i < count; i++) {
+            int index = ready[i];
+            if (inline[index]) {
+                continue;
+            }
+            request.pending++;
+            Runnable done = () -> {
+                complete(request, index);
+                waveNodeFinished(request);
+            };
+            if (async[index]) {
+                schedule(now + sample(index), done);
+            } else {
+                nodePools[index].submit(sample(index), done);
+            }
+        }
+        long callerTime = now;
+        for (int i = 0; i < count; i++) {
+            int index = ready[i];
+            if (inline[index]) {
+                callerTime += sample(index);
+                schedule(callerTime, () -> complete(request, index));
+            }
+        }
+        schedule(callerTime, () -> waveNodeFinished(request));
+    }
+
+    private void waveNodeFinished(Request request) {
+        if (--request.pending == 0) {
+            startWave(request);
+        }
+    }
+
+    private void startStructured(Request request) {
+        int count = collectReady(request);
+        request.pending = count;
+        if (count == 0) {
+            finish(request);
+            return;
+        }
+        launch(request, count);
+    }
+
+    /**
+     * 启动ready中的节点：内联节点在当前线程上依次执行，其余节点进入线程池或在虚拟线程上执行
+     */
+    private void launch(Request request, int count) {
+        long threadTime = now;
+        for (int i = 0; i < count; i++) {
+            int index = ready[i];
+            Runnable done = () -> structuredNodeFinished(request, index);
+            if (inline[index]) {
+                threadTime += sample(index);
+                schedule(threadTime, done);
+            } else if (nodePools[index] != null) {
+                nodePools[index].submit(sample(index), done);
+            } else {
+                schedule(now + sample(index), done);
+            }
+        }
+    }
+
+    private void structuredNodeFinished(Request request, int index) {
+        // 没有剪枝时只有完成节点的后继可能新就绪；剪枝后被剪枝节点的后继也可能就绪，需要全部检查
+        int count = complete(request, index) ? collectReady(request) : collectReadySuccessors(request, index);
+        request.pending += count - 1;
+        if (request.pending == 0) {
+            finish(request);
+        } else if (count > 0) {
+            launch(request, count);
+        }
+    }
+
+    private int collectReadySuccessors(Request request, int index) {
+        int count = 0;
+        for (int successor : nodeIndex.getSuccessors(index)) {
+            if (request.states[successor] == PENDING && canExecute(request.states, successor)) {
+                request.states[successor] = STARTED;
+                ready[count++] = successor;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 先进先出的多服务台队列
+     */
+    private final class Pool {
+
+        private final String name;
+        private final int threads;
+        private final ArrayDeque<Task> queue = new ArrayDeque<>();
+        private final LatencyHistogram wait = new LatencyHistogram();
+        private int busy;
+        private long lastChange;
+        private double busyArea;
+        private long tasks;
+        private int maxQueueLength;
+
+        private Pool(String name, int threads) {
+            this.name = name;
+            this.threads = threads;
+        }
+
+        void submit(long serviceNanos, Runnable done) {
+            if (busy < threads) {
+                start(now, serviceNanos, done);
+                return;
+            }
+            queue.add(new Task(now, serviceNanos, done));
+            if (inWindow(now)) {
+                maxQueueLength = Math.max(maxQueueLength, queue.size());
+            }
+        }
+
+        private void start(long queuedAt, long serviceNanos, Runnable done) {
+            accumulate(now);
+            busy++;
+            if (inWindow(now)) {
+                tasks++;
+                wait.record(now - queuedAt);
+            }
+            schedule(now + serviceNanos, () -> {
+                accumulate(now);
+                busy--;
+                Task next = queue.poll();
+                if (next != null) {
+                    start(next.queuedAt, next.serviceNanos, next.done);
+                }
+                done.run();
+            });
+        }
+
+        /**
+         * 累计测量窗口内的忙碌线程数 × 时间
+         */
+        void accumulate(long time) {
+            long from = Math.max(lastChange, measureStart);
+            long to = Math.min(time, measureEnd);
+            if (to > from) {
+                busyArea += (double) busy * (to - from);
+            }
+            lastChange = time;
+        }
+    }
+
+    private boolean inWindow(long time) {
+        return time >= measureStart && time < measureEnd;
+    }
+
+    private static final class Task {
+
+        private final long queuedAt;
+        private final long serviceNanos;
+        private final Runnable done;
+
+        private Task(long queuedAt, long serviceNanos, Runnable done) {
+            this.queuedAt = queuedAt;
+            this.serviceNanos = serviceNanos;
+            this.done = done;
+        }
+    }
+
+    /**
+     * 分支模型：按权重选中一个分支，预先计算从每个分支选中的节点出发的可达节点（结束节点总是可达）
+     */
+    private final class Branch {
+
+        private final double[] cumulativeWeights;
+        private final boolean[][] reachable;
+
+        private Branch(Map<Set<String>, Double> weights) {
+            this.cumulativeWeights = new double[weights.size()];
+            this.reachable = new boolean[weights.size()][];
+            double total = 0;
+            int option = 0;
+            for (Map.Entry<Set<String>, Double> entry : weights.entrySet()) {
+                total += entry.getValue();
+                cumulativeWeights[option] = total;
+                reachable[option] = reachableFrom(entry.getKey());
+                option++;
+            }
+            if (total <= 0) {
+                throw new IllegalArgumentException("branch weights must not all be zero");
+            }
+        }
+
+        boolean[] choose(SplittableRandom random) {
+            double point = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+            for (int option = 0; option < cumulativeWeights.length - 1; option++) {
+                if (point < cumulativeWeights[option]) {
+                    return reachable[option];
+                }
+            }
+            return reachable[reachable.length - 1];
+        }
+
+        private boolean[] reachableFrom(Set<String> selectedNodes) {
+            boolean[] result = new boolean[nodeIndex.size()];
+            int[] queue = new int[nodeIndex.size()];
+            int head = 0;
+            int tail = 0;
+            for (String nodeId : selectedNodes) {
+                int selected = nodeIndex.indexOf(nodeId);
+                if (!result[selected]) {
+                    result[selected] = true;
+                    queue[tail++] = selected;
+                }
+            }
+            while (head < tail) {
+                for (int successor : nodeIndex.getSuccessors(queue[head++])) {
+                    if (!result[successor]) {
+                        result[successor] = true;
+                        queue[tail++] = successor;
+                    }
+                }
+            }
+            for (int endNode : nodeIndex.getEndNodes()) {
+                result[endNode] = true;
+            }
+            return result;
+        }
+    }
+
+    private static final class Request {
+
+        private final long arrival;
+        private final byte[] states;
+        private int pending;
+
+        private Request(long arrival, int size) {
+            this.arrival = arrival;
+            this.states = new byte[size];
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+
+        private final long time;
+        private final long sequence;
+        private final Runnable action;
+
+        private Event(long time, long sequence, Runnable action) {
+            this.time = time;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.qiao.flow.orchestrator.core.dag.testing.sim;
+
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 一次模拟的结果
+ * latency为测量窗口内到达的请求从到达到完成的时间，包含在线程池中排队的时间
+ *
+ * @author qiao
+ */
+@Getter
+public class SimulationReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    /**
+     * 吞吐量低于到达速率的该比例时认为已经饱和
+     */
+    private static final double SATURATION_RATIO = 0.95;
+
+    private final ExecutionMode mode;
+    private final double targetRate;
+    private final double achievedRate;
+    private final double simulatedSeconds;
+    private final HistogramSnapshot latency;
+
+    /**
+     * 耗时超过工作流超时时间的请求数（模拟中不中断，只计数）
+     */
+    private final long timedOut;
+
+    private final Map<String, SimulatedPoolResult> pools;
+
+    /**
+     * 模拟的总虚拟时间（含预热）和实际耗时，纳秒
+     */
+    private final long virtualNanos;
+    private final long wallNanos;
+
+    SimulationReport(ExecutionMode mode, double targetRate, double achievedRate, double simulatedSeconds,
+                     HistogramSnapshot latency, long timedOut, Map<String, SimulatedPoolResult> pools,
+                     long virtualNanos, long wallNanos) {
+        this.mode = mode;
+        this.targetRate = targetRate;
+        this.achievedRate = achievedRate;
+        this.simulatedSeconds = simulatedSeconds;
+        this.latency = latency;
+        this.timedOut = timedOut;
+        this.pools = pools;
+        this.virtualNanos = virtualNanos;
+        this.wallNanos = wallNanos;
+    }
+
+    public SimulatedPoolResult getPool(String name) {
+        return pools.get(name);
+    }
+
+    /**
+     * 是否饱和：完成速率明显低于到达速率，请求在线程池中无限积压
+     */
+    public boolean isSaturated() {
+        return achievedRate < targetRate * SATURATION_RATIO;
+    }
+
+    /**
+     * 每秒实际时间模拟的虚拟秒数
+     */
+    public double getSpeedup() {
+        return wallNanos == 0 ? 0 : (double) virtualNanos / wallNanos;
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("mode", mode.name());
+        summary.put("targetRate", targetRate);
+        summary.put("achievedRate", Math.round(achievedRate * 10) / 10.0);
+        summary.put("simulatedSeconds", simulatedSeconds);
+        summary.put("saturated", isSaturated());
+        summary.put("timedOut", timedOut);
+        summary.put("latency", latency.toSummary());
+        Map<String, Object> poolSummaries = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> poolSummaries.put(name, pool.toSummary()));
+        summary.put("pools", poolSummaries);
+        summary.put("speedup", Math.round(getSpeedup()));
+        return summary;
+    }
+
+    /**
+     * 文本表格：延迟分位和各线程池的利用率、排队时间，单位毫秒
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%s target %.1f/s, achieved %.1f/s over %.0fs simulated%s, %.0fx real time%n",
+                mode, targetRate, achievedRate, simulatedSeconds, isSaturated() ? " (saturated)" : "", getSpeedup()));
+        builder.append("latency");
+        for (double percentile : PERCENTILES) {
+            builder.append(String.format(" p%s=%.3f", format(percentile), toMillis(latency.getValueAtPercentile(percentile))));
+        }
+        builder.append(String.format(" max=%.3f", toMillis(latency.getMaxNanos())));
+        if (timedOut > 0) {
+            builder.append(", timed out ").append(timedOut);
+        }
+        builder.append(String.format("%n%-20s %9s %9s %9s %9s %9s %9s%n",
+                "pool", "threads", "tasks", "busy", "util", "wait p99", "max queue"));
+        for (SimulatedPoolResult pool : pools.values()) {
+            builder.append(String.format("%-20s %9s %9d %9.2f %9s %9.3f %9d%n", pool.getName(),
+                    pool.isUnbounded() ? "-" : String.valueOf(pool.getThreads()), pool.getTasks(),
+                    pool.getMeanBusyThreads(),
+                    pool.isUnbounded() ? "-" : String.format("%.1f%%", pool.getUtilization() * 100),
+                    toMillis(pool.getQueueWait().getValueAtPercentile(99)), pool.getMaxQueueLength()));
+        }
+        return builder.toString();
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+}
@@ -0,0 +1,219 @@
+package com.qiao.flow.orchestrator.core.dag.testing.soak;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.pool.CollectionPool;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadReport;
+import com.qiao.flow.orchestrator.core.dag.testing.load.OpenLoopLoadGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * 长时间稳态压测（soak），用于发现对象池和缓存泄漏
+ * 用开环压测按固定速率持续执行工作流，同时按间隔采样GC后的堆占用、各对象池大小、存活DagContext数等指标，
+ * 结束后对预热期之后的样本做最小二乘拟合，趋势线在测量窗口内的增长超过阈值即判定为泄漏
+ * <p>
+ * 压测本身的预热、时长由本类统一控制，传入的压测器只需配置速率、线程数和工作流
+ *
+ * @author qiao
+ */
+@Slf4j
+public class SoakHarness {
+
+    public static final String HEAP_AFTER_GC = "heapAfterGcBytes";
+    public static final String CONTEXT_POOL_SIZE = "dagContextPoolSize";
+    public static final String LIVE_CONTEXTS = "liveDagContexts";
+    public static final String BORROWED_CONTEXTS = "borrowedDagContexts";
+    public static final String SET_POOL_SIZE = "collectionSetPoolSize";
+    public static final String LIST_POOL_SIZE = "collectionListPoolSize";
+    public static final String CONFIG_CACHE_SIZE = "configCacheSize";
+
+    private Duration duration = Duration.ofHours(1);
+    private Duration warmup = Duration.ofMinutes(5);
+    private Duration sampleInterval = Duration.ofMinutes(1);
+    private boolean forceGc = true;
+    private OpenLoopLoadGenerator load;
+    private final Map<String, Probe> probes = new LinkedHashMap<>();
+
+    private SoakHarness() {
+        probe(HEAP_AFTER_GC, () -> heapAfterGc(forceGc), 32L * 1024 * 1024);
+        probe(CONTEXT_POOL_SIZE, DagContextPool::getPoolSize, 500);
+        probe(LIVE_CONTEXTS, DagContextPool::getLiveCount, 500);
+        probe(BORROWED_CONTEXTS, DagContextPool::getBorrowedCount, 100);
+        probe(SET_POOL_SIZE, CollectionPool::getSetPoolSize, 500);
+        probe(LIST_POOL_SIZE, CollectionPool::getListPoolSize, 500);
+    }
+
+    /**
+     * 创建带默认指标的实例：GC后堆占用、DagContext池大小/存活数/借出数、集合池大小
+     */
+    public static SoakHarness create() {
+        return new SoakHarness();
+    }
+
+    /**
+     * 测量窗口时长，不含预热
+     */
+    public SoakHarness duration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * 预热期内照常压测和采样，但样本不参与趋势判定，留给对象池和JIT达到稳态
+     */
+    public SoakHarness warmup(Duration warmup) {
+        this.warmup = warmup;
+        return this;
+    }
+
+    public SoakHarness sampleInterval(Duration sampleInterval) {
+        if (sampleInterval.isZero() || sampleInterval.isNegative()) {
+            throw new IllegalArgumentException("sampleInterval must be positive");
+        }
+        this.sampleInterval = sampleInterval;
+        return this;
+    }
+
+    /**
+     * 采样前是否先执行System.gc()，默认开启；关闭时读取各堆内存池最近一次GC后的占用
+     */
+    public SoakHarness forceGc(boolean forceGc) {
+        this.forceGc = forceGc;
+        return this;
+    }
+
+    public SoakHarness load(OpenLoopLoadGenerator load) {
+        this.load = load;
+        return this;
+    }
+
+    /**
+     * 增加工作流配置缓存大小指标
+     */
+    public SoakHarness runner(DagAutoRunner runner) {
+        return probe(CONFIG_CACHE_SIZE, runner::getConfigCacheSize, 2);
+    }
+
+    /**
+     * 增加或替换一个指标
+     *
+     * @param maxGrowth 趋势线在测量窗口内允许的最大增长
+     */
+    public SoakHarness probe(String name, LongSupplier supplier, long maxGrowth) {
+        probes.put(name, new Probe(supplier, maxGrowth));
+        return this;
+    }
+
+    /**
+     * 调整已有指标的增长阈值
+     */
+    public SoakHarness maxGrowth(String name, long maxGrowth) {
+        Probe probe = probes.get(name);
+        if (probe == null) {
+            throw new IllegalArgumentException("Unknown probe: " + name);
+        }
+        probes.put(name, new Probe(probe.supplier, maxGrowth));
+        return this;
+    }
+
+    /**
+     * 执行一次soak，压测结束（或因饱和中止）后停止采样
+     */
+    public SoakReport run() {
+        if (load == null) {
+            throw new IllegalStateException("No load configured");
+        }
+        load.warmup(Duration.ZERO).duration(warmup.plus(duration));
+
+        AtomicReference<LoadReport> loadReport = new AtomicReference<>();
+        AtomicReference<Throwable> loadFailure = new AtomicReference<>();
+        Thread loadThread = Thread.ofPlatform().name("soak-load").daemon().start(() -> {
+            try {
+                loadReport.set(load.run());
+            } catch (Throwable e) {
+                loadFailure.set(e);
+            }
+        });
+
+        List<String> names = new ArrayList<>(probes.keySet());
+        List<SoakSample> samples = new ArrayList<>();
+        long startNanos = System.nanoTime();
+        long intervalNanos = sampleInterval.toNanos();
+        long nextSample = startNanos;
+        try {
+            while (true) {
+                samples.add(sample(names, System.nanoTime() - startNanos));
+                log.info("Soak sample {}: {}", samples.size(), samples.get(samples.size() - 1).getValues());
+                nextSample += intervalNanos;
+                long now;
+                while (loadThread.isAlive() && (now = System.nanoTime()) < nextSample) {
+                    LockSupport.parkNanos(nextSample - now);
+                }
+                if (!loadThread.isAlive()) {
+                    break;
+                }
+            }
+            loadThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Soak interrupted", e);
+        }
+        // 压测结束后补一个样本，确保窗口末尾被覆盖
+        samples.add(sample(names, System.nanoTime() - startNanos));
+
+        if (loadFailure.get() != null) {
+            throw new IllegalStateException("Soak load failed", loadFailure.get());
+        }
+        Map<String, Long> thresholds = new LinkedHashMap<>();
+        probes.forEach((name, probe) -> thresholds.put(name, probe.maxGrowth));
+        return new SoakReport(samples, thresholds, warmup.toNanos(), loadReport.get());
+    }
+
+    private SoakSample sample(List<String> names, long elapsedNanos) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, probes.get(name).supplier.getAsLong());
+        }
+        return new SoakSample(elapsedNanos, values);
+    }
+
+    /**
+     * GC后的堆占用
+     */
+    static long heapAfterGc(boolean forceGc) {
+        if (forceGc) {
+            System.gc();
+            return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        }
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static final class Probe {
+
+        private final LongSupplier supplier;
+        private final long maxGrowth;
+
+        private Probe(LongSupplier supplier, long maxGrowth) {
+            this.supplier = supplier;
+            this.maxGrowth = maxGrowth;
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.qiao.flow.orchestrator.core.dag.testing.soak;
+
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadReport;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次soak的结果：全部样本、各指标的趋势和压测报告
+ *
+ * @author qiao
+ */
+@Getter
+public class SoakReport {
+
+    /**
+     * 判定趋势至少需要的测量窗口样本数
+     */
+    static final int MIN_SAMPLES = 3;
+
+    private final List<SoakSample> samples;
+    private final Map<String, Trend> trends;
+    private final LoadReport loadReport;
+
+    SoakReport(List<SoakSample> samples, Map<String, Long> thresholds, long warmupNanos, LoadReport loadReport) {
+        this.samples = samples;
+        this.loadReport = loadReport;
+        List<SoakSample> measured = samples.stream()
+                .filter(sample -> sample.getElapsedNanos() >= warmupNanos)
+                .toList();
+        Map<String, Trend> trendMap = new LinkedHashMap<>();
+        thresholds.forEach((probe, maxGrowth) -> trendMap.put(probe, Trend.fit(probe, measured, maxGrowth)));
+        this.trends = trendMap;
+    }
+
+    public Trend getTrend(String probe) {
+        return trends.get(probe);
+    }
+
+    /**
+     * 趋势增长超过阈值的指标
+     */
+    public List<Trend> getLeaks() {
+        return trends.values().stream().filter(Trend::isExceeded).toList();
+    }
+
+    /**
+     * 测量窗口样本足够，且所有指标的趋势增长都在阈值内
+     */
+    public boolean isStable() {
+        return getMeasuredSampleCount() >= MIN_SAMPLES && getLeaks().isEmpty();
+    }
+
+    public int getMeasuredSampleCount() {
+        return trends.isEmpty() ? 0 : trends.values().iterator().next().getSamples();
+    }
+
+    /**
+     * 不稳定时抛出AssertionError，消息中包含趋势表格
+     */
+    public void assertStable() {
+        if (getMeasuredSampleCount() < MIN_SAMPLES) {
+            throw new AssertionError("Not enough samples after warmup: " + getMeasuredSampleCount()
+                    + ", need " + MIN_SAMPLES + "\n" + format());
+        }
+        List<String> leaks = new ArrayList<>();
+        getLeaks().forEach(trend -> leaks.add(trend.getProbe()));
+        if (!leaks.isEmpty()) {
+            throw new AssertionError("Trend growth over threshold: " + leaks + "\n" + format());
+        }
+    }
+
+    /**
+     * 按指标输出的文本表格
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("%d samples, %d after warmup%n", samples.size(), getMeasuredSampleCount()));
+        builder.append(String.format("%-24s %14s %14s %14s %14s %14s %s%n",
+                "probe", "first", "last", "max", "growth", "maxGrowth", ""));
+        for (Trend trend : trends.values()) {
+            builder.append(String.format("%-24s %14d %14d %14d %14.1f %14d %s%n", trend.getProbe(), trend.getFirst(),
+                    trend.getLast(), trend.getMax(), trend.getGrowth(), trend.getMaxGrowth(),
+                    trend.isExceeded() ? "LEAK" : ""));
+        }
+        if (loadReport != null) {
+            builder.append(loadReport.format());
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    /**
+     * 单个指标在测量窗口内的最小二乘趋势线
+     */
+    @Getter
+    public static class Trend {
+
+        private final String probe;
+        private final int samples;
+        private final long first;
+        private final long last;
+        private final long max;
+
+        /**
+         * 斜率，单位：每分钟
+         */
+        private final double slopePerMinute;
+
+        /**
+         * 趋势线在测量窗口首尾样本之间的增长
+         */
+        private final double growth;
+        private final long maxGrowth;
+
+        private Trend(String probe, int samples, long first, long last, long max, double slopePerMinute,
+                      double growth, long maxGrowth) {
+            this.probe = probe;
+            this.samples = samples;
+            this.first = first;
+            this.last = last;
+            this.max = max;
+            this.slopePerMinute = slopePerMinute;
+            this.growth = growth;
+            this.maxGrowth = maxGrowth;
+        }
+
+        public boolean isExceeded() {
+            return growth > maxGrowth;
+        }
+
+        static Trend fit(String probe, List<SoakSample> samples, long maxGrowth) {
+            int n = samples.size();
+            if (n == 0) {
+                return new Trend(probe, 0, 0, 0, 0, 0, 0, maxGrowth);
+            }
+            // 以分钟为横轴，减去首个样本时间避免大数相减损失精度
+            long origin = samples.get(0).getElapsedNanos();
+            double sumX = 0;
+            double sumY = 0;
+            long max = Long.MIN_VALUE;
+            for (SoakSample sample : samples) {
+                sumX += (sample.getElapsedNanos() - origin) / 60e9;
+                sumY += sample.getValue(probe);
+                max = Math.max(max, sample.getValue(probe));
+            }
+            double meanX = sumX / n;
+            double meanY = sumY / n;
+            double covariance = 0;
+            double variance = 0;
+            for (SoakSample sample : samples) {
+                double dx = (sample.getElapsedNanos() - origin) / 60e9 - meanX;
+                covariance += dx * (sample.getValue(probe) - meanY);
+                variance += dx * dx;
+            }
+            double slope = variance == 0 ? 0 : covariance / variance;
+            double spanMinutes = (samples.get(n - 1).getElapsedNanos() - origin) / 60e9;
+            return new Trend(probe, n, samples.get(0).getValue(probe), samples.get(n - 1).getValue(probe), max,
+                    slope, slope * spanMinutes, maxGrowth);
+        }
+    }
+}
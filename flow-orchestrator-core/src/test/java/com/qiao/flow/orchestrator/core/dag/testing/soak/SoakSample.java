@@ -0,0 +1,26 @@
+package com.qiao.flow.orchestrator.core.dag.testing.soak;
+
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 一次采样：距soak开始的时间和各指标的值
+ *
+ * @author qiao
+ */
+@Getter
+public class SoakSample {
+
+    private final long elapsedNanos;
+    private final Map<String, Long> values;
+
+    SoakSample(long elapsedNanos, Map<String, Long> values) {
+        this.elapsedNanos = elapsedNanos;
+        this.values = values;
+    }
+
+    public long getValue(String probe) {
+        return values.get(probe);
+    }
+}
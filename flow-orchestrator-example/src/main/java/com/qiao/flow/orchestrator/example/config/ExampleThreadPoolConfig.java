@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Example线程池配置
@@ -16,6 +17,10 @@ import java.util.concurrent.ThreadFactory;
 @Component
 public class ExampleThreadPoolConfig implements ThreadPoolConfig {
 
+    // 每个OPS隔离线程池的线程数和队列长度
+    private static final int OPS_POOL_SIZE = 16;
+    private static final int OPS_QUEUE_SIZE = 100;
+
     @Override
     public ExecutorService getDagCpuThreadPool() {
         return new java.util.concurrent.ThreadPoolExecutor(
@@ -41,21 +46,59 @@ public class ExampleThreadPoolConfig implements ThreadPoolConfig {
         return Executors.newThreadPerTaskExecutor(factory);
     }
 
+    @Override
+    public ExecutorService getDagHeavyCpuThreadPool() {
+        // 重计算节点单独使用一个小的有界线程池，不与普通CPU节点争抢线程
+        int size = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new java.util.concurrent.ThreadPoolExecutor(
+                size, size,
+                60L, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.LinkedBlockingQueue<>(100),
+                new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, "example-dag-heavy-cpu-" + counter.incrementAndGet());
+                    }
+                },
+                new java.util.concurrent.ThreadPoolExecutor.CallerRunsPolicy()
+        );
+    }
+
     @Override
     public ExecutorService getOpsItemDimensionThreadPool() {
-        ThreadFactory factory = Thread.ofVirtual().name("example-ops-item-", 1).factory();
-        return Executors.newThreadPerTaskExecutor(factory);
+        return opsThreadPool("example-ops-item-");
     }
 
     @Override
     public ExecutorService getOpsFactorThreadPool() {
-        ThreadFactory factory = Thread.ofVirtual().name("example-ops-factor-", 1).factory();
-        return Executors.newThreadPerTaskExecutor(factory);
+        return opsThreadPool("example-ops-factor-");
     }
 
     @Override
     public ExecutorService getOpsContextDimensionThreadPool() {
-        ThreadFactory factory = Thread.ofVirtual().name("example-ops-context-", 1).factory();
-        return Executors.newThreadPerTaskExecutor(factory);
+        return opsThreadPool("example-ops-context-");
+    }
+
+    /**
+     * OPS隔离线程池：线程数和队列都有上限，下游变慢时占用的线程不会无限增长；
+     * 线程和队列都满时直接拒绝，由引擎记为节点失败，不回落到提交线程（共享CPU线程或请求线程）上执行
+     */
+    private static ExecutorService opsThreadPool(String prefix) {
+        return new java.util.concurrent.ThreadPoolExecutor(
+                OPS_POOL_SIZE, OPS_POOL_SIZE,
+                60L, java.util.concurrent.TimeUnit.SECONDS,
+                new java.util.concurrent.LinkedBlockingQueue<>(OPS_QUEUE_SIZE),
+                new ThreadFactory() {
+                    private final AtomicInteger counter = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        return new Thread(r, prefix + counter.incrementAndGet());
+                    }
+                },
+                new java.util.concurrent.ThreadPoolExecutor.AbortPolicy()
+        );
     }
 }
@@ -0,0 +1,38 @@
+package com.qiao.flow.orchestrator.example.constants;
+
+import com.qiao.flow.orchestrator.core.dag.context.ContextKey;
+import com.qiao.flow.orchestrator.core.dag.context.DoubleKey;
+
+/**
+ * 上下文数据键常量类
+ * 节点之间通过这些键传递数据，按槽位存取，不需要按名称查找和强制类型转换
+ *
+ * @author qiao
+ */
+public class ContextKeys {
+
+    /**
+     * 开关是否打开，决定走默认排序还是算法排序
+     */
+    public static final ContextKey<Boolean> SWITCH_ENABLED = ContextKey.of("switchEnabled", Boolean.class);
+
+    /**
+     * 选中的排序算法（blackBox、whiteBox）
+     */
+    public static final ContextKey<String> SELECTED_ALGORITHM = ContextKey.of("selectedAlgorithm", String.class);
+
+    /**
+     * 特征平台分数
+     */
+    public static final DoubleKey PLATFORM_SCORE = DoubleKey.of("platformScore");
+
+    /**
+     * CTR因子
+     */
+    public static final DoubleKey CTR_FACTOR = DoubleKey.of("ctrFactor");
+
+    // 私有构造函数，防止实例化
+    private ContextKeys() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
@@ -2,14 +2,18 @@ package com.qiao.flow.orchestrator.example.entity;
 
 import lombok.Data;
 
+import java.io.Serializable;
+
 /**
  * 示例上下文信息
- * 用于演示 DAG 框架的使用
+ * 用于演示 DAG 框架的使用，实现Serializable以支持执行录制
  *
  * @author qiao
  */
 @Data
-public class ExampleContext {
+public class ExampleContext implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     /**
      * 用户ID
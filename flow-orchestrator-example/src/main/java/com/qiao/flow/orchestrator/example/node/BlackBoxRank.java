@@ -16,7 +16,7 @@ import org.springframework.stereotype.Component;
 @Component
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
-        type = NodeType.CPU,
+        type = NodeType.HEAVY_CPU,
         dependsOn = {SelectAlgorithm.class}
 )
 public class BlackBoxRank implements Node<ExampleContext> {
@@ -4,6 +4,7 @@ import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +17,7 @@ import org.springframework.stereotype.Component;
 @Component
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
-        type = NodeType.IO,
+        type = NodeType.INLINE,
         start = true,
         chooser = CheckSwitchBranchChooser.class
 )
@@ -45,7 +46,7 @@ public class CheckSwitch implements Node<ExampleContext> {
                 break;
         }
 
-        context.putData("switchEnabled", isEnabled);
+        context.put(ContextKeys.SWITCH_ENABLED, isEnabled);
 
         log.info("✅ 开关检查完成: enabled={}, userId={}", isEnabled, userId);
     }
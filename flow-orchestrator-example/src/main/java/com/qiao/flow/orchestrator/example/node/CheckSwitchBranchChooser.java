@@ -3,6 +3,7 @@ package com.qiao.flow.orchestrator.example.node;
 import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import org.springframework.stereotype.Component;
 
@@ -17,7 +18,7 @@ public class CheckSwitchBranchChooser implements IChoose<ExampleContext> {
     @Override
     public Set<Class<? extends Node<?>>> chooseNext(ExampleContext input, DagContext context) {
         // 根据开关状态选择分支
-        Boolean switchEnabled = (Boolean) context.getData("switchEnabled");
+        Boolean switchEnabled = context.get(ContextKeys.SWITCH_ENABLED);
         if (switchEnabled != null && switchEnabled) {
             return Set.of(GetVersionInfo.class, ContextDimensionCalculation.class);
         } else {
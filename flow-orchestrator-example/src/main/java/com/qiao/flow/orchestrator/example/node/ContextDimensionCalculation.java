@@ -4,6 +4,7 @@ import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Component;
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
         type = NodeType.IO,
+        executor = MixedThreadPoolManager.OPS_CONTEXT_DIMENSION,
         dependsOn = {GetVersionInfo.class}
 )
 public class ContextDimensionCalculation implements Node<ExampleContext> {
@@ -4,6 +4,7 @@ import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
@@ -27,7 +28,7 @@ public class CtrFactor implements Node<ExampleContext> {
 
         // 模拟CTR因子计算
         double ctrFactor = 0.85;
-        context.putData("ctrFactor", ctrFactor);
+        context.putDouble(ContextKeys.CTR_FACTOR, ctrFactor);
 
         log.info("✅ CTR因子计算完成: factor={}", ctrFactor);
     }
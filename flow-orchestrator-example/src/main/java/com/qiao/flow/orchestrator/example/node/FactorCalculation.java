@@ -4,6 +4,7 @@ import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +21,7 @@ import java.util.Map;
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
         type = NodeType.IO,
+        executor = MixedThreadPoolManager.OPS_FACTOR,
         dependsOn = {AssembleFeatureDimensions.class}
 )
 public class FactorCalculation implements Node<ExampleContext> {
@@ -2,15 +2,19 @@ package com.qiao.flow.orchestrator.example.node;
 
 import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
-import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.BatchNode;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * 特征平台分数节点
+ * 实现BatchNode：批量模式下一次请求特征平台拿到整批分数，单条模式下按大小为1的批次执行
  */
 @Slf4j
 @Component
@@ -19,21 +23,24 @@ import org.springframework.stereotype.Component;
         type = NodeType.IO,
         dependsOn = {MergeOperatorResult.class}
 )
-public class FeaturePlatformScore implements Node<ExampleContext> {
+public class FeaturePlatformScore implements BatchNode<ExampleContext> {
 
     @Override
-    public void execute(ExampleContext contextInfo, DagContext context, String nodeId) throws Exception {
-        log.info("🚀 开始特征平台分数计算，节点ID: {}", nodeId);
+    public void executeBatch(List<ExampleContext> contextInfos, List<DagContext> contexts, String nodeId) throws Exception {
+        log.info("🚀 开始特征平台分数计算，节点ID: {}, 批次大小: {}", nodeId, contextInfos.size());
 
-        // 模拟特征平台分数计算
-        double platformScore = 0.92;
+        // 模拟特征平台批量分数计算
+        for (int i = 0; i < contextInfos.size(); i++) {
+            double platformScore = 0.92;
+            DagContext context = contexts.get(i);
 
-        // 使用新的API：显式传递nodeId
-        context.putNodeResult(nodeId, platformScore);
+            // 使用新的API：显式传递nodeId
+            context.putNodeResult(nodeId, platformScore);
 
-        // 也可以使用通用数据存储
-        context.putData("platformScore", platformScore);
+            // 也可以使用上下文数据键，分数存放在基本类型槽位中不装箱
+            context.putDouble(ContextKeys.PLATFORM_SCORE, platformScore);
+        }
 
-        log.info("✅ 特征平台分数计算完成: score={}", platformScore);
+        log.info("✅ 特征平台分数计算完成: count={}", contextInfos.size());
     }
 }
@@ -2,33 +2,39 @@ package com.qiao.flow.orchestrator.example.node;
 
 import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
-import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 获取版本信息节点
+ * 异步节点示例：模拟异步客户端调用，等待响应期间不占用线程
  */
 @Slf4j
 @Component
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
-        type = NodeType.IO,
+        type = NodeType.ASYNC_IO,
         dependsOn = {CheckSwitch.class}
 )
-public class GetVersionInfo implements Node<ExampleContext> {
+public class GetVersionInfo implements AsyncNode<ExampleContext> {
 
     @Override
-    public void execute(ExampleContext contextInfo, DagContext context, String nodeId) throws Exception {
+    public CompletionStage<?> executeAsync(ExampleContext contextInfo, DagContext context, String nodeId) {
         log.info("🚀 开始获取版本信息");
 
-        // 模拟获取版本信息
-        String version = "v2.1.0";
-        context.putData("version", version);
-
-        log.info("✅ 版本信息获取完成: version={}", version);
+        // 模拟异步获取版本信息，响应在5ms后到达
+        return CompletableFuture.supplyAsync(() -> "v2.1.0", CompletableFuture.delayedExecutor(5, TimeUnit.MILLISECONDS))
+                .thenAccept(version -> {
+                    context.putData("version", version);
+                    log.info("✅ 版本信息获取完成: version={}", version);
+                });
     }
 }
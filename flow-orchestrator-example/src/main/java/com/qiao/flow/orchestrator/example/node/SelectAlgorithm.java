@@ -4,6 +4,7 @@ import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
 import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
@@ -42,7 +43,7 @@ public class SelectAlgorithm implements Node<ExampleContext> {
                 break;
         }
 
-        context.putData("selectedAlgorithm", selectedAlgorithm);
+        context.put(ContextKeys.SELECTED_ALGORITHM, selectedAlgorithm);
 
         log.info("✅ 算法选择完成: algorithm={}, userId={}", selectedAlgorithm, userId);
     }
@@ -3,6 +3,7 @@ package com.qiao.flow.orchestrator.example.node;
 import com.qiao.flow.orchestrator.core.dag.callback.IChoose;
 import com.qiao.flow.orchestrator.core.dag.context.DagContext;
 import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.example.constants.ContextKeys;
 import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import org.springframework.stereotype.Component;
 
@@ -17,7 +18,7 @@ public class SelectAlgorithmBranchChooser implements IChoose<ExampleContext> {
     @Override
     public Set<Class<? extends Node<?>>> chooseNext(ExampleContext input, DagContext context) {
         // 根据算法选择结果选择分支
-        String selectedAlgorithm = (String) context.getData("selectedAlgorithm");
+        String selectedAlgorithm = context.get(ContextKeys.SELECTED_ALGORITHM);
         if ("whiteBox".equals(selectedAlgorithm)) {
             return Set.of(WhiteBoxRank.class);
         } else if ("blackBox".equals(selectedAlgorithm)) {
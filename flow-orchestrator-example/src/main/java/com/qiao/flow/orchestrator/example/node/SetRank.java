@@ -16,7 +16,7 @@ import org.springframework.stereotype.Component;
 @Component
 @NodeConfig(
         workflow = WorkflowNames.AD_RANKING,
-        type = NodeType.CPU,
+        type = NodeType.INLINE,
         dependsOn = {ManualRank.class}
 )
 public class SetRank implements Node<ExampleContext> {
@@ -6,6 +6,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Service
 public class AdRankingService {
@@ -40,6 +43,35 @@ public class AdRankingService {
         return level;
     }
 
+    /**
+     * 批量执行广告排序（离线回填场景）
+     * 整批用户共享一次调度，返回与输入顺序一致的用户级别
+     */
+    public List<String> executeBatch(List<String> userIds) {
+        long startTime = System.currentTimeMillis();
+        log.info("AdRankingService executeBatch started, batch size: {}", userIds.size());
+
+        List<ExampleContext> contextInfos = new ArrayList<>(userIds.size());
+        for (String userId : userIds) {
+            ExampleContext contextInfo = new ExampleContext();
+            contextInfo.setUserId(userId);
+            initContext(contextInfo);
+            contextInfos.add(contextInfo);
+        }
+
+        dagAutoRunner.executeWorkflowBatch("adRanking", contextInfos, this::handleException);
+
+        List<String> levels = new ArrayList<>(contextInfos.size());
+        for (ExampleContext contextInfo : contextInfos) {
+            contextConvertResponse(contextInfo);
+            levels.add(contextInfo.getUserLevel());
+        }
+
+        long endTime = System.currentTimeMillis();
+        log.info("AdRankingService executeBatch completed, execution time: {}ms", endTime - startTime);
+        return levels;
+    }
+
     /**
      * 处理异常
      */
@@ -1,11 +1,30 @@
 package com.qiao.flow.orchestrator.example.service;
 
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagBatchEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
 import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * adRanking模拟服务测试类
  * 测试DAG框架的CPU和IO节点以及分支选择功能
@@ -17,6 +36,9 @@ public class AdRankingServiceTest {
     @Autowired
     AdRankingService adRankingService;
 
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
     /**
      * 测试分支A - 默认排序 (userId = "a")
      */
@@ -53,4 +75,99 @@ public class AdRankingServiceTest {
         log.info("✅ 分支C测试完成");
     }
 
+    /**
+     * 测试批量执行 - 同一批次覆盖三个分支 (userId = a/b/c)
+     * 每条输入的执行结果、节点状态和上下文数据与逐条执行一致
+     */
+    @Test
+    public void testAdRankingBatch() throws Exception {
+        log.info("🧪 === 开始测试批量执行 (userId=a,b,c) ===");
+        List<String> userIds = List.of("a", "b", "c");
+        List<String> levels = adRankingService.executeBatch(userIds);
+        assertEquals(userIds.size(), levels.size());
+        for (int i = 0; i < userIds.size(); i++) {
+            assertEquals(adRankingService.execute(userIds.get(i)), levels.get(i), "userId=" + userIds.get(i));
+        }
+
+        // 在同一配置上分别用批量引擎和逐条执行使用的DagEngine执行，对比每条输入
+        DagEngineConfig config = dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING);
+        List<ExampleContext> batchInputs = new ArrayList<>();
+        List<DagContext> batchContexts = new ArrayList<>();
+        for (String userId : userIds) {
+            batchInputs.add(exampleContext(userId));
+            batchContexts.add(new DagContext());
+        }
+        DagBatchEngine<ExampleContext> batchEngine = config.createBatchEngine();
+        batchEngine.execute(batchInputs, batchContexts);
+
+        for (int i = 0; i < userIds.size(); i++) {
+            String item = "userId=" + userIds.get(i);
+            ExampleContext input = exampleContext(userIds.get(i));
+            DagContext dagContext = new DagContext();
+            DagEngine<ExampleContext> engine = config.createEngine();
+            engine.execute(input, dagContext);
+
+            assertEquals(engine.getEx() == null, batchEngine.getEx(i) == null, item);
+            assertEquals(input, withCreateTime(batchInputs.get(i), input.getCreateTime()), item);
+            for (String nodeId : config.getNodeMap().keySet()) {
+                assertEquals(nodeState(dagContext, nodeId), nodeState(batchContexts.get(i), nodeId), item + ", node=" + nodeId);
+            }
+            assertEquals(dataSnapshot(dagContext), dataSnapshot(batchContexts.get(i)), item);
+        }
+        log.info("levels {}", levels);
+        log.info("✅ 批量执行测试完成");
+    }
+
+    private static ExampleContext exampleContext(String userId) {
+        ExampleContext contextInfo = new ExampleContext();
+        contextInfo.setUserId(userId);
+        return contextInfo;
+    }
+
+    private static ExampleContext withCreateTime(ExampleContext contextInfo, long createTime) {
+        contextInfo.setCreateTime(createTime);
+        return contextInfo;
+    }
+
+    private static NodeState nodeState(DagContext dagContext, String nodeId) {
+        NodeResult<?> result = dagContext.getResult(nodeId);
+        return result == null ? null : result.getState();
+    }
+
+    /**
+     * 上下文数据快照，示例节点写入的"前缀_时间戳"只比较前缀
+     */
+    private static Map<String, Object> dataSnapshot(DagContext dagContext) {
+        Map<String, Object> snapshot = new TreeMap<>();
+        dagContext.forEachData((key, value) -> snapshot.put(key,
+                value instanceof String text ? text.replaceAll("_\\d+$", "_") : value));
+        return snapshot;
+    }
+
+    /**
+     * 测试结构化并发模式 - 三个分支均无异常执行完成 (userId = a/b/c)
+     */
+    @Test
+    public void testAdRankingStructured() throws Exception {
+        log.info("🧪 === 开始测试结构化并发模式 (userId=a,b,c) ===");
+        dagAutoRunner.setExecutionMode(ExecutionMode.STRUCTURED);
+        try {
+            for (String userId : List.of("a", "b", "c")) {
+                ExampleContext contextInfo = new ExampleContext();
+                contextInfo.setUserId(userId);
+                AtomicReference<Exception> failure = new AtomicReference<>();
+                AtomicBoolean afterCalled = new AtomicBoolean();
+                dagAutoRunner.executeWorkflow(WorkflowNames.AD_RANKING, contextInfo,
+                        (exception, input, dagContext) -> failure.set(exception),
+                        () -> {
+                        },
+                        () -> afterCalled.set(true));
+                assertNull(failure.get(), "userId=" + userId);
+                assertTrue(afterCalled.get());
+            }
+        } finally {
+            dagAutoRunner.setExecutionMode(ExecutionMode.WAVE);
+        }
+        log.info("✅ 结构化并发模式测试完成");
+    }
 }
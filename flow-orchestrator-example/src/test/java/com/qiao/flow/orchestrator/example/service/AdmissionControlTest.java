@@ -0,0 +1,276 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdaptiveConcurrencyLimiter;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionLimit;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionStats;
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowAdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowRejectedException;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 准入控制测试类
+ * 验证并发上限、有界等待队列、排队顺序、排队超时、快速拒绝、许可只能归还一次与自适应并发上限（失败的执行不计入延迟样本）
+ */
+@Slf4j
+public class AdmissionControlTest {
+
+    /**
+     * 测试并发已满且队列已满时快速拒绝
+     */
+    @Test
+    public void testRejectWhenQueueFull() {
+        log.info("🧪 === 开始测试队列已满快速拒绝 ===");
+        WorkflowAdmissionController controller = new WorkflowAdmissionController(new AdmissionLimit(1, 0, 0));
+
+        AdmissionController.AdmissionPermit permit = controller.acquire(WorkflowNames.AD_RANKING);
+        WorkflowRejectedException ex = assertThrows(WorkflowRejectedException.class,
+                () -> controller.acquire(WorkflowNames.AD_RANKING));
+        assertEquals(WorkflowRejectedException.Reason.QUEUE_FULL, ex.getReason());
+
+        permit.release();
+        controller.acquire(WorkflowNames.AD_RANKING).release();
+
+        AdmissionStats stats = controller.getStats(WorkflowNames.AD_RANKING);
+        log.info("stats {}", stats);
+        assertEquals(2, stats.getAdmitted());
+        assertEquals(1, stats.getRejected());
+        assertEquals(0, stats.getInFlight());
+        log.info("✅ 队列已满快速拒绝测试完成");
+    }
+
+    /**
+     * 测试重复归还同一许可不会放大并发上限
+     */
+    @Test
+    public void testDoubleReleaseIgnored() {
+        WorkflowAdmissionController controller = new WorkflowAdmissionController(new AdmissionLimit(1, 0, 0));
+        AdmissionController.AdmissionPermit permit = controller.acquire(WorkflowNames.AD_RANKING);
+        permit.release();
+        permit.release();
+        AdmissionController.AdmissionPermit next = controller.acquire(WorkflowNames.AD_RANKING);
+        assertThrows(WorkflowRejectedException.class, () -> controller.acquire(WorkflowNames.AD_RANKING));
+        assertEquals(1, controller.getStats(WorkflowNames.AD_RANKING).getInFlight());
+        next.release();
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiter.Settings(1, 1, 1, 1.0, 1.5, 1000, 1, 1000));
+        permit = limiter.acquire(WorkflowNames.AD_RANKING);
+        permit.release();
+        permit.release();
+        assertEquals(0, limiter.getStats(WorkflowNames.AD_RANKING).getInFlight());
+        next = limiter.acquire(WorkflowNames.AD_RANKING);
+        assertThrows(WorkflowRejectedException.class, () -> limiter.acquire(WorkflowNames.AD_RANKING));
+        next.release();
+    }
+
+    /**
+     * 测试排队等待：许可归还后排队请求被准入，等待过久则超时
+     */
+    @Test
+    public void testQueueWaitAndTimeout() throws Exception {
+        log.info("🧪 === 开始测试排队等待与超时 ===");
+        WorkflowAdmissionController controller = new WorkflowAdmissionController(new AdmissionLimit(1, 1, 2000));
+
+        AdmissionController.AdmissionPermit permit = controller.acquire(WorkflowNames.AD_RANKING);
+        CountDownLatch queuedLatch = new CountDownLatch(1);
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            queuedLatch.countDown();
+            controller.acquire(WorkflowNames.AD_RANKING).release();
+        });
+
+        // 等待请求进入队列
+        queuedLatch.await();
+        while (controller.getStats(WorkflowNames.AD_RANKING).getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThrows(WorkflowRejectedException.class, () -> controller.acquire(WorkflowNames.AD_RANKING));
+
+        permit.release();
+        waiter.get(5, TimeUnit.SECONDS);
+
+        // 排队超时
+        WorkflowAdmissionController timeoutController = new WorkflowAdmissionController(
+                new AdmissionLimit(1, 1, 2000),
+                Map.of(WorkflowNames.CRUISE_PRODUCT_RANKING, new AdmissionLimit(1, 1, 10)));
+        AdmissionController.AdmissionPermit held = timeoutController.acquire(WorkflowNames.CRUISE_PRODUCT_RANKING);
+        WorkflowRejectedException ex = assertThrows(WorkflowRejectedException.class,
+                () -> timeoutController.acquire(WorkflowNames.CRUISE_PRODUCT_RANKING));
+        assertEquals(WorkflowRejectedException.Reason.QUEUE_TIMEOUT, ex.getReason());
+        held.release();
+
+        log.info("stats {}", controller.getAllStats());
+        log.info("stats {}", timeoutController.getAllStats());
+        assertEquals(1, timeoutController.getStats(WorkflowNames.CRUISE_PRODUCT_RANKING).getTimedOut());
+        log.info("✅ 排队等待与超时测试完成");
+    }
+
+    /**
+     * 测试许可归还后由排队请求先获得，新到达的请求不能插队
+     */
+    @Test
+    public void testQueuedRequestNotOvertaken() throws Exception {
+        WorkflowAdmissionController controller = new WorkflowAdmissionController(new AdmissionLimit(1, 2, 2000));
+        List<String> admissionOrder = new CopyOnWriteArrayList<>();
+
+        AdmissionController.AdmissionPermit permit = controller.acquire(WorkflowNames.AD_RANKING);
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> {
+            AdmissionController.AdmissionPermit queuedPermit = controller.acquire(WorkflowNames.AD_RANKING);
+            admissionOrder.add("queued");
+            queuedPermit.release();
+        });
+        while (controller.getStats(WorkflowNames.AD_RANKING).getQueued() == 0) {
+            Thread.onSpinWait();
+        }
+        // 留出时间让排队请求进入信号量的等待队列
+        Thread.sleep(50);
+
+        permit.release();
+        AdmissionController.AdmissionPermit arrival = controller.acquire(WorkflowNames.AD_RANKING);
+        admissionOrder.add("arrival");
+        arrival.release();
+        waiter.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of("queued", "arrival"), admissionOrder);
+    }
+
+    /**
+     * 测试带着中断标志的调用方在许可空闲时照常准入，中断标志保留
+     */
+    @Test
+    public void testInterruptedCallerAdmittedWhenFree() {
+        WorkflowAdmissionController controller = new WorkflowAdmissionController(new AdmissionLimit(1, 1, 2000));
+        Thread.currentThread().interrupt();
+        try {
+            controller.acquire(WorkflowNames.AD_RANKING).release();
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+        AdmissionStats stats = controller.getStats(WorkflowNames.AD_RANKING);
+        assertEquals(1, stats.getAdmitted());
+        assertEquals(0, stats.getRejected());
+    }
+
+    /**
+     * 测试自适应并发上限：延迟接近基线时扩容，延迟升高后收缩
+     */
+    @Test
+    public void testAdaptiveLimit() throws Exception {
+        log.info("🧪 === 开始测试自适应并发上限 ===");
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiter.Settings(4, 2, 64, 1.0, 1.5, 20, 1, 1000));
+        String workflow = WorkflowNames.AD_RANKING;
+
+        // 超过初始上限立即拒绝
+        AdmissionController.AdmissionPermit[] held = new AdmissionController.AdmissionPermit[4];
+        for (int i = 0; i < held.length; i++) {
+            held[i] = limiter.acquire(workflow);
+        }
+        WorkflowRejectedException ex = assertThrows(WorkflowRejectedException.class, () -> limiter.acquire(workflow));
+        assertEquals(WorkflowRejectedException.Reason.LIMIT_EXCEEDED, ex.getReason());
+        for (AdmissionController.AdmissionPermit permit : held) {
+            permit.release();
+        }
+
+        // 低延迟饱和负载：上限增长
+        runLoad(limiter, workflow, 16, 1, 400);
+        int grown = limiter.getCurrentLimit(workflow);
+        log.info("limit after fast load: {}, baseline: {}us", grown, limiter.getBaselineRttNanos(workflow) / 1000);
+        assertTrue(grown > 4, "limit should grow under low latency, actual: " + grown);
+
+        // 延迟升高到基线的数倍：上限收缩
+        runLoad(limiter, workflow, 16, 15, 400);
+        int shrunk = limiter.getCurrentLimit(workflow);
+        AdmissionStats stats = limiter.getStats(workflow);
+        log.info("limit after slow load: {}, stats: {}", shrunk, stats);
+        assertTrue(shrunk < grown, "limit should shrink when latency rises, grown: " + grown + ", shrunk: " + shrunk);
+
+        // 统计快照与限流器状态一致，最近窗口的延迟高于基线
+        assertEquals(shrunk, stats.getLimit());
+        assertEquals(0, stats.getInFlight());
+        assertEquals(limiter.getBaselineRttNanos(workflow), stats.getBaselineRttNanos());
+        assertTrue(stats.getSampleRttNanos() > stats.getBaselineRttNanos(), stats.toString());
+        // 过载窗口的延迟不会被当作空载基线
+        assertTrue(stats.getBaselineRttNanos() < TimeUnit.MILLISECONDS.toNanos(5), stats.toString());
+        log.info("✅ 自适应并发上限测试完成");
+    }
+
+    /**
+     * 测试失败的执行不计入延迟样本，快速失败不会拉低基线、抬高上限
+     */
+    @Test
+    public void testFailedExecutionsNotSampled() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                new AdaptiveConcurrencyLimiter.Settings(4, 2, 64, 1.0, 1.5, 20, 1, 1000));
+        String workflow = WorkflowNames.AD_RANKING;
+        runLoad(limiter, workflow, 4, 5, 200);
+        // 等当前窗口结束后归还一次，先结算压测留下的成功样本
+        Thread.sleep(25);
+        limiter.acquire(workflow).release(false);
+        long baseline = limiter.getBaselineRttNanos(workflow);
+        int limit = limiter.getCurrentLimit(workflow);
+        long sampleRtt = limiter.getStats(workflow).getSampleRttNanos();
+        assertTrue(baseline >= TimeUnit.MILLISECONDS.toNanos(5), "baseline: " + baseline);
+
+        // 下游立即报错：许可以失败归还
+        long deadline = System.currentTimeMillis() + 200;
+        while (System.currentTimeMillis() < deadline) {
+            limiter.acquire(workflow).release(false);
+        }
+        AdmissionStats stats = limiter.getStats(workflow);
+        log.info("after fast failures: {}", stats);
+        assertEquals(baseline, stats.getBaselineRttNanos());
+        assertEquals(sampleRtt, stats.getSampleRttNanos());
+        assertEquals(limit, stats.getLimit());
+    }
+
+    /**
+     * 以固定并发持续施压，每次执行耗时latencyMs，被拒绝的请求立即重试
+     */
+    private void runLoad(AdaptiveConcurrencyLimiter limiter, String workflow, int threads,
+                         long latencyMs, long durationMs) throws Exception {
+        long deadline = System.currentTimeMillis() + durationMs;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletableFuture<?>[] workers = new CompletableFuture<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                workers[i] = CompletableFuture.runAsync(() -> {
+                    while (System.currentTimeMillis() < deadline) {
+                        AdmissionController.AdmissionPermit permit;
+                        try {
+                            permit = limiter.acquire(workflow);
+                        } catch (WorkflowRejectedException e) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        try {
+                            Thread.sleep(latencyMs);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } finally {
+                            permit.release();
+                        }
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(workers).get(durationMs + 5000, TimeUnit.MILLISECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagBatchEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 异步节点测试类
+ * 验证AsyncNode由stage回调完成、大量并发异步调用不占用线程池线程、异常完成时DAG失败、永不完成时DAG超时，
+ * 以及批量执行时逐条并发发起请求
+ */
+@Slf4j
+public class AsyncNodeTest {
+
+    private static final String WORKFLOW = "asyncTest";
+    private static final int FAN_OUT = 500;
+    private static final long DOWNSTREAM_LATENCY_MS = 50;
+
+    private ThreadPoolFixture pools;
+
+    @BeforeEach
+    public void setUp() {
+        // 线程池只有一个线程：如果异步节点占用线程等待，500个下游调用会串行执行
+        pools = ThreadPoolFixture.of(Executors.newSingleThreadExecutor(), Executors.newSingleThreadExecutor());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pools.close();
+    }
+
+    /**
+     * 测试大量异步节点并发完成
+     */
+    @Test
+    public void testAsyncFanOut() {
+        log.info("🧪 === 开始测试异步节点扇出 ===");
+        AtomicInteger completed = new AtomicInteger();
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW).start("start", NodeType.INLINE, WorkflowFixture.NOOP);
+        String[] callNodes = new String[FAN_OUT];
+        for (int i = 0; i < FAN_OUT; i++) {
+            callNodes[i] = "call" + i;
+            AsyncNode<String> node = (param, context, id) -> CompletableFuture
+                    .runAsync(completed::incrementAndGet,
+                            CompletableFuture.delayedExecutor(DOWNSTREAM_LATENCY_MS, TimeUnit.MILLISECONDS));
+            workflow.node(callNodes[i], NodeType.ASYNC_IO, node, "start");
+        }
+        workflow.end("end", NodeType.INLINE, WorkflowFixture.NOOP, callNodes);
+
+        DagEngine<String> engine = workflow.engine(pools.getManager(), 10000L);
+        long start = System.currentTimeMillis();
+        engine.execute("input", new DagContext());
+        long elapsed = System.currentTimeMillis() - start;
+
+        log.info("async fan-out of {} calls finished in {}ms, state: {}", FAN_OUT, elapsed, engine.getDagState());
+        assertEquals(DagState.FINISH, engine.getDagState());
+        assertEquals(FAN_OUT, completed.get());
+        assertTrue(elapsed < FAN_OUT * DOWNSTREAM_LATENCY_MS / 10,
+                "async calls should overlap, elapsed: " + elapsed + "ms");
+        log.info("✅ 异步节点扇出测试完成");
+    }
+
+    /**
+     * 测试异步节点异常完成时DAG失败
+     */
+    @Test
+    public void testAsyncNodeFailure() {
+        log.info("🧪 === 开始测试异步节点异常完成 ===");
+        DagEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("ok", NodeType.ASYNC_IO,
+                        (AsyncNode<String>) (param, context, nodeId) -> CompletableFuture.completedFuture(null), "start")
+                .end("broken", NodeType.ASYNC_IO,
+                        (AsyncNode<String>) (param, context, nodeId) -> CompletableFuture.failedFuture(
+                                new IllegalStateException("downstream unavailable")), "start")
+                .engine(pools.getManager(), 10000L);
+        engine.execute("input", new DagContext());
+
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertInstanceOf(IllegalStateException.class, engine.getEx());
+        assertEquals("downstream unavailable", engine.getEx().getMessage());
+        log.info("✅ 异步节点异常完成测试完成");
+    }
+
+    /**
+     * 测试永不完成的异步节点受DAG超时约束，超时后引擎不再复用
+     */
+    @Test
+    public void testNeverCompletingStageTimesOut() {
+        log.info("🧪 === 开始测试异步节点超时 ===");
+        AsyncNode<String> stuck = (param, context, nodeId) -> new CompletableFuture<>();
+        AsyncNode<String> ok = (param, context, nodeId) -> CompletableFuture.completedFuture(null);
+        // 单独成批与和其他节点同批两种等待路径
+        DagEngineConfig alone = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .end("stuck", NodeType.ASYNC_IO, stuck, "start")
+                .build(pools.getManager(), 200L);
+        DagEngineConfig wide = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("stuck", NodeType.ASYNC_IO, stuck, "start")
+                .node("ok", NodeType.ASYNC_IO, ok, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "stuck", "ok")
+                .build(pools.getManager(), 200L);
+
+        for (DagEngineConfig config : List.of(alone, wide)) {
+            DagEngine<String> engine = config.borrowEngine();
+            long start = System.currentTimeMillis();
+            engine.execute("input", new DagContext());
+            long elapsed = System.currentTimeMillis() - start;
+
+            assertEquals(DagState.ERROR, engine.getDagState());
+            assertEquals("DAG execution timeout", engine.getEx().getMessage());
+            assertTrue(elapsed < 2000, "pending stage should be bounded by the DAG timeout, elapsed: " + elapsed + "ms");
+            assertTrue(engine.isAbandoned());
+            // 仍有stage未完成的引擎不放回空闲队列
+            config.releaseEngine(engine);
+            assertNotSame(engine, config.borrowEngine());
+        }
+        log.info("✅ 异步节点超时测试完成");
+    }
+
+    /**
+     * 测试批量执行时异步节点为每条输入并发发起请求，并受整批超时约束
+     */
+    @Test
+    public void testBatchAsyncNode() {
+        log.info("🧪 === 开始测试批量执行异步节点 ===");
+        int batchSize = 20;
+        AtomicInteger completed = new AtomicInteger();
+        AsyncNode<String> call = (param, context, nodeId) -> "stuck".equals(param)
+                ? new CompletableFuture<>()
+                : CompletableFuture.runAsync(completed::incrementAndGet,
+                CompletableFuture.delayedExecutor(DOWNSTREAM_LATENCY_MS, TimeUnit.MILLISECONDS));
+        // 异步节点单独成批：仍在调度线程上先为所有输入发起请求再统一等待
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("call", NodeType.ASYNC_IO, call, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "call")
+                .build(pools.getManager(), 500L);
+
+        List<String> inputs = new ArrayList<>();
+        List<DagContext> contexts = new ArrayList<>();
+        for (int i = 0; i < batchSize; i++) {
+            inputs.add("input" + i);
+            contexts.add(new DagContext());
+        }
+        DagBatchEngine<String> batchEngine = config.createBatchEngine();
+        long start = System.currentTimeMillis();
+        batchEngine.execute(inputs, contexts);
+        long elapsed = System.currentTimeMillis() - start;
+
+        log.info("batch of {} async calls finished in {}ms", batchSize, elapsed);
+        assertEquals(0, batchEngine.getFailedCount());
+        assertEquals(batchSize, completed.get());
+        assertTrue(elapsed < batchSize * DOWNSTREAM_LATENCY_MS / 2,
+                "async calls should overlap, elapsed: " + elapsed + "ms");
+
+        // 永不完成的stage在整批截止时间失败，本批上下文不再复用
+        batchEngine = config.createBatchEngine();
+        start = System.currentTimeMillis();
+        batchEngine.execute(List.of("input", "stuck"), List.of(new DagContext(), new DagContext()));
+        elapsed = System.currentTimeMillis() - start;
+
+        assertTrue(elapsed < 2000, "pending stage should be bounded by the batch timeout, elapsed: " + elapsed + "ms");
+        assertTrue(batchEngine.isAbandoned());
+        assertEquals(2, batchEngine.getFailedCount());
+        assertEquals("DAG execution timeout", batchEngine.getEx(1).getMessage());
+        log.info("✅ 批量执行异步节点测试完成");
+    }
+}
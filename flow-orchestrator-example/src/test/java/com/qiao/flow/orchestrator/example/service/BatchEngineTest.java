@@ -0,0 +1,180 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagBatchEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.NodeMetrics;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 批量引擎测试类
+ * 验证整批共用DagEngineConfig的超时、线程池拒绝、节点失败计数，以及执行前后回调每批各执行一次
+ */
+@Slf4j
+public class BatchEngineTest {
+
+    private static final String WORKFLOW = "batchEngineTest";
+    private static final String BAD_INPUT = "bad";
+
+    private ThreadPoolFixture pools;
+    private final AtomicInteger endCount = new AtomicInteger();
+    private final Node<String> failOnBad = (param, context, nodeId) -> {
+        if (BAD_INPUT.equals(param)) {
+            throw new IllegalArgumentException("bad input");
+        }
+    };
+    private final Node<String> countEnd = (param, context, nodeId) -> endCount.incrementAndGet();
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    public void testTimeoutFailsRemainingItems() {
+        CountDownLatch release = new CountDownLatch(1);
+        Node<String> slow = (param, context, nodeId) -> {
+            if (!release.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("slow node was never released");
+            }
+        };
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, failOnBad)
+                .node("slow", NodeType.IO, slow, "start")
+                .node("fast", NodeType.CPU, WorkflowFixture.NOOP, "start")
+                .end("end", NodeType.INLINE, countEnd, "slow", "fast")
+                .build(pools.getManager(), 500L);
+
+        DagBatchEngine<String> batchEngine = config.createBatchEngine();
+        long startNanos = System.nanoTime();
+        try {
+            batchEngine.execute(List.of("a", BAD_INPUT, "c"), List.of(new DagContext(), new DagContext(), new DagContext()));
+        } finally {
+            release.countDown();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        log.info("📊 batch timed out after {}ms", elapsedMs);
+
+        // 整批在截止时间返回，不等待未结束的节点
+        assertTrue(elapsedMs < 2000, "elapsed " + elapsedMs + "ms");
+        assertTrue(batchEngine.isAbandoned());
+        assertEquals(3, batchEngine.getFailedCount());
+        assertEquals("DAG execution timeout", batchEngine.getEx(0).getMessage());
+        assertEquals("DAG execution timeout", batchEngine.getEx(2).getMessage());
+        // 超时前已失败的输入保留自己的异常
+        assertInstanceOf(IllegalArgumentException.class, batchEngine.getEx(1));
+        assertEquals(0, endCount.get());
+    }
+
+    @Test
+    public void testRejectedNodeFailsItsItems() {
+        ExecutorService rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+        pools.getManager().registerExecutor("rejecting", rejecting);
+        AtomicInteger fastCount = new AtomicInteger();
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("rejected", NodeType.IO, "rejecting", WorkflowFixture.NOOP, "start")
+                .node("fast", NodeType.CPU, (param, context, nodeId) -> fastCount.incrementAndGet(), "start")
+                .end("end", NodeType.INLINE, countEnd, "rejected", "fast")
+                .build(pools.getManager(), 5000L);
+        AtomicInteger after = new AtomicInteger();
+
+        DagBatchEngine<String> batchEngine = config.createBatchEngine();
+        batchEngine.setAfterCallback(after::incrementAndGet);
+        batchEngine.execute(List.of("a", "b"), List.of(new DagContext(), new DagContext()));
+
+        // 拒绝不向外抛出：被拒绝节点的输入失败，同层已派发的节点照常结束，后回调照常执行
+        assertFalse(batchEngine.isAbandoned());
+        assertEquals(2, batchEngine.getFailedCount());
+        assertInstanceOf(RejectedExecutionException.class, batchEngine.getEx(0));
+        assertInstanceOf(RejectedExecutionException.class, batchEngine.getEx(1));
+        assertEquals(2, fastCount.get());
+        assertEquals(1, after.get());
+        assertEquals(0, endCount.get());
+    }
+
+    @Test
+    public void testNodeMetricsCountFailureOfAnyItem() {
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, failOnBad)
+                .end("end", NodeType.INLINE, countEnd, "start")
+                .build(pools.getManager(), 5000L);
+        NodeMetrics start = DagMetrics.node(WORKFLOW, "start");
+        long successBefore = start.getSuccess().sum();
+        long failureBefore = start.getFailure().sum();
+
+        // 首条输入成功、后面的输入失败时，本次调度仍记为失败
+        config.<String>createBatchEngine().execute(List.of("a", BAD_INPUT), List.of(new DagContext(), new DagContext()));
+        assertEquals(0, start.getSuccess().sum() - successBefore);
+        assertEquals(1, start.getFailure().sum() - failureBefore);
+    }
+
+    @Test
+    public void testCallbacksOncePerBatch() {
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, failOnBad)
+                .node("fetch", NodeType.IO, WorkflowFixture.NOOP, "start")
+                .end("end", NodeType.INLINE, countEnd, "fetch")
+                .build(pools.getManager(), 5000L);
+        AtomicInteger before = new AtomicInteger();
+        AtomicInteger after = new AtomicInteger();
+
+        DagBatchEngine<String> batchEngine = config.createBatchEngine();
+        batchEngine.setBeforeCallback(before::incrementAndGet);
+        batchEngine.setAfterCallback(after::incrementAndGet);
+        batchEngine.execute(List.of("a", BAD_INPUT, "c"), List.of(new DagContext(), new DagContext(), new DagContext()));
+        assertEquals(1, before.get());
+        assertEquals(1, after.get());
+        assertEquals(1, batchEngine.getFailedCount());
+        assertEquals(2, endCount.get());
+
+        // 前回调失败时整批不执行，也不执行后回调
+        endCount.set(0);
+        IllegalStateException beforeFailure = new IllegalStateException("before failed");
+        batchEngine = config.createBatchEngine();
+        batchEngine.setBeforeCallback(() -> {
+            throw beforeFailure;
+        });
+        batchEngine.setAfterCallback(after::incrementAndGet);
+        batchEngine.execute(List.of("a", "b"), List.of(new DagContext(), new DagContext()));
+        assertSame(beforeFailure, batchEngine.getEx(0));
+        assertSame(beforeFailure, batchEngine.getEx(1));
+        assertEquals(0, endCount.get());
+        assertEquals(1, after.get());
+
+        // 后回调失败时尚未失败的输入以该异常失败
+        IllegalStateException afterFailure = new IllegalStateException("after failed");
+        batchEngine = config.createBatchEngine();
+        batchEngine.setAfterCallback(() -> {
+            throw afterFailure;
+        });
+        batchEngine.execute(List.of("a", BAD_INPUT), List.of(new DagContext(), new DagContext()));
+        assertSame(afterFailure, batchEngine.getEx(0));
+        assertInstanceOf(IllegalArgumentException.class, batchEngine.getEx(1));
+        assertEquals(1, endCount.get());
+    }
+}
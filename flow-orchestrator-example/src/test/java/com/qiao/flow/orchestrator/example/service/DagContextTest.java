@@ -0,0 +1,176 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.ContextKey;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DoubleKey;
+import com.qiao.flow.orchestrator.core.dag.context.LongKey;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagNodeIndex;
+import com.qiao.flow.orchestrator.core.dag.engine.DagStructuredEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.node.NodeResult;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DAG上下文测试类
+ * 验证节点结果按下标槽位存取、未绑定节点回退到Map，并发的兄弟节点写入对后继节点可见，
+ * 以及类型化的上下文数据键
+ */
+public class DagContextTest {
+
+    private static final String WORKFLOW = "contextSlotTest";
+    private static final int FAN_OUT = 16;
+
+    private static final ContextKey<String> ALGORITHM = ContextKey.of("contextTest.algorithm", String.class);
+    private static final DoubleKey SCORE = DoubleKey.of("contextTest.score");
+    private static final LongKey COUNT = LongKey.of("contextTest.count");
+
+    private ThreadPoolFixture pools;
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    public void testSlotsAndMapFallback() {
+        DagEngineConfig config = fanOut(new AtomicInteger());
+        DagContext context = new DagContext();
+
+        // 绑定前写入的结果在绑定后迁移到槽位，仍可读取
+        context.putNodeResult("branch0", "early");
+        context.bind(config.getNodeIndex());
+        assertSame(config.getNodeIndex(), context.getNodeIndex());
+        assertEquals("early", context.getNodeResult("branch0"));
+
+        // 不属于工作流的节点ID存放在Map中
+        context.putNodeResult("adHoc", 42);
+        assertEquals(42, (Integer) context.getNodeResult("adHoc"));
+
+        // 同一次借用中再次绑定其他索引不生效
+        DagNodeIndex other = fanOut(new AtomicInteger()).getNodeIndex();
+        context.bind(other);
+        assertSame(config.getNodeIndex(), context.getNodeIndex());
+
+        // 清理后解除绑定，结果对象回收后原地复用
+        NodeResult<?> slotResult = context.getResult("branch0");
+        context.clear();
+        assertNull(context.getNodeIndex());
+        assertTrue(context.isEmpty());
+        assertNull(context.getNodeResult("branch0"));
+        assertNull(context.getNodeResult("adHoc"));
+        context.bind(config.getNodeIndex());
+        assertSame(slotResult, context.obtainResult("branch0"));
+    }
+
+    @Test
+    public void testConcurrentSiblingWritesVisible() {
+        for (boolean structured : new boolean[]{false, true}) {
+            AtomicInteger observed = new AtomicInteger();
+            DagEngineConfig config = fanOut(observed);
+            DagContext context = new DagContext();
+            for (int round = 0; round < 50; round++) {
+                observed.set(0);
+                if (structured) {
+                    DagStructuredEngine<String> engine = new DagStructuredEngine<>(config);
+                    engine.execute("input", context);
+                    assertEquals(DagState.FINISH, engine.getDagState());
+                } else {
+                    DagEngine<String> engine = new DagEngine<>(config);
+                    engine.execute("input", context);
+                    assertEquals(DagState.FINISH, engine.getDagState());
+                }
+                // 结束节点在另一个线程上读取到全部兄弟节点的结果
+                assertEquals(FAN_OUT * (FAN_OUT - 1) / 2, observed.get(), (structured ? "STRUCTURED" : "WAVE") + " round " + round);
+                context.clear();
+            }
+        }
+    }
+
+    @Test
+    public void testTypedKeys() {
+        DagContext context = new DagContext();
+        context.put(ALGORITHM, "blackBox");
+        context.putDouble(SCORE, 0.92);
+        context.putLong(COUNT, 7L);
+        assertEquals("blackBox", context.get(ALGORITHM));
+        assertEquals(0.92, context.getDouble(SCORE, 0), 0);
+        assertEquals(7L, context.getLong(COUNT, 0));
+        assertEquals(-1L, context.getLong(LongKey.of("contextTest.missing"), -1L));
+
+        // 同名的字符串数据访问同一个槽位，类型不符时写入即失败
+        assertEquals(0.92, context.getData("contextTest.score"));
+        context.putData("contextTest.count", 8L);
+        assertEquals(8L, context.getLong(COUNT, 0));
+        assertThrows(ClassCastException.class, () -> context.putData("contextTest.score", "high"));
+        Map<String, Object> data = new HashMap<>();
+        context.forEachData(data::put);
+        assertEquals(Map.of("contextTest.algorithm", "blackBox", "contextTest.score", 0.92, "contextTest.count", 8L), data);
+
+        // 同名键不能声明为其他类型，同名同类型重复声明返回同一个键
+        assertThrows(IllegalArgumentException.class, () -> ContextKey.of("contextTest.score", Double.class));
+        assertSame(SCORE, DoubleKey.of("contextTest.score"));
+
+        context.remove(SCORE);
+        assertFalse(context.contains(SCORE));
+        assertTrue(context.contains(ALGORITHM));
+        context.clear();
+        assertTrue(context.isEmpty());
+        assertNull(context.get(ALGORITHM));
+        assertEquals(0, context.getLong(COUNT, 0));
+    }
+
+    @Test
+    public void testKeyDeclaredAfterContextCreated() {
+        DagContext context = new DagContext();
+        DoubleKey late = DoubleKey.of("contextTest.late" + System.nanoTime());
+        // 创建上下文之后声明的键还没有槽位，值暂存在Map中，绑定时迁移到槽位
+        context.putDouble(late, 1.5);
+        assertEquals(1.5, context.getDouble(late, 0), 0);
+        context.bind(fanOut(new AtomicInteger()).getNodeIndex());
+        assertEquals(1.5, context.getDouble(late, 0), 0);
+        context.putDouble(late, 2.5);
+        assertEquals(2.5, context.getData(late.getName()));
+        context.clear();
+        assertTrue(context.isEmpty());
+    }
+
+    /**
+     * start -> branch0..branchN（并发写入结果）-> end（汇总结果）
+     */
+    private DagEngineConfig fanOut(AtomicInteger observed) {
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW).start("start", NodeType.INLINE, WorkflowFixture.NOOP);
+        String[] branches = new String[FAN_OUT];
+        for (int i = 0; i < FAN_OUT; i++) {
+            branches[i] = "branch" + i;
+            int value = i;
+            workflow.node(branches[i], i % 2 == 0 ? NodeType.IO : NodeType.CPU,
+                    (param, context, nodeId) -> context.putNodeResult(nodeId, value), "start");
+        }
+        return workflow.end("end", NodeType.CPU, (param, context, nodeId) -> {
+            int sum = 0;
+            for (int i = 0; i < FAN_OUT; i++) {
+                Integer value = context.getNodeResult("branch" + i);
+                sum += value != null ? value : -FAN_OUT * FAN_OUT;
+            }
+            observed.set(sum);
+        }, branches).build(pools.getManager(), 5000L);
+    }
+}
@@ -0,0 +1,136 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventSink;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventType;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 事件日志测试类
+ * 验证按工作流的记录级别、后台线程的事件投递以及记录路径不分配对象
+ */
+@Slf4j
+public class DagEventLogTest {
+
+    private static final String WORKFLOW = "eventLogTest";
+
+    private ThreadPoolFixture pools;
+    private final List<String> received = new CopyOnWriteArrayList<>();
+    private final DagEventSink sink = event -> {
+        if (WORKFLOW.equals(event.getWorkflow())) {
+            received.add(event.getName() != null ? event.getType() + ":" + event.getName() : event.getType().name());
+        }
+    };
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(2);
+        DagEventLog.addSink(sink);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DagEventLog.removeSink(sink);
+        DagEventLog.setLevel(WORKFLOW, null);
+        pools.close();
+    }
+
+    @Test
+    public void testLevels() throws Exception {
+        // 默认INFO：只记录工作流完成，不记录节点完成
+        runWorkflow(false);
+        assertTrue(DagEventLog.flush(2000));
+        assertEquals(List.of(DagEventType.WORKFLOW_COMPLETED.name()), received);
+
+        // DEBUG：每个节点的完成都会记录
+        received.clear();
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.DEBUG);
+        runWorkflow(false);
+        assertTrue(DagEventLog.flush(2000));
+        assertTrue(received.containsAll(List.of("NODE_COMPLETED:start", "NODE_COMPLETED:fetch", "NODE_COMPLETED:end")),
+                "node completions expected at DEBUG, received: " + received);
+
+        // ERROR：只记录失败
+        received.clear();
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.ERROR);
+        runWorkflow(false);
+        runWorkflow(true);
+        assertTrue(DagEventLog.flush(2000));
+        assertTrue(received.contains("NODE_FAILED:fetch"), "failure expected at ERROR, received: " + received);
+        assertTrue(received.stream().noneMatch(e -> e.startsWith("NODE_COMPLETED") || e.startsWith("WORKFLOW_COMPLETED")),
+                "only failures expected at ERROR, received: " + received);
+
+        // OFF：不记录任何事件
+        received.clear();
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.OFF);
+        runWorkflow(true);
+        assertTrue(DagEventLog.flush(2000));
+        assertTrue(received.isEmpty(), "nothing expected at OFF, received: " + received);
+    }
+
+    @Test
+    public void testRecordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        Logger eventLogger = (Logger) LoggerFactory.getLogger(DagEventLog.class);
+        Level previousLevel = eventLogger.getLevel();
+        eventLogger.setLevel(Level.WARN);
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.DEBUG);
+        try {
+            // 预热，排除类加载和JIT的分配
+            for (int i = 0; i < 1_000; i++) {
+                DagEventLog.nodeCompleted(WORKFLOW, "warmup", i);
+            }
+            assertTrue(DagEventLog.flush(2000));
+
+            int events = DagEventLog.getCapacity() / 2;
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < events; i++) {
+                DagEventLog.nodeCompleted(WORKFLOW, "allocationProbe", i);
+            }
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+            log.info("📊 allocated {} bytes for {} event recordings", allocated, events);
+            assertTrue(allocated < 64 * 1024, "recording should not allocate, allocated: " + allocated);
+            assertTrue(DagEventLog.flush(2000));
+        } finally {
+            eventLogger.setLevel(previousLevel);
+        }
+    }
+
+    private void runWorkflow(boolean fail) throws Exception {
+        Node<String> fetch = (param, context, nodeId) -> {
+            if (fail) {
+                throw new IllegalStateException("fetch failed");
+            }
+        };
+        DagEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("fetch", NodeType.IO, fetch, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "fetch")
+                .engine(pools.getManager(), 5000L);
+        engine.execute("input", new DagContext());
+        if (!fail) {
+            assertEquals(DagState.FINISH, engine.getDagState());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdaptiveConcurrencyLimiter;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowRejectedException;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.starter.micrometer.DagMeterBinder;
+import com.qiao.flow.orchestrator.starter.micrometer.DagMicrometerAutoConfiguration;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.context.annotation.ImportCandidates;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Micrometer绑定测试类
+ * 验证工作流/节点耗时、线程池、准入和对象池度量注册到MeterRegistry，以及自动配置的开关
+ */
+@Slf4j
+public class DagMeterBinderTest {
+
+    private static final String WORKFLOW = "meterBinderTest";
+
+    @Test
+    public void testBindToSimpleRegistry() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(2);
+             DagMeterBinder binder = new DagMeterBinder(pools.getManager())) {
+            binder.bindTo(registry);
+
+            // 工作流、节点指标在首次执行时创建，由监听器注册度量
+            DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                    .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                    .node("fetch", NodeType.IO, WorkflowFixture.NOOP, "start")
+                    .node("score", NodeType.CPU, WorkflowFixture.NOOP, "start")
+                    .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "fetch", "score")
+                    .build(pools.getManager(), 5000L);
+            for (int i = 0; i < 3; i++) {
+                DagEngine<String> engine = config.createEngine();
+                engine.execute("input", new DagContext());
+                assertEquals(DagState.FINISH, engine.getDagState());
+            }
+
+            FunctionTimer workflowTimer = registry.find("dag.workflow.execution").tag("workflow", WORKFLOW).functionTimer();
+            assertNotNull(workflowTimer);
+            assertEquals(3, workflowTimer.count(), 0);
+            FunctionTimer scoreTimer = registry.find("dag.node.execution")
+                    .tags("workflow", WORKFLOW, "node", "score").functionTimer();
+            assertNotNull(scoreTimer);
+            assertEquals(3, scoreTimer.count(), 0);
+            assertNotNull(registry.find("dag.node.queue.wait").tags("workflow", WORKFLOW, "node", "fetch").functionTimer());
+            Gauge scoreP99 = registry.find("dag.node.execution.percentile")
+                    .tags("workflow", WORKFLOW, "node", "score", "quantile", "0.99").gauge();
+            assertNotNull(scoreP99);
+            // 分位度量共用的快照缓存只被度量引用，GC后仍能读数
+            System.gc();
+            assertFalse(Double.isNaN(scoreP99.value()));
+
+            // 平台线程池导出全部指标，虚拟线程执行器只导出支持的指标
+            for (String meter : new String[]{"dag.executor.active", "dag.executor.pool.size", "dag.executor.queued"}) {
+                assertNotNull(registry.find(meter).tag("executor", MixedThreadPoolManager.CPU).gauge(), meter);
+            }
+            assertNotNull(registry.find("dag.executor.completed").tag("executor", MixedThreadPoolManager.CPU).functionCounter());
+            assertNull(registry.find("dag.executor.queued").tag("executor", MixedThreadPoolManager.IO).gauge());
+
+            Gauge contextPool = registry.find("dag.context.pool.size").gauge();
+            assertNotNull(contextPool);
+            assertNotNull(registry.find("dag.context.pool.hit.ratio").gauge());
+            assertNotNull(registry.find("dag.collection.pool.hit.ratio").tag("type", "set").gauge());
+            log.info("📊 {} meters registered", registry.getMeters().size());
+        }
+    }
+
+    @Test
+    public void testAdmissionMeters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(AdaptiveConcurrencyLimiter.Settings.defaults());
+        String workflow = WORKFLOW + "Admission";
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(1);
+             DagMeterBinder binder = new DagMeterBinder(pools.getManager(), limiter)) {
+            binder.bindTo(registry);
+            // 准入度量随工作流指标一起注册
+            WorkflowFixture.create(workflow).single("only", NodeType.INLINE, WorkflowFixture.NOOP)
+                    .build(pools.getManager(), 5000L).getWorkflowMetrics();
+
+            Gauge limit = registry.find("dag.admission.limit").tag("workflow", workflow).gauge();
+            Gauge inFlight = registry.find("dag.admission.in.flight").tag("workflow", workflow).gauge();
+            TimeGauge baseline = registry.find("dag.admission.baseline.rtt").tag("workflow", workflow).timeGauge();
+            assertNotNull(limit);
+            assertNotNull(inFlight);
+            assertNotNull(baseline);
+            // 尚未申请过许可
+            assertTrue(Double.isNaN(limit.value()));
+
+            AdmissionController.AdmissionPermit permit = limiter.acquire(workflow);
+            assertEquals(limiter.getCurrentLimit(workflow), limit.value(), 0);
+            assertEquals(1, inFlight.value(), 0);
+            permit.release();
+            assertEquals(0, inFlight.value(), 0);
+
+            // 超过上限的请求计入拒绝次数
+            int limitValue = limiter.getCurrentLimit(workflow);
+            AdmissionController.AdmissionPermit[] held = new AdmissionController.AdmissionPermit[limitValue];
+            for (int i = 0; i < limitValue; i++) {
+                held[i] = limiter.acquire(workflow);
+            }
+            assertThrows(WorkflowRejectedException.class, () -> limiter.acquire(workflow));
+            for (AdmissionController.AdmissionPermit p : held) {
+                p.release();
+            }
+            assertEquals(1, registry.find("dag.admission.rejected").tag("workflow", workflow).functionCounter().count(), 0);
+            assertEquals(limitValue + 1, registry.find("dag.admission.admitted").tag("workflow", workflow).functionCounter().count(), 0);
+            assertEquals(0, registry.find("dag.admission.queued").tag("workflow", workflow).gauge().value(), 0);
+            assertNotNull(registry.find("dag.admission.timed.out").tag("workflow", workflow).functionCounter());
+        }
+    }
+
+    @Test
+    public void testAutoConfiguration() {
+        // Spring Boot 3 只从AutoConfiguration.imports读取自动配置
+        assertTrue(ImportCandidates.load(AutoConfiguration.class, getClass().getClassLoader()).getCandidates()
+                .contains(DagMicrometerAutoConfiguration.class.getName()));
+
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(DagMicrometerAutoConfiguration.class));
+        runner.run(context -> assertEquals(1, context.getBeansOfType(DagMeterBinder.class).size()));
+        runner.withPropertyValues("dag.monitor.micrometer.enabled=false")
+                .run(context -> assertTrue(context.getBeansOfType(DagMeterBinder.class).isEmpty()));
+    }
+}
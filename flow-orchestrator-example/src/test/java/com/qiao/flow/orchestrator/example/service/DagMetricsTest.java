@@ -0,0 +1,234 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetricsListener;
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import com.qiao.flow.orchestrator.core.dag.metrics.LatencyHistogram;
+import com.qiao.flow.orchestrator.core.dag.metrics.NodeMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.ExecutorStats;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DAG指标测试类
+ * 验证直方图分位精度、并发记录、热路径不分配对象、引擎记录的节点指标以及线程池与对象池统计
+ */
+@Slf4j
+public class DagMetricsTest {
+
+    private static final String WORKFLOW = "metricsTest";
+
+    @Test
+    public void testPercentileAccuracy() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1µs ~ 100ms均匀分布
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(100_000, snapshot.getCount());
+        assertEquals(100_000_000L, snapshot.getMaxNanos());
+        assertWithin(50_000_000L, snapshot.getValueAtPercentile(50));
+        assertWithin(90_000_000L, snapshot.getValueAtPercentile(90));
+        assertWithin(99_000_000L, snapshot.getValueAtPercentile(99));
+        assertWithin(99_900_000L, snapshot.getValueAtPercentile(99.9));
+        assertEquals(100_000_000L, snapshot.getValueAtPercentile(100));
+        log.info("📊 summary: {}", snapshot.toSummary());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 8;
+        int perThread = 100_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        histogram.record(1_000_000L);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals((long) threads * perThread, snapshot.getCount());
+        assertEquals(1_000_000L, snapshot.getMeanNanos());
+    }
+
+    @Test
+    public void testRecordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        NodeMetrics metrics = DagMetrics.node(WORKFLOW, "allocationProbe");
+        long threadId = Thread.currentThread().threadId();
+
+        // 预热，触发JIT编译
+        for (int i = 0; i < 200_000; i++) {
+            metrics.recordExecution(i, i * 3L, true);
+        }
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            metrics.recordExecution(i, i * 3L, (i & 7) != 0);
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+        log.info("📊 allocated {} bytes for 1,000,000 recordings", allocated);
+        assertTrue(allocated < 64 * 1024, "recording should not allocate, allocated: " + allocated);
+    }
+
+    @Test
+    public void testHistogramFootprint() {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        int count = 1_000;
+        List<LatencyHistogram> histograms = new ArrayList<>(count);
+
+        // 未记录的直方图不分配分段和桶
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < count; i++) {
+            histograms.add(new LatencyHistogram());
+        }
+        long idleBytes = (threadBean.getThreadAllocatedBytes(threadId) - before) / count;
+
+        // 1ms~8ms的耗时落在4个2的幂区间内，只分配这几行
+        before = threadBean.getThreadAllocatedBytes(threadId);
+        for (LatencyHistogram histogram : histograms) {
+            for (long millis = 1; millis <= 8; millis++) {
+                histogram.record(millis * 1_000_000L);
+            }
+        }
+        long usedBytes = (threadBean.getThreadAllocatedBytes(threadId) - before) / count;
+        log.info("📊 histogram footprint: idle {} bytes, 1ms~8ms {} bytes", idleBytes, usedBytes);
+        assertTrue(idleBytes < 256, "idle histogram bytes: " + idleBytes);
+        assertTrue(usedBytes < 2 * 1024, "histogram bytes after recording: " + usedBytes);
+        assertEquals(8, histograms.get(0).snapshot().getCount());
+    }
+
+    @Test
+    public void testEngineRecordsNodeMetrics() {
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(2)) {
+            DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                    .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                    .node("fetch", NodeType.IO, (param, context, nodeId) -> Thread.sleep(5), "start")
+                    .node("score", NodeType.CPU, WorkflowFixture.NOOP, "start")
+                    .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "fetch", "score")
+                    .build(pools.getManager(), 5000L);
+            WorkflowMetrics workflowMetrics = config.getWorkflowMetrics();
+            long successBefore = workflowMetrics.getSuccess().sum();
+            for (int i = 0; i < 20; i++) {
+                DagEngine<String> engine = config.createEngine();
+                engine.execute("input", new DagContext());
+                assertEquals(DagState.FINISH, engine.getDagState());
+            }
+
+            assertEquals(20, workflowMetrics.getSuccess().sum() - successBefore);
+            NodeMetrics fetch = DagMetrics.node(WORKFLOW, "fetch");
+            assertEquals(20, fetch.getSuccess().sum());
+            assertEquals(20, fetch.getQueueWait().snapshot().getCount());
+            assertTrue(fetch.getExecution().snapshot().getValueAtPercentile(50) >= 5_000_000L);
+            // 内联节点不经过线程池，不记录排队时间
+            NodeMetrics start = DagMetrics.node(WORKFLOW, "start");
+            assertEquals(20, start.getSuccess().sum());
+            assertEquals(0, start.getQueueWait().snapshot().getCount());
+            log.info("📊 metrics: {}", DagMetrics.getWorkflow(WORKFLOW).toSummary());
+        }
+    }
+
+    @Test
+    public void testExecutorAndPoolStats() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor cpuPool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (ThreadPoolFixture pools = ThreadPoolFixture.of(cpuPool, Executors.newVirtualThreadPerTaskExecutor())) {
+            MixedThreadPoolManager threadPoolManager = pools.getManager();
+            // 占满线程与队列，第三个任务由调用线程执行
+            cpuPool.execute(() -> awaitQuietly(release));
+            cpuPool.execute(() -> {
+            });
+            AtomicBoolean ranOnCaller = new AtomicBoolean();
+            Thread caller = Thread.currentThread();
+            cpuPool.execute(() -> ranOnCaller.set(Thread.currentThread() == caller));
+            assertTrue(ranOnCaller.get());
+
+            Map<String, ExecutorStats> stats = threadPoolManager.getExecutorStats();
+            // 阻塞IO、重计算线程池未配置时与IO、CPU线程池是同一实例，只出现一次
+            assertEquals(List.of(MixedThreadPoolManager.CPU, MixedThreadPoolManager.IO), new ArrayList<>(stats.keySet()));
+            ExecutorStats cpu = stats.get(MixedThreadPoolManager.CPU);
+            assertEquals(1, cpu.getActive());
+            assertEquals(1, cpu.getQueued());
+            assertEquals(1, cpu.getRejected());
+            assertEquals(1, cpu.getCallerRuns());
+            assertEquals(-1, stats.get(MixedThreadPoolManager.IO).getQueued());
+            log.info("📊 executors: {}", stats);
+        } finally {
+            release.countDown();
+        }
+
+        long hits = DagContextPool.getHitCount();
+        long misses = DagContextPool.getMissCount();
+        DagContextPool.release(DagContextPool.borrow());
+        DagContextPool.release(DagContextPool.borrow());
+        assertEquals(2, DagContextPool.getHitCount() + DagContextPool.getMissCount() - hits - misses);
+        assertTrue(DagContextPool.getHitCount() > hits, "second borrow should be served from the pool");
+    }
+
+    @Test
+    public void testMetricsListener() {
+        List<String> registered = new CopyOnWriteArrayList<>();
+        DagMetricsListener listener = new DagMetricsListener() {
+            @Override
+            public void nodeRegistered(NodeMetrics metrics) {
+                registered.add(metrics.getWorkflowName() + ":" + metrics.getNodeId());
+            }
+        };
+        DagMetrics.node(WORKFLOW, "listenerExisting");
+        DagMetrics.addListener(listener);
+        try {
+            // 注册时回放已有指标
+            assertTrue(registered.contains(WORKFLOW + ":listenerExisting"));
+            DagMetrics.node(WORKFLOW, "listenerCreated");
+            DagMetrics.node(WORKFLOW, "listenerCreated");
+            assertEquals(1, registered.stream().filter((WORKFLOW + ":listenerCreated")::equals).count());
+        } finally {
+            DagMetrics.removeListener(listener);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 对数-线性桶的相对误差不超过1/32
+     */
+    private static void assertWithin(long expected, long actual) {
+        double error = Math.abs(actual - expected) / (double) expected;
+        assertTrue(error <= 1.0 / 32, "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,156 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import com.qiao.flow.orchestrator.core.dag.testing.RandomDagGenerator;
+import com.qiao.flow.orchestrator.core.dag.testing.SimulatedTopology;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadReport;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadRequest;
+import com.qiao.flow.orchestrator.core.dag.testing.load.OpenLoopLoadGenerator;
+import com.qiao.flow.orchestrator.core.dag.testing.sim.DagSimulator;
+import com.qiao.flow.orchestrator.core.dag.testing.sim.SimulatedPoolResult;
+import com.qiao.flow.orchestrator.core.dag.testing.sim.SimulationReport;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * DAG离散事件模拟器测试类
+ * 验证模拟结果与实际执行、排队论的预期一致，以及模拟速度
+ */
+@Slf4j
+@SpringBootTest(classes = Application.class)
+public class DagSimulatorTest {
+
+    private static final LatencyDistribution IO_LATENCY = LatencyDistribution.fixed(10, TimeUnit.MILLISECONDS);
+    private static final LatencyDistribution CPU_LATENCY = LatencyDistribution.fixed(1, TimeUnit.MILLISECONDS);
+
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
+    /**
+     * 用户b的分支：开关打开，选择黑盒排序
+     */
+    private DagSimulator simulateUserB() {
+        return DagSimulator.of(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING))
+                .latency(NodeType.IO, IO_LATENCY)
+                .latency(NodeType.ASYNC_IO, IO_LATENCY)
+                .latency(NodeType.CPU, CPU_LATENCY)
+                .latency(NodeType.HEAVY_CPU, CPU_LATENCY)
+                .branch("checkSwitch", 1.0, "getVersionInfo", "contextDimensionCalculation")
+                .branch("selectAlgorithm", 1.0, "blackBoxRank");
+    }
+
+    @Test
+    public void testPredictionMatchesMeasuredLatency() {
+        SimulationReport simulated = simulateUserB()
+                .rate(20)
+                .warmup(Duration.ofSeconds(1))
+                .duration(Duration.ofSeconds(60))
+                .run();
+        log.info("🔮 simulated adRanking:\n{}", simulated.format());
+        long predicted = simulated.getLatency().getValueAtPercentile(50);
+
+        DagEngineConfig config = SimulatedTopology.from(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING))
+                .workflow("adRankingPredicted")
+                .io(IO_LATENCY)
+                .cpu(CPU_LATENCY)
+                .build();
+        LoadReport measured = OpenLoopLoadGenerator.create()
+                .rate(5)
+                .warmup(Duration.ofSeconds(1))
+                .duration(Duration.ofSeconds(4))
+                .threads(16)
+                .workflow("adRanking", LoadRequest.dagEngine(config, ExecutionMode.WAVE,
+                        sequence -> new ExampleContext("b", "req-" + sequence)))
+                .run();
+        log.info("📏 measured adRanking:\n{}", measured.format());
+        long actual = measured.getWorkflow("adRanking").getServiceTime().getValueAtPercentile(50);
+
+        // 低负载下没有排队，模拟的延迟即关键路径耗时；实际执行多出调度和节点本身的开销
+        assertFalse(simulated.isSaturated());
+        assertTrue(actual >= predicted * 0.9, "measured p50 " + actual + "ns, predicted " + predicted + "ns");
+        assertTrue(actual <= predicted * 1.5 + 5_000_000L, "measured p50 " + actual + "ns, predicted " + predicted + "ns");
+    }
+
+    @Test
+    public void testPoolSaturation() {
+        // 结构化并发模式下CPU节点总是派发到CPU线程池；只有一个线程时利用率与到达速率成正比，超过容量后吞吐量不再增长
+        DagSimulator simulator = simulateUserB()
+                .mode(ExecutionMode.STRUCTURED)
+                .pool(MixedThreadPoolManager.CPU, 1);
+        SimulationReport light = simulator.rate(50).run();
+        log.info("🔮 light load:\n{}", light.format());
+        SimulatedPoolResult cpu = light.getPool(MixedThreadPoolManager.CPU);
+        assertNotNull(cpu, "adRanking should dispatch CPU nodes to the cpu pool");
+        assertFalse(light.isSaturated());
+        double tasksPerRequest = cpu.getTasks() / (light.getAchievedRate() * light.getSimulatedSeconds());
+        assertTrue(tasksPerRequest >= 1, "tasks per request: " + tasksPerRequest);
+        // 每个任务1ms：利用率 = 速率 × 每次请求的任务数 × 1ms
+        assertEquals(50 * tasksPerRequest * 0.001, cpu.getUtilization(), 0.02);
+
+        double capacity = 1000 / tasksPerRequest;
+        List<SimulationReport> sweep = simulator.sweep(capacity * 0.5, capacity * 0.8, capacity * 1.2);
+        assertEquals(3, sweep.size());
+        SimulationReport saturated = sweep.get(2);
+        assertTrue(saturated.isSaturated());
+        // 积压的请求分布在各个节点上，完成速率不超过容量
+        assertTrue(saturated.getAchievedRate() < capacity * 1.05, "achieved: " + saturated.getAchievedRate());
+        assertTrue(saturated.getPool(MixedThreadPoolManager.CPU).getUtilization() > 0.98);
+        // 排队随负载增长
+        assertTrue(sweep.get(1).getLatency().getValueAtPercentile(99) > sweep.get(0).getLatency().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testStructuredModeRemovesWaveBarriers() {
+        // 宽而稀疏的DAG：同一批中的慢节点会拖住下一批，结构化并发只等待真正的前驱节点
+        DagEngineConfig config = RandomDagGenerator.create()
+                .seed(3)
+                .nodeCount(60)
+                .layerWidth(8)
+                .edgeDensity(0.2)
+                .ioRatio(1.0)
+                .generate(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING).getThreadPoolManager());
+        LatencyDistribution ioLatency = LatencyDistribution.logNormal(5, 40, TimeUnit.MILLISECONDS);
+        SimulationReport wave = DagSimulator.of(config)
+                .latency(NodeType.IO, ioLatency)
+                .rate(100)
+                .run();
+        SimulationReport structured = DagSimulator.of(config)
+                .latency(NodeType.IO, ioLatency)
+                .mode(ExecutionMode.STRUCTURED)
+                .rate(100)
+                .run();
+        log.info("🔮 wave:\n{}\nstructured:\n{}", wave.format(), structured.format());
+        assertTrue(structured.getLatency().getValueAtPercentile(50) < wave.getLatency().getValueAtPercentile(50));
+        assertTrue(structured.getLatency().getValueAtPercentile(99) < wave.getLatency().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testSimulationSpeed() {
+        SimulationReport report = simulateUserB()
+                .branch("checkSwitch", 1.0, "defaultRank")
+                .rate(100)
+                .warmup(Duration.ofSeconds(10))
+                .duration(Duration.ofSeconds(600))
+                .run();
+        log.info("🔮 {} virtual seconds in {}ms, {}x real time", report.getVirtualNanos() / 1_000_000_000L,
+                report.getWallNanos() / 1_000_000, Math.round(report.getSpeedup()));
+        assertEquals(100, report.getAchievedRate(), 5);
+        assertTrue(report.getSpeedup() > 100, "speedup: " + report.getSpeedup());
+    }
+}
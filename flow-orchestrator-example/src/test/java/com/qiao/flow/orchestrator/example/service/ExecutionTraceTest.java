@@ -0,0 +1,188 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagStructuredEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.enums.NodeState;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.trace.ExecutionTrace;
+import com.qiao.flow.orchestrator.core.dag.trace.NodeSpan;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceRepository;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceSampler;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 执行时间线测试类
+ * 验证按批次和结构化并发两种模式记录的节点区间、线程池、Chrome trace-event导出以及头部/尾部采样
+ */
+@Slf4j
+public class ExecutionTraceTest {
+
+    private static final String WORKFLOW = "traceTest";
+
+    private ThreadPoolFixture pools;
+    private DagEngineConfig config;
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(2);
+        config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("fetch", NodeType.IO, (param, context, nodeId) -> Thread.sleep(20), "start")
+                .node("score", NodeType.CPU, (param, context, nodeId) -> Thread.sleep(5), "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "fetch", "score")
+                .build(pools.getManager(), 5000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pools.close();
+    }
+
+    @Test
+    public void testWaveTrace() throws Exception {
+        DagEngine<String> engine = config.createEngine();
+        ExecutionTrace trace = new ExecutionTrace();
+        engine.setTrace(trace);
+        engine.execute("input", new DagContext());
+        assertEquals(DagState.FINISH, engine.getDagState());
+
+        Map<String, NodeSpan> spans = byNode(trace);
+        assertEquals(Set.of("start", "fetch", "score", "end"), spans.keySet());
+        assertEquals(MixedThreadPoolManager.IO, spans.get("fetch").getPool());
+        assertTrue(spans.get("fetch").isVirtualThread());
+        assertEquals(MixedThreadPoolManager.CPU, spans.get("score").getPool());
+        assertTrue(spans.get("score").getThreadName().startsWith(ThreadPoolFixture.CPU_THREAD_PREFIX));
+        // 内联节点在调度线程上执行
+        assertNull(spans.get("start").getPool());
+        assertEquals(Thread.currentThread().getName(), spans.get("end").getThreadName());
+        assertTrue(spans.get("fetch").getDurationNanos() >= 20_000_000L);
+        assertTrue(spans.get("end").getStartNanos() >= spans.get("fetch").getEndNanos());
+        spans.values().forEach(span -> assertEquals(NodeState.COMPLETED, span.getState()));
+        assertEquals(DagState.FINISH, trace.getOutcome());
+        assertTrue(trace.getDurationNanos() >= spans.get("fetch").getDurationNanos());
+
+        JsonNode json = new ObjectMapper().readTree(trace.toChromeTraceJson());
+        assertEquals(WORKFLOW, json.path("otherData").path("workflow").asText());
+        assertEquals("WAVE", json.path("otherData").path("mode").asText());
+        List<String> nodeEvents = new ArrayList<>();
+        Set<Long> namedThreads = new HashSet<>();
+        for (JsonNode event : json.path("traceEvents")) {
+            if ("M".equals(event.path("ph").asText())) {
+                namedThreads.add(event.path("tid").asLong());
+            } else if ("node".equals(event.path("cat").asText())) {
+                nodeEvents.add(event.path("name").asText());
+                assertTrue(namedThreads.contains(event.path("tid").asLong()));
+                assertTrue(event.path("dur").asDouble() >= 0);
+            }
+        }
+        assertEquals(4, nodeEvents.size());
+        log.info("📊 trace: {}", trace.getSpans());
+    }
+
+    @Test
+    public void testStructuredTrace() throws Exception {
+        DagStructuredEngine<String> engine = config.createStructuredEngine();
+        ExecutionTrace trace = new ExecutionTrace();
+        engine.setTrace(trace);
+        engine.execute("input", new DagContext());
+        assertEquals(DagState.FINISH, engine.getDagState());
+
+        Map<String, NodeSpan> spans = byNode(trace);
+        assertEquals(4, spans.size());
+        // IO节点直接在作用域虚拟线程上执行，CPU节点派发到CPU线程池，排队时间从fork算起
+        assertNull(spans.get("fetch").getPool());
+        assertTrue(spans.get("fetch").isVirtualThread());
+        assertEquals(MixedThreadPoolManager.CPU, spans.get("score").getPool());
+        assertTrue(spans.get("score").getQueueWaitNanos() >= 0);
+        assertEquals("STRUCTURED", trace.getMode());
+
+        JsonNode json = new ObjectMapper().readTree(trace.toChromeTraceJson());
+        assertTrue(json.path("traceEvents").size() >= 4);
+    }
+
+    @Test
+    public void testHeadAndTailSampling() {
+        // 默认不做头部采样，headWorkflow全部采样；尾部保留超过15ms或失败的执行
+        TraceSampler sampler = new TraceSampler(0.0, Map.of("headWorkflow", 1.0), 15, true, 16);
+
+        runSampled(sampler, singleNodeEngine("fastWorkflow", (param, context, nodeId) -> {
+        }));
+        runSampled(sampler, singleNodeEngine("slowWorkflow", (param, context, nodeId) -> Thread.sleep(20)));
+        runSampled(sampler, singleNodeEngine("failWorkflow", (param, context, nodeId) -> {
+            throw new IllegalStateException("boom");
+        }));
+        runSampled(sampler, singleNodeEngine("headWorkflow", (param, context, nodeId) -> {
+        }));
+
+        List<ExecutionTrace> retained = sampler.getRepository().getTraces(null, 10);
+        Map<String, String> reasons = new HashMap<>();
+        retained.forEach(trace -> reasons.put(trace.getWorkflowName(), trace.getSampleReason()));
+        assertEquals(Map.of("slowWorkflow", TraceSampler.REASON_SLOW, "failWorkflow", TraceSampler.REASON_ERROR,
+                "headWorkflow", TraceSampler.REASON_HEAD), reasons);
+        // 按时间倒序
+        assertEquals("headWorkflow", retained.get(0).getWorkflowName());
+        assertEquals(1L, sampler.getStats().get("dropped"));
+        assertSame(retained.get(1), sampler.getRepository().get(retained.get(1).getId()));
+        assertEquals("slowWorkflow", sampler.getRepository().getTraces("slowWorkflow", 10).get(0).getWorkflowName());
+
+        // 关闭尾部采样且比例为0时不记录
+        TraceSampler headOnly = new TraceSampler(0.0, Map.of(), 0, false, 16);
+        assertNull(headOnly.begin("fastWorkflow"));
+    }
+
+    @Test
+    public void testRepositoryOverwritesOldest() {
+        TraceRepository repository = new TraceRepository(3);
+        List<ExecutionTrace> traces = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ExecutionTrace trace = new ExecutionTrace();
+            traces.add(trace);
+            repository.add(trace);
+        }
+        assertEquals(3, repository.size());
+        assertEquals(List.of(traces.get(4), traces.get(3), traces.get(2)), repository.getTraces(null, 10));
+        assertNull(repository.get(traces.get(0).getId()));
+        assertEquals(List.of(traces.get(4)), repository.getTraces(null, 1));
+
+        repository.clear();
+        assertEquals(0, repository.size());
+        assertTrue(repository.getTraces(null, 10).isEmpty());
+        ExecutionTrace next = new ExecutionTrace();
+        repository.add(next);
+        assertEquals(1, repository.size());
+        assertEquals(List.of(next), repository.getTraces(null, 10));
+    }
+
+    private static void runSampled(TraceSampler sampler, DagEngine<String> engine) {
+        ExecutionTrace trace = sampler.begin(engine.getConfig().getWorkflowName());
+        engine.setTrace(trace);
+        engine.execute("input", new DagContext());
+        sampler.end(trace);
+    }
+
+    private DagEngine<String> singleNodeEngine(String workflow, Node<String> node) {
+        return WorkflowFixture.create(workflow).single("only", NodeType.INLINE, node).engine(pools.getManager(), 5000L);
+    }
+
+    private static Map<String, NodeSpan> byNode(ExecutionTrace trace) {
+        Map<String, NodeSpan> spans = new HashMap<>();
+        trace.getSpans().forEach(span -> spans.merge(span.getNodeId(), span, (a, b) -> fail("duplicate span " + a)));
+        return spans;
+    }
+}
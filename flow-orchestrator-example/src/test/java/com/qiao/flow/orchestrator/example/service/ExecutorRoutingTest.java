@@ -0,0 +1,312 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.annotation.NodeConfig;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagBatchEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.NodeMetrics;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.example.config.ExampleThreadPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 线程池路由测试类
+ * 验证重计算、阻塞IO节点无论单独成批还是与其他节点同批，都在各自的线程池上执行；
+ * {@code @NodeConfig(executor)}指定的隔离线程池的注册、路由和校验；示例OPS隔离线程池有界
+ */
+@Slf4j
+public class ExecutorRoutingTest {
+
+    private static final String WORKFLOW = "routingTest";
+    private static final String HEAVY_PREFIX = "test-heavy-";
+    private static final String BLOCKING_PREFIX = "test-blocking-";
+    private static final String ISOLATED_PREFIX = "test-isolated-";
+    private static final String ISOLATED = "isolated";
+
+    private static final String NAMED_WORKFLOW = "routingNamedTest";
+    private static final String MISSING_WORKFLOW = "routingMissingTest";
+
+    // Spring注册的节点按类名记录执行线程
+    private static final Map<String, String> NODE_THREADS = new ConcurrentHashMap<>();
+
+    private ThreadPoolFixture pools;
+    private ExecutorService heavyCpuPool;
+    private ExecutorService blockingIoPool;
+    private MixedThreadPoolManager threadPoolManager;
+    private final Map<String, String> threads = new ConcurrentHashMap<>();
+    private final Node<String> recordThread = (param, context, nodeId) -> threads.put(nodeId, Thread.currentThread().getName());
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(2);
+        heavyCpuPool = Executors.newFixedThreadPool(2, named(HEAVY_PREFIX));
+        blockingIoPool = Executors.newFixedThreadPool(2, named(BLOCKING_PREFIX));
+        threadPoolManager = new MixedThreadPoolManager(pools.getCpuPool(), pools.getIoPool(), blockingIoPool, heavyCpuPool);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        NODE_THREADS.clear();
+        pools.close();
+        heavyCpuPool.shutdownNow();
+        blockingIoPool.shutdownNow();
+    }
+
+    @Test
+    public void testDedicatedPoolsWhenAlone() {
+        // 每批只有一个就绪节点
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, recordThread)
+                .node("heavy", NodeType.HEAVY_CPU, recordThread, "start")
+                .node("blocking", NodeType.BLOCKING_IO, recordThread, "heavy")
+                .end("end", NodeType.INLINE, recordThread, "blocking")
+                .build(threadPoolManager, 5000L);
+        assertDedicatedPools(config);
+    }
+
+    @Test
+    public void testDedicatedPoolsInWideWave() {
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, recordThread)
+                .node("heavy", NodeType.HEAVY_CPU, recordThread, "start")
+                .node("blocking", NodeType.BLOCKING_IO, recordThread, "start")
+                .node("cpu", NodeType.CPU, recordThread, "start")
+                .node("io", NodeType.IO, recordThread, "start")
+                .end("end", NodeType.INLINE, recordThread, "heavy", "blocking", "cpu", "io")
+                .build(threadPoolManager, 5000L);
+        assertDedicatedPools(config);
+        assertTrue(threads.get("cpu").startsWith(ThreadPoolFixture.CPU_THREAD_PREFIX), threads.toString());
+    }
+
+    @Test
+    public void testRegisterExecutor() {
+        ExecutorService isolated = Executors.newSingleThreadExecutor(named(ISOLATED_PREFIX));
+        try {
+            assertThrows(IllegalArgumentException.class, () -> threadPoolManager.registerExecutor("", isolated));
+            assertThrows(IllegalArgumentException.class, () -> threadPoolManager.registerExecutor(null, isolated));
+            assertThrows(IllegalArgumentException.class, () -> threadPoolManager.registerExecutor(ISOLATED, null));
+            assertFalse(threadPoolManager.hasExecutor(ISOLATED));
+
+            threadPoolManager.registerExecutor(ISOLATED, isolated);
+            assertTrue(threadPoolManager.hasExecutor(ISOLATED));
+            assertEquals(Set.of(ISOLATED), threadPoolManager.getExecutorNames());
+            assertSame(isolated, threadPoolManager.getExecutor(ISOLATED));
+            assertSame(isolated, threadPoolManager.getExecutors().get(ISOLATED));
+
+            // 已注册的名称优先于节点类型，INLINE节点始终不经过线程池
+            assertSame(isolated, threadPoolManager.getThreadPool(NodeType.CPU, ISOLATED));
+            assertSame(isolated, threadPoolManager.getThreadPool(NodeType.IO, ISOLATED));
+            assertEquals(ISOLATED, threadPoolManager.getThreadPoolName(NodeType.CPU, ISOLATED));
+            assertNull(threadPoolManager.getThreadPool(NodeType.INLINE, ISOLATED));
+            assertNull(threadPoolManager.getThreadPoolName(NodeType.INLINE, ISOLATED));
+
+            // 未注册的名称回退到类型线程池
+            assertSame(pools.getCpuPool(), threadPoolManager.getThreadPool(NodeType.CPU, "missing"));
+            assertEquals(MixedThreadPoolManager.CPU, threadPoolManager.getThreadPoolName(NodeType.CPU, "missing"));
+        } finally {
+            isolated.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNamedExecutorRouting() {
+        ExecutorService isolated = Executors.newFixedThreadPool(2, named(ISOLATED_PREFIX));
+        threadPoolManager.registerExecutor(ISOLATED, isolated);
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                NamedStartNode.class, IsolatedCpuNode.class, IsolatedInlineNode.class, NamedEndNode.class)) {
+            DagAutoRunner runner = new DagAutoRunner(context, threadPoolManager);
+            String caller = Thread.currentThread().getName();
+
+            // 每批只有一个就绪节点时也派发到隔离线程池
+            runner.executeWorkflow(NAMED_WORKFLOW, "input", null, null, null);
+            log.info("📊 named executor threads: {}", NODE_THREADS);
+            assertEquals(4, NODE_THREADS.size(), NODE_THREADS.toString());
+            assertTrue(NODE_THREADS.get(IsolatedCpuNode.class.getSimpleName()).startsWith(ISOLATED_PREFIX), NODE_THREADS.toString());
+            // INLINE节点忽略executor，在调用线程上执行
+            assertEquals(caller, NODE_THREADS.get(IsolatedInlineNode.class.getSimpleName()));
+        } finally {
+            isolated.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectedDispatchFailsWave() {
+        ExecutorService rejecting = Executors.newSingleThreadExecutor(named(ISOLATED_PREFIX));
+        rejecting.shutdown();
+        threadPoolManager.registerExecutor(ISOLATED, rejecting);
+        DagEngineConfig config = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, recordThread)
+                .node("rejected", NodeType.CPU, ISOLATED, recordThread, "start")
+                .node("inline", NodeType.INLINE, recordThread, "start")
+                .end("end", NodeType.INLINE, recordThread, "rejected", "inline")
+                .build(threadPoolManager, 5000L);
+        NodeMetrics rejected = DagMetrics.node(WORKFLOW, "rejected");
+        long failureBefore = rejected.getFailure().sum();
+
+        DagEngine<String> engine = config.createEngine();
+        engine.execute("input", new DagContext());
+
+        // 拒绝按节点失败记录，本批的内联节点不再执行
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertInstanceOf(RejectedExecutionException.class, engine.getEx());
+        assertEquals(1, rejected.getFailure().sum() - failureBefore);
+        assertEquals(Set.of("start"), threads.keySet());
+    }
+
+    @Test
+    public void testUnknownExecutorRejected() {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(
+                MissingExecutorNode.class)) {
+            DagAutoRunner runner = new DagAutoRunner(context, threadPoolManager);
+            IllegalStateException ex = assertThrows(IllegalStateException.class,
+                    () -> runner.getEngineConfig(MISSING_WORKFLOW));
+            assertTrue(ex.getMessage().contains("missing"), ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testOpsExecutorsBounded() throws Exception {
+        ExecutorService ops = new ExampleThreadPoolConfig().getOpsFactorThreadPool();
+        try {
+            ThreadPoolExecutor pool = assertInstanceOf(ThreadPoolExecutor.class, ops);
+            int threadLimit = pool.getMaximumPoolSize();
+            int queueLimit = pool.getQueue().remainingCapacity();
+            assertTrue(threadLimit > 0 && queueLimit > 0 && queueLimit < Integer.MAX_VALUE,
+                    "threads " + threadLimit + ", queue " + queueLimit);
+
+            // 占满线程和队列后，再提交的任务被拒绝，不在提交线程上执行，线程数不超过上限
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch running = new CountDownLatch(threadLimit);
+            AtomicInteger concurrent = new AtomicInteger();
+            AtomicInteger maxConcurrent = new AtomicInteger();
+            Runnable blocking = () -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+            };
+            for (int i = 0; i < threadLimit + queueLimit; i++) {
+                ops.execute(blocking);
+            }
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            assertEquals(queueLimit, pool.getQueue().size());
+
+            AtomicInteger overflowRuns = new AtomicInteger();
+            assertThrows(RejectedExecutionException.class, () -> ops.execute(overflowRuns::incrementAndGet));
+            assertEquals(0, overflowRuns.get());
+            assertEquals(threadLimit, pool.getPoolSize());
+
+            release.countDown();
+            ops.shutdown();
+            assertTrue(ops.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(threadLimit, maxConcurrent.get());
+            log.info("📊 ops executor bounded: {} threads, {} queued", threadLimit, queueLimit);
+        } finally {
+            ops.shutdownNow();
+        }
+    }
+
+    /**
+     * 批次引擎和批量引擎中，重计算、阻塞IO节点都不在调用线程上执行
+     */
+    private void assertDedicatedPools(DagEngineConfig config) {
+        String caller = Thread.currentThread().getName();
+
+        DagEngine<String> engine = config.createEngine();
+        engine.execute("input", new DagContext());
+        assertEquals(DagState.FINISH, engine.getDagState());
+        log.info("📊 WAVE threads: {}", threads);
+        assertEquals(caller, threads.get("start"));
+        assertTrue(threads.get("heavy").startsWith(HEAVY_PREFIX), "WAVE " + threads);
+        assertTrue(threads.get("blocking").startsWith(BLOCKING_PREFIX), "WAVE " + threads);
+
+        threads.clear();
+        DagBatchEngine<String> batchEngine = config.createBatchEngine();
+        batchEngine.execute(List.of("input"), List.of(new DagContext()));
+        assertEquals(0, batchEngine.getFailedCount());
+        log.info("📊 batch threads: {}", threads);
+        assertTrue(threads.get("heavy").startsWith(HEAVY_PREFIX), "batch " + threads);
+        assertTrue(threads.get("blocking").startsWith(BLOCKING_PREFIX), "batch " + threads);
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> new Thread(r, prefix + counter.incrementAndGet());
+    }
+
+    private static void recordNodeThread(Object node) {
+        NODE_THREADS.put(node.getClass().getSimpleName(), Thread.currentThread().getName());
+    }
+
+    @NodeConfig(workflow = NAMED_WORKFLOW, type = NodeType.INLINE, start = true)
+    static class NamedStartNode implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+            recordNodeThread(this);
+        }
+    }
+
+    @NodeConfig(workflow = NAMED_WORKFLOW, executor = ISOLATED, dependsOn = NamedStartNode.class)
+    static class IsolatedCpuNode implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+            recordNodeThread(this);
+        }
+    }
+
+    @NodeConfig(workflow = NAMED_WORKFLOW, type = NodeType.INLINE, executor = ISOLATED, dependsOn = IsolatedCpuNode.class)
+    static class IsolatedInlineNode implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+            recordNodeThread(this);
+        }
+    }
+
+    @NodeConfig(workflow = NAMED_WORKFLOW, type = NodeType.INLINE, dependsOn = IsolatedInlineNode.class, end = true)
+    static class NamedEndNode implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+            recordNodeThread(this);
+        }
+    }
+
+    @NodeConfig(workflow = MISSING_WORKFLOW, executor = "missing", start = true, end = true)
+    static class MissingExecutorNode implements Node<String> {
+        @Override
+        public void execute(String param, DagContext context, String nodeId) {
+            recordNodeThread(this);
+        }
+    }
+}
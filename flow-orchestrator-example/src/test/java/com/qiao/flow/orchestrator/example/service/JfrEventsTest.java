@@ -0,0 +1,125 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagContextPoolEvent;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagEvents;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagNodeEvent;
+import com.qiao.flow.orchestrator.core.dag.jfr.DagWorkflowEvent;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 自定义JFR事件测试类
+ * 验证事件默认关闭，开启后记录工作流、节点（含排队时间）和上下文池事件
+ */
+@Slf4j
+public class JfrEventsTest {
+
+    private static final String WORKFLOW = "jfrTest";
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        log.info("🧪 === 开始测试自定义JFR事件 ===");
+        // 未开启时不创建事件
+        assertNull(DagEvents.beginNode(0L));
+        assertNull(DagEvents.beginWorkflow());
+
+        // 单线程CPU池：两个CPU节点中后执行的一个需要排队
+        Path dump = Files.createTempFile("dag-events", ".jfr");
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(1);
+             Recording recording = new Recording()) {
+            recording.enable(DagWorkflowEvent.class);
+            recording.enable(DagNodeEvent.class);
+            recording.enable(DagContextPoolEvent.class);
+            recording.start();
+
+            DagEngine<String> engine = createEngine(pools.getManager());
+            DagContext context = DagContextPool.borrow();
+            try {
+                engine.execute("input", context);
+            } finally {
+                DagContextPool.release(context);
+            }
+            assertEquals(DagState.FINISH, engine.getDagState());
+
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(dump);
+        Files.deleteIfExists(dump);
+
+        List<RecordedEvent> workflowEvents = byName(events, DagEvents.NAME_PREFIX + "Workflow");
+        assertEquals(1, workflowEvents.size());
+        assertEquals(WORKFLOW, workflowEvents.get(0).getString("workflow"));
+        assertEquals("WAVE", workflowEvents.get(0).getString("mode"));
+        assertEquals(4, workflowEvents.get(0).getInt("nodeCount"));
+        assertEquals("FINISH", workflowEvents.get(0).getString("outcome"));
+
+        List<RecordedEvent> nodeEvents = byName(events, DagEvents.NAME_PREFIX + "Node");
+        assertEquals(4, nodeEvents.size());
+        Duration maxQueueWait = Duration.ZERO;
+        for (RecordedEvent event : nodeEvents) {
+            log.info("📊 node: {}, type: {}, queueWait: {}, runTime: {}, outcome: {}",
+                    event.getString("nodeId"), event.getString("nodeType"),
+                    event.getDuration("queueWait"), event.getDuration("runTime"), event.getString("outcome"));
+            assertEquals(WORKFLOW, event.getString("workflow"));
+            assertEquals("COMPLETED", event.getString("outcome"));
+            if (maxQueueWait.compareTo(event.getDuration("queueWait")) < 0) {
+                maxQueueWait = event.getDuration("queueWait");
+            }
+        }
+        assertTrue(maxQueueWait.toMillis() >= 20, "queued CPU node should report queue wait: " + maxQueueWait);
+
+        Set<String> poolOperations = new HashSet<>();
+        for (RecordedEvent event : byName(events, DagEvents.NAME_PREFIX + "ContextPool")) {
+            poolOperations.add(event.getString("operation"));
+        }
+        assertEquals(Set.of("BORROW", "RELEASE"), poolOperations);
+        log.info("✅ 自定义JFR事件测试完成");
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> result = new ArrayList<>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                result.add(event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * start -> cpu1, cpu2 -> end
+     */
+    private DagEngine<String> createEngine(MixedThreadPoolManager threadPoolManager) {
+        Node<String> busy = (param, context, nodeId) -> Thread.sleep(30);
+        return WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("cpu1", NodeType.CPU, busy, "start")
+                .node("cpu2", NodeType.CPU, busy, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "cpu1", "cpu2")
+                .engine(threadPoolManager, 5000L);
+    }
+}
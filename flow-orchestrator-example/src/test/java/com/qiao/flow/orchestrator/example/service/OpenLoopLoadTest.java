@@ -0,0 +1,81 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadReport;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadRequest;
+import com.qiao.flow.orchestrator.core.dag.testing.load.OpenLoopLoadGenerator;
+import com.qiao.flow.orchestrator.core.dag.testing.load.WorkflowLoadResult;
+import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 开环压测测试类
+ * 验证延迟从计划发出时间算起（协调遗漏修正），以及通过DagAutoRunner在进程内压测工作流
+ */
+@Slf4j
+@SpringBootTest(classes = Application.class)
+public class OpenLoopLoadTest {
+
+    private static final String[] USER_IDS = {"a", "b", "c"};
+
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
+    @Test
+    public void testQueueingDelayIsNotOmitted() {
+        // 单个发压线程，第500个请求卡住200ms，之后计划发出的请求都在它后面排队
+        LoadReport report = OpenLoopLoadGenerator.create()
+                .rate(1000)
+                .duration(Duration.ofSeconds(2))
+                .threads(1)
+                .workflow("stall", sequence -> {
+                    if (sequence == 500) {
+                        Thread.sleep(200);
+                    }
+                })
+                .run();
+        log.info("📊 stall report:\n{}", report.format());
+
+        WorkflowLoadResult result = report.getWorkflow("stall");
+        assertEquals(2000, result.getSucceeded());
+        assertFalse(report.isSaturated(), "generator should catch up after the stall");
+        // 闭环测量只会看到1个慢请求；开环测量下约200个请求受影响，p99落在排队区间内
+        assertTrue(result.getLatency().getValueAtPercentile(99) > 100_000_000L,
+                "queueing delay should be visible in p99, was: " + result.getLatency().getValueAtPercentile(99));
+        assertTrue(result.getServiceTime().getValueAtPercentile(99) < 50_000_000L,
+                "service time p99 should stay small, was: " + result.getServiceTime().getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testAdRankingUnderFixedRate() {
+        OpenLoopLoadGenerator generator = OpenLoopLoadGenerator.create()
+                .warmup(Duration.ofMillis(500))
+                .duration(Duration.ofSeconds(2))
+                .threads(32)
+                .workflow(WorkflowNames.AD_RANKING, LoadRequest.dagWorkflow(dagAutoRunner, WorkflowNames.AD_RANKING,
+                        sequence -> {
+                            ExampleContext context = new ExampleContext();
+                            context.setUserId(USER_IDS[(int) (sequence % USER_IDS.length)]);
+                            return context;
+                        }));
+
+        List<LoadReport> reports = generator.sweep(50, 100);
+        assertEquals(2, reports.size(), "adRanking should not saturate at 100/s");
+        for (LoadReport report : reports) {
+            WorkflowLoadResult result = report.getWorkflow(WorkflowNames.AD_RANKING);
+            assertEquals(0, result.getFailed());
+            assertTrue(result.getCompleted() >= report.getTargetRate() * 2 * 0.95,
+                    "expected about rate x duration requests, was: " + result.getCompleted());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.monitor.NodePinningStats;
+import com.qiao.flow.orchestrator.core.dag.monitor.VirtualThreadPinningMonitor;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 虚拟线程钉住监控测试类
+ * synchronized块内阻塞的IO节点应被统计到，使用ReentrantLock的IO节点不应被统计到
+ */
+@Slf4j
+public class PinningMonitorTest {
+
+    private static final String WORKFLOW = "pinningTest";
+
+    @Test
+    public void testPinningAttributedToNode() throws Exception {
+        log.info("🧪 === 开始测试虚拟线程钉住监控 ===");
+        Object monitorLock = new Object();
+        ReentrantLock reentrantLock = new ReentrantLock();
+
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("pinnedCall", NodeType.IO, (param, context, nodeId) -> {
+                    synchronized (monitorLock) {
+                        Thread.sleep(50);
+                    }
+                }, "start")
+                .node("cleanCall", NodeType.IO, (param, context, nodeId) -> {
+                    reentrantLock.lock();
+                    try {
+                        Thread.sleep(50);
+                    } finally {
+                        reentrantLock.unlock();
+                    }
+                }, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "pinnedCall", "cleanCall");
+
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(2);
+             VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(20))) {
+            monitor.start();
+            assertSame(monitor, VirtualThreadPinningMonitor.getActive());
+
+            for (int i = 0; i < 3; i++) {
+                DagEngine<String> engine = workflow.engine(pools.getManager(), 5000L);
+                engine.execute("input", new DagContext());
+                assertEquals(DagState.FINISH, engine.getDagState());
+            }
+
+            // JFR事件在flush时送达
+            NodePinningStats pinned = null;
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (System.currentTimeMillis() < deadline) {
+                pinned = monitor.getStats(WORKFLOW, "pinnedCall");
+                if (pinned != null && pinned.getCount() >= 3) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+
+            log.info("📊 pinning stats: {}", monitor.getStats());
+            assertNotNull(pinned, "pinning in synchronized block should be reported");
+            assertEquals(3, pinned.getCount());
+            assertTrue(pinned.getMaxNanos() >= 20_000_000L);
+            assertNull(monitor.getStats(WORKFLOW, "cleanCall"));
+        }
+        assertNull(VirtualThreadPinningMonitor.getActive());
+        log.info("✅ 虚拟线程钉住监控测试完成");
+    }
+}
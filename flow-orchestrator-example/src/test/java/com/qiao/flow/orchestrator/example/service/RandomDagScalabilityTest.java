@@ -0,0 +1,133 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import com.qiao.flow.orchestrator.core.dag.testing.RandomDagGenerator;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 随机DAG规模测试类
+ * 验证生成器的确定性，以及大规模DAG（含分支选择、弱依赖、IO/CPU混合）都能完成，
+ * 并输出调度开销随节点数的变化
+ */
+@Slf4j
+public class RandomDagScalabilityTest {
+
+    private static final int[] NODE_COUNTS = {50, 100, 200, 500, 1000};
+
+    private ExecutorService cpuPool;
+    private ExecutorService ioPool;
+    private MixedThreadPoolManager threadPoolManager;
+
+    @BeforeEach
+    public void setUp() {
+        cpuPool = Executors.newFixedThreadPool(4);
+        ioPool = Executors.newVirtualThreadPerTaskExecutor();
+        threadPoolManager = new MixedThreadPoolManager(cpuPool, ioPool);
+        DagEventLog.setDefaultLevel(EventLogLevel.ERROR);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DagEventLog.setDefaultLevel(EventLogLevel.INFO);
+        cpuPool.shutdownNow();
+        ioPool.shutdownNow();
+    }
+
+    @Test
+    public void testSameSeedSameStructure() {
+        DagEngineConfig first = RandomDagGenerator.create().seed(7).nodeCount(200).weakDependencyRatio(0.2)
+                .generate(threadPoolManager);
+        DagEngineConfig second = RandomDagGenerator.create().seed(7).nodeCount(200).weakDependencyRatio(0.2)
+                .generate(threadPoolManager);
+        DagEngineConfig other = RandomDagGenerator.create().seed(8).nodeCount(200).weakDependencyRatio(0.2)
+                .generate(threadPoolManager);
+
+        assertEquals(200, first.getNodeMap().size());
+        assertEquals(first.getDependencies(), second.getDependencies());
+        assertEquals(first.getWeakDependencies(), second.getWeakDependencies());
+        assertNotEquals(first.getDependencies(), other.getDependencies());
+    }
+
+    @Test
+    public void testLargeMixedWorkflowsComplete() {
+        // IO/CPU混合、带耗时
+        DagEngineConfig mixed = RandomDagGenerator.create().seed(1).nodeCount(500).layerWidth(25)
+                .ioRatio(0.7).latency(LatencyDistribution.uniform(10, 50, TimeUnit.MICROSECONDS))
+                .generate(threadPoolManager);
+        // 分支选择：被剪枝的节点不执行
+        DagEngineConfig branching = RandomDagGenerator.create().seed(2).nodeCount(500).layerWidth(25)
+                .chooserCount(5).inlineRatio(0.5).generate(threadPoolManager);
+        // 弱依赖
+        DagEngineConfig weak = RandomDagGenerator.create().seed(3).nodeCount(500).layerWidth(25)
+                .weakDependencyRatio(0.3).inlineRatio(0.5).generate(threadPoolManager);
+
+        for (DagEngineConfig config : List.of(mixed, branching, weak)) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(DagState.FINISH, execute(config), "workflow should finish: " + config.getWorkflowName());
+            }
+        }
+
+        long pruned = branching.getNodeMap().values().stream()
+                .mapToLong(wrapper -> (Long) wrapper.getMetrics().toSummary().get("pruned"))
+                .sum();
+        assertTrue(pruned > 0, "choosers should prune branches");
+    }
+
+    @Test
+    public void testSchedulingCostVersusNodeCount() {
+        double[] nanosPerNode = new double[NODE_COUNTS.length];
+        for (int i = 0; i < NODE_COUNTS.length; i++) {
+            int nodeCount = NODE_COUNTS[i];
+            DagEngineConfig config = RandomDagGenerator.create().seed(nodeCount).nodeCount(nodeCount).layerWidth(20)
+                    .inlineRatio(1.0).generate(threadPoolManager);
+            int executions = Math.max(200, 200_000 / nodeCount);
+            for (int warmup = 0; warmup < executions; warmup++) {
+                execute(config);
+            }
+            long start = System.nanoTime();
+            for (int run = 0; run < executions; run++) {
+                assertEquals(DagState.FINISH, execute(config));
+            }
+            double nanosPerExecution = (double) (System.nanoTime() - start) / executions;
+            nanosPerNode[i] = nanosPerExecution / nodeCount;
+            log.info("📊 {} nodes: {}µs per execution, {}ns per node", nodeCount,
+                    String.format("%.1f", nanosPerExecution / 1000), String.format("%.0f", nanosPerNode[i]));
+        }
+
+        // 调度开销应随节点数线性增长：单个节点的开销不应随规模明显上升（宽松上限，避免机器抖动导致误报）
+        double smallest = Arrays.stream(nanosPerNode).min().orElseThrow();
+        double largest = nanosPerNode[nanosPerNode.length - 1];
+        assertTrue(largest < smallest * 5, "per-node scheduling cost grows with node count: "
+                + Arrays.toString(nanosPerNode));
+    }
+
+    private static DagState execute(DagEngineConfig config) {
+        DagEngine<String> engine = config.borrowEngine();
+        DagContext dagContext = DagContextPool.borrow();
+        try {
+            engine.execute("input", dagContext);
+            return engine.getDagState();
+        } finally {
+            DagContextPool.release(dagContext);
+            config.releaseEngine(engine);
+        }
+    }
+}
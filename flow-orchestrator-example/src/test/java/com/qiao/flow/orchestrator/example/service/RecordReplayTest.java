@@ -0,0 +1,160 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.node.NodeInterceptor;
+import com.qiao.flow.orchestrator.core.dag.replay.NodeRecording;
+import com.qiao.flow.orchestrator.core.dag.replay.RecordingFile;
+import com.qiao.flow.orchestrator.core.dag.replay.RecordingSession;
+import com.qiao.flow.orchestrator.core.dag.replay.ReplaySession;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecorder;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecording;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import com.qiao.flow.orchestrator.core.dag.testing.SimulatedTopology;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadRequest;
+import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 执行录制与回放测试类
+ * 验证按采样录制IO节点结果写入文件，以及读取录制后用录制结果代替IO节点回放
+ */
+@Slf4j
+@SpringBootTest(classes = Application.class)
+public class RecordReplayTest {
+
+    private static final String EXAMPLE_PACKAGE = "com.qiao.flow.orchestrator.example";
+
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testRecordAndReplayAdRanking() throws Exception {
+        Path file = tempDir.resolve("adRanking.bin.gz");
+        WorkflowRecorder recorder = new WorkflowRecorder(file, 1.0, Map.of(), 100, 16);
+        dagAutoRunner.setWorkflowRecorder(recorder);
+        try {
+            for (String userId : new String[]{"a", "b", "c"}) {
+                dagAutoRunner.executeWorkflow(WorkflowNames.AD_RANKING, new ExampleContext(userId, "req-" + userId),
+                        (exception, input, context) -> fail(exception), null, null);
+            }
+        } finally {
+            dagAutoRunner.setWorkflowRecorder(null);
+            recorder.close();
+        }
+        log.info("📼 recorder stats: {}", recorder.getStats());
+
+        // 业务类型只有在允许的包内才会被反序列化
+        assertThrows(InvalidClassException.class, () -> RecordingFile.read(file));
+        List<WorkflowRecording> recordings = RecordingFile.read(file, List.of(EXAMPLE_PACKAGE));
+        assertEquals(3, recordings.size());
+        assertEquals("a", ((ExampleContext) recordings.get(0).getInput()).getUserId());
+
+        // 用户b走完整分支，录制了IO节点写入的数据和节点结果
+        WorkflowRecording full = recordings.get(1);
+        NodeRecording ctrFactor = full.getNode("ctrFactor");
+        assertNotNull(ctrFactor, "ctrFactor should be recorded, got: " + full.getNodes().keySet());
+        assertEquals(0.85, ctrFactor.getData().get("ctrFactor"));
+        assertEquals(0.92, full.getNode("featurePlatformScore").getResult());
+        // CPU节点不录制
+        assertNull(full.getNode("assembleFeatureDimensions"));
+
+        for (WorkflowRecording recording : recordings) {
+            ReplaySession session = dagAutoRunner.replayWorkflow(recording, false,
+                    (exception, input, context) -> fail(exception));
+            log.info("🔁 replayed {} for user {}: {} nodes replayed, {} executed", recording.getWorkflow(),
+                    ((ExampleContext) recording.getInput()).getUserId(),
+                    session.getReplayedCount(), session.getExecutedCount());
+            assertEquals(recording.getNodes().size(), session.getReplayedCount());
+            assertTrue(session.getExecutedCount() > 0, "CPU nodes should still execute");
+        }
+
+        LoadRequest request = LoadRequest.replay(dagAutoRunner, recordings, false);
+        for (int i = 0; i < 6; i++) {
+            request.execute(i);
+        }
+    }
+
+    @Test
+    public void testCorruptLengthRejected() throws Exception {
+        Path file = tempDir.resolve("corrupt.bin.gz");
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(-1);
+        }
+        // 非法长度按文件损坏报告，不抛出非受检异常
+        IOException ex = assertThrows(IOException.class, () -> RecordingFile.read(file));
+        assertTrue(ex.getMessage().contains("corrupt"), ex.getMessage());
+    }
+
+    @Test
+    public void testReplayLatency() throws Exception {
+        DagEngineConfig config = SimulatedTopology.from(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING))
+                .workflow("adRankingRecorded")
+                .io(LatencyDistribution.fixed(20, TimeUnit.MILLISECONDS))
+                .cpu(LatencyDistribution.none())
+                .build();
+
+        Path file = tempDir.resolve("simulated.bin.gz");
+        try (WorkflowRecorder recorder = new WorkflowRecorder(file, 1.0, Map.of(), 10, 4)) {
+            ExampleContext input = new ExampleContext("b", "req-b");
+            RecordingSession session = recorder.begin("adRankingRecorded", input);
+            assertNotNull(session);
+            execute(config, input, session);
+            recorder.end(session);
+        }
+        WorkflowRecording recording = RecordingFile.read(file, List.of(EXAMPLE_PACKAGE)).get(0);
+        long recordedLatency = recording.getNode("ctrFactor").getLatencyNanos();
+        assertTrue(recordedLatency >= 20_000_000L, "recorded latency: " + recordedLatency);
+
+        ExampleContext input = (ExampleContext) recording.getInput();
+        long withLatency = execute(config, input, new ReplaySession(recording, true));
+        long withoutLatency = execute(config, input, new ReplaySession(recording, false));
+        log.info("⏱️ recorded {}ms, replay with latency {}ms, without latency {}ms",
+                recording.getDurationNanos() / 1_000_000, withLatency / 1_000_000, withoutLatency / 1_000_000);
+        assertTrue(withLatency >= 20_000_000L, "replay should wait for recorded latency: " + withLatency);
+        assertTrue(withoutLatency < withLatency, "replay without latency should be faster");
+    }
+
+    /**
+     * 用指定拦截器执行一次，返回耗时（纳秒）
+     */
+    private static long execute(DagEngineConfig config, ExampleContext input, NodeInterceptor interceptor) {
+        DagContext context = DagContextPool.borrow();
+        DagEngine<ExampleContext> engine = config.borrowEngine();
+        try {
+            context.setNodeInterceptor(interceptor);
+            long start = System.nanoTime();
+            engine.execute(input, context);
+            long elapsed = System.nanoTime() - start;
+            assertNull(engine.getEx());
+            return elapsed;
+        } finally {
+            config.releaseEngine(engine);
+            DagContextPool.release(context);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.CpuBurner;
+import com.qiao.flow.orchestrator.core.dag.testing.LatencyDistribution;
+import com.qiao.flow.orchestrator.core.dag.testing.SimulatedFailureException;
+import com.qiao.flow.orchestrator.core.dag.testing.SimulatedNode;
+import com.qiao.flow.orchestrator.core.dag.testing.SimulatedTopology;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadReport;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadRequest;
+import com.qiao.flow.orchestrator.core.dag.testing.load.OpenLoopLoadGenerator;
+import com.qiao.flow.orchestrator.core.dag.testing.load.WorkflowLoadResult;
+import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 模拟耗时节点测试类
+ * 验证耗时分布、CPU计算量校准，以及在adRanking拓扑上用模拟节点离线对比调度策略
+ */
+@Slf4j
+@SpringBootTest(classes = Application.class)
+public class SimulatedNodeTest {
+
+    private static final String[] USER_IDS = {"a", "b", "c"};
+
+    private static final LongFunction<ExampleContext> INPUT = sequence -> {
+        ExampleContext context = new ExampleContext();
+        context.setUserId(USER_IDS[(int) (sequence % USER_IDS.length)]);
+        return context;
+    };
+
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
+    @Test
+    public void testLatencyDistributions() {
+        SplittableRandom random = new SplittableRandom(42);
+        long[] samples = new long[100_000];
+        LatencyDistribution logNormal = LatencyDistribution.logNormal(5, 40, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = logNormal.sampleNanos(random);
+        }
+        Arrays.sort(samples);
+        assertEquals(5_000_000, samples[samples.length / 2], 250_000, "median");
+        assertEquals(40_000_000, samples[samples.length * 99 / 100], 4_000_000, "p99");
+
+        LatencyDistribution bimodal = LatencyDistribution.bimodal(
+                LatencyDistribution.fixed(1, TimeUnit.MILLISECONDS),
+                LatencyDistribution.fixed(50, TimeUnit.MILLISECONDS), 0.01);
+        int tail = 0;
+        for (int i = 0; i < samples.length; i++) {
+            if (bimodal.sampleNanos(random) == 50_000_000L) {
+                tail++;
+            }
+        }
+        assertEquals(1_000, tail, 200, "tail samples");
+    }
+
+    @Test
+    public void testCpuBurnerIsCalibrated() {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            CpuBurner.burn(5_000_000L);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        log.info("burn(5ms) took {}us, {} iterations/us", best / 1_000, Math.round(CpuBurner.getIterationsPerMicro()));
+        assertTrue(best > 2_500_000L && best < 20_000_000L, "burn(5ms) took " + best + "ns");
+    }
+
+    @Test
+    public void testCompareExecutionModesOnSimulatedAdRanking() {
+        DagEngineConfig config = SimulatedTopology.from(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING))
+                .workflow("adRankingSimulated")
+                .io(LatencyDistribution.logNormal(2, 10, TimeUnit.MILLISECONDS))
+                .cpu(LatencyDistribution.fixed(200, TimeUnit.MICROSECONDS))
+                .build();
+
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            LoadReport report = OpenLoopLoadGenerator.create()
+                    .rate(50)
+                    .warmup(Duration.ofMillis(500))
+                    .duration(Duration.ofSeconds(2))
+                    .threads(32)
+                    .workflow(mode.name(), LoadRequest.dagEngine(config, mode, INPUT))
+                    .run();
+            log.info("📊 simulated adRanking, {}:\n{}", mode, report.format());
+
+            WorkflowLoadResult result = report.getWorkflow(mode.name());
+            assertFalse(report.isSaturated(), mode + " should keep up with 50/s");
+            assertEquals(0, result.getFailed());
+            // 关键路径上至少有一个IO节点，中位耗时不会低于IO耗时的中位数
+            assertTrue(result.getServiceTime().getValueAtPercentile(50) > 2_000_000L,
+                    mode + " p50 should include simulated IO latency, was: "
+                            + result.getServiceTime().getValueAtPercentile(50));
+        }
+    }
+
+    @Test
+    public void testFailureInjection() {
+        DagEngineConfig config = SimulatedTopology.from(dagAutoRunner.getEngineConfig(WorkflowNames.AD_RANKING))
+                .workflow("adRankingFailing")
+                .node("ctrFactor", SimulatedNode.io(LatencyDistribution.none()).failureRate(1.0))
+                .build();
+
+        LoadRequest request = LoadRequest.dagEngine(config, ExecutionMode.WAVE, INPUT);
+        // 原节点照常执行，用户a的开关关闭，走默认排序分支，不经过ctrFactor
+        assertDoesNotThrow(() -> request.execute(0));
+        // 用户b走完整分支，ctrFactor失败
+        Exception exception = assertThrows(Exception.class, () -> request.execute(1));
+        Throwable cause = exception;
+        while (cause != null && !(cause instanceof SimulatedFailureException)) {
+            cause = cause.getCause();
+        }
+        assertNotNull(cause, "expected SimulatedFailureException, got: " + exception);
+        assertTrue(cause.getMessage().contains("ctrFactor"));
+    }
+}
@@ -0,0 +1,99 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.load.LoadRequest;
+import com.qiao.flow.orchestrator.core.dag.testing.load.OpenLoopLoadGenerator;
+import com.qiao.flow.orchestrator.core.dag.testing.soak.SoakHarness;
+import com.qiao.flow.orchestrator.core.dag.testing.soak.SoakReport;
+import com.qiao.flow.orchestrator.example.Application;
+import com.qiao.flow.orchestrator.example.constants.WorkflowNames;
+import com.qiao.flow.orchestrator.example.entity.ExampleContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 稳态压测（soak）测试类
+ * 默认只跑几秒用于验证流程；长时间运行通过系统属性指定ISO-8601时长，例如
+ * -Dsoak.duration=PT2H -Dsoak.warmup=PT10M -Dsoak.interval=PT1M -Dsoak.rate=500
+ */
+@Slf4j
+@SpringBootTest(classes = Application.class)
+public class SoakTest {
+
+    private static final String[] USER_IDS = {"a", "b", "c"};
+
+    @Autowired
+    DagAutoRunner dagAutoRunner;
+
+    @Test
+    public void testAdRankingIsStableUnderSteadyLoad() {
+        OpenLoopLoadGenerator load = OpenLoopLoadGenerator.create()
+                .rate(Double.parseDouble(System.getProperty("soak.rate", "200")))
+                .threads(32)
+                .workflow(WorkflowNames.AD_RANKING, LoadRequest.dagWorkflow(dagAutoRunner, WorkflowNames.AD_RANKING,
+                        sequence -> {
+                            ExampleContext context = new ExampleContext();
+                            context.setUserId(USER_IDS[(int) (sequence % USER_IDS.length)]);
+                            return context;
+                        }));
+
+        SoakReport report = SoakHarness.create()
+                .warmup(property("soak.warmup", Duration.ofSeconds(2)))
+                .duration(property("soak.duration", Duration.ofSeconds(4)))
+                .sampleInterval(property("soak.interval", Duration.ofMillis(500)))
+                .runner(dagAutoRunner)
+                .load(load)
+                .run();
+        log.info("📊 soak report:\n{}", report.format());
+
+        assertFalse(report.getLoadReport().isSaturated(), "soak load should not saturate");
+        assertEquals(0, report.getLoadReport().getWorkflow(WorkflowNames.AD_RANKING).getFailed());
+        report.assertStable();
+    }
+
+    @Test
+    public void testLeakedContextsAreDetected() {
+        // 借出后既不归还也不释放引用，存活数和借出数都应随时间线性增长
+        List<DagContext> leaked = new ArrayList<>();
+        OpenLoopLoadGenerator load = OpenLoopLoadGenerator.create()
+                .rate(500)
+                .threads(2)
+                .workflow("leak", sequence -> {
+                    DagContext context = DagContextPool.borrow();
+                    synchronized (leaked) {
+                        leaked.add(context);
+                    }
+                });
+
+        SoakReport report = SoakHarness.create()
+                .warmup(Duration.ofMillis(500))
+                .duration(Duration.ofSeconds(3))
+                .sampleInterval(Duration.ofMillis(250))
+                .load(load)
+                .run();
+        log.info("📊 leak report:\n{}", report.format());
+
+        assertFalse(report.isStable());
+        assertTrue(report.getTrend(SoakHarness.BORROWED_CONTEXTS).isExceeded());
+        assertTrue(report.getTrend(SoakHarness.BORROWED_CONTEXTS).getSlopePerMinute() > 10_000,
+                "expected about 30000/min, was: " + report.getTrend(SoakHarness.BORROWED_CONTEXTS).getSlopePerMinute());
+        assertThrows(AssertionError.class, report::assertStable);
+
+        leaked.forEach(DagContextPool::release);
+    }
+
+    private static Duration property(String name, Duration defaultValue) {
+        String value = System.getProperty(name);
+        return value == null ? defaultValue : Duration.parse(value);
+    }
+}
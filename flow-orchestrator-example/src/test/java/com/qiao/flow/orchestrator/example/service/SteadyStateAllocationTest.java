@@ -0,0 +1,288 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 稳定状态分配测试类
+ * 引擎和上下文都从池中复用时，按批次执行的调度路径不随节点数分配对象。
+ * 分配量按调用线程和线程池线程合计：派发到线程池的节点在工作线程上执行节点包装、指标记录和完成通知，
+ * 只统计调用线程会漏掉这部分。
+ * <p>
+ * AsyncNode不在"不分配"的范围内：每个AsyncNode每次执行固定产生一条stage完成链，
+ * 单独测量并限定为每个异步节点的固定字节数
+ */
+@Slf4j
+public class SteadyStateAllocationTest {
+
+    private static final String WORKFLOW = "allocationTest";
+
+    private static final int WARMUP_EXECUTIONS = 20_000;
+    private static final int MEASURED_EXECUTIONS = 100_000;
+
+    private static final int SMALL_WIDTH = 2;
+    private static final int LARGE_WIDTH = 10;
+
+    private static final int MANY_ASYNC_NODES = 4;
+
+    /**
+     * 每个AsyncNode每次执行的stage完成链：NodeWrapper的handle与引擎的whenComplete
+     * 各产生一个CompletableFuture（24字节）和一个捕获变量的lambda（共80字节）
+     */
+    private static final double BYTES_PER_ASYNC_NODE = 128;
+
+    /**
+     * 每次执行允许的固定分配：
+     * DagContextPool队列节点24字节；工作流中唯一一个AsyncNode的stage完成链（BYTES_PER_ASYNC_NODE）。
+     * 另留16字节余量给摊到每次执行的偶发分配，调度路径上任何按节点或按批次的新分配都会超出
+     */
+    private static final double BYTES_PER_EXECUTION = 24 + BYTES_PER_ASYNC_NODE + 16;
+
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private ThreadPoolFixture pools;
+    private HandoffExecutor cpuPool;
+    private HandoffExecutor ioPool;
+
+    @BeforeEach
+    public void setUp() {
+        // 线程池本身不分配：JDK线程池的队列节点和条件等待节点会掩盖引擎的分配
+        cpuPool = new HandoffExecutor("alloc-cpu-", LARGE_WIDTH);
+        ioPool = new HandoffExecutor("alloc-io-", LARGE_WIDTH);
+        pools = ThreadPoolFixture.of(cpuPool, ioPool);
+        // 每次执行的工作流完成日志与本测试无关
+        DagEventLog.setLevel(WORKFLOW, EventLogLevel.ERROR);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        DagEventLog.setLevel(WORKFLOW, null);
+        pools.close();
+    }
+
+    @Test
+    public void testNoAllocationPerNode() {
+        DagEngineConfig small = adRanking(SMALL_WIDTH, 1);
+        DagEngineConfig large = adRanking(LARGE_WIDTH, 1);
+        int extraNodes = 2 * (LARGE_WIDTH - SMALL_WIDTH);
+
+        double smallBytes = bytesPerExecution(small);
+        double largeBytes = bytesPerExecution(large);
+        double perNode = (largeBytes - smallBytes) / extraNodes;
+        log.info("📊 bytes per execution: {} nodes {}, {} nodes {}, per additional node {}",
+                small.getNodeIndex().size(), String.format("%.1f", smallBytes),
+                large.getNodeIndex().size(), String.format("%.1f", largeBytes), String.format("%.2f", perNode));
+
+        assertTrue(Math.abs(perNode) < 1.0, "scheduling should not allocate per node, bytes per node: " + perNode);
+        assertTrue(largeBytes < BYTES_PER_EXECUTION, "bytes per execution should stay constant, was: " + largeBytes);
+    }
+
+    /**
+     * AsyncNode的分配只有每个节点固定的stage完成链，不随其他节点或批次增长
+     */
+    @Test
+    public void testAsyncNodeAllocationBounded() {
+        DagEngineConfig single = adRanking(SMALL_WIDTH, 1);
+        DagEngineConfig many = adRanking(SMALL_WIDTH, MANY_ASYNC_NODES);
+
+        double singleBytes = bytesPerExecution(single);
+        double manyBytes = bytesPerExecution(many);
+        double perAsyncNode = (manyBytes - singleBytes) / (MANY_ASYNC_NODES - 1);
+        log.info("📊 bytes per execution: 1 async node {}, {} async nodes {}, per additional async node {}",
+                String.format("%.1f", singleBytes), MANY_ASYNC_NODES, String.format("%.1f", manyBytes),
+                String.format("%.2f", perAsyncNode));
+
+        assertTrue(perAsyncNode < BYTES_PER_ASYNC_NODE + 8,
+                "async node should only allocate its completion chain, bytes per async node: " + perAsyncNode);
+    }
+
+    /**
+     * 在当前线程上反复借用引擎和上下文执行，返回测量阶段调用线程与线程池线程平均每次执行分配的字节数
+     */
+    private double bytesPerExecution(DagEngineConfig config) {
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] threadIds = new long[1 + 2 * LARGE_WIDTH];
+        threadIds[0] = Thread.currentThread().threadId();
+        cpuPool.copyThreadIds(threadIds, 1);
+        ioPool.copyThreadIds(threadIds, 1 + LARGE_WIDTH);
+        String input = "input";
+
+        for (int i = 0; i < WARMUP_EXECUTIONS; i++) {
+            executeOnce(config, input);
+        }
+        long before = sum(threadBean.getThreadAllocatedBytes(threadIds));
+        for (int i = 0; i < MEASURED_EXECUTIONS; i++) {
+            executeOnce(config, input);
+        }
+        long allocated = sum(threadBean.getThreadAllocatedBytes(threadIds)) - before;
+        return (double) allocated / MEASURED_EXECUTIONS;
+    }
+
+    private void executeOnce(DagEngineConfig config, String input) {
+        DagEngine<String> engine = config.borrowEngine();
+        DagContext dagContext = DagContextPool.borrow();
+        try {
+            engine.execute(input, dagContext);
+            if (engine.getDagState() != DagState.FINISH) {
+                fail("execution failed: " + engine.getEx());
+            }
+        } finally {
+            DagContextPool.release(dagContext);
+            config.releaseEngine(engine);
+        }
+    }
+
+    /**
+     * 与广告排序相同的形状，共2 * width + asyncNodes + 3个节点：
+     * checkSwitch(INLINE) -> versionInfo0..M(AsyncNode) -> fetch0..N(IO) -> score0..N(CPU) -> merge(CPU) -> finish(INLINE)
+     */
+    private DagEngineConfig adRanking(int width, int asyncNodes) {
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW)
+                .start("checkSwitch", NodeType.INLINE, WorkflowFixture.NOOP);
+        String[] versionInfos = new String[asyncNodes];
+        for (int i = 0; i < asyncNodes; i++) {
+            versionInfos[i] = "versionInfo" + i;
+            workflow.node(versionInfos[i], NodeType.ASYNC_IO,
+                    (AsyncNode<String>) (param, context, nodeId) -> COMPLETED, "checkSwitch");
+        }
+        String[] scores = new String[width];
+        for (int i = 0; i < width; i++) {
+            scores[i] = "score" + i;
+            workflow.node("fetch" + i, NodeType.IO, WorkflowFixture.NOOP, versionInfos);
+            workflow.node(scores[i], NodeType.CPU, WorkflowFixture.NOOP, "fetch" + i);
+        }
+        return workflow.node("merge", NodeType.CPU, WorkflowFixture.NOOP, scores)
+                .end("finish", NodeType.INLINE, WorkflowFixture.NOOP, "merge")
+                .build(pools.getManager(), 5000L);
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * 不分配对象的测试线程池：每个工作线程一个任务槽，提交时找到空闲槽位放入任务并唤醒线程
+     */
+    private static final class HandoffExecutor extends AbstractExecutorService {
+
+        private final Thread[] threads;
+        private final AtomicReference<Runnable>[] slots;
+        private volatile boolean shutdown;
+
+        @SuppressWarnings("unchecked")
+        HandoffExecutor(String prefix, int size) {
+            threads = new Thread[size];
+            slots = new AtomicReference[size];
+            for (int i = 0; i < size; i++) {
+                AtomicReference<Runnable> slot = new AtomicReference<>();
+                slots[i] = slot;
+                threads[i] = new Thread(() -> work(slot), prefix + (i + 1));
+                threads[i].setDaemon(true);
+                threads[i].start();
+            }
+        }
+
+        private void work(AtomicReference<Runnable> slot) {
+            while (!shutdown) {
+                Runnable task = slot.get();
+                if (task == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                try {
+                    task.run();
+                } finally {
+                    slot.set(null);
+                }
+            }
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            while (true) {
+                for (int i = 0; i < slots.length; i++) {
+                    if (slots[i].compareAndSet(null, task)) {
+                        LockSupport.unpark(threads[i]);
+                        return;
+                    }
+                }
+                Thread.yield();
+            }
+        }
+
+        void copyThreadIds(long[] target, int offset) {
+            for (int i = 0; i < threads.length; i++) {
+                target[offset + i] = threads[i].threadId();
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+            for (Thread thread : threads) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown();
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            for (Thread thread : threads) {
+                if (thread.isAlive()) {
+                    return false;
+                }
+            }
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (Thread thread : threads) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return isTerminated();
+                }
+                TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+            }
+            return isTerminated();
+        }
+    }
+}
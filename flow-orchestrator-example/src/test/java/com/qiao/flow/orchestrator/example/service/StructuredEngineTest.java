@@ -0,0 +1,242 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.engine.DagStructuredEngine;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.node.AsyncNode;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 结构化并发引擎测试类
+ * 验证大量并发IO型DAG的平台线程占用、失败时取消兄弟节点、整体截止时间，以及超时后等待节点退出
+ */
+@Slf4j
+public class StructuredEngineTest {
+
+    private static final String WORKFLOW = "structuredTest";
+
+    private ThreadPoolFixture pools;
+
+    @BeforeEach
+    public void setUp() {
+        pools = ThreadPoolFixture.create(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pools.close();
+    }
+
+    /**
+     * 测试大量并发IO型DAG只占用很少的平台线程
+     */
+    @Test
+    public void testManyConcurrentIoDags() throws Exception {
+        log.info("🧪 === 开始测试大量并发IO型DAG ===");
+        int dagCount = 10_000;
+
+        // 压测期间关闭节点级INFO日志
+        Logger engineLogger = (Logger) LoggerFactory.getLogger(DagStructuredEngine.class);
+        Level level = engineLogger.getLevel();
+        engineLogger.setLevel(Level.WARN);
+
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW).start("start", NodeType.INLINE, WorkflowFixture.NOOP);
+        String[] calls = new String[4];
+        for (int i = 0; i < calls.length; i++) {
+            calls[i] = "call" + i;
+            workflow.node(calls[i], NodeType.IO, (param, context, nodeId) -> Thread.sleep(50), "start");
+        }
+        DagEngineConfig config = workflow.end("end", NodeType.INLINE, WorkflowFixture.NOOP, calls)
+                .build(pools.getManager(), 30000L);
+
+        int platformThreadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        int peakPlatformThreads = platformThreadsBefore;
+        long start = System.currentTimeMillis();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<DagState>> futures = new ArrayList<>(dagCount);
+            for (int i = 0; i < dagCount; i++) {
+                futures.add(requests.submit(() -> {
+                    DagStructuredEngine<String> engine = config.createStructuredEngine();
+                    engine.execute("input", new DagContext());
+                    return engine.getDagState();
+                }));
+            }
+            for (Future<DagState> future : futures) {
+                peakPlatformThreads = Math.max(peakPlatformThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+                assertEquals(DagState.FINISH, future.get(60, TimeUnit.SECONDS));
+            }
+        } finally {
+            engineLogger.setLevel(level);
+        }
+        long elapsed = System.currentTimeMillis() - start;
+
+        log.info("{} concurrent DAGs ({} IO calls) finished in {}ms, platform threads: {} -> peak {}",
+                dagCount, dagCount * 4, elapsed, platformThreadsBefore, peakPlatformThreads);
+        assertTrue(peakPlatformThreads - platformThreadsBefore < 100,
+                "platform threads should stay small, peak: " + peakPlatformThreads);
+        log.info("✅ 大量并发IO型DAG测试完成");
+    }
+
+    /**
+     * 测试长INLINE链在一个线程上循环执行，调用栈深度不随链长增长
+     */
+    @Test
+    public void testLongInlineChain() throws Exception {
+        int length = 2_000;
+        WorkflowFixture workflow = WorkflowFixture.create(WORKFLOW).start("inline0", NodeType.INLINE, WorkflowFixture.NOOP);
+        for (int i = 1; i < length - 1; i++) {
+            workflow.node("inline" + i, NodeType.INLINE, WorkflowFixture.NOOP, "inline" + (i - 1));
+        }
+        DagEngineConfig config = workflow.end("inline" + (length - 1), NodeType.INLINE, WorkflowFixture.NOOP,
+                "inline" + (length - 2)).build(pools.getManager(), 30000L);
+
+        // 逐层递归时2000层远超256KB的线程栈
+        DagStructuredEngine<String> engine = config.createStructuredEngine();
+        CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                engine.execute("input", new DagContext());
+                failure.complete(null);
+            } catch (Throwable e) {
+                failure.complete(e);
+            }
+        }, "inline-chain", 256 * 1024);
+        thread.start();
+
+        assertNull(failure.get(30, TimeUnit.SECONDS));
+        assertEquals(DagState.FINISH, engine.getDagState(), String.valueOf(engine.getEx()));
+    }
+
+    /**
+     * 测试节点失败时中断仍在运行的兄弟节点
+     */
+    @Test
+    public void testFailureCancelsSiblings() {
+        log.info("🧪 === 开始测试失败取消兄弟节点 ===");
+        AtomicBoolean siblingInterrupted = new AtomicBoolean();
+        DagStructuredEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .node("slow", NodeType.IO, (param, context, nodeId) -> {
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        siblingInterrupted.set(true);
+                        throw e;
+                    }
+                }, "start")
+                .node("broken", NodeType.IO, (param, context, nodeId) -> {
+                    Thread.sleep(20);
+                    throw new IllegalStateException("downstream unavailable");
+                }, "start")
+                .end("end", NodeType.INLINE, WorkflowFixture.NOOP, "slow", "broken")
+                .build(pools.getManager(), 30000L).createStructuredEngine();
+        long start = System.currentTimeMillis();
+        engine.execute("input", new DagContext());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertEquals("downstream unavailable", engine.getEx().getMessage());
+        assertTrue(elapsed < 5000, "failure should not wait for siblings, elapsed: " + elapsed + "ms");
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!siblingInterrupted.get() && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(siblingInterrupted.get(), "sibling should be interrupted");
+        log.info("✅ 失败取消兄弟节点测试完成, elapsed: {}ms", elapsed);
+    }
+
+    /**
+     * 测试整体截止时间
+     */
+    @Test
+    public void testDeadline() {
+        log.info("🧪 === 开始测试整体截止时间 ===");
+        DagStructuredEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .end("stuck", NodeType.IO, (param, context, nodeId) -> Thread.sleep(10_000), "start")
+                .build(pools.getManager(), 100L).createStructuredEngine();
+        long start = System.currentTimeMillis();
+        engine.execute("input", new DagContext());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertEquals("DAG execution timeout", engine.getEx().getMessage());
+        assertTrue(elapsed < 2000, "deadline should be enforced, elapsed: " + elapsed + "ms");
+        log.info("✅ 整体截止时间测试完成, elapsed: {}ms", elapsed);
+    }
+
+    /**
+     * 测试超时后等待不响应中断的CPU节点退出，execute返回后上下文不再被修改
+     */
+    @Test
+    public void testTimeoutJoinsUninterruptibleNode() {
+        log.info("🧪 === 开始测试超时等待不响应中断的节点 ===");
+        AtomicLong lastWriteNanos = new AtomicLong();
+        DagStructuredEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .end("spin", NodeType.CPU, (param, context, nodeId) -> {
+                    // 忙等，不检查中断
+                    long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(400);
+                    while (System.nanoTime() < until) {
+                        Thread.onSpinWait();
+                    }
+                    context.putData("spin.done", true);
+                    lastWriteNanos.set(System.nanoTime());
+                }, "start")
+                .build(pools.getManager(), 100L).createStructuredEngine();
+        DagContext context = new DagContext();
+        engine.execute("input", context);
+        long returnedNanos = System.nanoTime();
+
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertEquals("DAG execution timeout", engine.getEx().getMessage());
+        // 节点在execute返回前已经退出，写入发生在返回之前
+        assertEquals(Boolean.TRUE, context.getData("spin.done"));
+        assertTrue(lastWriteNanos.get() != 0 && lastWriteNanos.get() - returnedNanos <= 0, "node wrote after execute returned");
+        assertFalse(engine.isAbandoned());
+        log.info("✅ 超时等待不响应中断的节点测试完成");
+    }
+
+    /**
+     * 测试超时时仍未完成的AsyncNode stage使引擎标记为已放弃，完成后不再写入时间线和状态
+     */
+    @Test
+    public void testTimeoutAbandonsPendingStage() {
+        CompletableFuture<Void> stage = new CompletableFuture<>();
+        DagStructuredEngine<String> engine = WorkflowFixture.create(WORKFLOW)
+                .start("start", NodeType.INLINE, WorkflowFixture.NOOP)
+                .end("async", NodeType.IO, (AsyncNode<String>) (param, context, nodeId) -> stage, "start")
+                .build(pools.getManager(), 100L).createStructuredEngine();
+        engine.execute("input", new DagContext());
+
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertTrue(engine.isAbandoned());
+        // 晚到的完成不改变执行结果
+        stage.complete(null);
+        assertEquals(DagState.ERROR, engine.getDagState());
+        assertEquals("DAG execution timeout", engine.getEx().getMessage());
+    }
+}
@@ -0,0 +1,131 @@
+package com.qiao.flow.orchestrator.example.service;
+
+import com.qiao.flow.orchestrator.core.dag.context.DagContext;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngine;
+import com.qiao.flow.orchestrator.core.dag.engine.DagEngineConfig;
+import com.qiao.flow.orchestrator.core.dag.enums.DagState;
+import com.qiao.flow.orchestrator.core.dag.node.Node;
+import com.qiao.flow.orchestrator.core.dag.node.NodeType;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
+import com.qiao.flow.orchestrator.core.dag.testing.ThreadPoolFixture;
+import com.qiao.flow.orchestrator.core.dag.testing.WorkflowFixture;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.threadpool.ThreadPoolConfig;
+import com.qiao.flow.orchestrator.starter.config.DagAutoConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 工作窃取线程池测试类
+ * 验证DAG在工作窃取ForkJoinPool上正确执行，以及自动配置创建的工作窃取线程池随容器关闭；
+ * 吞吐对比依赖机器，放在benchmark模块的WorkStealingBenchmark中
+ */
+@Slf4j
+public class WorkStealingComparisonTest {
+
+    private static final String THREAD_PREFIX = "test-dag-cpu-ws-";
+    private static final int FAN_OUT = 8;
+
+    /**
+     * 工作窃取线程池上并发执行扇出DAG：全部完成，CPU节点都在工作窃取线程上执行
+     * 与有界队列线程池的吞吐对比见benchmark模块的WorkStealingBenchmark
+     */
+    @Test
+    public void testFanOutOnWorkStealingPool() throws Exception {
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        Node<String> node = (param, context, nodeId) -> threads.put(nodeId, Thread.currentThread().getName());
+        WorkflowFixture workflow = WorkflowFixture.create("workStealingTest").start("start", NodeType.INLINE, node);
+        for (int i = 0; i < FAN_OUT; i++) {
+            workflow.node("score" + i, NodeType.CPU, node, "start");
+        }
+        String[] merges = new String[FAN_OUT / 2];
+        for (int i = 0; i < merges.length; i++) {
+            merges[i] = "merge" + i;
+            workflow.node(merges[i], NodeType.CPU, node, "score" + (2 * i), "score" + (2 * i + 1));
+        }
+
+        try (ThreadPoolFixture pools = ThreadPoolFixture.of(MixedThreadPoolManager.newWorkStealingCpuPool(2, THREAD_PREFIX),
+                Executors.newVirtualThreadPerTaskExecutor())) {
+            DagEngineConfig config = workflow.end("end", NodeType.INLINE, node, merges).build(pools.getManager(), 10000L);
+            try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<DagState>> futures = new ArrayList<>();
+                for (int i = 0; i < 16; i++) {
+                    futures.add(requests.submit(() -> {
+                        DagEngine<String> engine = config.createEngine();
+                        engine.execute("input", new DagContext());
+                        return engine.getDagState();
+                    }));
+                }
+                for (Future<DagState> future : futures) {
+                    assertEquals(DagState.FINISH, future.get(30, TimeUnit.SECONDS));
+                }
+            }
+        }
+
+        assertEquals(2 + FAN_OUT + merges.length, threads.size(), threads.toString());
+        for (Map.Entry<String, String> entry : threads.entrySet()) {
+            if (entry.getKey().startsWith("score") || entry.getKey().startsWith("merge")) {
+                assertTrue(entry.getValue().startsWith(THREAD_PREFIX), threads.toString());
+            }
+        }
+    }
+
+    @Test
+    public void testAutoConfiguredPoolClosedWithContext() {
+        try (ThreadPoolFixture pools = ThreadPoolFixture.create(1)) {
+            ThreadPoolConfig config = new ThreadPoolConfig() {
+                @Override
+                public ExecutorService getDagCpuThreadPool() {
+                    return pools.getCpuPool();
+                }
+
+                @Override
+                public ExecutorService getDagIoThreadPool() {
+                    return pools.getIoPool();
+                }
+
+                @Override
+                public ExecutorService getOpsItemDimensionThreadPool() {
+                    return null;
+                }
+
+                @Override
+                public ExecutorService getOpsFactorThreadPool() {
+                    return null;
+                }
+
+                @Override
+                public ExecutorService getOpsContextDimensionThreadPool() {
+                    return null;
+                }
+            };
+            ApplicationContextRunner runner = new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(DagAutoConfiguration.class))
+                    .withUserConfiguration(DagAutoRunner.class)
+                    .withBean(ThreadPoolConfig.class, () -> config);
+
+            ForkJoinPool[] created = new ForkJoinPool[1];
+            runner.withPropertyValues("dag.thread-pool.cpu-executor=WORK_STEALING", "dag.thread-pool.cpu-parallelism=2")
+                    .run(context -> {
+                        ForkJoinPool pool = context.getBean("dagWorkStealingCpuPool", ForkJoinPool.class);
+                        assertEquals(2, pool.getParallelism());
+                        assertSame(pool, context.getBean(MixedThreadPoolManager.class).getThreadPool(NodeType.CPU));
+                        created[0] = pool;
+                    });
+            // 容器关闭时线程池随之关闭
+            assertTrue(created[0].isTerminated());
+
+            runner.run(context -> {
+                assertFalse(context.containsBean("dagWorkStealingCpuPool"));
+                assertSame(pools.getCpuPool(), context.getBean(MixedThreadPoolManager.class).getThreadPool(NodeType.CPU));
+            });
+        }
+    }
+}
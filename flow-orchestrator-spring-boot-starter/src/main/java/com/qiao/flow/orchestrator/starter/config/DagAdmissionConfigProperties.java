@@ -0,0 +1,122 @@
+package com.qiao.flow.orchestrator.starter.config;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdaptiveConcurrencyLimiter;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionLimit;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DAG准入控制配置属性
+ * 支持默认配置和按工作流单独配置，单独配置优先级高于默认配置
+ *
+ * @author qiao
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "dag.admission")
+public class DagAdmissionConfigProperties {
+
+    /**
+     * 是否启用准入控制，默认关闭
+     */
+    private boolean enabled = false;
+
+    /**
+     * 限流策略：FIXED-固定并发上限+有界排队，ADAPTIVE-根据延迟自适应调整并发上限
+     */
+    private Strategy strategy = Strategy.FIXED;
+
+    /**
+     * 默认最大并发执行数
+     */
+    private int maxConcurrent = 200;
+
+    /**
+     * 默认最大排队数，0表示不排队
+     */
+    private int queueSize = 100;
+
+    /**
+     * 默认排队超时时间（毫秒）
+     */
+    private long queueTimeoutMs = 50;
+
+    /**
+     * 按工作流单独配置，key为工作流名称
+     */
+    private Map<String, WorkflowAdmission> workflows = new HashMap<>();
+
+    /**
+     * 自适应限流配置，仅strategy=ADAPTIVE时生效
+     */
+    private Adaptive adaptive = new Adaptive();
+
+    /**
+     * 限流策略
+     */
+    public enum Strategy {
+        FIXED,
+        ADAPTIVE
+    }
+
+    /**
+     * 单个工作流的准入配置
+     * null表示使用默认配置
+     */
+    @Setter
+    @Getter
+    public static class WorkflowAdmission {
+        private Integer maxConcurrent;
+        private Integer queueSize;
+        private Long queueTimeoutMs;
+    }
+
+    /**
+     * 自适应限流配置
+     */
+    @Setter
+    @Getter
+    public static class Adaptive {
+        private int initialLimit = 20;
+        private int minLimit = 4;
+        private int maxLimit = 1000;
+        private double smoothing = 0.2;
+        private double tolerance = 1.5;
+        private long windowMs = 1000;
+        private int minSamplesPerWindow = 10;
+        private int baselineProbeWindows = 600;
+
+        public AdaptiveConcurrencyLimiter.Settings toSettings() {
+            return new AdaptiveConcurrencyLimiter.Settings(initialLimit, minLimit, maxLimit, smoothing, tolerance,
+                    windowMs, minSamplesPerWindow, baselineProbeWindows);
+        }
+    }
+
+    /**
+     * 获取默认准入限制
+     */
+    public AdmissionLimit getDefaultLimit() {
+        return new AdmissionLimit(maxConcurrent, queueSize, queueTimeoutMs);
+    }
+
+    /**
+     * 获取按工作流合并后的准入限制
+     * 优先级：单独配置 > 默认配置
+     */
+    public Map<String, AdmissionLimit> getWorkflowLimits() {
+        Map<String, AdmissionLimit> limits = new HashMap<>(workflows.size());
+        for (Map.Entry<String, WorkflowAdmission> entry : workflows.entrySet()) {
+            WorkflowAdmission workflow = entry.getValue();
+            limits.put(entry.getKey(), new AdmissionLimit(
+                    workflow.getMaxConcurrent() != null ? workflow.getMaxConcurrent() : maxConcurrent,
+                    workflow.getQueueSize() != null ? workflow.getQueueSize() : queueSize,
+                    workflow.getQueueTimeoutMs() != null ? workflow.getQueueTimeoutMs() : queueTimeoutMs
+            ));
+        }
+        return limits;
+    }
+}
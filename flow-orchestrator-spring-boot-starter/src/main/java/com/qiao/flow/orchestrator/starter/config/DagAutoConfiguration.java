@@ -1,35 +1,87 @@
 package com.qiao.flow.orchestrator.starter.config;
 
+import com.qiao.flow.orchestrator.core.dag.admission.AdaptiveConcurrencyLimiter;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.WorkflowAdmissionController;
 import com.qiao.flow.orchestrator.core.dag.cleanup.DagCleanupScheduler;
+import com.qiao.flow.orchestrator.core.dag.eventlog.DagEventLog;
+import com.qiao.flow.orchestrator.core.dag.monitor.VirtualThreadPinningMonitor;
+import com.qiao.flow.orchestrator.core.dag.replay.WorkflowRecorder;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceSampler;
+import com.qiao.flow.orchestrator.core.dag.runner.DagAutoRunner;
 import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
 import com.qiao.flow.orchestrator.core.threadpool.ThreadPoolConfig;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * DAG Spring Boot Auto-configuring
  * 实现DAG与Spring的深度融合
  */
 @Slf4j
 @Configuration
-@EnableConfigurationProperties({DagCleanupConfigProperties.class})
+@EnableConfigurationProperties({DagCleanupConfigProperties.class, DagAdmissionConfigProperties.class,
+        DagThreadPoolConfigProperties.class, DagEngineConfigProperties.class,
+        DagMonitorConfigProperties.class})
 public class DagAutoConfiguration {
 
+    /**
+     * 工作窃取的CPU线程池
+     * 只有在dag.thread-pool.cpu-executor=WORK_STEALING时才创建，由容器管理生命周期，关闭时等待已提交的任务执行完
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBean(ThreadPoolConfig.class)
+    @ConditionalOnProperty(prefix = "dag.thread-pool", name = "cpu-executor", havingValue = "WORK_STEALING")
+    public ForkJoinPool dagWorkStealingCpuPool(DagThreadPoolConfigProperties threadPoolProperties) {
+        int parallelism = threadPoolProperties.getFinalCpuParallelism();
+        log.info("DAG CPU nodes use work-stealing pool, parallelism: {}", parallelism);
+        return MixedThreadPoolManager.newWorkStealingCpuPool(parallelism, "dag-cpu-ws-");
+    }
+
     /**
      * 混合线程池管理器
      * 只有在提供ThreadPoolConfig实现时才创建
+     * dag.thread-pool.cpu-executor=WORK_STEALING时CPU节点改用工作窃取线程池
      */
     @Bean
     @ConditionalOnBean(ThreadPoolConfig.class)
-    public MixedThreadPoolManager mixedThreadPoolManager(ThreadPoolConfig config) {
-        return new MixedThreadPoolManager(
-                config.getDagCpuThreadPool(),
-                config.getDagIoThreadPool()
+    public MixedThreadPoolManager mixedThreadPoolManager(ThreadPoolConfig config,
+                                                         @Qualifier("dagWorkStealingCpuPool")
+                                                         ObjectProvider<ForkJoinPool> workStealingCpuPool) {
+        ForkJoinPool workStealingPool = workStealingCpuPool.getIfAvailable();
+        ExecutorService cpuThreadPool = workStealingPool != null ? workStealingPool : config.getDagCpuThreadPool();
+        MixedThreadPoolManager manager = new MixedThreadPoolManager(
+                cpuThreadPool,
+                config.getDagIoThreadPool(),
+                config.getDagBlockingIoThreadPool(),
+                config.getDagHeavyCpuThreadPool()
         );
+
+        // 注册OPS隔离线程池，节点可通过@NodeConfig(executor = ...)指定
+        registerIfPresent(manager, MixedThreadPoolManager.OPS_ITEM_DIMENSION, config.getOpsItemDimensionThreadPool());
+        registerIfPresent(manager, MixedThreadPoolManager.OPS_FACTOR, config.getOpsFactorThreadPool());
+        registerIfPresent(manager, MixedThreadPoolManager.OPS_CONTEXT_DIMENSION, config.getOpsContextDimensionThreadPool());
+        return manager;
+    }
+
+    private void registerIfPresent(MixedThreadPoolManager manager, String name, ExecutorService executor) {
+        if (executor != null) {
+            manager.registerExecutor(name, executor);
+        }
     }
 
     /**
@@ -53,4 +105,80 @@ public class DagAutoConfiguration {
 
         return scheduler;
     }
-} 
\ No newline at end of file
+
+    /**
+     * 工作流准入控制器
+     * 只有在dag.admission.enabled=true时才创建，DagAutoRunner会自动注入
+     * strategy=ADAPTIVE时使用自适应并发限流器，否则使用固定上限+有界排队
+     */
+    @Bean
+    @ConditionalOnMissingBean(AdmissionController.class)
+    @ConditionalOnProperty(prefix = "dag.admission", name = "enabled", havingValue = "true")
+    public AdmissionController admissionController(DagAdmissionConfigProperties admissionProperties) {
+        if (admissionProperties.getStrategy() == DagAdmissionConfigProperties.Strategy.ADAPTIVE) {
+            return new AdaptiveConcurrencyLimiter(admissionProperties.getAdaptive().toSettings());
+        }
+        return new WorkflowAdmissionController(
+                admissionProperties.getDefaultLimit(),
+                admissionProperties.getWorkflowLimits()
+        );
+    }
+
+    /**
+     * 应用DAG执行模式配置
+     */
+    @Bean
+    public SmartInitializingSingleton dagExecutionModeInitializer(ObjectProvider<DagAutoRunner> dagAutoRunner,
+                                                                  DagEngineConfigProperties engineProperties) {
+        return () -> dagAutoRunner.ifAvailable(runner -> runner.setExecutionMode(engineProperties.getMode()));
+    }
+
+    /**
+     * 应用事件日志级别配置
+     */
+    @Bean
+    public SmartInitializingSingleton dagEventLogInitializer(DagMonitorConfigProperties monitorProperties) {
+        return () -> {
+            DagMonitorConfigProperties.EventLog eventLog = monitorProperties.getEventLog();
+            DagEventLog.setDefaultLevel(eventLog.getDefaultLevel());
+            eventLog.getWorkflowLevels().forEach(DagEventLog::setLevel);
+        };
+    }
+
+    /**
+     * 虚拟线程钉住监控器
+     * 只有在dag.monitor.pinning.enabled=true时才创建，通过JFR事件流按节点统计钉住次数与时长
+     */
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "dag.monitor.pinning", name = "enabled", havingValue = "true")
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(DagMonitorConfigProperties monitorProperties) {
+        return new VirtualThreadPinningMonitor(Duration.ofMillis(monitorProperties.getPinning().getThresholdMs()));
+    }
+
+    /**
+     * 执行时间线采样器
+     * 只有在dag.monitor.tracing.enabled=true时才创建，DagAutoRunner会自动注入
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "dag.monitor.tracing", name = "enabled", havingValue = "true")
+    public TraceSampler traceSampler(DagMonitorConfigProperties monitorProperties) {
+        DagMonitorConfigProperties.Tracing tracing = monitorProperties.getTracing();
+        return new TraceSampler(tracing.getSampleRate(), tracing.getWorkflowRates(),
+                tracing.getTailLatencyThresholdMs(), tracing.isTailKeepErrors(), tracing.getCapacity());
+    }
+
+    /**
+     * 工作流录制器
+     * 只有在dag.monitor.recording.enabled=true时才创建，DagAutoRunner会自动注入，关闭时写完剩余记录
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "dag.monitor.recording", name = "enabled", havingValue = "true")
+    public WorkflowRecorder workflowRecorder(DagMonitorConfigProperties monitorProperties) throws IOException {
+        DagMonitorConfigProperties.Recording recording = monitorProperties.getRecording();
+        return new WorkflowRecorder(Path.of(recording.getFile()), recording.getSampleRate(),
+                recording.getWorkflowRates(), recording.getMaxRecordings(), recording.getQueueCapacity());
+    }
+}
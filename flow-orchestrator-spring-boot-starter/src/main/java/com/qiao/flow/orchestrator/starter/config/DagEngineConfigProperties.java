@@ -0,0 +1,22 @@
+package com.qiao.flow.orchestrator.starter.config;
+
+import com.qiao.flow.orchestrator.core.dag.enums.ExecutionMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * DAG引擎配置属性
+ *
+ * @author qiao
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "dag.engine")
+public class DagEngineConfigProperties {
+
+    /**
+     * 执行模式：WAVE-按批次调度，STRUCTURED-结构化并发（虚拟线程作用域）
+     */
+    private ExecutionMode mode = ExecutionMode.WAVE;
+}
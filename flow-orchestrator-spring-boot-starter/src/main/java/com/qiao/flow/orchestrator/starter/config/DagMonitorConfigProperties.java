@@ -0,0 +1,140 @@
+package com.qiao.flow.orchestrator.starter.config;
+
+import com.qiao.flow.orchestrator.core.dag.eventlog.EventLogLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DAG监控配置属性
+ *
+ * @author qiao
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "dag.monitor")
+public class DagMonitorConfigProperties {
+
+    /**
+     * 虚拟线程钉住监控配置
+     */
+    private Pinning pinning = new Pinning();
+
+    /**
+     * 执行时间线采样配置
+     */
+    private Tracing tracing = new Tracing();
+
+    /**
+     * 节点生命周期事件日志配置
+     */
+    private EventLog eventLog = new EventLog();
+
+    /**
+     * 执行录制配置
+     */
+    private Recording recording = new Recording();
+
+    @Setter
+    @Getter
+    public static class Pinning {
+
+        /**
+         * 是否开启，开启后通过JFR事件流统计每个节点的虚拟线程钉住情况
+         */
+        private boolean enabled = false;
+
+        /**
+         * 钉住时长阈值（毫秒），短于该时长的钉住不记录
+         */
+        private long thresholdMs = 20;
+    }
+
+    @Setter
+    @Getter
+    public static class Tracing {
+
+        /**
+         * 是否开启，开启后按采样规则记录执行时间线，结果见 /dag/traces
+         */
+        private boolean enabled = false;
+
+        /**
+         * 头部采样比例（0~1）
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * 按工作流覆盖的头部采样比例
+         */
+        private Map<String, Double> workflowRates = new HashMap<>();
+
+        /**
+         * 尾部采样延迟阈值（毫秒），超过该耗时的执行全部保留，0表示不按延迟保留
+         */
+        private long tailLatencyThresholdMs = 0;
+
+        /**
+         * 尾部采样是否保留所有失败的执行
+         */
+        private boolean tailKeepErrors = false;
+
+        /**
+         * 最多保留的时间线数量，超出后覆盖最早的
+         */
+        private int capacity = 256;
+    }
+
+    @Setter
+    @Getter
+    public static class EventLog {
+
+        /**
+         * 默认记录级别：OFF、ERROR（只记录失败）、INFO（失败和工作流完成）、DEBUG（每个节点的完成）
+         */
+        private EventLogLevel defaultLevel = EventLogLevel.INFO;
+
+        /**
+         * 按工作流覆盖的记录级别，链式工作流使用名称chain
+         */
+        private Map<String, EventLogLevel> workflowLevels = new HashMap<>();
+    }
+
+    @Setter
+    @Getter
+    public static class Recording {
+
+        /**
+         * 是否开启，开启后按采样比例录制工作流输入和IO节点结果，用于本地回放压测
+         */
+        private boolean enabled = false;
+
+        /**
+         * 录制文件，已存在时覆盖
+         */
+        private String file = "logs/dag-recording.bin.gz";
+
+        /**
+         * 采样比例（0~1）
+         */
+        private double sampleRate = 0.001;
+
+        /**
+         * 按工作流覆盖的采样比例
+         */
+        private Map<String, Double> workflowRates = new HashMap<>();
+
+        /**
+         * 最多录制的执行次数，达到后停止录制
+         */
+        private long maxRecordings = 10000;
+
+        /**
+         * 等待写入文件的记录数上限，超出时丢弃
+         */
+        private int queueCapacity = 1024;
+    }
+}
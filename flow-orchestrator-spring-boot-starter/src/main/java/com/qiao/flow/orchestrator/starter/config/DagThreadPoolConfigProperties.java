@@ -0,0 +1,51 @@
+package com.qiao.flow.orchestrator.starter.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * DAG线程池配置属性
+ *
+ * @author qiao
+ */
+@Setter
+@Getter
+@ConfigurationProperties(prefix = "dag.thread-pool")
+public class DagThreadPoolConfigProperties {
+
+    /**
+     * CPU节点使用的执行器类型，默认使用ThreadPoolConfig提供的CPU线程池
+     */
+    private CpuExecutor cpuExecutor = CpuExecutor.THREAD_POOL;
+
+    /**
+     * 工作窃取线程池的并行度，0表示使用CPU核数
+     */
+    private int cpuParallelism = 0;
+
+    /**
+     * CPU执行器类型
+     */
+    public enum CpuExecutor {
+        THREAD_POOL("ThreadPoolConfig提供的CPU线程池"),
+        WORK_STEALING("工作窃取线程池（ForkJoinPool，本地队列LIFO）");
+
+        private final String description;
+
+        CpuExecutor(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * 获取最终的并行度
+     */
+    public int getFinalCpuParallelism() {
+        return cpuParallelism > 0 ? cpuParallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
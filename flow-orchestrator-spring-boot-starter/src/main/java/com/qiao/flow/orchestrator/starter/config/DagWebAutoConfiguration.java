@@ -1,9 +1,16 @@
 package com.qiao.flow.orchestrator.starter.config;
 
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.monitor.VirtualThreadPinningMonitor;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceSampler;
+import com.qiao.flow.orchestrator.starter.controller.DagMonitorController;
+import com.qiao.flow.orchestrator.starter.controller.DagTraceController;
 import com.qiao.flow.orchestrator.starter.controller.DagVisualizationController;
 import com.qiao.flow.orchestrator.starter.visualization.DagMermaidGenerator;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,4 +41,22 @@ public class DagWebAutoConfiguration {
     public DagVisualizationController dagVisualizationController(DagMermaidGenerator dagMermaidGenerator) {
         return new DagVisualizationController(dagMermaidGenerator);
     }
-} 
\ No newline at end of file
+
+    /**
+     * 配置DagMonitorController Bean
+     */
+    @Bean
+    public DagMonitorController dagMonitorController(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                                                     ObjectProvider<MixedThreadPoolManager> threadPoolManager,
+                                                     ObjectProvider<AdmissionController> admissionController) {
+        return new DagMonitorController(pinningMonitor, threadPoolManager, admissionController);
+    }
+
+    /**
+     * 配置DagTraceController Bean
+     */
+    @Bean
+    public DagTraceController dagTraceController(ObjectProvider<TraceSampler> traceSampler) {
+        return new DagTraceController(traceSampler);
+    }
+}
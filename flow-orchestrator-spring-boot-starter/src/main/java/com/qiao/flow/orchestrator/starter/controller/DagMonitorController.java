@@ -0,0 +1,140 @@
+package com.qiao.flow.orchestrator.starter.controller;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionStats;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
+import com.qiao.flow.orchestrator.core.dag.monitor.NodePinningStats;
+import com.qiao.flow.orchestrator.core.dag.monitor.VirtualThreadPinningMonitor;
+import com.qiao.flow.orchestrator.core.dag.pool.CollectionPool;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.ExecutorStats;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DAG运行监控控制器
+ *
+ * @author qiao
+ */
+@Slf4j
+@RestController
+@RequestMapping("/dag/monitor")
+public class DagMonitorController {
+
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final ObjectProvider<MixedThreadPoolManager> threadPoolManager;
+    private final ObjectProvider<AdmissionController> admissionController;
+
+    public DagMonitorController(ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                                ObjectProvider<MixedThreadPoolManager> threadPoolManager,
+                                ObjectProvider<AdmissionController> admissionController) {
+        this.pinningMonitor = pinningMonitor;
+        this.threadPoolManager = threadPoolManager;
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * 获取每个节点的虚拟线程钉住统计，按累计钉住时长降序
+     */
+    @GetMapping("/pinning")
+    public ResponseEntity<List<NodePinningStats>> getPinningStats() {
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(monitor.getStats());
+    }
+
+    /**
+     * 获取所有工作流的指标：计数以及工作流、节点排队/执行耗时的p50/p90/p99/p999（毫秒）
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(DagMetrics.toSummary());
+    }
+
+    /**
+     * 获取指定工作流的指标
+     */
+    @GetMapping("/metrics/{workflowName}")
+    public ResponseEntity<Map<String, Object>> getWorkflowMetrics(@PathVariable String workflowName) {
+        WorkflowMetrics metrics = DagMetrics.getWorkflow(workflowName);
+        if (metrics == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(metrics.toSummary());
+    }
+
+    /**
+     * 获取各线程池的活跃线程、排队、拒绝次数
+     */
+    @GetMapping("/executors")
+    public ResponseEntity<Map<String, ExecutorStats>> getExecutorStats() {
+        MixedThreadPoolManager manager = threadPoolManager.getIfAvailable();
+        if (manager == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(manager.getExecutorStats());
+    }
+
+    /**
+     * 获取各工作流的准入统计：并发上限、执行中、排队、准入/拒绝/超时次数，自适应限流时包含延迟基线
+     */
+    @GetMapping("/admission")
+    public ResponseEntity<Map<String, AdmissionStats>> getAdmissionStats() {
+        AdmissionController controller = admissionController.getIfAvailable();
+        if (controller == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(controller.getAllStats());
+    }
+
+    /**
+     * 获取指定工作流的准入统计
+     */
+    @GetMapping("/admission/{workflowName}")
+    public ResponseEntity<AdmissionStats> getWorkflowAdmissionStats(@PathVariable String workflowName) {
+        AdmissionController controller = admissionController.getIfAvailable();
+        AdmissionStats stats = controller != null ? controller.getStats(workflowName) : null;
+        if (stats == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * 获取DagContextPool、CollectionPool的大小与命中次数
+     */
+    @GetMapping("/pools")
+    public ResponseEntity<Map<String, Object>> getPoolStats() {
+        Map<String, Object> context = new LinkedHashMap<>();
+        context.put("size", DagContextPool.getPoolSize());
+        context.put("hits", DagContextPool.getHitCount());
+        context.put("misses", DagContextPool.getMissCount());
+        context.put("discards", DagContextPool.getDiscardCount());
+
+        Map<String, Object> collection = new LinkedHashMap<>();
+        collection.put("setSize", CollectionPool.getSetPoolSize());
+        collection.put("setHits", CollectionPool.getSetHitCount());
+        collection.put("setMisses", CollectionPool.getSetMissCount());
+        collection.put("listSize", CollectionPool.getListPoolSize());
+        collection.put("listHits", CollectionPool.getListHitCount());
+        collection.put("listMisses", CollectionPool.getListMissCount());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("contextPool", context);
+        result.put("collectionPool", collection);
+        return ResponseEntity.ok(result);
+    }
+}
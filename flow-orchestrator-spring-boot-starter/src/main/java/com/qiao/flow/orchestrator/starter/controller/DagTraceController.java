@@ -0,0 +1,97 @@
+package com.qiao.flow.orchestrator.starter.controller;
+
+import com.qiao.flow.orchestrator.core.dag.trace.ExecutionTrace;
+import com.qiao.flow.orchestrator.core.dag.trace.NodeSpan;
+import com.qiao.flow.orchestrator.core.dag.trace.TraceSampler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 执行时间线查询控制器
+ * 需要开启dag.monitor.tracing.enabled，未开启时返回404
+ *
+ * @author qiao
+ */
+@Slf4j
+@RestController
+@RequestMapping("/dag/traces")
+public class DagTraceController {
+
+    private final ObjectProvider<TraceSampler> traceSampler;
+
+    public DagTraceController(ObjectProvider<TraceSampler> traceSampler) {
+        this.traceSampler = traceSampler;
+    }
+
+    /**
+     * 按时间倒序获取保留的时间线摘要
+     */
+    @GetMapping
+    public ResponseEntity<List<Map<String, Object>>> getTraces(@RequestParam(required = false) String workflow,
+                                                               @RequestParam(defaultValue = "50") int limit) {
+        TraceSampler sampler = traceSampler.getIfAvailable();
+        if (sampler == null) {
+            return ResponseEntity.status(404).build();
+        }
+        List<ExecutionTrace> traces = sampler.getRepository().getTraces(workflow, Math.max(limit, 0));
+        List<Map<String, Object>> summaries = new ArrayList<>(traces.size());
+        for (ExecutionTrace trace : traces) {
+            summaries.add(trace.toSummary());
+        }
+        return ResponseEntity.ok(summaries);
+    }
+
+    /**
+     * 获取采样统计
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        TraceSampler sampler = traceSampler.getIfAvailable();
+        if (sampler == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(sampler.getStats());
+    }
+
+    /**
+     * 获取时间线的节点区间
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<List<NodeSpan>> getTrace(@PathVariable long id) {
+        ExecutionTrace trace = findTrace(id);
+        if (trace == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(trace.getSpans());
+    }
+
+    /**
+     * 以Chrome trace-event格式导出时间线，可直接在Perfetto中打开
+     */
+    @GetMapping(value = "/{id}/chrome", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getChromeTrace(@PathVariable long id) {
+        ExecutionTrace trace = findTrace(id);
+        if (trace == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"dag-trace-" + id + ".json\"")
+                .body(trace.toChromeTraceJson());
+    }
+
+    private ExecutionTrace findTrace(long id) {
+        TraceSampler sampler = traceSampler.getIfAvailable();
+        return sampler != null ? sampler.getRepository().get(id) : null;
+    }
+}
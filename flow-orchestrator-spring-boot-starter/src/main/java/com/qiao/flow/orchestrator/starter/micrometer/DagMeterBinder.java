@@ -0,0 +1,317 @@
+package com.qiao.flow.orchestrator.starter.micrometer;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionStats;
+import com.qiao.flow.orchestrator.core.dag.context.DagContextPool;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.DagMetricsListener;
+import com.qiao.flow.orchestrator.core.dag.metrics.HistogramSnapshot;
+import com.qiao.flow.orchestrator.core.dag.metrics.LatencyHistogram;
+import com.qiao.flow.orchestrator.core.dag.metrics.NodeMetrics;
+import com.qiao.flow.orchestrator.core.dag.metrics.WorkflowMetrics;
+import com.qiao.flow.orchestrator.core.dag.pool.CollectionPool;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.ExecutorStats;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * DAG Micrometer度量绑定
+ * 导出工作流/节点耗时（FunctionTimer，数据来自DagMetrics直方图，热路径不额外记录）、
+ * MixedThreadPoolManager各线程池的活跃线程/排队/拒绝/调用线程执行次数，各工作流的准入状态（并发上限、执行中、排队、延迟基线、拒绝/超时次数），
+ * 以及DagContextPool、CollectionPool的大小和命中率。
+ * 工作流、节点指标在首次执行时才创建，通过DagMetricsListener注册对应度量
+ *
+ * @author qiao
+ */
+@Slf4j
+public class DagMeterBinder implements MeterBinder, DagMetricsListener, AutoCloseable {
+
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+
+    // 同一直方图的分位度量在一次采集内共用一份快照
+    private static final long SNAPSHOT_TTL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MixedThreadPoolManager threadPoolManager;
+    private final AdmissionController admissionController;
+    private final List<MeterRegistry> registries = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param threadPoolManager 线程池管理器，为null时不导出线程池度量
+     */
+    public DagMeterBinder(MixedThreadPoolManager threadPoolManager) {
+        this(threadPoolManager, null);
+    }
+
+    /**
+     * @param threadPoolManager   线程池管理器，为null时不导出线程池度量
+     * @param admissionController 准入控制器，为null时不导出准入度量
+     */
+    public DagMeterBinder(MixedThreadPoolManager threadPoolManager, AdmissionController admissionController) {
+        this.threadPoolManager = threadPoolManager;
+        this.admissionController = admissionController;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (threadPoolManager != null) {
+            threadPoolManager.getExecutors().forEach((name, executor) -> bindExecutor(registry, name, executor));
+        }
+        bindPools(registry);
+
+        boolean first = registries.isEmpty();
+        registries.add(registry);
+        if (first) {
+            // 对已存在的指标立即回调，之后新建的指标由监听器注册
+            DagMetrics.addListener(this);
+        } else {
+            for (WorkflowMetrics workflowMetrics : DagMetrics.getWorkflows()) {
+                bindWorkflow(registry, workflowMetrics);
+                workflowMetrics.getNodes().values().forEach(nodeMetrics -> bindNode(registry, nodeMetrics));
+            }
+        }
+        log.info("DAG meters bound to {}", registry.getClass().getSimpleName());
+    }
+
+    @Override
+    public void close() {
+        DagMetrics.removeListener(this);
+        registries.clear();
+    }
+
+    @Override
+    public void workflowRegistered(WorkflowMetrics metrics) {
+        for (MeterRegistry registry : registries) {
+            bindWorkflow(registry, metrics);
+        }
+    }
+
+    @Override
+    public void nodeRegistered(NodeMetrics metrics) {
+        for (MeterRegistry registry : registries) {
+            bindNode(registry, metrics);
+        }
+    }
+
+    private void bindWorkflow(MeterRegistry registry, WorkflowMetrics metrics) {
+        Tags tags = Tags.of("workflow", metrics.getWorkflowName());
+        timer(registry, "dag.workflow.execution", "Workflow execution time", tags, metrics.getExecution());
+        FunctionCounter.builder("dag.workflow.failures", metrics, m -> m.getFailure().sum())
+                .description("Failed workflow executions")
+                .tags(tags)
+                .register(registry);
+        percentiles(registry, "dag.workflow.execution.percentile", tags, metrics.getExecution());
+        if (admissionController != null) {
+            bindAdmission(registry, metrics.getWorkflowName(), tags);
+        }
+    }
+
+    /**
+     * 准入状态在工作流首次申请许可时才存在，之前读数为NaN
+     */
+    private void bindAdmission(MeterRegistry registry, String workflowName, Tags tags) {
+        admissionGauge(registry, "dag.admission.limit", "Current concurrency limit", tags, workflowName,
+                AdmissionStats::getLimit);
+        admissionGauge(registry, "dag.admission.in.flight", "Executions currently holding a permit", tags, workflowName,
+                AdmissionStats::getInFlight);
+        admissionGauge(registry, "dag.admission.queued", "Executions waiting in the admission queue", tags, workflowName,
+                AdmissionStats::getQueued);
+        admissionCounter(registry, "dag.admission.admitted", "Admitted executions", tags, workflowName,
+                AdmissionStats::getAdmitted);
+        admissionCounter(registry, "dag.admission.rejected", "Executions rejected by a full queue or the concurrency limit",
+                tags, workflowName, AdmissionStats::getRejected);
+        admissionCounter(registry, "dag.admission.timed.out", "Executions that timed out in the admission queue",
+                tags, workflowName, AdmissionStats::getTimedOut);
+        TimeGauge.builder("dag.admission.baseline.rtt", admissionController, TimeUnit.NANOSECONDS,
+                        c -> admissionValue(c, workflowName, AdmissionStats::getBaselineRttNanos))
+                .description("No-load latency baseline of the adaptive limiter")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void admissionGauge(MeterRegistry registry, String meterName, String description, Tags tags,
+                                String workflowName, ToDoubleFunction<AdmissionStats> value) {
+        Gauge.builder(meterName, admissionController, c -> admissionValue(c, workflowName, value))
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private void admissionCounter(MeterRegistry registry, String meterName, String description, Tags tags,
+                                  String workflowName, ToDoubleFunction<AdmissionStats> value) {
+        FunctionCounter.builder(meterName, admissionController, c -> {
+                    AdmissionStats stats = c.getStats(workflowName);
+                    return stats != null ? value.applyAsDouble(stats) : 0;
+                })
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static double admissionValue(AdmissionController controller, String workflowName,
+                                         ToDoubleFunction<AdmissionStats> value) {
+        AdmissionStats stats = controller.getStats(workflowName);
+        return stats != null ? value.applyAsDouble(stats) : Double.NaN;
+    }
+
+    private void bindNode(MeterRegistry registry, NodeMetrics metrics) {
+        Tags tags = Tags.of("workflow", metrics.getWorkflowName(), "node", metrics.getNodeId());
+        timer(registry, "dag.node.execution", "Node execution time", tags, metrics.getExecution());
+        timer(registry, "dag.node.queue.wait", "Time a node waited in its executor queue", tags, metrics.getQueueWait());
+        FunctionCounter.builder("dag.node.failures", metrics, m -> m.getFailure().sum())
+                .description("Failed node executions")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder("dag.node.pruned", metrics, m -> m.getPruned().sum())
+                .description("Node skipped by branch selection")
+                .tags(tags)
+                .register(registry);
+        percentiles(registry, "dag.node.execution.percentile", tags, metrics.getExecution());
+    }
+
+    private static void timer(MeterRegistry registry, String name, String description, Tags tags,
+                              LatencyHistogram histogram) {
+        FunctionTimer.builder(name, histogram, LatencyHistogram::getCount, LatencyHistogram::getTotalNanos,
+                        TimeUnit.NANOSECONDS)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * 分位度量共用一个快照缓存：一次采集读取多个分位时只复制一次直方图
+     * 缓存只被度量引用，需用强引用注册，否则会被回收导致读数为NaN
+     */
+    private static void percentiles(MeterRegistry registry, String name, Tags tags, LatencyHistogram histogram) {
+        SharedSnapshot snapshot = new SharedSnapshot(histogram);
+        for (double percentile : PERCENTILES) {
+            Gauge.builder(name, snapshot, s -> s.get().getValueAtPercentile(percentile) / 1_000_000.0)
+                    .description("Cumulative latency percentile since start")
+                    .baseUnit("milliseconds")
+                    .tags(tags.and("quantile", String.valueOf(percentile / 100)))
+                    .strongReference(true)
+                    .register(registry);
+        }
+    }
+
+    private void bindExecutor(MeterRegistry registry, String name, ExecutorService executor) {
+        Tags tags = Tags.of("executor", name);
+        executorGauge(registry, "dag.executor.active", "Threads actively running tasks", tags, executor, name,
+                ExecutorStats::getActive);
+        executorGauge(registry, "dag.executor.pool.size", "Current number of threads", tags, executor, name,
+                ExecutorStats::getPoolSize);
+        executorGauge(registry, "dag.executor.queued", "Tasks waiting in the queue", tags, executor, name,
+                ExecutorStats::getQueued);
+        executorCounter(registry, "dag.executor.completed", "Completed tasks", tags, executor, name,
+                ExecutorStats::getCompleted);
+        executorCounter(registry, "dag.executor.rejected", "Times the rejection policy was triggered", tags, executor, name,
+                ExecutorStats::getRejected);
+        executorCounter(registry, "dag.executor.caller.runs", "Rejected tasks run on the submitting thread", tags, executor, name,
+                ExecutorStats::getCallerRuns);
+    }
+
+    /**
+     * 只注册执行器支持的指标（快照值为-1表示不支持）
+     */
+    private static void executorGauge(MeterRegistry registry, String meterName, String description, Tags tags,
+                                      ExecutorService executor, String name, ToDoubleFunction<ExecutorStats> value) {
+        if (value.applyAsDouble(MixedThreadPoolManager.stats(name, executor)) < 0) {
+            return;
+        }
+        Gauge.builder(meterName, executor, e -> value.applyAsDouble(MixedThreadPoolManager.stats(name, e)))
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void executorCounter(MeterRegistry registry, String meterName, String description, Tags tags,
+                                        ExecutorService executor, String name, ToDoubleFunction<ExecutorStats> value) {
+        if (value.applyAsDouble(MixedThreadPoolManager.stats(name, executor)) < 0) {
+            return;
+        }
+        FunctionCounter.builder(meterName, executor, e -> value.applyAsDouble(MixedThreadPoolManager.stats(name, e)))
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void bindPools(MeterRegistry registry) {
+        Gauge.builder("dag.context.pool.size", DagContextPool::getPoolSize)
+                .description("Idle DagContext objects in the pool")
+                .register(registry);
+        poolCounters(registry, "dag.context.pool", Tags.empty(), DagContextPool::getHitCount, DagContextPool::getMissCount);
+        FunctionCounter.builder("dag.context.pool.discards", DagContextPool.class, c -> DagContextPool.getDiscardCount())
+                .description("Released contexts dropped because the pool was full")
+                .register(registry);
+
+        Tags setTags = Tags.of("type", "set");
+        Tags listTags = Tags.of("type", "list");
+        Gauge.builder("dag.collection.pool.size", CollectionPool::getSetPoolSize)
+                .description("Idle collections in the pool")
+                .tags(setTags)
+                .register(registry);
+        Gauge.builder("dag.collection.pool.size", CollectionPool::getListPoolSize)
+                .description("Idle collections in the pool")
+                .tags(listTags)
+                .register(registry);
+        poolCounters(registry, "dag.collection.pool", setTags, CollectionPool::getSetHitCount, CollectionPool::getSetMissCount);
+        poolCounters(registry, "dag.collection.pool", listTags, CollectionPool::getListHitCount, CollectionPool::getListMissCount);
+    }
+
+    private static void poolCounters(MeterRegistry registry, String prefix, Tags tags, LongSupplier hits, LongSupplier misses) {
+        FunctionCounter.builder(prefix + ".hits", hits, LongSupplier::getAsLong)
+                .description("Borrows served from the pool")
+                .tags(tags)
+                .register(registry);
+        FunctionCounter.builder(prefix + ".misses", misses, LongSupplier::getAsLong)
+                .description("Borrows that had to create a new object")
+                .tags(tags)
+                .register(registry);
+        Gauge.builder(prefix + ".hit.ratio", () -> {
+                    long hit = hits.getAsLong();
+                    long total = hit + misses.getAsLong();
+                    return total == 0 ? 1.0 : (double) hit / total;
+                })
+                .description("Fraction of borrows served from the pool since start")
+                .tags(tags)
+                .register(registry);
+    }
+
+    /**
+     * 直方图快照缓存，SNAPSHOT_TTL_NANOS内重复读取返回同一份快照
+     */
+    private static final class SharedSnapshot {
+
+        private final LatencyHistogram histogram;
+        private volatile HistogramSnapshot snapshot;
+        private volatile long takenAtNanos;
+
+        private SharedSnapshot(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        HistogramSnapshot get() {
+            HistogramSnapshot current = snapshot;
+            long now = System.nanoTime();
+            if (current == null || now - takenAtNanos > SNAPSHOT_TTL_NANOS) {
+                current = histogram.snapshot();
+                snapshot = current;
+                takenAtNanos = now;
+            }
+            return current;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.qiao.flow.orchestrator.starter.micrometer;
+
+import com.qiao.flow.orchestrator.core.dag.admission.AdmissionController;
+import com.qiao.flow.orchestrator.core.dag.thread.pool.MixedThreadPoolManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * DAG Micrometer Auto-configuring
+ * classpath中存在Micrometer时注册DagMeterBinder，Spring Boot Actuator会自动将其绑定到MeterRegistry；
+ * 可通过dag.monitor.micrometer.enabled=false关闭。
+ * 通过META-INF/spring/org.springframework.boot.autoconfigure.AutoConfiguration.imports注册，在用户配置之后处理，
+ * 用户自定义的DagMeterBinder优先
+ *
+ * @author qiao
+ */
+@AutoConfiguration
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+@ConditionalOnProperty(prefix = "dag.monitor.micrometer", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class DagMicrometerAutoConfiguration {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public DagMeterBinder dagMeterBinder(ObjectProvider<MixedThreadPoolManager> threadPoolManager,
+                                         ObjectProvider<AdmissionController> admissionController) {
+        return new DagMeterBinder(threadPoolManager.getIfAvailable(), admissionController.getIfAvailable());
+    }
+}
@@ -252,6 +252,9 @@ public class DagMermaidGenerator {
         mermaid.append("    %% Node Styles\n");
         mermaid.append("    classDef cpuNode fill:#4a90e2,stroke:#3a7bc8,stroke-width:1px,color:#fff\n");
         mermaid.append("    classDef ioNode fill:#f59e0b,stroke:#e67e22,stroke-width:1px,color:#fff\n");
+        mermaid.append("    classDef heavyCpuNode fill:#1d4ed8,stroke:#1e3a8a,stroke-width:1px,color:#fff\n");
+        mermaid.append("    classDef blockingIoNode fill:#dc6803,stroke:#b54708,stroke-width:1px,color:#fff\n");
+        mermaid.append("    classDef inlineNode fill:#9ca3af,stroke:#6b7280,stroke-width:1px,color:#fff\n");
         mermaid.append("    classDef chooserNode fill:#52c41a,stroke:#389e0d,stroke-width:1px,color:#fff\n");
 
         // 添加所有节点
@@ -301,7 +304,10 @@ public class DagMermaidGenerator {
     private String getNodeClass(NodeType nodeType) {
         return switch (nodeType) {
             case CPU -> "cpuNode";
-            case IO -> "ioNode";
+            case HEAVY_CPU -> "heavyCpuNode";
+            case IO, ASYNC_IO -> "ioNode";
+            case BLOCKING_IO -> "blockingIoNode";
+            case INLINE -> "inlineNode";
         };
     }
 